@@ -0,0 +1,90 @@
+package ss.bench.gamepieces;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ss.spec.gamepieces.Board;
+import ss.spec.gamepieces.InvalidMoveException;
+import ss.spec.gamepieces.Move;
+import ss.spec.gamepieces.Tile;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The rules engine: looking for valid moves, and making them.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BoardBenchmark {
+
+    /**
+     * The amount of tiles on the board: empty, mid game and late game.
+     */
+    @Param({"0", "" + BoardFixtures.MID_GAME_TILES, "" + BoardFixtures.LATE_GAME_TILES})
+    public int tilesOnBoard;
+
+    private Board board;
+    private List<Tile> hand;
+    private Tile handTile;
+
+    private Move[] game;
+
+    @Setup
+    public void setUp() {
+        board = BoardFixtures.board(tilesOnBoard);
+        hand = BoardFixtures.hand(tilesOnBoard);
+        handTile = hand.get(hand.size() - 1);
+
+        List<Move> moves = BoardFixtures.moves(BoardFixtures.LATE_GAME_TILES);
+        game = moves.toArray(new Move[0]);
+    }
+
+    /**
+     * Called before every turn, to see whether the player can move or has to skip.
+     */
+    @Benchmark
+    public boolean hasValidMoves() {
+        return board.hasValidMoves(hand);
+    }
+
+    /**
+     * The check behind every `place` message.
+     */
+    @Benchmark
+    public long validPlacements() {
+        return board.getValidPlacements(handTile, 0) |
+                board.getValidPlacements(handTile, 1) |
+                board.getValidPlacements(handTile, 2);
+    }
+
+    /**
+     * Plays the moves of the late game fixture on a new board. Reported per move, including a
+     * share of creating the board.
+     */
+    @Benchmark
+    @OperationsPerInvocation(BoardFixtures.LATE_GAME_TILES)
+    public int makeMove() throws InvalidMoveException {
+        Board newBoard = new Board();
+        int points = 0;
+
+        for (Move move : game) {
+            points += newBoard.makeMove(move);
+        }
+
+        return points;
+    }
+}
@@ -0,0 +1,50 @@
+package ss.bench.gamepieces;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import ss.spec.gamepieces.Board;
+import ss.spec.gamepieces.BoardCoordinates;
+import ss.spec.gamepieces.IndexException;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Converting space indices to coordinates, for every space of the board. Reported per space.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BoardCoordinatesBenchmark {
+
+    @Benchmark
+    @OperationsPerInvocation(Board.BOARD_SIZE)
+    public void fromIndex(Blackhole blackhole) throws IndexException {
+        for (int index = 0; index < Board.BOARD_SIZE; index++) {
+            blackhole.consume(BoardCoordinates.fromIndex(index));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Board.BOARD_SIZE)
+    public int roundTrip() throws IndexException {
+        int sum = 0;
+
+        for (int index = 0; index < Board.BOARD_SIZE; index++) {
+            sum += BoardCoordinates.fromIndex(index).asIndex();
+        }
+
+        return sum;
+    }
+}
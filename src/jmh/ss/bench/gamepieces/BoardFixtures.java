@@ -0,0 +1,164 @@
+package ss.bench.gamepieces;
+
+import ss.spec.gamepieces.Board;
+import ss.spec.gamepieces.InvalidMoveException;
+import ss.spec.gamepieces.Move;
+import ss.spec.gamepieces.StartingTiles;
+import ss.spec.gamepieces.Tile;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Reproducible boards for the benchmarks.
+ * <p>
+ * The boards are filled by a fixed greedy "player": the starting tiles are shuffled with a fixed
+ * seed, and every tile is put on the lowest numbered space it fits on. So every run, on every
+ * machine, measures the same positions.
+ */
+public final class BoardFixtures {
+
+    public static final long SEED = 42;
+
+    /**
+     * The amount of tiles on a board in the middle of a game.
+     */
+    public static final int MID_GAME_TILES = 12;
+    /**
+     * The amount of tiles on a board late in a game, when it is hard to find a valid move.
+     */
+    public static final int LATE_GAME_TILES = 28;
+
+    public static final int HAND_SIZE = 4;
+
+    private BoardFixtures() {
+    }
+
+    /**
+     * @return All the tiles of a game, in the order the bags add them.
+     */
+    public static List<Tile> startingTiles() {
+        return new ArrayList<>(StartingTiles.asList());
+    }
+
+    /**
+     * @return All the tiles of a game, shuffled with the fixed seed.
+     */
+    public static List<Tile> shuffledTiles() {
+        List<Tile> tiles = startingTiles();
+        Collections.shuffle(tiles, new Random(SEED));
+        return tiles;
+    }
+
+    /**
+     * Plays a game with the greedy player until the given amount of tiles is on the board.
+     *
+     * @param tilesOnBoard The amount of moves to make.
+     * @return The moves, with the tiles already rotated the way they are placed.
+     * @throws IllegalStateException When the greedy player gets stuck before that.
+     */
+    public static List<Move> moves(int tilesOnBoard) {
+        Board board = new Board();
+        List<Tile> bag = shuffledTiles();
+        List<Move> moves = new ArrayList<>();
+
+        while (moves.size() < tilesOnBoard) {
+            Move move = firstValidMove(board, bag);
+
+            if (move == null) {
+                throw new IllegalStateException("The greedy player got stuck after " +
+                        moves.size() + " moves.");
+            }
+
+            try {
+                board.makeMove(move);
+            } catch (InvalidMoveException e) {
+                throw new IllegalStateException(e);
+            }
+
+            moves.add(move);
+        }
+
+        return moves;
+    }
+
+    /**
+     * @param tilesOnBoard The amount of tiles to place.
+     * @return A board with the first `tilesOnBoard` moves of `moves()` made.
+     */
+    public static Board board(int tilesOnBoard) {
+        Board board = new Board();
+
+        for (Move move : moves(tilesOnBoard)) {
+            board.placeTileDontCheckValidity(move);
+        }
+
+        return board;
+    }
+
+    /**
+     * @param tilesOnBoard The amount of tiles on the board.
+     * @return The first tiles that are left in the bag after the board has been filled.
+     */
+    public static List<Tile> hand(int tilesOnBoard) {
+        List<Tile> bag = shuffledTiles();
+        List<Tile> placed = new ArrayList<>();
+
+        for (Move move : moves(tilesOnBoard)) {
+            placed.add(move.getTile());
+        }
+
+        List<Tile> hand = new ArrayList<>();
+        for (Tile tile : bag) {
+            if (hand.size() < HAND_SIZE && !containsEquivalent(placed, tile)) {
+                hand.add(tile);
+            }
+        }
+
+        return hand;
+    }
+
+    private static boolean containsEquivalent(List<Tile> tiles, Tile tile) {
+        for (Tile other : tiles) {
+            if (other.isEquivalent(tile)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Finds the first tile from the bag that fits somewhere, and takes it out of the bag.
+     */
+    private static Move firstValidMove(Board board, List<Tile> bag) {
+        for (int i = 0; i < bag.size(); i++) {
+            Tile tile = bag.get(i);
+
+            for (int rotation = 0; rotation < Tile.NUM_ROTATIONS; rotation++) {
+                long placements = board.getValidPlacements(tile, rotation);
+
+                if (placements != 0) {
+                    bag.remove(i);
+                    return new Move(rotated(tile, rotation),
+                            Long.numberOfTrailingZeros(placements));
+                }
+            }
+        }
+
+        return null;
+    }
+
+    private static Tile rotated(Tile tile, int rotation) {
+        switch (rotation) {
+            case 1:
+                return tile.rotate120();
+            case 2:
+                return tile.rotate240();
+            default:
+                return tile;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package ss.bench.gamepieces;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import ss.spec.gamepieces.EmptyTileBagException;
+import ss.spec.gamepieces.RandomTileBag;
+import ss.spec.gamepieces.SeededTileBag;
+import ss.spec.gamepieces.TileBag;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drawing tiles from the bag, like at the start of every game and after every move.
+ * The `seeded` benchmarks do the same with the `SeededTileBag` the server uses.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RandomTileBagBenchmark {
+
+    /**
+     * The amount of tiles in a game.
+     */
+    private static final int TILES = 36;
+
+    /**
+     * Fills a bag, as every new game does.
+     */
+    @Benchmark
+    public TileBag fill() {
+        TileBag bag = new RandomTileBag();
+        bag.addAllStartingTiles();
+        return bag;
+    }
+
+    /**
+     * Fills a bag and takes every tile out of it. Reported per tile, including a share of
+     * filling the bag.
+     */
+    @Benchmark
+    @OperationsPerInvocation(TILES)
+    public void takeTile(Blackhole blackhole) throws EmptyTileBagException {
+        TileBag bag = new RandomTileBag();
+        bag.addAllStartingTiles();
+
+        while (bag.getNumTilesLeft() > 0) {
+            blackhole.consume(bag.takeTile());
+        }
+    }
+
+    @Benchmark
+    public TileBag seededFill() {
+        TileBag bag = new SeededTileBag(BoardFixtures.SEED);
+        bag.addAllStartingTiles();
+        return bag;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TILES)
+    public void seededTakeTile(Blackhole blackhole) throws EmptyTileBagException {
+        TileBag bag = new SeededTileBag(BoardFixtures.SEED);
+        bag.addAllStartingTiles();
+
+        while (bag.getNumTilesLeft() > 0) {
+            blackhole.consume(bag.takeTile());
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package ss.bench.gamepieces;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import ss.spec.gamepieces.Tile;
+import ss.spec.networking.DecodeException;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Comparing, decoding and encoding tiles. All benchmarks go over every tile of a game, and are
+ * reported per tile.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TileBenchmark {
+
+    /**
+     * The amount of tiles in a game.
+     */
+    private static final int TILES = 36;
+
+    private Tile[] tiles;
+    /**
+     * The same tiles, rotated, so `isEquivalent()` has to look past the rotation.
+     */
+    private Tile[] rotatedTiles;
+    private String[] encodedTiles;
+
+    @Setup
+    public void setUp() {
+        List<Tile> startingTiles = BoardFixtures.shuffledTiles();
+
+        if (startingTiles.size() != TILES) {
+            throw new IllegalStateException("Expected " + TILES + " tiles, got " +
+                    startingTiles.size() + ".");
+        }
+
+        tiles = startingTiles.toArray(new Tile[0]);
+        rotatedTiles = new Tile[TILES];
+        encodedTiles = new String[TILES];
+
+        for (int i = 0; i < TILES; i++) {
+            rotatedTiles[i] = tiles[i].rotate120();
+            encodedTiles[i] = tiles[i].encode();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TILES)
+    public int isEquivalent() {
+        int equivalent = 0;
+
+        for (int i = 0; i < TILES; i++) {
+            // Half of the comparisons match, half of them don't.
+            Tile other = (i & 1) == 0 ? rotatedTiles[i] : rotatedTiles[TILES - 1 - i];
+
+            if (tiles[i].isEquivalent(other)) {
+                equivalent++;
+            }
+        }
+
+        return equivalent;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TILES)
+    public void decode(Blackhole blackhole) throws DecodeException {
+        for (String encoded : encodedTiles) {
+            blackhole.consume(Tile.decode(encoded));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TILES)
+    public void encode(Blackhole blackhole) {
+        for (Tile tile : tiles) {
+            blackhole.consume(tile.encode());
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package ss.bench.networking;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import ss.spec.gamepieces.Tile;
+import ss.spec.networking.ClientMessage;
+import ss.spec.networking.DecodeException;
+import ss.spec.networking.InvalidCommandException;
+import ss.spec.networking.MessageTokenizer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding the messages clients send: the reusable `MessageTokenizer` the peers use, against a
+ * new `Scanner` per line, the way the peers used to do it. Reported per message.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MessageParsingBenchmark {
+
+    private static final int MESSAGES = 6;
+
+    /**
+     * A mix of what a client sends during a game, mostly moves.
+     */
+    private static final String[] LINES = {
+            "place RBG3 on 12",
+            "place YPR2 on 17",
+            "place WWW1 on 3",
+            "request 3",
+            "exchange GGB5",
+            "chat good game everyone",
+    };
+
+    private final MessageTokenizer tokenizer = new MessageTokenizer();
+
+    @Benchmark
+    @OperationsPerInvocation(MESSAGES)
+    public void tokenizer(Blackhole blackhole) throws InvalidCommandException {
+        for (String line : LINES) {
+            blackhole.consume(ClientMessage.decode(tokenizer.reset(line)));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MESSAGES)
+    public void scanner(Blackhole blackhole) throws InvalidCommandException {
+        for (String line : LINES) {
+            blackhole.consume(decodeWithScanner(line));
+        }
+    }
+
+    /**
+     * Decodes the messages used above, like the `Scanner` based parsing did.
+     */
+    private static ClientMessage decodeWithScanner(String line) throws InvalidCommandException {
+        Scanner scanner = new Scanner(line);
+
+        if (!scanner.hasNext()) {
+            throw new InvalidCommandException("Empty command received.");
+        }
+
+        try {
+            switch (scanner.next()) {
+                case "place":
+                    Tile tile = Tile.decode(scanner.next());
+                    if (!scanner.next().equals("on")) {
+                        throw new InvalidCommandException("Malformed move message.");
+                    }
+                    return new ClientMessage.Place(tile, scanner.nextInt());
+                case "request":
+                    return new ClientMessage.Request(scanner.nextInt());
+                case "exchange":
+                    return new ClientMessage.Exchange(Tile.decode(scanner.next()));
+                case "chat":
+                    return new ClientMessage.Chat(scanner.nextLine().trim());
+                case "connect":
+                    String name = scanner.next();
+                    List<String> extensions = new ArrayList<>();
+                    while (scanner.hasNext()) {
+                        extensions.add(scanner.next());
+                    }
+                    return new ClientMessage.Connect(name, extensions);
+                default:
+                    throw new InvalidCommandException("Unknown command.");
+            }
+        } catch (DecodeException e) {
+            throw new InvalidCommandException("Invalid tile.", e);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package ss.spec.bot;
+
+import ss.spec.gamepieces.Board;
+import ss.spec.gamepieces.Move;
+import ss.spec.gamepieces.Tile;
+
+import java.util.List;
+
+/**
+ * Decides what a computer player does on its turn.
+ * <p>
+ * Strategies are called by one game at a time, but don't have to be thread-safe across games:
+ * every game that runs in parallel gets its own instance.
+ */
+public interface BotStrategy {
+
+    /**
+     * Picks a move, when there is at least one valid move to make.
+     *
+     * @param board The board, not to be changed.
+     * @param hand  The tiles the bot has in hand, not to be changed.
+     * @return A valid move, with the tile rotated the way it should be placed.
+     */
+    //@ requires board.hasValidMoves(hand);
+    //@ ensures board.isMoveValid(\result);
+    Move decideMove(Board board, List<Tile> hand);
+
+    /**
+     * Decides whether to exchange a tile, when there is no valid move to make.
+     *
+     * @param board          The board, not to be changed.
+     * @param hand           The tiles the bot has in hand, not to be changed.
+     * @param tilesLeftInBag The amount of tiles that can still be drawn.
+     * @return The tile from the hand to exchange, or `null` to skip the turn.
+     */
+    Tile decideReplaceTile(Board board, List<Tile> hand, int tilesLeftInBag);
+}
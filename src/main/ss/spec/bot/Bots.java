@@ -0,0 +1,30 @@
+package ss.spec.bot;
+
+/**
+ * Creates bot strategies by name, for command line options.
+ */
+public final class Bots {
+
+    public static final String RANDOM = "random";
+    public static final String GREEDY = "greedy";
+
+    private Bots() {
+    }
+
+    /**
+     * @param name The name of the strategy, "random" or "greedy".
+     * @param seed Seed for the strategies that make random choices.
+     * @return A new instance of the strategy.
+     * @throws IllegalArgumentException When there is no strategy with that name.
+     */
+    public static BotStrategy create(String name, long seed) {
+        switch (name) {
+            case RANDOM:
+                return new RandomBot(seed);
+            case GREEDY:
+                return new GreedyBot();
+            default:
+                throw new IllegalArgumentException("Unknown bot strategy: " + name + ".");
+        }
+    }
+}
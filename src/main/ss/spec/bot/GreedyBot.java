@@ -0,0 +1,104 @@
+package ss.spec.bot;
+
+import ss.spec.gamepieces.Board;
+import ss.spec.gamepieces.Move;
+import ss.spec.gamepieces.Tile;
+
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * Plays the move that scores the most points right now. Ties go to the lowest space.
+ * Exchanges its cheapest tile when it can't move, as that one costs the least to get rid of.
+ * <p>
+ * Can be given a time budget per move. When the budget runs out, it plays the best move it has
+ * found so far, so a slow moment never holds up the game for long.
+ */
+public class GreedyBot implements BotStrategy {
+
+    /**
+     * No time budget, always look at every move.
+     */
+    public static final long NO_BUDGET = 0;
+
+    private final long budgetNanos;
+    private final LongSupplier nanoClock;
+
+    /**
+     * Creates a bot that looks at every move.
+     */
+    public GreedyBot() {
+        this(NO_BUDGET);
+    }
+
+    /**
+     * @param budgetNanos How long to look for a move at most, or `NO_BUDGET`.
+     */
+    public GreedyBot(long budgetNanos) {
+        this(budgetNanos, System::nanoTime);
+    }
+
+    /**
+     * @param budgetNanos How long to look for a move at most, or `NO_BUDGET`.
+     * @param nanoClock   The clock to measure the time with.
+     */
+    //@ requires budgetNanos >= 0;
+    public GreedyBot(long budgetNanos, LongSupplier nanoClock) {
+        this.budgetNanos = budgetNanos;
+        this.nanoClock = nanoClock;
+    }
+
+    @Override
+    public Move decideMove(Board board, List<Tile> hand) {
+        long start = budgetNanos == NO_BUDGET ? 0 : nanoClock.getAsLong();
+
+        Tile bestTile = null;
+        int bestSpace = Board.NO_NEIGHBOUR;
+        int bestScore = Integer.MIN_VALUE;
+
+        for (int i = 0; i < hand.size(); i++) {
+            Tile tile = hand.get(i);
+
+            for (int rotation = 0; rotation < Tile.NUM_ROTATIONS; rotation++) {
+                if (bestTile != null && budgetNanos != NO_BUDGET &&
+                        nanoClock.getAsLong() - start >= budgetNanos) {
+                    // Out of time, go with what we have.
+                    return new Move(bestTile, bestSpace);
+                }
+
+                long valid = board.getValidPlacements(tile, rotation);
+
+                while (valid != 0) {
+                    int space = Long.numberOfTrailingZeros(valid);
+                    // Clear the lowest bit.
+                    valid &= valid - 1;
+
+                    int score = board.getPlacementScore(tile, space);
+                    if (score > bestScore || (score == bestScore && space < bestSpace)) {
+                        bestScore = score;
+                        bestSpace = space;
+                        bestTile = tile.rotate(rotation);
+                    }
+                }
+            }
+        }
+
+        return bestTile == null ? null : new Move(bestTile, bestSpace);
+    }
+
+    @Override
+    public Tile decideReplaceTile(Board board, List<Tile> hand, int tilesLeftInBag) {
+        if (tilesLeftInBag == 0) {
+            return null;
+        }
+
+        Tile cheapest = null;
+        for (int i = 0; i < hand.size(); i++) {
+            if (cheapest == null || hand.get(i).getPoints() < cheapest.getPoints()) {
+                cheapest = hand.get(i);
+            }
+        }
+
+        return cheapest;
+    }
+}
@@ -0,0 +1,72 @@
+package ss.spec.bot;
+
+import ss.spec.gamepieces.Board;
+import ss.spec.gamepieces.Move;
+import ss.spec.gamepieces.Tile;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Plays a random valid move, every valid placement being equally likely.
+ * Exchanges a random tile when it can't move.
+ */
+public class RandomBot implements BotStrategy {
+
+    private final Random random;
+
+    /**
+     * @param seed Seed for the choices, so a game can be played again the same way.
+     */
+    public RandomBot(long seed) {
+        this.random = new Random(seed);
+    }
+
+    @Override
+    public Move decideMove(Board board, List<Tile> hand) {
+        int placements = 0;
+
+        for (int i = 0; i < hand.size(); i++) {
+            for (int rotation = 0; rotation < Tile.NUM_ROTATIONS; rotation++) {
+                placements += Long.bitCount(board.getValidPlacements(hand.get(i), rotation));
+            }
+        }
+
+        if (placements == 0) {
+            return null;
+        }
+
+        // Count down to the chosen placement, instead of collecting them all.
+        int chosen = random.nextInt(placements);
+
+        for (int i = 0; i < hand.size(); i++) {
+            for (int rotation = 0; rotation < Tile.NUM_ROTATIONS; rotation++) {
+                long valid = board.getValidPlacements(hand.get(i), rotation);
+                int count = Long.bitCount(valid);
+
+                if (chosen < count) {
+                    for (int skip = 0; skip < chosen; skip++) {
+                        // Clear the lowest bit.
+                        valid &= valid - 1;
+                    }
+
+                    return new Move(hand.get(i).rotate(rotation),
+                            Long.numberOfTrailingZeros(valid));
+                }
+
+                chosen -= count;
+            }
+        }
+
+        return null;
+    }
+
+    @Override
+    public Tile decideReplaceTile(Board board, List<Tile> hand, int tilesLeftInBag) {
+        if (tilesLeftInBag == 0 || hand.isEmpty()) {
+            return null;
+        }
+
+        return hand.get(random.nextInt(hand.size()));
+    }
+}
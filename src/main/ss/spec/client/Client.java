@@ -1,13 +1,18 @@
 package ss.spec.client;
 
+import ss.spec.networking.ClientMessage;
 import ss.spec.networking.Connection;
 import ss.spec.networking.DeadConnectionException;
+import ss.spec.networking.InvalidCommandException;
+import ss.spec.networking.MessageTokenizer;
+import ss.spec.networking.ServerMessage;
 import ss.spec.networking.SocketConnection;
 
 import java.io.IOException;
 import java.net.InetAddress;
 import java.net.Socket;
 import java.net.UnknownHostException;
+import java.util.Collections;
 import java.util.Scanner;
 
 public class Client {
@@ -69,19 +74,26 @@ public class Client {
 
             try {
                 // We support the chat extension.
-                connection.sendMessage("connect " + potentialName + " chat");
-
-                String message = connection.readMessage();
+                connection.sendMessage(new ClientMessage.Connect(
+                        potentialName, Collections.singletonList("chat")).encode());
+
+                ServerMessage message;
+                try {
+                    message = ServerMessage.decode(
+                            new MessageTokenizer().reset(connection.readMessage()));
+                } catch (InvalidCommandException e) {
+                    message = null;
+                }
 
-                if (message.equals(ServerPeer.INVALID_NAME_ERROR_MESSAGE)) {
+                if (message == ServerMessage.INVALID_NAME) {
                     System.out.println("Sorry, that name is already taken.");
                     // Try again.
-                } else if (message.contains("welcome")) {
+                } else if (message instanceof ServerMessage.Welcome) {
                     // Name has been confirmed.
                     confirmedName = potentialName;
                     System.out.println("Welcome " + confirmedName + "!");
 
-                    if (message.contains("chat")) {
+                    if (((ServerMessage.Welcome) message).getExtensions().contains("chat")) {
                         System.out.println("Server supports chat extension.");
                         chatSupported = true;
                     }
@@ -3,206 +3,96 @@ package ss.spec.client;
 import ss.spec.gamepieces.Move;
 import ss.spec.gamepieces.Tile;
 import ss.spec.networking.AbstractPeer;
+import ss.spec.networking.ClientMessage;
 import ss.spec.networking.Connection;
-import ss.spec.networking.DecodeException;
 import ss.spec.networking.InvalidCommandException;
+import ss.spec.networking.MessageTokenizer;
+import ss.spec.networking.ServerMessage;
 
-import java.util.*;
+import java.util.HashMap;
+import java.util.Map;
 
-public class ServerPeer extends AbstractPeer {
+public class ServerPeer extends AbstractPeer implements ServerMessage.Handler {
 
     private final ClientController controller;
     private final boolean serverSupportsChat;
 
+    /**
+     * Reused for every received message.
+     */
+    private final MessageTokenizer tokenizer;
+
     public ServerPeer(
             ClientController controller, Connection connection, boolean serverSupportsChat) {
         super(connection, false);
 
         this.controller = controller;
         this.serverSupportsChat = serverSupportsChat;
+        this.tokenizer = new MessageTokenizer();
     }
 
     @Override
     public void handleReceivedMessage(String message) {
-        Scanner scanner = new Scanner(message);
-
-        if (scanner.hasNext()) {
-            String command = scanner.next();
-
-            try {
-                switch (command) {
-                    case "chat":
-                        parseChatMessage(scanner);
-                        break;
-                    case "waiting":
-                        parseWaitingMessage(scanner);
-                        break;
-                    case "start":
-                        // We dont have to do anything with the "start with" message.
-                        // As we will get a much more useful "order" message next :)
-                        break;
-                    case "order":
-                        parseOrderMessage(scanner);
-                        break;
-                    case "tiles":
-                        parseTurnMessage(scanner);
-                        break;
-                    case "skip":
-                        parseSkipMessage(scanner);
-                        break;
-                    case "replace":
-                        parseReplaceMessage(scanner);
-                        break;
-                    case "move":
-                        parseMoveMessage(scanner);
-                        break;
-                    case "game":
-                        parseLeaderBoardMessage(scanner);
-                        break;
-                    case "player":
-                        parsePlayerMessage(scanner);
-                        break;
-                    case "invalidMove":
-                        controller.invalidMoveAttempted();
-                        break;
-                    case "invalidCommand":
-                        System.out.println("Uh oh! It looks like we sent an invalid command!");
-                        break;
-                    default:
-                        throw new InvalidCommandException("We don't know what to do with: \'" +
-                                message + "\'");
-                }
-            } catch (InvalidCommandException e) {
-                System.out.println("Received invalid command: \'" + e.getMessage() + "\'.");
-                sendInvalidCommandError(e);
-            }
+        if (message.trim().isEmpty()) {
+            return;
         }
-    }
 
-    private void parseSkipMessage(Scanner message) throws InvalidCommandException {
-        if (!message.hasNext()) {
-            throw new InvalidCommandException("Skip message has no name.");
+        try {
+            ServerMessage.decode(tokenizer.reset(message)).accept(this);
+        } catch (InvalidCommandException e) {
+            System.out.println("Received invalid command: \'" + e.getMessage() + "\'.");
+            sendInvalidCommandError(e);
         }
+    }
 
-        String name = message.next();
+    @Override
+    public void handle(ServerMessage.Welcome message) throws InvalidCommandException {
+        // The welcome message is handled by the `Client`, before we start.
+        throw new InvalidCommandException("We don't know what to do with: \'" + message + "\'");
+    }
 
+    @Override
+    public void handle(ServerMessage.Skip message) throws InvalidCommandException {
         try {
-            controller.setTurnSkip(name);
+            controller.setTurnSkip(message.getName());
         } catch (NoSuchPlayerException e) {
             // Cant set the hand of a player that does not exist.
             throw new InvalidCommandException("Malformed skip message", e);
         }
     }
 
-    private void parseReplaceMessage(Scanner message) throws InvalidCommandException {
-        if (!message.hasNext()) {
-            throw new InvalidCommandException("Replace message has no name.");
-        }
-
-        String name = message.next();
-
-        if (!message.hasNext()) {
-            throw new InvalidCommandException("Replace message has no replaced tile.");
-        }
-
-        Tile replacedTile;
-        try {
-            replacedTile = Tile.decode(message.next());
-        } catch (DecodeException e) {
-            throw new InvalidCommandException("Replace message has malformed replaced tile.", e);
-        }
-
-        if (!message.hasNext() && !message.next().equals("with")) {
-            throw new InvalidCommandException("Malformed replace message.");
-        }
-
-        if (!message.hasNext()) {
-            throw new InvalidCommandException("Replace message has no replacing tile.");
-        }
-
-        Tile replacingTile;
-        try {
-            replacingTile = Tile.decode(message.next());
-        } catch (DecodeException e) {
-            throw new InvalidCommandException("Replace message has malformed replacing tile.", e);
-        }
-
-        controller.replaceTile(name, replacedTile, replacingTile);
+    @Override
+    public void handle(ServerMessage.Replace message) {
+        controller.replaceTile(message.getName(), message.getPrevious(),
+                message.getReplacement());
     }
 
-    private void parseMoveMessage(Scanner message) throws InvalidCommandException {
-        if (!message.hasNext()) {
-            throw new InvalidCommandException("Move message has no name.");
-        }
-
-        String name = message.next();
-
-        if (!message.hasNext()) {
-            throw new InvalidCommandException("Move message has no tile.");
-        }
-
-        Tile tile;
-        try {
-            tile = Tile.decode(message.next());
-        } catch (DecodeException e) {
-            throw new InvalidCommandException("Move message has malformed tile.", e);
-        }
-
-        if (!message.hasNext()) {
-            throw new InvalidCommandException("Move message has no index.");
-        }
-
-        int index;
-        try {
-            index = Integer.decode(message.next());
-        } catch (NumberFormatException e) {
-            throw new InvalidCommandException("Move message has malformed index.", e);
-        }
-
-        if (!message.hasNext()) {
-            throw new InvalidCommandException("Move message has no points.");
-        }
-
-        int points;
-        try {
-            points = Integer.decode(message.next());
-        } catch (NumberFormatException e) {
-            throw new InvalidCommandException("Move message has malformed points.", e);
-        }
-
-        controller.processMove(name, new Move(tile, index), points);
+    @Override
+    public void handle(ServerMessage.Move message) {
+        controller.processMove(message.getName(),
+                new Move(message.getTile(), message.getIndex()), message.getPoints());
     }
 
-    private void parseChatMessage(Scanner message) {
-        if (message.hasNext()) {
-            String name = message.next();
-
-            if (message.hasNextLine()) {
-                String chatMessage = message.nextLine().trim();
-                controller.receiveChatMessage(name, chatMessage);
-            }
-        }
+    @Override
+    public void handle(ServerMessage.Chat message) {
+        controller.receiveChatMessage(message.getName(), message.getText());
     }
 
-    private void parseWaitingMessage(Scanner message) {
-        List<String> names = new ArrayList<>();
-
-        while (message.hasNext()) {
-            names.add(message.next());
-        }
-
-        controller.updateWaitingForGame(names);
+    @Override
+    public void handle(ServerMessage.Waiting message) {
+        controller.updateWaitingForGame(message.getNames());
     }
 
-    private void parseOrderMessage(Scanner message) throws InvalidCommandException {
-        ArrayList<String> turnOrder = new ArrayList<>();
-
-        while (message.hasNext()) {
-            turnOrder.add(message.next());
-        }
+    @Override
+    public void handle(ServerMessage.Start message) {
+        // We dont have to do anything with the "start with" message.
+        // As we will get a much more useful "order" message next :)
+    }
 
+    @Override
+    public void handle(ServerMessage.Order message) throws InvalidCommandException {
         try {
-            controller.startGame(turnOrder);
+            controller.startGame(message.getNames());
         } catch (GameStartedWithoutUsException e) {
             // We got sent an order message that does not include ourselves.
             // We can't play in a game we don't have a turn in.
@@ -210,47 +100,11 @@ public class ServerPeer extends AbstractPeer {
         }
     }
 
-    private void parseTurnMessage(Scanner message) throws InvalidCommandException {
-        while (true) {
-            String name;
-
-            if (!message.hasNext()) {
-                throw new InvalidCommandException("Malformed tiles message.");
-            }
-
-            String word = message.next();
-
-            if (word.equals("turn")) {
-                // No more tile messages. Let's continue with the turn message.
-                break;
-            } else {
-                name = word;
-            }
-
-            // Parse the tiles of this player.
-            ArrayList<Tile> tiles = new ArrayList<>();
-
-            for (int i = 0; i < Player.MAX_HAND_SIZE; i++) {
-                if (!message.hasNext()) {
-                    throw new InvalidCommandException(
-                            "Not all players have " + Player.MAX_HAND_SIZE + " tile slots");
-                }
-
-                String tileString = message.next();
-
-                // "null" means the player has less than the maximum amount of tiles.
-                if (!tileString.equals("null")) {
-                    try {
-                        tiles.add(Tile.decode(tileString));
-                    } catch (DecodeException e) {
-                        throw new InvalidCommandException(
-                                "Malformed tile in the tiles message: \'" + tileString + "\'");
-                    }
-                }
-            }
-
+    @Override
+    public void handle(ServerMessage.Tiles message) throws InvalidCommandException {
+        for (ServerMessage.Hand hand : message.getHands()) {
             try {
-                controller.setPlayerHand(name, tiles);
+                controller.setPlayerHand(hand.getName(), hand.getTiles());
             } catch (NoSuchPlayerException e) {
                 // Cant set the hand of a player that does not exist.
                 throw new InvalidCommandException("Malformed tiles message", e);
@@ -258,99 +112,69 @@ public class ServerPeer extends AbstractPeer {
         }
 
         // Who's turn is it?
-
-        if (!message.hasNext()) {
-            throw new InvalidCommandException("Tiles message does not include turn");
-        }
-
-        String name = message.next();
-
         try {
-            controller.setTurn(name);
+            controller.setTurn(message.getTurn());
         } catch (NoSuchPlayerException e) {
             throw new InvalidCommandException("Malformed tiles message", e);
         }
     }
 
-    public void parsePlayerMessage(Scanner message) throws InvalidCommandException {
-        if (!message.hasNext()) {
-            throw new InvalidCommandException("Malformed message starting with \'player\'");
-        }
-
-        String word = message.next();
-
-        if (word.equals("skipped")) {
-            if (!message.hasNext()) {
-                throw new InvalidCommandException("Player skipped message has no name.");
-            }
-
-            String name = message.next();
-
-            controller.playerSkipped(name);
-
-        } else {
-            if (message.hasNext() && message.next().equals("left")) {
-                // Player left.
-                controller.playerLeftReturnToLobby(word);
-            } else {
-                throw new InvalidCommandException("Malformed message starting with \'player\'");
-            }
-        }
+    @Override
+    public void handle(ServerMessage.PlayerSkipped message) {
+        controller.playerSkipped(message.getName());
     }
 
-    public void parseLeaderBoardMessage(Scanner message) throws InvalidCommandException {
-        if (!(message.hasNext() && message.next().equals("finished"))) {
-            throw new InvalidCommandException("Malformed leaderboard message");
-        }
-        if (!(message.hasNext() && message.next().equals("leaderboard"))) {
-            throw new InvalidCommandException("Malformed leaderboard message");
-        }
+    @Override
+    public void handle(ServerMessage.PlayerLeft message) {
+        controller.playerLeftReturnToLobby(message.getName());
+    }
 
+    @Override
+    public void handle(ServerMessage.Leaderboard message) {
         Map<String, Integer> leaderboard = new HashMap<>();
 
-        while (message.hasNext()) {
-            String name = message.next();
-
-            if (!message.hasNext()) {
-                throw new InvalidCommandException("Leaderboard message has name without score");
-            }
-
-            try {
-                int score = message.nextInt();
-
-                leaderboard.put(name, score);
-            } catch (InputMismatchException e) {
-                throw new InvalidCommandException("Leaderboard message has malformed number", e);
-            }
+        for (ServerMessage.Score score : message.getScores()) {
+            leaderboard.put(score.getName(), score.getScore());
         }
 
         controller.leaderboardReturnToLobby(leaderboard);
     }
 
+    @Override
+    public void handle(ServerMessage.Error message) throws InvalidCommandException {
+        if (message == ServerMessage.INVALID_MOVE) {
+            controller.invalidMoveAttempted();
+        } else if (message == ServerMessage.INVALID_COMMAND) {
+            System.out.println("Uh oh! It looks like we sent an invalid command!");
+        } else {
+            // The invalid name message is handled by the `Client`, before we start.
+            throw new InvalidCommandException(
+                    "We don't know what to do with: \'" + message + "\'");
+        }
+    }
+
     // ---------------------------------------------------------------------------------------------
 
     public void sendChatMessage(String message) {
         if (serverSupportsChat) {
-            sendMessage("chat " + message);
+            sendMessage(new ClientMessage.Chat(message));
         }
     }
 
     public void sendRequestMessage(int players) {
-        sendMessage("request " + players);
+        sendMessage(new ClientMessage.Request(players));
     }
 
 
     public void sendMoveMessage(Move move) {
-        sendMessage("place " +
-                move.getTile().encode() + " on " +
-                move.getIndex());
+        sendMessage(new ClientMessage.Place(move.getTile(), move.getIndex()));
     }
 
     public void sendSkipMessage() {
-        sendMessage("skip");
+        sendMessage(ClientMessage.SKIP);
     }
 
     public void sendExchangeMessage(Tile tile) {
-        sendMessage("exchange " + tile.encode());
+        sendMessage(new ClientMessage.Exchange(tile));
     }
 }
@@ -44,13 +44,18 @@ public abstract class AbstractPlayer {
     }
 
     /**
-     * Will remove the given tile from the player's hand.
+     * Will remove the given tile from the player's hand, in any rotation.
      * Won't fail if the player does not have the tile in the first place.
      *
      * @param tile The tile to remove.
      */
     public void removeTile(Tile tile) {
-        tiles.remove(tile);
+        for (int i = 0; i < tiles.size(); i++) {
+            if (tiles.get(i).isEquivalent(tile)) {
+                tiles.remove(i);
+                return;
+            }
+        }
     }
 
     public void addTileToHand(Tile tile) {
@@ -2,35 +2,148 @@ package ss.spec.gamepieces;
 
 import java.util.List;
 
+/**
+ * The Spectrangle board.
+ * <p>
+ * Next to the `BoardSpace` objects, the board keeps its state as bitmasks, with bit `i`
+ * representing space `i`. This makes checking for valid moves a matter of a few bit operations:
+ * <ul>
+ * <li>`occupied` holds the spaces that have a tile on them.</li>
+ * <li>`frontier` holds the empty spaces that border at least one tile.
+ * These are the only spaces a tile can be placed on once the board is no longer empty.</li>
+ * <li>`compatible` holds, per tile side and color, the spaces where a tile with that color on
+ * that side would match the neighbouring tile. Spaces without a neighbour on that side are
+ * always compatible.</li>
+ * </ul>
+ * All masks are updated incrementally whenever a tile is placed.
+ */
 public class Board {
 
     public static final int BOARD_SIZE = 36;
 
+    /**
+     * Used in the neighbour tables for sides that lie on the edge of the board.
+     */
+    public static final int NO_NEIGHBOUR = -1;
+
+    /**
+     * Precomputed board topology.
+     * For every space these hold the index of the space bordering its flat, clockwise and
+     * counterclockwise side, or `NO_NEIGHBOUR` if that side lies on the edge of the board.
+     * The layout of the board never changes, so there is no need to go through
+     * `BoardCoordinates` every time we want to know who our neighbours are.
+     */
+    private static final int[] FLAT_NEIGHBOURS = new int[BOARD_SIZE];
+    private static final int[] CLOCKWISE_NEIGHBOURS = new int[BOARD_SIZE];
+    private static final int[] COUNTERCLOCKWISE_NEIGHBOURS = new int[BOARD_SIZE];
+
+    /**
+     * Per space, a mask of its (up to three) neighbouring spaces.
+     */
+    private static final long[] NEIGHBOUR_MASKS = new long[BOARD_SIZE];
+
+    private static final long ALL_SPACES = (1L << BOARD_SIZE) - 1;
+    private static final long BONUS_SPACES;
+
+    private static final Color[] COLORS = Color.values();
+
+    /*
+     * Tile sides, used to index the `compatible` masks.
+     */
+    private static final int FLAT = 0;
+    private static final int CLOCKWISE1 = 1;
+    private static final int CLOCKWISE2 = 2;
+    private static final int NUM_SIDES = 3;
+
+    static {
+        long bonusSpaces = 0;
+
+        for (int id = 0; id < BOARD_SIZE; id++) {
+            if (getScoreMultiplier(id) > 1) {
+                bonusSpaces |= 1L << id;
+            }
+
+            BoardCoordinates coords;
+            try {
+                coords = BoardCoordinates.fromIndex(id);
+            } catch (IndexException e) {
+                // Cannot happen, every id in the range [0 - BOARD_SIZE) is valid.
+                throw new IllegalStateException(e);
+            }
+
+            try {
+                FLAT_NEIGHBOURS[id] = coords.getFlatNeighbourCoordinates().asIndex();
+            } catch (IndexException e) {
+                FLAT_NEIGHBOURS[id] = NO_NEIGHBOUR;
+            }
+
+            try {
+                CLOCKWISE_NEIGHBOURS[id] = coords.getClockwiseNeighbourCoordinates().asIndex();
+            } catch (IndexException e) {
+                CLOCKWISE_NEIGHBOURS[id] = NO_NEIGHBOUR;
+            }
+
+            try {
+                COUNTERCLOCKWISE_NEIGHBOURS[id] =
+                        coords.getCounterclockwiseNeighbourCoordinates().asIndex();
+            } catch (IndexException e) {
+                COUNTERCLOCKWISE_NEIGHBOURS[id] = NO_NEIGHBOUR;
+            }
+
+            NEIGHBOUR_MASKS[id] = maskOf(FLAT_NEIGHBOURS[id]) |
+                    maskOf(CLOCKWISE_NEIGHBOURS[id]) |
+                    maskOf(COUNTERCLOCKWISE_NEIGHBOURS[id]);
+        }
+
+        BONUS_SPACES = bonusSpaces;
+    }
+
     private final BoardSpace[] spaces;
-    private boolean isEmpty;
+
+    private long occupied;
+    private long frontier;
+    private final long[] compatible;
 
     public Board() {
         spaces = new BoardSpace[BOARD_SIZE];
 
         for (int i = 0; i < BOARD_SIZE; i++) {
-            int multiplier = 1;
-
-            // Setup the bonus spaces.
-            // Could be done using a dictionary, but there are only a few such spaces,
-            // and they are not going to change during the project.
-            // If it turns out that the spaces *do* change, we can turn it into a dictionary.
-            if (i == 10 || i == 14 || i == 30) {
-                multiplier = 2;
-            } else if (i == 2 || i == 26 || i == 34) {
-                multiplier = 3;
-            } else if (i == 11 || i == 13 || i == 20) {
-                multiplier = 4;
-            }
+            spaces[i] = new BoardSpace(i, getScoreMultiplier(i));
+        }
+
+        compatible = new long[NUM_SIDES * COLORS.length];
+        clearMasks();
+    }
 
-            spaces[i] = new BoardSpace(i, multiplier);
+    /**
+     * The score multiplier of the given space.
+     *
+     * @param id The id of the space, assumed to be valid.
+     * @return The multiplier.
+     */
+    private static int getScoreMultiplier(int id) {
+        int multiplier = 1;
+
+        // Setup the bonus spaces.
+        // Could be done using a dictionary, but there are only a few such spaces,
+        // and they are not going to change during the project.
+        // If it turns out that the spaces *do* change, we can turn it into a dictionary.
+        if (id == 10 || id == 14 || id == 30) {
+            multiplier = 2;
+        } else if (id == 2 || id == 26 || id == 34) {
+            multiplier = 3;
+        } else if (id == 11 || id == 13 || id == 20) {
+            multiplier = 4;
         }
 
-        isEmpty = true;
+        return multiplier;
+    }
+
+    /**
+     * @return A mask with only the bit of the given space set, or 0 for `NO_NEIGHBOUR`.
+     */
+    private static long maskOf(int id) {
+        return isIdValid(id) ? 1L << id : 0;
     }
 
     public BoardSpace getSpace(int id) throws IndexException {
@@ -50,70 +163,137 @@ public class Board {
     }
 
     public boolean hasTile(int id) {
-        if (isIdValid(id)) {
-            return spaces[id].hasTile();
-        } else {
-            return false;
-        }
+        return (occupied & maskOf(id)) != 0;
     }
 
     public static boolean isIdValid(int id) {
         return 0 <= id && id < BOARD_SIZE;
     }
 
+    /**
+     * @param id The space to get the neighbour of.
+     * @return The id of the space bordering the flat side of the given space.
+     * `NO_NEIGHBOUR` if there is none, or if the given id is invalid.
+     */
+    //@ pure
+    public static int getFlatNeighbour(int id) {
+        return isIdValid(id) ? FLAT_NEIGHBOURS[id] : NO_NEIGHBOUR;
+    }
+
+    /**
+     * @param id The space to get the neighbour of.
+     * @return The id of the space bordering the clockwise side of the given space.
+     * `NO_NEIGHBOUR` if there is none, or if the given id is invalid.
+     */
+    //@ pure
+    public static int getClockwiseNeighbour(int id) {
+        return isIdValid(id) ? CLOCKWISE_NEIGHBOURS[id] : NO_NEIGHBOUR;
+    }
+
+    /**
+     * @param id The space to get the neighbour of.
+     * @return The id of the space bordering the counterclockwise side of the given space.
+     * `NO_NEIGHBOUR` if there is none, or if the given id is invalid.
+     */
+    //@ pure
+    public static int getCounterclockwiseNeighbour(int id) {
+        return isIdValid(id) ? COUNTERCLOCKWISE_NEIGHBOURS[id] : NO_NEIGHBOUR;
+    }
+
     public boolean getIsEmpty() {
-        return isEmpty;
+        return occupied == 0;
     }
 
     /**
      * Returns true if a player with the given tiles would have a valid move to make.
+     * Does not allocate, so it is safe to call this often from the game thread.
      *
      * @param playerTiles The tiles in the player's hand.
      * @return true if the player can make a move, false otherwise.
      */
     public boolean hasValidMoves(List<Tile> playerTiles) {
-        boolean result = false;
-
-        for (Tile tile : playerTiles) {
-            Tile rotated1 = tile.rotate120();
-            Tile rotated2 = tile.rotate240();
-            for (int id = 0; id < BOARD_SIZE; id++) {
-                if (isMoveValid(new Move(tile, id)) ||
-                        isMoveValid(new Move(rotated1, id)) ||
-                        isMoveValid(new Move(rotated2, id))) {
+        // Indexed loop, to avoid creating an iterator.
+        for (int i = 0; i < playerTiles.size(); i++) {
+            Tile tile = playerTiles.get(i);
+
+            for (int rotation = 0; rotation < Tile.NUM_ROTATIONS; rotation++) {
+                if (getValidPlacements(tile, rotation) != 0) {
                     // The player has at least 1 possible move.
-                    result = true;
-                    break;
+                    return true;
                 }
             }
-            if (result) {
-                break;
-            }
         }
 
-        return result;
+        return false;
     }
 
     public boolean isMoveValid(Move move) {
-        boolean moveValid = false;
+        return isPlacementValid(move.getTile(), 0, move.getIndex());
+    }
 
-        if (move.getTile() != null) {
-            try {
-                if (getIsEmpty()) {
-                    // First move cannot be placed on bonus tiles.
-                    moveValid = !getSpace(move.getIndex()).isBonusSpace();
-                } else {
-                    // Space should be empty.
-                    // The adjacency rules should be respected.
-                    moveValid = !hasTile(move.getIndex()) &&
-                            adjacencyValid(move);
-                }
-            } catch (IndexException e) {
-                // Move invalid.
-            }
+    /**
+     * Checks whether placing the given tile, rotated the given amount of times, on the given
+     * space would be a valid move.
+     * This is the same check as `isMoveValid()`, but without the need to create a `Move` or a
+     * rotated copy of the tile. It never throws, invalid input simply results in `false`.
+     *
+     * @param tile     The tile to place.
+     * @param rotation The number of times the tile is rotated 120 degrees clockwise.
+     *                 In the range [0 - Tile.NUM_ROTATIONS), so 1 gives the orientation of
+     *                 `tile.rotate120()` and 2 that of `tile.rotate240()`.
+     * @param id       The space to place the tile on.
+     * @return true if the placement is valid.
+     */
+    //@ pure
+    public boolean isPlacementValid(Tile tile, int rotation, int id) {
+        return (getValidPlacements(tile, rotation) & maskOf(id)) != 0;
+    }
+
+    /**
+     * Returns all the spaces the given tile, rotated the given amount of times, can be placed on.
+     *
+     * @param tile     The tile to place.
+     * @param rotation The number of times the tile is rotated 120 degrees clockwise.
+     *                 In the range [0 - Tile.NUM_ROTATIONS).
+     * @return A mask in which bit `i` is set if the tile can be placed on space `i`.
+     * 0 if there are no valid placements, or when given invalid input.
+     */
+    //@ pure
+    public long getValidPlacements(Tile tile, int rotation) {
+        if (tile == null || rotation < 0 || rotation >= Tile.NUM_ROTATIONS) {
+            return 0;
         }
 
-        return moveValid;
+        if (getIsEmpty()) {
+            // First move cannot be placed on bonus tiles.
+            return ALL_SPACES & ~BONUS_SPACES;
+        }
+
+        // Space should be empty and border a tile (the frontier).
+        // The adjacency rules should be respected.
+        switch (rotation) {
+            case 0:
+                return frontier & compatibleSpaces(
+                        tile.getFlatSide(), tile.getClockwise1(), tile.getClockwise2());
+            case 1:
+                return frontier & compatibleSpaces(
+                        tile.getClockwise2(), tile.getFlatSide(), tile.getClockwise1());
+            case 2:
+                return frontier & compatibleSpaces(
+                        tile.getClockwise1(), tile.getClockwise2(), tile.getFlatSide());
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * @return The spaces where a tile with the given side colors would match all its neighbours.
+     */
+    //@ pure
+    private long compatibleSpaces(Color flat, Color clockwise1, Color clockwise2) {
+        return compatible[FLAT * COLORS.length + flat.ordinal()] &
+                compatible[CLOCKWISE1 * COLORS.length + clockwise1.ordinal()] &
+                compatible[CLOCKWISE2 * COLORS.length + clockwise2.ordinal()];
     }
 
     /**
@@ -132,6 +312,24 @@ public class Board {
             throw new InvalidMoveException(move);
         }
 
+        int movePoints = getPlacementScore(tile, id);
+
+        // Actually make the move.
+        placeTile(id, tile);
+
+        return movePoints;
+    }
+
+    /**
+     * The points placing the tile on the given space would score, assuming that is a valid move.
+     *
+     * @param tile The tile to place.
+     * @param id   The space to place the tile on.
+     * @return The points the placement scores.
+     */
+    //@ requires tile != null && isIdValid(id);
+    //@ pure
+    public int getPlacementScore(Tile tile, int id) {
         int tilePoints = tile.getPoints(); // number of points inherent to the tile itself
         // Bonus for the field the tile is on.
         int fieldBonus = spaces[id].getScoreMultiplier();
@@ -141,16 +339,8 @@ public class Board {
             // 0 adjacent tiles will still get you normal points.
             sideBonus = 1;
         }
-        int movePoints = tilePoints * fieldBonus * sideBonus;
-
-
-        // Actually make the move.
-        spaces[id].placeTile(tile);
 
-        // If the board was empty, it for sure isn't now.
-        isEmpty = false;
-
-        return movePoints;
+        return tilePoints * fieldBonus * sideBonus;
     }
 
     /**
@@ -165,51 +355,87 @@ public class Board {
             return; // Silently fail.
         }
 
-        spaces[move.getIndex()].placeTile(move.getTile());
-
-        isEmpty = false;
+        if (hasTile(move.getIndex())) {
+            // Replacing a tile, the old tile's restrictions on its neighbours no longer hold.
+            // This does not happen in a normal game, so just rebuild everything.
+            spaces[move.getIndex()].placeTile(move.getTile());
+            rebuildMasks();
+        } else {
+            placeTile(move.getIndex(), move.getTile());
+        }
     }
 
     /**
-     * Returns the number of adjacent tiles.
+     * Puts the tile on the space and updates the masks.
      *
-     * @param id - id of the field
+     * @param id   The space, assumed to be valid and empty.
+     * @param tile The tile to place.
      */
-    public int getNumAdjacentTiles(int id) {
-        int number = 0;
+    private void placeTile(int id, Tile tile) {
+        spaces[id].placeTile(tile);
+
+        updateMasks(id, tile);
+    }
 
-        try {
-            BoardCoordinates coords = BoardCoordinates.fromIndex(id);
+    private void updateMasks(int id, Tile tile) {
+        occupied |= 1L << id;
+        frontier = (frontier | NEIGHBOUR_MASKS[id]) & ~occupied;
 
-            try {
-                if (hasTile(coords.getFlatNeighbourCoordinates().asIndex())) {
-                    number += 1;
-                }
-            } catch (IndexException e) {
-                // We expected this, don't do anything.
-            }
+        restrictNeighbour(FLAT_NEIGHBOURS[id], FLAT, tile.getFlatSide());
+        restrictNeighbour(CLOCKWISE_NEIGHBOURS[id], CLOCKWISE1, tile.getClockwise1());
+        restrictNeighbour(COUNTERCLOCKWISE_NEIGHBOURS[id], CLOCKWISE2, tile.getClockwise2());
+    }
 
-            try {
-                if (hasTile(coords.getClockwiseNeighbourCoordinates().asIndex())) {
-                    number += 1;
-                }
-            } catch (IndexException e) {
-                // We expected this, don't do anything.
+    /**
+     * A tile has been placed next to the given neighbour. The neighbour's side that borders the
+     * tile is now only compatible with colors that are valid next to the tile's side.
+     *
+     * @param neighbour The neighbouring space, can be `NO_NEIGHBOUR`.
+     * @param side      The side the tile and the neighbour share.
+     * @param color     The color of the tile on that side.
+     */
+    private void restrictNeighbour(int neighbour, int side, Color color) {
+        if (neighbour == NO_NEIGHBOUR) {
+            return;
+        }
+
+        for (Color other : COLORS) {
+            if (!other.isValidNextTo(color)) {
+                compatible[side * COLORS.length + other.ordinal()] &= ~(1L << neighbour);
             }
+        }
+    }
 
-            try {
-                if (hasTile(coords.getCounterclockwiseNeighbourCoordinates().asIndex())) {
-                    number += 1;
-                }
-            } catch (IndexException e) {
-                // We expected this, don't do anything.
+    private void clearMasks() {
+        occupied = 0;
+        frontier = 0;
+
+        for (int i = 0; i < compatible.length; i++) {
+            compatible[i] = ALL_SPACES;
+        }
+    }
+
+    private void rebuildMasks() {
+        clearMasks();
+
+        for (int id = 0; id < BOARD_SIZE; id++) {
+            if (spaces[id].hasTile()) {
+                updateMasks(id, spaces[id].getTile());
             }
+        }
+    }
 
-        } catch (IndexException e) {
+    /**
+     * Returns the number of adjacent tiles.
+     *
+     * @param id - id of the field
+     */
+    public int getNumAdjacentTiles(int id) {
+        if (!isIdValid(id)) {
             return 0;
         }
 
-        return number;
+        return Long.bitCount(NEIGHBOUR_MASKS[id] & occupied);
     }
 
     /**
@@ -221,58 +447,21 @@ public class Board {
      * @return True if the move respects adjacency rules.
      */
     public boolean adjacencyValid(Move move) {
-        if (move == null) {
+        if (move == null || move.getTile() == null || !isIdValid(move.getIndex())) {
             return false;
         }
 
-        if (getNumAdjacentTiles(move.getIndex()) <= 0) {
-            // No adjacent tiles, by definition invalid.
-            return false;
-        }
+        int id = move.getIndex();
+        Tile tile = move.getTile();
 
-        BoardCoordinates coords;
-        try {
-            coords = BoardCoordinates.fromIndex(move.getIndex());
-        } catch (IndexException e) {
+        if (getNumAdjacentTiles(id) <= 0) {
+            // No adjacent tiles, by definition invalid.
             return false;
         }
 
-        boolean valid = true;
-
-        try {
-            // Check our flat side with the neighbouring flat side.
-            if (!move.getTile().getFlatSide().isValidNextTo(
-                    getTile(coords.getFlatNeighbourCoordinates().asIndex()).getFlatSide())) {
-                valid = false;
-            }
-        } catch (IndexException | NoTileException e) {
-            // We expected this, don't do anything.
-        }
-
-        try {
-            // Check our clockwise side with the neighbouring clockwise side.
-            if (!move.getTile().getClockwise1().isValidNextTo(
-                    getTile(coords.getClockwiseNeighbourCoordinates().asIndex()).getClockwise1())) {
-                valid = false;
-            }
-        } catch (IndexException | NoTileException e) {
-            // We expected this, don't do anything.
-        }
-
-        try {
-            // Check our counterclockwise side with the neighbouring counterclockwise side.
-            if (!move.getTile().getClockwise2().isValidNextTo(
-                    getTile(coords.getCounterclockwiseNeighbourCoordinates()
-                            .asIndex()).getClockwise2())) {
-                valid = false;
-            }
-        } catch (IndexException | NoTileException e) {
-            // We expected this, don't do anything.
-        }
+        long compatibleSpaces =
+                compatibleSpaces(tile.getFlatSide(), tile.getClockwise1(), tile.getClockwise2());
 
-        return valid;
+        return (compatibleSpaces & 1L << id) != 0;
     }
 }
-
-
-
@@ -0,0 +1,124 @@
+package ss.spec.gamepieces;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The rules for starting a game: who goes first, and which tiles everyone starts with.
+ * Shared by everything that runs games, so they all follow the same rules.
+ */
+public final class Dealer {
+
+    private Dealer() {
+    }
+
+    /**
+     * Will draw tiles and use the point values to determine the players' turn order.
+     * Equal points are resolved by having the tied players draw again until there is no tie.
+     * Players can end up with more than 4 tiles after this procedure, the drawn tiles stay in
+     * their hands.
+     *
+     * @param players The players, each with an empty hand.
+     * @param bag     The bag to draw from, filled with the starting tiles.
+     * @param <P>     The type of player.
+     * @return The players, in the order in which they take turns.
+     * @throws EmptyTileBagException When the bag runs out, which a full bag never does.
+     */
+    public static <P extends AbstractPlayer> List<P> decideTurnOrder(List<P> players, TileBag bag)
+            throws EmptyTileBagException {
+        List<P> turnOrder = new ArrayList<>(players.size());
+        ArrayList<P> noTurnYet = new ArrayList<>(players);
+
+        for (P player : players) {
+            // Draw a tile.
+            player.addTileToHand(bag.takeTile());
+        }
+
+        while (!noTurnYet.isEmpty()) {
+            int highest = Integer.MIN_VALUE;
+            int tiedPoints = Integer.MIN_VALUE;
+            P highestPlayer = noTurnYet.get(0);
+
+            for (P player : noTurnYet) {
+                int points = lastDrawnPoints(player);
+
+                if (points > highest) {
+                    highest = points;
+                    highestPlayer = player;
+                } else if (points == highest) {
+                    // The highest is potentially a tie.
+                    tiedPoints = points;
+                }
+            }
+
+            if (highest > tiedPoints) {
+                // No tie for highest, let's add the player to the turn order.
+                turnOrder.add(highestPlayer);
+                noTurnYet.remove(highestPlayer);
+            } else {
+                // Two or more players have the highest value.
+                // Have them draw again.
+                for (P player : noTurnYet) {
+                    if (lastDrawnPoints(player) == tiedPoints) {
+                        player.addTileToHand(bag.takeTile());
+                    }
+                }
+            }
+        }
+
+        return turnOrder;
+    }
+
+    private static int lastDrawnPoints(AbstractPlayer player) {
+        List<Tile> tiles = player.getTiles();
+        return tiles.get(tiles.size() - 1).getPoints();
+    }
+
+    /**
+     * Makes sure every player has a full hand, after the turn order has been decided.
+     * Tiles over the limit go back into the bag, missing tiles are drawn as long as there are
+     * tiles left.
+     *
+     * @param players The players.
+     * @param bag     The bag to draw from.
+     */
+    public static void dealStartingHands(List<? extends AbstractPlayer> players, TileBag bag) {
+        for (AbstractPlayer player : players) {
+            List<Tile> tiles = player.getTiles();
+            // The turn order procedure can leave players with more than 4 tiles.
+            while (tiles.size() > AbstractPlayer.MAX_HAND_SIZE) {
+                // Put them back in the bag.
+                bag.addTile(tiles.remove(tiles.size() - 1));
+            }
+            while (tiles.size() < AbstractPlayer.MAX_HAND_SIZE && drawTile(player, bag) != null) {
+                // Keep drawing.
+            }
+        }
+    }
+
+    /**
+     * Will attempt to draw a tile for the given player.
+     * Will not allow a player to have more than 4 tiles.
+     * Will not crash on an empty bag.
+     *
+     * @param player The player to draw a tile for.
+     * @param bag    The bag to draw from.
+     * @return The tile the player got, null if the hand is full or the bag is empty.
+     */
+    public static Tile drawTile(AbstractPlayer player, TileBag bag) {
+        if (player.getTiles().size() >= AbstractPlayer.MAX_HAND_SIZE ||
+                bag.getNumTilesLeft() == 0) {
+            return null;
+        }
+
+        try {
+            Tile tile = bag.takeTile();
+            // Tiles are immutable, no need to copy.
+            player.addTileToHand(tile);
+            return tile;
+        } catch (EmptyTileBagException e) {
+            // Empty bag.
+            return null;
+        }
+    }
+}
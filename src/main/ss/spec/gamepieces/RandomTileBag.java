@@ -9,8 +9,21 @@ public class RandomTileBag implements TileBag {
     private final Random random;
 
     public RandomTileBag() {
+        this(new Random());
+    }
+
+    /**
+     * Creates a bag that hands out the tiles in the same order every time, for the same seed.
+     *
+     * @param seed The seed for the random draws.
+     */
+    public RandomTileBag(long seed) {
+        this(new Random(seed));
+    }
+
+    private RandomTileBag(Random random) {
         tiles = new ArrayList<>();
-        random = new Random();
+        this.random = random;
     }
 
     @Override
@@ -38,58 +51,6 @@ public class RandomTileBag implements TileBag {
 
     @Override
     public void addAllStartingTiles() {
-        // Three same sides.
-        int points = 6;
-        addTile(new Tile(Color.RED, Color.RED, Color.RED, points));
-        addTile(new Tile(Color.BLUE, Color.BLUE, Color.BLUE, points));
-        addTile(new Tile(Color.GREEN, Color.GREEN, Color.GREEN, points));
-        addTile(new Tile(Color.YELLOW, Color.YELLOW, Color.YELLOW, points));
-        addTile(new Tile(Color.PURPLE, Color.PURPLE, Color.PURPLE, points));
-
-        // Two of the same side.
-        points = 5;
-        addTile(new Tile(Color.RED, Color.RED, Color.YELLOW, points));
-        addTile(new Tile(Color.RED, Color.RED, Color.PURPLE, points));
-        addTile(new Tile(Color.BLUE, Color.BLUE, Color.RED, points));
-        addTile(new Tile(Color.BLUE, Color.BLUE, Color.PURPLE, points));
-        addTile(new Tile(Color.GREEN, Color.GREEN, Color.RED, points));
-        addTile(new Tile(Color.GREEN, Color.GREEN, Color.BLUE, points));
-        addTile(new Tile(Color.YELLOW, Color.YELLOW, Color.GREEN, points));
-        addTile(new Tile(Color.YELLOW, Color.YELLOW, Color.BLUE, points));
-        addTile(new Tile(Color.PURPLE, Color.PURPLE, Color.YELLOW, points));
-        addTile(new Tile(Color.PURPLE, Color.PURPLE, Color.GREEN, points));
-
-        points = 4;
-        addTile(new Tile(Color.RED, Color.RED, Color.BLUE, points));
-        addTile(new Tile(Color.RED, Color.RED, Color.GREEN, points));
-        addTile(new Tile(Color.BLUE, Color.BLUE, Color.GREEN, points));
-        addTile(new Tile(Color.BLUE, Color.BLUE, Color.YELLOW, points));
-        addTile(new Tile(Color.GREEN, Color.GREEN, Color.YELLOW, points));
-        addTile(new Tile(Color.GREEN, Color.GREEN, Color.PURPLE, points));
-        addTile(new Tile(Color.YELLOW, Color.YELLOW, Color.RED, points));
-        addTile(new Tile(Color.YELLOW, Color.YELLOW, Color.PURPLE, points));
-        addTile(new Tile(Color.PURPLE, Color.PURPLE, Color.RED, points));
-        addTile(new Tile(Color.PURPLE, Color.PURPLE, Color.BLUE, points));
-
-        // All sides different colors.
-        points = 3;
-        addTile(new Tile(Color.YELLOW, Color.BLUE, Color.PURPLE, points));
-        addTile(new Tile(Color.RED, Color.GREEN, Color.YELLOW, points));
-        addTile(new Tile(Color.BLUE, Color.GREEN, Color.PURPLE, points));
-        addTile(new Tile(Color.GREEN, Color.RED, Color.BLUE, points));
-
-        points = 2;
-        addTile(new Tile(Color.BLUE, Color.RED, Color.PURPLE, points));
-        addTile(new Tile(Color.YELLOW, Color.PURPLE, Color.RED, points));
-        addTile(new Tile(Color.YELLOW, Color.PURPLE, Color.GREEN, points));
-
-        points = 1;
-        addTile(new Tile(Color.GREEN, Color.RED, Color.PURPLE, points));
-        addTile(new Tile(Color.BLUE, Color.YELLOW, Color.GREEN, points));
-        addTile(new Tile(Color.RED, Color.YELLOW, Color.BLUE, points));
-
-        // Joker.
-        points = 1;
-        addTile(new Tile(Color.WHITE, Color.WHITE, Color.WHITE, points));
+        StartingTiles.addTo(this);
     }
 }
@@ -0,0 +1,90 @@
+package ss.spec.gamepieces;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * A tile bag that hands out the tiles in an order decided by a seed.
+ * Two bags with the same seed, that get the same tiles added and taken in the same order, hand
+ * out exactly the same tiles. So a game can be replayed from its seed.
+ * <p>
+ * The tiles are kept in an array. Taking a tile is one step of a Fisher-Yates shuffle: a random
+ * tile from the part of the array that hasn't been handed out swaps places with the last one, and
+ * the last one is handed out. That is the same as shuffling once and then handing the tiles out in
+ * order, but tiles that are put back are mixed in with the rest. Both taking and adding are O(1),
+ * nothing is shifted.
+ */
+public class SeededTileBag implements TileBag {
+
+    private final long seed;
+    private final SplittableRandom random;
+
+    private Tile[] tiles;
+    /**
+     * The tiles in [0 - size) are in the bag.
+     */
+    private int size;
+
+    /**
+     * @param seed The seed that decides the order of the tiles.
+     */
+    public SeededTileBag(long seed) {
+        this.seed = seed;
+        this.random = new SplittableRandom(seed);
+        this.tiles = new Tile[StartingTiles.COUNT];
+        this.size = 0;
+    }
+
+    /**
+     * @return The seed the bag was created with.
+     */
+    //@ pure
+    public long getSeed() {
+        return seed;
+    }
+
+    @Override
+    public void addTile(Tile tile) {
+        if (size == tiles.length) {
+            tiles = Arrays.copyOf(tiles, tiles.length * 2);
+        }
+
+        tiles[size++] = tile;
+    }
+
+    @Override
+    public void addAllStartingTiles() {
+        if (tiles.length - size < StartingTiles.COUNT) {
+            tiles = Arrays.copyOf(tiles, size + StartingTiles.COUNT);
+        }
+
+        StartingTiles.copyTo(tiles, size);
+        size += StartingTiles.COUNT;
+    }
+
+    /**
+     * Removes a tile, chosen by the seed, from the bag and returns it.
+     *
+     * @return The tile that was removed from the bag.
+     */
+    @Override
+    public Tile takeTile() throws EmptyTileBagException {
+        if (size == 0) {
+            throw new EmptyTileBagException();
+        }
+
+        int chosen = random.nextInt(size);
+        size--;
+
+        Tile tile = tiles[chosen];
+        tiles[chosen] = tiles[size];
+        tiles[size] = null;
+
+        return tile;
+    }
+
+    @Override
+    public int getNumTilesLeft() {
+        return size;
+    }
+}
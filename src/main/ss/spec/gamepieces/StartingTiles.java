@@ -0,0 +1,108 @@
+package ss.spec.gamepieces;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The 36 tiles every game of Spectrangle starts with.
+ */
+public final class StartingTiles {
+
+    public static final int COUNT = 36;
+
+    private static final Tile[] TILES = createTiles();
+
+    private StartingTiles() {
+    }
+
+    /**
+     * Adds all the starting tiles to the bag, always in the same order.
+     *
+     * @param bag The bag to add them to.
+     */
+    public static void addTo(TileBag bag) {
+        for (Tile tile : TILES) {
+            bag.addTile(tile);
+        }
+    }
+
+    /**
+     * Copies all the starting tiles into the array, in the same order as `addTo()`.
+     *
+     * @param destination The array to copy to.
+     * @param offset      Where in the array to put the first tile.
+     */
+    //@ requires offset >= 0 && offset + COUNT <= destination.length;
+    public static void copyTo(Tile[] destination, int offset) {
+        System.arraycopy(TILES, 0, destination, offset, COUNT);
+    }
+
+    /**
+     * @return All the starting tiles, in the same order as `addTo()`. Can't be changed.
+     */
+    public static List<Tile> asList() {
+        return Collections.unmodifiableList(Arrays.asList(TILES));
+    }
+
+    private static Tile[] createTiles() {
+        List<Tile> tiles = new ArrayList<>(COUNT);
+
+        // Three same sides.
+        int points = 6;
+        tiles.add(Tile.valueOf(Color.RED, Color.RED, Color.RED, points));
+        tiles.add(Tile.valueOf(Color.BLUE, Color.BLUE, Color.BLUE, points));
+        tiles.add(Tile.valueOf(Color.GREEN, Color.GREEN, Color.GREEN, points));
+        tiles.add(Tile.valueOf(Color.YELLOW, Color.YELLOW, Color.YELLOW, points));
+        tiles.add(Tile.valueOf(Color.PURPLE, Color.PURPLE, Color.PURPLE, points));
+
+        // Two of the same side.
+        points = 5;
+        tiles.add(Tile.valueOf(Color.RED, Color.RED, Color.YELLOW, points));
+        tiles.add(Tile.valueOf(Color.RED, Color.RED, Color.PURPLE, points));
+        tiles.add(Tile.valueOf(Color.BLUE, Color.BLUE, Color.RED, points));
+        tiles.add(Tile.valueOf(Color.BLUE, Color.BLUE, Color.PURPLE, points));
+        tiles.add(Tile.valueOf(Color.GREEN, Color.GREEN, Color.RED, points));
+        tiles.add(Tile.valueOf(Color.GREEN, Color.GREEN, Color.BLUE, points));
+        tiles.add(Tile.valueOf(Color.YELLOW, Color.YELLOW, Color.GREEN, points));
+        tiles.add(Tile.valueOf(Color.YELLOW, Color.YELLOW, Color.BLUE, points));
+        tiles.add(Tile.valueOf(Color.PURPLE, Color.PURPLE, Color.YELLOW, points));
+        tiles.add(Tile.valueOf(Color.PURPLE, Color.PURPLE, Color.GREEN, points));
+
+        points = 4;
+        tiles.add(Tile.valueOf(Color.RED, Color.RED, Color.BLUE, points));
+        tiles.add(Tile.valueOf(Color.RED, Color.RED, Color.GREEN, points));
+        tiles.add(Tile.valueOf(Color.BLUE, Color.BLUE, Color.GREEN, points));
+        tiles.add(Tile.valueOf(Color.BLUE, Color.BLUE, Color.YELLOW, points));
+        tiles.add(Tile.valueOf(Color.GREEN, Color.GREEN, Color.YELLOW, points));
+        tiles.add(Tile.valueOf(Color.GREEN, Color.GREEN, Color.PURPLE, points));
+        tiles.add(Tile.valueOf(Color.YELLOW, Color.YELLOW, Color.RED, points));
+        tiles.add(Tile.valueOf(Color.YELLOW, Color.YELLOW, Color.PURPLE, points));
+        tiles.add(Tile.valueOf(Color.PURPLE, Color.PURPLE, Color.RED, points));
+        tiles.add(Tile.valueOf(Color.PURPLE, Color.PURPLE, Color.BLUE, points));
+
+        // All sides different colors.
+        points = 3;
+        tiles.add(Tile.valueOf(Color.YELLOW, Color.BLUE, Color.PURPLE, points));
+        tiles.add(Tile.valueOf(Color.RED, Color.GREEN, Color.YELLOW, points));
+        tiles.add(Tile.valueOf(Color.BLUE, Color.GREEN, Color.PURPLE, points));
+        tiles.add(Tile.valueOf(Color.GREEN, Color.RED, Color.BLUE, points));
+
+        points = 2;
+        tiles.add(Tile.valueOf(Color.BLUE, Color.RED, Color.PURPLE, points));
+        tiles.add(Tile.valueOf(Color.YELLOW, Color.PURPLE, Color.RED, points));
+        tiles.add(Tile.valueOf(Color.YELLOW, Color.PURPLE, Color.GREEN, points));
+
+        points = 1;
+        tiles.add(Tile.valueOf(Color.GREEN, Color.RED, Color.PURPLE, points));
+        tiles.add(Tile.valueOf(Color.BLUE, Color.YELLOW, Color.GREEN, points));
+        tiles.add(Tile.valueOf(Color.RED, Color.YELLOW, Color.BLUE, points));
+
+        // Joker.
+        points = 1;
+        tiles.add(Tile.valueOf(Color.WHITE, Color.WHITE, Color.WHITE, points));
+
+        return tiles.toArray(new Tile[0]);
+    }
+}
@@ -27,27 +27,134 @@ import ss.spec.networking.DecodeException;
  */
 
 public class Tile {
-    private final Color flatSide;
-    private final Color clockwise1;
-    private final Color clockwise2;
 
-    private final int points;
+    /**
+     * The number of distinct orientations a tile can be placed in.
+     */
+    public static final int NUM_ROTATIONS = 3;
+
+    /**
+     * The highest amount of points a tile can be worth.
+     */
+    public static final int MAX_POINTS = 63;
+
+    /*
+     * A tile is stored as a single packed int:
+     * bits 0-2 are the flat side, bits 3-5 clockwise1, bits 6-8 clockwise2 (all Color ordinals)
+     * and bits 9-14 are the points.
+     */
+    private static final int COLOR_BITS = 3;
+    private static final int COLOR_MASK = (1 << COLOR_BITS) - 1;
+    private static final int FLAT_SHIFT = 0;
+    private static final int CLOCKWISE1_SHIFT = COLOR_BITS;
+    private static final int CLOCKWISE2_SHIFT = 2 * COLOR_BITS;
+    private static final int POINTS_SHIFT = 3 * COLOR_BITS;
+    private static final int SIDES_MASK = (1 << POINTS_SHIFT) - 1;
+
+    /**
+     * `Color.values()` returns a new array on every call, so we keep our own.
+     */
+    private static final Color[] COLORS = Color.values();
+
+    /**
+     * Canonical tile instances, indexed by their packed representation.
+     * Filled lazily by `valueOf()`. Tiles are immutable, so it does not matter if two threads
+     * happen to race on the same entry, both instances are equal.
+     */
+    private static final Tile[] INTERNED = new Tile[(MAX_POINTS + 1) << POINTS_SHIFT];
+
+    private final int packed;
+    /**
+     * The packed representation of the lowest rotation of this tile.
+     * Equivalent tiles share the same value.
+     */
+    private final int canonical;
+    private final String encoded;
 
     public Tile(Color flatSide, Color clockwise1, Color clockwise2, int points) {
-        this.flatSide = flatSide;
-        this.clockwise1 = clockwise1;
-        this.clockwise2 = clockwise2;
-        this.points = points;
+        this(pack(flatSide, clockwise1, clockwise2, points));
     }
 
     /**
      * Creates a copy of the tile.
+     * As tiles are immutable, there is normally no need for this.
      */
     public Tile(Tile other) {
-        this.flatSide = other.flatSide;
-        this.clockwise1 = other.clockwise1;
-        this.clockwise2 = other.clockwise2;
-        this.points = other.points;
+        this(other.packed);
+    }
+
+    private Tile(int packed) {
+        this.packed = packed;
+
+        int rotated120 = rotatePacked(packed);
+        int rotated240 = rotatePacked(rotated120);
+        this.canonical = Math.min(packed, Math.min(rotated120, rotated240));
+
+        this.encoded = "" + getFlatSide().encode() +
+                getClockwise1().encode() +
+                getClockwise2().encode() +
+                getPoints();
+    }
+
+    /**
+     * Returns the canonical instance of the tile with the given sides and points.
+     * Prefer this over the constructor, as it does not create a new object every time.
+     *
+     * @return The tile.
+     */
+    //@ requires 0 <= points && points <= MAX_POINTS;
+    public static Tile valueOf(Color flatSide, Color clockwise1, Color clockwise2, int points) {
+        return valueOf(pack(flatSide, clockwise1, clockwise2, points));
+    }
+
+    /**
+     * Returns the canonical instance of the tile with the given packed representation.
+     *
+     * @param packed The packed representation, as given by `getPacked()`.
+     * @return The tile.
+     */
+    //@ requires 0 <= packed && packed < INTERNED.length;
+    public static Tile valueOf(int packed) {
+        Tile tile = INTERNED[packed];
+
+        if (tile == null) {
+            tile = new Tile(packed);
+            INTERNED[packed] = tile;
+        }
+
+        return tile;
+    }
+
+    private static int pack(Color flatSide, Color clockwise1, Color clockwise2, int points) {
+        if (points < 0 || points > MAX_POINTS) {
+            throw new IllegalArgumentException("Tile points out of range: " + points + ".");
+        }
+
+        return flatSide.ordinal() << FLAT_SHIFT |
+                clockwise1.ordinal() << CLOCKWISE1_SHIFT |
+                clockwise2.ordinal() << CLOCKWISE2_SHIFT |
+                points << POINTS_SHIFT;
+    }
+
+    /**
+     * Rotates a packed tile 120 degrees clockwise.
+     * The flat side goes to clockwise1, clockwise1 to clockwise2 and clockwise2 to flat.
+     */
+    private static int rotatePacked(int packed) {
+        int sides = packed & SIDES_MASK;
+        int rotated = (sides << COLOR_BITS | sides >>> CLOCKWISE2_SHIFT) & SIDES_MASK;
+
+        return packed & ~SIDES_MASK | rotated;
+    }
+
+    /**
+     * The packed representation of this tile. Equal tiles have equal packed representations.
+     *
+     * @return The packed representation.
+     */
+    //@ pure
+    public int getPacked() {
+        return packed;
     }
 
     /**
@@ -55,7 +162,7 @@ public class Tile {
      */
     //@ pure
     public Tile rotate120() {
-        return new Tile(clockwise2, flatSide, clockwise1, points);
+        return valueOf(rotatePacked(packed));
     }
 
     /**
@@ -64,7 +171,27 @@ public class Tile {
      */
     //@ pure
     public Tile rotate240() {
-        return new Tile(clockwise1, clockwise2, flatSide, points);
+        return valueOf(rotatePacked(rotatePacked(packed)));
+    }
+
+    /**
+     * Returns a copy of the tile that is rotated the given amount of times 120 degrees clockwise.
+     * Rotations are counted the same way as in `Board.getValidPlacements()`.
+     *
+     * @param rotation The amount of rotations, in the range [0 - NUM_ROTATIONS).
+     * @return The rotated tile, or this tile for 0 rotations.
+     */
+    //@ requires 0 <= rotation && rotation < NUM_ROTATIONS;
+    //@ pure
+    public Tile rotate(int rotation) {
+        switch (rotation) {
+            case 1:
+                return rotate120();
+            case 2:
+                return rotate240();
+            default:
+                return this;
+        }
     }
 
     /**
@@ -74,10 +201,9 @@ public class Tile {
      * @param other The tile to test equivalency with.
      * @return Whether the tiles are equivalent or not.
      */
+    //@ pure
     public boolean isEquivalent(Tile other) {
-        return this.equals(other) ||
-                this.equals(other.rotate120()) ||
-                this.equals(other.rotate240());
+        return other != null && canonical == other.canonical;
     }
 
     /**
@@ -98,52 +224,69 @@ public class Tile {
             return false;
         }
 
-        Tile other = (Tile) o;
-        return getFlatSide().equals(other.getFlatSide()) &&
-                getClockwise1().equals(other.getClockwise1()) &&
-                getClockwise2().equals(other.getClockwise2()) &&
-                getPoints() == other.getPoints();
+        return packed == ((Tile) o).packed;
+    }
+
+    @Override
+    public int hashCode() {
+        return packed;
     }
 
     public Color getFlatSide() {
-        return flatSide;
+        return COLORS[packed >>> FLAT_SHIFT & COLOR_MASK];
     }
 
     public Color getClockwise1() {
-        return clockwise1;
+        return COLORS[packed >>> CLOCKWISE1_SHIFT & COLOR_MASK];
     }
 
     public Color getClockwise2() {
-        return clockwise2;
+        return COLORS[packed >>> CLOCKWISE2_SHIFT & COLOR_MASK];
     }
 
     public int getPoints() {
-        return points;
+        return packed >>> POINTS_SHIFT;
     }
 
     public static Tile decode(String message) throws DecodeException {
-        if (message == null || message.length() != 4) {
-            throw new DecodeException("Cannot create Tile from message: \'" + message + "\'.");
+        if (message == null) {
+            throw new DecodeException("Cannot create Tile from message: \'null\'.");
         }
 
-        //try {
-        Color flat = Color.decode(message.charAt(0));
-        Color cw1 = Color.decode(message.charAt(1));
-        Color cw2 = Color.decode(message.charAt(2));
-        int points = Character.getNumericValue(message.charAt(3));
+        return decode(message, 0, message.length());
+    }
+
+    /**
+     * Decodes the tile found in part of a message, without copying that part first.
+     *
+     * @param message The message containing the tile.
+     * @param start   Index of the first character of the tile.
+     * @param end     Index after the last character of the tile.
+     * @return The decoded tile.
+     * @throws DecodeException When that part of the message is not a tile.
+     */
+    //@ requires message != null && 0 <= start && start <= end && end <= message.length();
+    public static Tile decode(CharSequence message, int start, int end) throws DecodeException {
+        if (end - start != 4) {
+            throw new DecodeException("Cannot create Tile from message: \'" +
+                    message.subSequence(start, end) + "\'.");
+        }
 
-        if (points <= 0) {
-            throw new DecodeException("Cannot create Tile from message: \'" + message + "\'.");
+        Color flat = Color.decode(message.charAt(start));
+        Color cw1 = Color.decode(message.charAt(start + 1));
+        Color cw2 = Color.decode(message.charAt(start + 2));
+        char digit = message.charAt(start + 3);
+
+        // Only plain digits, other scripts have numerals worth far more than a tile can be.
+        if (digit < '1' || digit > '9') {
+            throw new DecodeException("Cannot create Tile from message: \'" +
+                    message.subSequence(start, end) + "\'.");
         }
 
-        return new Tile(flat, cw1, cw2, points);
+        return valueOf(flat, cw1, cw2, digit - '0');
     }
 
     public String encode() {
-        return "" + flatSide.encode() +
-                clockwise1.encode() +
-                clockwise2.encode() +
-                points;
+        return encoded;
     }
-
 }
@@ -0,0 +1,221 @@
+package ss.spec.logging;
+
+import java.io.PrintStream;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Writes log records on a background thread, so logging threads never wait on the output.
+ * <p>
+ * Records are handed over through a lock-free ring buffer. When the buffer is full, for
+ * example because the output can't keep up, records are dropped and counted instead of making
+ * the logging thread wait.
+ * <p>
+ * Every record is written as one line of `key=value` pairs, so the output can be searched and
+ * parsed:
+ * <pre>
+ * time=2018-01-20T12:00:00.000Z level=INFO component=lobby thread=lobby-0 message="Hi."
+ * </pre>
+ * The writer thread runs until `close()` is called.
+ */
+public class AsyncLogWriter implements AutoCloseable {
+
+    public static final int DEFAULT_CAPACITY = 8192;
+
+    /**
+     * How long the writer sleeps at most when there is nothing to write. It is woken up when
+     * something is logged, this is just a safety net.
+     */
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final LogRing ring;
+    private final PrintStream out;
+    private final Thread writerThread;
+
+    /**
+     * Set by the writer thread when it is about to sleep, so loggers know to wake it up.
+     */
+    private volatile boolean writerSleeping;
+
+    /**
+     * Set by `close()`. The writer thread writes what is left, and stops.
+     */
+    private volatile boolean closed;
+
+    /**
+     * The amount of records that have been written out. Only written by the writer thread.
+     */
+    private volatile long written;
+
+    private final AtomicLong dropped;
+
+    /**
+     * Creates a writer and starts its (daemon) thread.
+     *
+     * @param out      Where to write the records.
+     * @param capacity The amount of records that can wait to be written.
+     */
+    //@ requires out != null && capacity > 0;
+    public AsyncLogWriter(PrintStream out, int capacity) {
+        this.ring = new LogRing(capacity);
+        this.out = out;
+        this.writerSleeping = false;
+        this.closed = false;
+        this.written = 0;
+        this.dropped = new AtomicLong(0);
+
+        writerThread = new Thread(this::writeRecords, "log-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    private static final class DefaultHolder {
+        static final AsyncLogWriter WRITER = createDefault();
+
+        private static AsyncLogWriter createDefault() {
+            AsyncLogWriter writer = new AsyncLogWriter(System.out, DEFAULT_CAPACITY);
+
+            // Don't lose the last messages when the program ends.
+            Runtime.getRuntime().addShutdownHook(new Thread(writer::flush, "log-flush"));
+
+            return writer;
+        }
+    }
+
+    /**
+     * @return The writer that writes to standard out, used by loggers by default.
+     */
+    public static AsyncLogWriter getDefault() {
+        return DefaultHolder.WRITER;
+    }
+
+    /**
+     * Hands a record to the writer thread. Never blocks.
+     *
+     * @return false if the record was dropped, because too many records are waiting or the
+     * writer is closed.
+     */
+    boolean submit(LogRecord record) {
+        if (closed || !ring.offer(record)) {
+            dropped.incrementAndGet();
+            return false;
+        }
+
+        if (writerSleeping) {
+            LockSupport.unpark(writerThread);
+        }
+
+        return true;
+    }
+
+    /**
+     * @return The amount of records that were dropped, because too many records were waiting.
+     */
+    public long getDroppedRecords() {
+        return dropped.get();
+    }
+
+    /**
+     * Waits until everything that has been logged so far has been written.
+     */
+    public void flush() {
+        long target = ring.getWriteIndex();
+
+        while (written < target && writerThread.isAlive()) {
+            LockSupport.unpark(writerThread);
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+        }
+
+        out.flush();
+    }
+
+    /**
+     * Writes everything that has been logged so far, and stops the writer thread.
+     * Records logged afterwards are dropped. Can be called more than once.
+     */
+    @Override
+    public void close() {
+        flush();
+
+        closed = true;
+        LockSupport.unpark(writerThread);
+
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        out.flush();
+    }
+
+    private void writeRecords() {
+        StringBuilder line = new StringBuilder();
+
+        while (true) {
+            LogRecord record = ring.poll();
+
+            if (record == null) {
+                // Write out the batch before going to sleep.
+                out.flush();
+
+                if (closed) {
+                    // Nothing left, and nothing more will come.
+                    return;
+                }
+
+                writerSleeping = true;
+                // Someone might have logged just before we said we'd sleep.
+                record = ring.poll();
+                if (record == null) {
+                    LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                    writerSleeping = false;
+                    continue;
+                }
+                writerSleeping = false;
+            }
+
+            line.setLength(0);
+            format(record, line);
+            out.print(line);
+
+            if (record.thrown != null) {
+                record.thrown.printStackTrace(out);
+            }
+
+            written++;
+        }
+    }
+
+    private static void format(LogRecord record, StringBuilder line) {
+        line.append("time=").append(Instant.ofEpochMilli(record.timeMillis))
+                .append(" level=").append(record.level)
+                .append(" component=").append(record.component)
+                .append(" thread=").append(record.thread)
+                .append(" message=\"");
+
+        // Quote the message, so it can't be mistaken for other fields.
+        String message = record.message;
+        for (int i = 0; i < message.length(); i++) {
+            char c = message.charAt(i);
+
+            if (c == '"' || c == '\\') {
+                line.append('\\').append(c);
+            } else if (c == '\n') {
+                line.append("\\n");
+            } else {
+                line.append(c);
+            }
+        }
+
+        line.append('"');
+
+        if (record.thrown != null) {
+            line.append(" error=\"").append(record.thrown).append('"');
+        }
+
+        line.append(System.lineSeparator());
+    }
+}
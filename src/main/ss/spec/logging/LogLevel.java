@@ -0,0 +1,37 @@
+package ss.spec.logging;
+
+/**
+ * How important a log message is. A logger set to a level writes messages of that level and
+ * the levels after it.
+ */
+public enum LogLevel {
+    DEBUG,
+    INFO,
+    WARN,
+    ERROR,
+    /**
+     * Only used to set a logger to, to write nothing at all.
+     */
+    OFF;
+
+    /**
+     * Reads a level by its name, ignoring case.
+     *
+     * @param name     The name of the level, like "debug".
+     * @param fallback The level to use when the name is `null` or no level.
+     * @return The level.
+     */
+    public static LogLevel parse(String name, LogLevel fallback) {
+        if (name == null) {
+            return fallback;
+        }
+
+        for (LogLevel level : values()) {
+            if (level.name().equalsIgnoreCase(name.trim())) {
+                return level;
+            }
+        }
+
+        return fallback;
+    }
+}
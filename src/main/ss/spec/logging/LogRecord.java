@@ -0,0 +1,25 @@
+package ss.spec.logging;
+
+/**
+ * A single log message, with everything we know about where it came from.
+ * Immutable, so it can be handed to the writer thread as is.
+ */
+final class LogRecord {
+
+    final long timeMillis;
+    final LogLevel level;
+    final String component;
+    final String thread;
+    final String message;
+    final Throwable thrown;
+
+    LogRecord(long timeMillis, LogLevel level, String component, String thread, String message,
+              Throwable thrown) {
+        this.timeMillis = timeMillis;
+        this.level = level;
+        this.component = component;
+        this.thread = thread;
+        this.message = message;
+        this.thrown = thrown;
+    }
+}
@@ -0,0 +1,87 @@
+package ss.spec.logging;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded ring buffer that many threads add to, and one thread takes from, without locking.
+ * <p>
+ * Adding claims a slot by moving the write index forward, and then fills it. The reader takes
+ * filled slots in order, and empties them. A slot that has been claimed but not filled yet looks
+ * empty, the reader just tries again later.
+ */
+final class LogRing {
+
+    private final AtomicReferenceArray<LogRecord> slots;
+    private final int mask;
+
+    /**
+     * The index of the next slot to claim.
+     */
+    private final AtomicLong writeIndex;
+    /**
+     * The index of the next slot to take. Only written by the reader.
+     */
+    private volatile long readIndex;
+
+    /**
+     * @param capacity The amount of records that fit, rounded up to a power of two.
+     */
+    //@ requires capacity > 0;
+    LogRing(int capacity) {
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+
+        slots = new AtomicReferenceArray<>(size);
+        mask = size - 1;
+        writeIndex = new AtomicLong(0);
+        readIndex = 0;
+    }
+
+    /**
+     * Adds a record, if there is room. Can be called by any thread.
+     *
+     * @param record The record.
+     * @return false if the ring was full, and the record was not added.
+     */
+    //@ requires record != null;
+    boolean offer(LogRecord record) {
+        while (true) {
+            long index = writeIndex.get();
+
+            if (index - readIndex >= slots.length()) {
+                return false;
+            }
+
+            if (writeIndex.compareAndSet(index, index + 1)) {
+                slots.set((int) index & mask, record);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Takes the next record. Only to be called by the one reading thread.
+     *
+     * @return The next record, or `null` if there is none (yet).
+     */
+    LogRecord poll() {
+        long index = readIndex;
+        int slot = (int) index & mask;
+        LogRecord record = slots.get(slot);
+
+        if (record != null) {
+            // Empty the slot before giving it free, so the next writer finds it empty.
+            slots.set(slot, null);
+            readIndex = index + 1;
+        }
+
+        return record;
+    }
+
+    /**
+     * @return The amount of records that have been added, or are being added.
+     */
+    long getWriteIndex() {
+        return writeIndex.get();
+    }
+}
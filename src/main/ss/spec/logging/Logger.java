@@ -0,0 +1,119 @@
+package ss.spec.logging;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Logs the messages of one component of the program, like the lobby or the games.
+ * <p>
+ * Each component has its own level, so one component can be traced in detail while the others
+ * stay quiet. Levels are read from the system properties `ss.log.<component>` and, for all
+ * components, `ss.log.level`, and can be changed while running with `setLevel()`.
+ * The default level is INFO.
+ * <p>
+ * Logging never waits for the output, the messages are written by an `AsyncLogWriter`.
+ * Check `isEnabled()` before building an expensive message.
+ */
+public final class Logger {
+
+    public static final String LEVEL_PROPERTY = "ss.log.level";
+    public static final String COMPONENT_PROPERTY_PREFIX = "ss.log.";
+
+    private static final ConcurrentHashMap<String, Logger> LOGGERS = new ConcurrentHashMap<>();
+
+    private final String component;
+    private final AsyncLogWriter writer;
+    private volatile LogLevel level;
+
+    /**
+     * Creates a logger that isn't shared through `get()`, like for tests.
+     *
+     * @param component The name of the component that logs.
+     * @param level     The least important level to write.
+     * @param writer    Writes the records.
+     */
+    //@ requires component != null && level != null && writer != null;
+    public Logger(String component, LogLevel level, AsyncLogWriter writer) {
+        this.component = component;
+        this.level = level;
+        this.writer = writer;
+    }
+
+    /**
+     * Gives the logger of a component, which writes to standard out.
+     *
+     * @param component The name of the component, like "lobby".
+     * @return The logger, the same one for every call with the same component.
+     */
+    //@ requires component != null;
+    public static Logger get(String component) {
+        return LOGGERS.computeIfAbsent(component,
+                name -> new Logger(name, defaultLevel(name), AsyncLogWriter.getDefault()));
+    }
+
+    private static LogLevel defaultLevel(String component) {
+        LogLevel level = LogLevel.parse(System.getProperty(LEVEL_PROPERTY), LogLevel.INFO);
+
+        return LogLevel.parse(System.getProperty(COMPONENT_PROPERTY_PREFIX + component), level);
+    }
+
+    //@ pure
+    public String getComponent() {
+        return component;
+    }
+
+    //@ pure
+    public LogLevel getLevel() {
+        return level;
+    }
+
+    /**
+     * @param level The least important level to write from now on, or OFF to write nothing.
+     */
+    //@ requires level != null;
+    public void setLevel(LogLevel level) {
+        this.level = level;
+    }
+
+    /**
+     * @param messageLevel The level of a message.
+     * @return Whether a message of that level would be written.
+     */
+    //@ pure
+    public boolean isEnabled(LogLevel messageLevel) {
+        return messageLevel != LogLevel.OFF && messageLevel.compareTo(level) >= 0;
+    }
+
+    public void debug(String message) {
+        log(LogLevel.DEBUG, message, null);
+    }
+
+    public void info(String message) {
+        log(LogLevel.INFO, message, null);
+    }
+
+    public void warn(String message) {
+        log(LogLevel.WARN, message, null);
+    }
+
+    public void error(String message) {
+        log(LogLevel.ERROR, message, null);
+    }
+
+    public void error(String message, Throwable thrown) {
+        log(LogLevel.ERROR, message, thrown);
+    }
+
+    /**
+     * Logs a message, if this logger writes messages of that level.
+     *
+     * @param messageLevel The level of the message.
+     * @param message      The message.
+     * @param thrown       What went wrong, or `null`.
+     */
+    public void log(LogLevel messageLevel, String message, Throwable thrown) {
+        if (isEnabled(messageLevel)) {
+            writer.submit(new LogRecord(System.currentTimeMillis(), messageLevel, component,
+                    Thread.currentThread().getName(), String.valueOf(message), thrown));
+        }
+    }
+}
@@ -1,14 +1,23 @@
 package ss.spec.networking;
 
+import ss.spec.logging.LogLevel;
+import ss.spec.logging.Logger;
+
 public abstract class AbstractPeer implements Runnable {
 
     public static final String INVALID_COMMAND_ERROR_MESSAGE = "invalidCommand";
     public static final String INVALID_NAME_ERROR_MESSAGE = "invalidName";
     public static final String INVALID_MOVE_ERROR_MESSAGE = "invalidMove";
 
+    private static final Logger NETWORK_LOG = Logger.get("network");
+    /**
+     * Traces every message that is sent or received, when the peer is verbose.
+     */
+    protected static final Logger PROTOCOL_LOG = Logger.get("protocol");
+
     private final Connection connection;
 
-    private boolean peerConnected;
+    private volatile boolean peerConnected;
 
     private final boolean verbose;
 
@@ -36,7 +45,27 @@ public abstract class AbstractPeer implements Runnable {
     //@ ensures !isPeerConnected();
     public void disconnect() {
         connection.killConnection();
-        peerConnected = false;
+        connectionLost();
+    }
+
+    /**
+     * Marks the peer as disconnected, and calls `peerDisconnected()` if it wasn't already.
+     * Also called by connections that notice a disconnect on their own, like `NioConnection`.
+     */
+    //@ ensures !isPeerConnected();
+    void connectionLost() {
+        if (peerConnected) {
+            peerConnected = false;
+            peerDisconnected();
+        }
+    }
+
+    /**
+     * Called once when we notice that the peer has disconnected.
+     * This can be called from any thread that happens to notice.
+     */
+    protected void peerDisconnected() {
+        // Nothing to do by default.
     }
 
     /**
@@ -48,13 +77,19 @@ public abstract class AbstractPeer implements Runnable {
             try {
                 String message = connection.readMessage();
                 handleReceivedMessage(message);
+
+                // Send out any replies to the message.
+                flush();
             } catch (DeadConnectionException e) {
                 // Connection dead.
                 // Thread can stop now.
-                peerConnected = false;
+                connectionLost();
             }
         }
-        System.out.println("Peer disconnected...");
+        if (NETWORK_LOG.isEnabled(LogLevel.INFO)) {
+            NETWORK_LOG.info("Peer disconnected... Sent " + connection.getBytesSent() +
+                    " bytes in " + connection.getFlushes() + " flushes.");
+        }
     }
 
     /**
@@ -73,12 +108,61 @@ public abstract class AbstractPeer implements Runnable {
     public void sendMessage(String message) {
         if (peerConnected) {
             try {
-                if (verbosePrinting()) {
-                    System.out.println("Sending: \'" + message + "\'.");
+                if (verbosePrinting() && PROTOCOL_LOG.isEnabled(LogLevel.INFO)) {
+                    PROTOCOL_LOG.info("Sending: \'" + message + "\'.");
                 }
                 connection.sendMessage(message);
             } catch (DeadConnectionException e) {
-                peerConnected = false;
+                connectionLost();
+            }
+        }
+    }
+
+    /**
+     * Sends a message that has already been encoded, possibly for multiple peers.
+     * Does not fail when not connected, but `isPeerconnected()` will return false afterwards.
+     *
+     * @param message The message to send.
+     */
+    //@ requires message != null;
+    //@ ensures !\old(isPeerConnected()) && !isPeerConnected();
+    public void sendMessage(EncodedMessage message) {
+        if (peerConnected) {
+            try {
+                if (verbosePrinting() && PROTOCOL_LOG.isEnabled(LogLevel.INFO)) {
+                    PROTOCOL_LOG.info("Sending: \'" + message.getText() + "\'.");
+                }
+                connection.sendMessage(message);
+            } catch (DeadConnectionException e) {
+                connectionLost();
+            }
+        }
+    }
+
+    /**
+     * Encodes the message, and sends it to the peer.
+     * Does not fail when not connected, but `isPeerconnected()` will return false afterwards.
+     *
+     * @param message The message to send.
+     */
+    //@ requires message != null;
+    //@ ensures !\old(isPeerConnected()) && !isPeerConnected();
+    public void sendMessage(ProtocolMessage message) {
+        if (peerConnected) {
+            sendMessage(message.encode());
+        }
+    }
+
+    /**
+     * Makes sure all messages sent so far are on their way to the peer.
+     * Does not fail when not connected, but `isPeerconnected()` will return false afterwards.
+     */
+    public void flush() {
+        if (peerConnected) {
+            try {
+                connection.flush();
+            } catch (DeadConnectionException e) {
+                connectionLost();
             }
         }
     }
@@ -0,0 +1,335 @@
+package ss.spec.networking;
+
+import ss.spec.gamepieces.Tile;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A message a client sends to the server.
+ * <p>
+ * Decode a received line with `decode()`, and pass the result to a `Handler` with `accept()`.
+ */
+public abstract class ClientMessage extends ProtocolMessage {
+
+    /**
+     * Does something with every kind of message a client can send.
+     */
+    public interface Handler {
+        void handle(Connect message) throws InvalidCommandException;
+
+        void handle(Request message) throws InvalidCommandException;
+
+        void handle(Place message) throws InvalidCommandException;
+
+        void handle(Skip message) throws InvalidCommandException;
+
+        void handle(Exchange message) throws InvalidCommandException;
+
+        void handle(Chat message) throws InvalidCommandException;
+
+        void handle(InvalidCommand message) throws InvalidCommandException;
+    }
+
+    public static final Skip SKIP = new Skip();
+    public static final InvalidCommand INVALID_COMMAND = new InvalidCommand();
+
+    private static final String[] COMMANDS = {
+            "connect", "request", "place", "skip", "exchange", "chat",
+            AbstractPeer.INVALID_COMMAND_ERROR_MESSAGE
+    };
+
+    // Only the messages below.
+    ClientMessage() {
+    }
+
+    public abstract void accept(Handler handler) throws InvalidCommandException;
+
+    /**
+     * Decodes a message received from a client.
+     *
+     * @param tokens A tokenizer over the received line.
+     * @return The message.
+     * @throws InvalidCommandException When the line is not a valid message.
+     */
+    public static ClientMessage decode(MessageTokenizer tokens) throws InvalidCommandException {
+        if (!tokens.hasNext()) {
+            throw new InvalidCommandException("Empty command received.");
+        }
+
+        String command = tokens.nextKeyword(COMMANDS);
+
+        switch (command) {
+            case "connect":
+                // We cannot check for spaces in the name, because a space means we start
+                // with the list of extensions.
+                return new Connect(decodeWord(tokens, "Connect message does not have a name."),
+                        decodeWords(tokens));
+            case "request":
+                return new Request(
+                        decodeInt(tokens, "Request message does not have a number."));
+            case "place":
+                Tile tile = decodeTile(tokens, "Move message does not have a tile.");
+                expectWord(tokens, "on", "Malformed move message.");
+                return new Place(tile, decodeInt(tokens, "Move message does not have an index."));
+            case "skip":
+                return SKIP;
+            case "exchange":
+                return new Exchange(decodeTile(tokens, "Exchange message does not have a tile."));
+            case "chat":
+                return new Chat(tokens.rest());
+            case AbstractPeer.INVALID_COMMAND_ERROR_MESSAGE:
+                return INVALID_COMMAND;
+            default:
+                // We don't know this command.
+                throw new InvalidCommandException("Unknown command: " + command + ".");
+        }
+    }
+
+    // ---- Messages -------------------------------------------------------------------------------
+
+    /**
+     * `connect name [extensions]`, the first message a client sends.
+     */
+    public static final class Connect extends ClientMessage {
+        private final String name;
+        private final List<String> extensions;
+
+        public Connect(String name, List<String> extensions) {
+            this.name = name;
+            this.extensions = copyOf(extensions);
+        }
+
+        //@ pure
+        public String getName() {
+            return name;
+        }
+
+        //@ pure
+        public List<String> getExtensions() {
+            return extensions;
+        }
+
+        @Override
+        public void encodeTo(StringBuilder out) {
+            out.append("connect ").append(name);
+            appendWords(out, extensions);
+        }
+
+        @Override
+        public void accept(Handler handler) throws InvalidCommandException {
+            handler.handle(this);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Connect)) {
+                return false;
+            }
+
+            Connect other = (Connect) o;
+            return name.equals(other.name) && extensions.equals(other.extensions);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(name, extensions);
+        }
+    }
+
+    /**
+     * `request amount`, the client wants to play a game with this amount of players.
+     */
+    public static final class Request extends ClientMessage {
+        private final int players;
+
+        public Request(int players) {
+            this.players = players;
+        }
+
+        //@ pure
+        public int getPlayers() {
+            return players;
+        }
+
+        @Override
+        public void encodeTo(StringBuilder out) {
+            out.append("request ").append(players);
+        }
+
+        @Override
+        public void accept(Handler handler) throws InvalidCommandException {
+            handler.handle(this);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Request && players == ((Request) o).players;
+        }
+
+        @Override
+        public int hashCode() {
+            return players;
+        }
+    }
+
+    /**
+     * `place tile on index`, the client wants to make this move.
+     */
+    public static final class Place extends ClientMessage {
+        private final Tile tile;
+        private final int index;
+
+        public Place(Tile tile, int index) {
+            this.tile = tile;
+            this.index = index;
+        }
+
+        //@ pure
+        public Tile getTile() {
+            return tile;
+        }
+
+        //@ pure
+        public int getIndex() {
+            return index;
+        }
+
+        @Override
+        public void encodeTo(StringBuilder out) {
+            out.append("place ").append(tile.encode()).append(" on ").append(index);
+        }
+
+        @Override
+        public void accept(Handler handler) throws InvalidCommandException {
+            handler.handle(this);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Place)) {
+                return false;
+            }
+
+            Place other = (Place) o;
+            return tile.equals(other.tile) && index == other.index;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(tile, index);
+        }
+    }
+
+    /**
+     * `skip`, the client skips its turn. Use `SKIP`.
+     */
+    public static final class Skip extends ClientMessage {
+        private Skip() {
+        }
+
+        @Override
+        public void encodeTo(StringBuilder out) {
+            out.append("skip");
+        }
+
+        @Override
+        public void accept(Handler handler) throws InvalidCommandException {
+            handler.handle(this);
+        }
+    }
+
+    /**
+     * `exchange tile`, the client skips its turn, but exchanges a tile.
+     */
+    public static final class Exchange extends ClientMessage {
+        private final Tile tile;
+
+        public Exchange(Tile tile) {
+            this.tile = tile;
+        }
+
+        //@ pure
+        public Tile getTile() {
+            return tile;
+        }
+
+        @Override
+        public void encodeTo(StringBuilder out) {
+            out.append("exchange ").append(tile.encode());
+        }
+
+        @Override
+        public void accept(Handler handler) throws InvalidCommandException {
+            handler.handle(this);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Exchange && tile.equals(((Exchange) o).tile);
+        }
+
+        @Override
+        public int hashCode() {
+            return tile.hashCode();
+        }
+    }
+
+    /**
+     * `chat message`, the client says something to the other clients.
+     */
+    public static final class Chat extends ClientMessage {
+        private final String text;
+
+        public Chat(String text) {
+            this.text = text;
+        }
+
+        /**
+         * @return The message, without surrounding whitespace. Can be empty.
+         */
+        //@ pure
+        public String getText() {
+            return text;
+        }
+
+        @Override
+        public void encodeTo(StringBuilder out) {
+            out.append("chat ").append(text);
+        }
+
+        @Override
+        public void accept(Handler handler) throws InvalidCommandException {
+            handler.handle(this);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Chat && text.equals(((Chat) o).text);
+        }
+
+        @Override
+        public int hashCode() {
+            return text.hashCode();
+        }
+    }
+
+    /**
+     * `invalidCommand`, the client didn't understand something we sent.
+     * Use `INVALID_COMMAND`.
+     */
+    public static final class InvalidCommand extends ClientMessage {
+        private InvalidCommand() {
+        }
+
+        @Override
+        public void encodeTo(StringBuilder out) {
+            out.append(AbstractPeer.INVALID_COMMAND_ERROR_MESSAGE);
+        }
+
+        @Override
+        public void accept(Handler handler) throws InvalidCommandException {
+            handler.handle(this);
+        }
+    }
+}
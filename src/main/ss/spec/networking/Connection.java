@@ -26,6 +26,44 @@ public interface Connection {
      */
     void sendMessage(String message) throws DeadConnectionException;
 
+    /**
+     * Sends a message that has already been encoded, possibly for multiple connections.
+     * If you get a `DeadConnectionException` that means the connection has already been closed.
+     * <p>
+     * By default the text of the message is sent like any other message.
+     * Implementations can override this to write the shared bytes directly.
+     *
+     * @param message The message to send.
+     */
+    default void sendMessage(EncodedMessage message) throws DeadConnectionException {
+        sendMessage(message.getText());
+    }
+
+    /**
+     * Makes sure all messages sent so far are on their way.
+     * Connections that write every message right away don't need to do anything.
+     */
+    default void flush() throws DeadConnectionException {
+        // Nothing to do by default.
+    }
+
+    /**
+     * @return The amount of bytes sent over the connection, or 0 when not kept track of.
+     */
+    //@ pure
+    default long getBytesSent() {
+        return 0;
+    }
+
+    /**
+     * @return The amount of times the connection handed data to the operating system,
+     * or 0 when not kept track of.
+     */
+    //@ pure
+    default long getFlushes() {
+        return 0;
+    }
+
     /**
      * Reads a message from the connection. Is blocking.
      *
@@ -0,0 +1,119 @@
+package ss.spec.networking;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A message that has been encoded into the bytes that go over the wire, including the line end.
+ * <p>
+ * Encode a message once, and send it to as many connections as you like. The bytes are shared
+ * by all of them, so announcing something to every player doesn't build and encode the same
+ * string for every player. Immutable.
+ */
+public final class EncodedMessage {
+
+    private final byte[] bytes;
+    /**
+     * Only made when asked for, when the message was encoded from something other than a string.
+     * Racy, but every thread would make the same string.
+     */
+    private String text;
+
+    private EncodedMessage(String text, byte[] bytes) {
+        this.text = text;
+        this.bytes = bytes;
+    }
+
+    /**
+     * Encodes the given message.
+     *
+     * @param message The message, without line end.
+     * @return The encoded message.
+     */
+    //@ requires message != null;
+    //@ ensures \result.getText().equals(message);
+    public static EncodedMessage of(String message) {
+        byte[] encodedText = message.getBytes(StandardCharsets.UTF_8);
+
+        byte[] bytes = new byte[encodedText.length + 1];
+        System.arraycopy(encodedText, 0, bytes, 0, encodedText.length);
+        bytes[encodedText.length] = '\n';
+
+        return new EncodedMessage(message, bytes);
+    }
+
+    /**
+     * Encodes the given message, straight from the characters.
+     * Messages that are plain ASCII, which is most of the protocol, don't need a string first.
+     *
+     * @param message The message, without line end.
+     * @return The encoded message.
+     */
+    //@ requires message != null;
+    //@ ensures \result.getText().contentEquals(message);
+    public static EncodedMessage of(CharSequence message) {
+        int length = message.length();
+        byte[] bytes = new byte[length + 1];
+
+        for (int i = 0; i < length; i++) {
+            char c = message.charAt(i);
+
+            if (c >= 0x80) {
+                // Not ASCII, let the charset deal with it.
+                return of(message.toString());
+            }
+
+            bytes[i] = (byte) c;
+        }
+        bytes[length] = '\n';
+
+        return new EncodedMessage(null, bytes);
+    }
+
+    /**
+     * @return The message, without line end.
+     */
+    //@ pure
+    public String getText() {
+        if (text == null) {
+            text = new String(bytes, 0, bytes.length - 1, StandardCharsets.UTF_8);
+        }
+
+        return text;
+    }
+
+    /**
+     * @return The amount of bytes that go over the wire, including the line end.
+     */
+    //@ pure
+    public int getLength() {
+        return bytes.length;
+    }
+
+    /**
+     * Gives a read-only view of the bytes. Every call gives a new view, with its own position,
+     * so each connection can keep track of how much of the message it has written.
+     *
+     * @return The bytes of the message, including the line end.
+     */
+    public ByteBuffer asByteBuffer() {
+        return ByteBuffer.wrap(bytes).asReadOnlyBuffer();
+    }
+
+    /**
+     * Writes the bytes to the stream, in a single write.
+     *
+     * @param out The stream to write to.
+     * @throws IOException When the stream throws one.
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(bytes);
+    }
+
+    @Override
+    public String toString() {
+        return getText();
+    }
+}
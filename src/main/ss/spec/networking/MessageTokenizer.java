@@ -0,0 +1,223 @@
+package ss.spec.networking;
+
+import ss.spec.gamepieces.Tile;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Splits a protocol message into its words, like a `Scanner` would, but a lot cheaper.
+ * <p>
+ * A tokenizer is meant to be reused for every message a peer receives, see `reset()`.
+ * Keywords, numbers and tiles are read straight from the message, without creating a string
+ * for the word first. Only words that need to be kept, like names, become new strings.
+ * <p>
+ * Words are separated by whitespace. Not thread safe.
+ */
+public class MessageTokenizer {
+
+    private String message;
+    private int position;
+
+    public MessageTokenizer() {
+        reset("");
+    }
+
+    /**
+     * Starts tokenizing a new message.
+     *
+     * @param newMessage The message to tokenize.
+     * @return This tokenizer.
+     */
+    //@ requires newMessage != null;
+    public MessageTokenizer reset(String newMessage) {
+        this.message = newMessage;
+        this.position = 0;
+
+        return this;
+    }
+
+    /**
+     * @return Whether there is another word left in the message.
+     */
+    public boolean hasNext() {
+        skipWhitespace();
+
+        return position < message.length();
+    }
+
+    /**
+     * @return The next word.
+     * @throws NoSuchElementException When there are no words left.
+     */
+    public String next() {
+        int start = startOfNext();
+
+        return message.substring(start, position);
+    }
+
+    /**
+     * Reads the next word, if it is one of the given keywords.
+     * The keyword itself is returned, so no string is created for it.
+     *
+     * @param keywords The words to look for.
+     * @return The keyword that was found. Otherwise the next word, as a new string.
+     * @throws NoSuchElementException When there are no words left.
+     */
+    public String nextKeyword(String[] keywords) {
+        int start = startOfNext();
+
+        for (String keyword : keywords) {
+            if (wordEquals(start, position, keyword)) {
+                return keyword;
+            }
+        }
+
+        return message.substring(start, position);
+    }
+
+    /**
+     * Skips the next word, but only if it is the given word.
+     *
+     * @param word The word to look for.
+     * @return Whether the next word is `word`. If not, nothing is skipped.
+     */
+    public boolean nextIs(String word) {
+        if (!hasNext()) {
+            return false;
+        }
+
+        int end = endOfWord(position);
+        if (wordEquals(position, end, word)) {
+            position = end;
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Reads the next word as a decimal number.
+     *
+     * @return The number.
+     * @throws DecodeException When there are no words left, or the word is not a number.
+     */
+    public int nextInt() throws DecodeException {
+        if (!hasNext()) {
+            throw new DecodeException("Expected a number, but the message ended.");
+        }
+
+        int start = position;
+        int end = endOfWord(start);
+        int i = start;
+
+        boolean negative = false;
+        if (message.charAt(i) == '-' || message.charAt(i) == '+') {
+            negative = message.charAt(i) == '-';
+            i++;
+        }
+
+        if (i == end) {
+            throw notANumber(start, end);
+        }
+
+        long value = 0;
+        for (; i < end; i++) {
+            int digit = message.charAt(i) - '0';
+
+            if (digit < 0 || digit > 9) {
+                throw notANumber(start, end);
+            }
+
+            value = value * 10 + digit;
+
+            if (value > (long) Integer.MAX_VALUE + 1) {
+                throw notANumber(start, end);
+            }
+        }
+
+        if (negative) {
+            value = -value;
+        }
+
+        if (value > Integer.MAX_VALUE) {
+            throw notANumber(start, end);
+        }
+
+        position = end;
+        return (int) value;
+    }
+
+    /**
+     * Reads the next word as an encoded tile.
+     *
+     * @return The tile.
+     * @throws DecodeException When there are no words left, or the word is not a tile.
+     */
+    public Tile nextTile() throws DecodeException {
+        if (!hasNext()) {
+            throw new DecodeException("Expected a tile, but the message ended.");
+        }
+
+        int end = endOfWord(position);
+        Tile tile = Tile.decode(message, position, end);
+        position = end;
+
+        return tile;
+    }
+
+    /**
+     * Reads the rest of the message, without the surrounding whitespace.
+     *
+     * @return The rest of the message, empty if nothing is left.
+     */
+    public String rest() {
+        skipWhitespace();
+
+        String rest = message.substring(position).trim();
+        position = message.length();
+
+        return rest;
+    }
+
+    // ---------------------------------------------------------------------------------------------
+
+    private void skipWhitespace() {
+        while (position < message.length() && Character.isWhitespace(message.charAt(position))) {
+            position++;
+        }
+    }
+
+    private int endOfWord(int start) {
+        int end = start;
+
+        while (end < message.length() && !Character.isWhitespace(message.charAt(end))) {
+            end++;
+        }
+
+        return end;
+    }
+
+    /**
+     * Moves to the end of the next word.
+     *
+     * @return The start of the word.
+     */
+    private int startOfNext() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        int start = position;
+        position = endOfWord(start);
+
+        return start;
+    }
+
+    private boolean wordEquals(int start, int end, String word) {
+        return end - start == word.length() && message.startsWith(word, start);
+    }
+
+    private DecodeException notANumber(int start, int end) {
+        return new DecodeException("Not a number: \'" + message.substring(start, end) + "\'.");
+    }
+}
@@ -0,0 +1,367 @@
+package ss.spec.networking;
+
+import ss.spec.logging.Logger;
+
+import java.io.IOException;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A non-blocking connection, served by a `NioEventLoop`.
+ * <p>
+ * Instead of a thread per connection that blocks in `readMessage()`, the event loop reads from
+ * many connections at once. Every complete line it reads is handed directly to the peer's
+ * `handleReceivedMessage()`, on the event loop's thread. So `readMessage()` is not supported.
+ * <p>
+ * Messages can be sent from any thread. They are queued, and written by the event loop as soon
+ * as the socket accepts them. A client that stops reading would have its messages queued
+ * forever, so when more than `getMaxQueuedBytes()` are waiting the connection is killed.
+ */
+public class NioConnection implements Connection {
+
+    private static final Logger LOG = Logger.get("network");
+
+    /**
+     * Lines longer than this are not part of the protocol, the connection will be killed.
+     */
+    private static final int MAX_LINE_LENGTH = 64 * 1024;
+    private static final int INITIAL_LINE_LENGTH = 128;
+    /**
+     * The maximum amount of messages to hand to the socket in one write.
+     */
+    private static final int MAX_GATHERED_WRITES = 64;
+    /**
+     * How many bytes can wait to be written by default, before we give up on the client.
+     * A game sends a few hundred bytes per turn, so only a client that stopped reading gets here.
+     */
+    public static final int DEFAULT_MAX_QUEUED_BYTES = 4 * 1024 * 1024;
+
+    private final SocketChannel channel;
+    private final NioEventLoop eventLoop;
+
+    private volatile boolean connectionDead;
+
+    private AbstractPeer peer;
+    private SelectionKey key;
+
+    /**
+     * The bytes of the line that is being received. Only touched by the event loop.
+     */
+    private byte[] lineBytes;
+    private int lineLength;
+
+    private final ConcurrentLinkedQueue<ByteBuffer> writeQueue;
+    private final AtomicBoolean writeRequested;
+    /**
+     * The amount of bytes in `writeQueue` that haven't been written yet.
+     */
+    private final AtomicLong queuedBytes;
+    private final int maxQueuedBytes;
+    private final ByteBuffer[] gatheredWrites;
+
+    // Only written by the event loop.
+    private volatile long bytesSent;
+    private volatile long flushes;
+
+    /**
+     * Creates the connection. Nothing will be read until `start()` is called.
+     *
+     * @param channel   The connected channel.
+     * @param eventLoop The event loop that will serve the connection.
+     */
+    public NioConnection(SocketChannel channel, NioEventLoop eventLoop) {
+        this(channel, eventLoop, DEFAULT_MAX_QUEUED_BYTES);
+    }
+
+    /**
+     * Creates the connection. Nothing will be read until `start()` is called.
+     *
+     * @param channel        The connected channel.
+     * @param eventLoop      The event loop that will serve the connection.
+     * @param maxQueuedBytes How many bytes can wait to be written, before the connection is
+     *                       killed.
+     */
+    //@ requires maxQueuedBytes > 0;
+    public NioConnection(SocketChannel channel, NioEventLoop eventLoop, int maxQueuedBytes) {
+        this.channel = channel;
+        this.eventLoop = eventLoop;
+        this.maxQueuedBytes = maxQueuedBytes;
+
+        connectionDead = !channel.isConnected();
+
+        lineBytes = new byte[INITIAL_LINE_LENGTH];
+        lineLength = 0;
+
+        writeQueue = new ConcurrentLinkedQueue<>();
+        writeRequested = new AtomicBoolean(false);
+        queuedBytes = new AtomicLong(0);
+        gatheredWrites = new ByteBuffer[MAX_GATHERED_WRITES];
+
+        bytesSent = 0;
+        flushes = 0;
+    }
+
+    /**
+     * Starts reading from the connection. Every received line will be passed to the peer.
+     *
+     * @param messagePeer The peer to hand the received messages to.
+     */
+    public void start(AbstractPeer messagePeer) {
+        this.peer = messagePeer;
+
+        eventLoop.register(this);
+    }
+
+    @Override
+    public boolean isDead() {
+        return connectionDead;
+    }
+
+    @Override
+    public void killConnection() {
+        if (!isDead()) {
+            connectionDead = true;
+
+            try {
+                // Also cancels the registration with the selector.
+                channel.close();
+            } catch (IOException e) {
+                LOG.error("Could not close a connection.", e);
+            }
+        }
+    }
+
+    @Override
+    public void sendMessage(String message) throws DeadConnectionException {
+        sendMessage(EncodedMessage.of(message));
+    }
+
+    /**
+     * Queues the shared bytes of the message, they are not copied.
+     * If the client is too far behind on reading, the connection is killed instead.
+     */
+    @Override
+    public void sendMessage(EncodedMessage message) throws DeadConnectionException {
+        if (isDead()) {
+            throw new DeadConnectionException();
+        }
+
+        if (queuedBytes.addAndGet(message.getLength()) > maxQueuedBytes) {
+            LOG.warn("Peer is not reading its messages, disconnecting.");
+            connectionLost();
+            throw new DeadConnectionException();
+        }
+
+        writeQueue.add(message.asByteBuffer());
+        Traffic.messageSent(message.getLength());
+
+        // Only bother the event loop if it doesn't already know there is something to write.
+        if (writeRequested.compareAndSet(false, true)) {
+            eventLoop.requestWrite(this);
+        }
+    }
+
+    /**
+     * Messages are written as soon as the event loop gets to them, all messages that are queued
+     * by then in one go. So there is nothing to flush.
+     */
+    @Override
+    public void flush() throws DeadConnectionException {
+        if (isDead()) {
+            throw new DeadConnectionException();
+        }
+    }
+
+    /**
+     * @return The amount of bytes that wait to be written.
+     */
+    //@ pure
+    public long getQueuedBytes() {
+        return queuedBytes.get();
+    }
+
+    /**
+     * @return How many bytes can wait to be written, before the connection is killed.
+     */
+    //@ pure
+    public int getMaxQueuedBytes() {
+        return maxQueuedBytes;
+    }
+
+    @Override
+    public long getBytesSent() {
+        return bytesSent;
+    }
+
+    /**
+     * @return The amount of writes to the socket.
+     */
+    @Override
+    public long getFlushes() {
+        return flushes;
+    }
+
+    /**
+     * Not supported, received messages are passed to the peer directly.
+     */
+    @Override
+    public String readMessage() throws DeadConnectionException {
+        throw new UnsupportedOperationException(
+                "The event loop passes the messages of a NioConnection to its peer.");
+    }
+
+    // ---- Called by the event loop ---------------------------------------------------------------
+
+    /**
+     * Registers the channel with the event loop's selector.
+     */
+    void register(Selector selector) {
+        try {
+            channel.configureBlocking(false);
+            // Messages are already combined before they are written.
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            key = channel.register(selector, SelectionKey.OP_READ, this);
+        } catch (IOException e) {
+            connectionLost();
+        }
+    }
+
+    /**
+     * Reads whatever is available, and passes every complete line to the peer.
+     *
+     * @param buffer The event loop's read buffer, can be overwritten.
+     */
+    void handleReadable(ByteBuffer buffer) {
+        buffer.clear();
+
+        int read;
+        try {
+            read = channel.read(buffer);
+        } catch (IOException e) {
+            read = -1;
+        }
+
+        if (read < 0) {
+            // Dead connection.
+            connectionLost();
+            return;
+        }
+
+        buffer.flip();
+        Traffic.bytesReceived(read);
+
+        while (buffer.hasRemaining() && !isDead()) {
+            byte b = buffer.get();
+
+            if (b == '\n') {
+                dispatchLine();
+            } else {
+                appendToLine(b);
+            }
+        }
+    }
+
+    /**
+     * Writes as many of the queued messages as the socket accepts.
+     * If the socket is full, the event loop is asked to tell us when it can take more.
+     */
+    void handleWritable() {
+        if (isDead() || key == null) {
+            return;
+        }
+
+        // Anything queued after this will request another write.
+        writeRequested.set(false);
+
+        try {
+            while (true) {
+                int count = 0;
+                for (ByteBuffer buffer : writeQueue) {
+                    if (count == gatheredWrites.length) {
+                        break;
+                    }
+                    gatheredWrites[count++] = buffer;
+                }
+
+                if (count == 0) {
+                    // Everything has been written.
+                    key.interestOps(SelectionKey.OP_READ);
+                    return;
+                }
+
+                long written = channel.write(gatheredWrites, 0, count);
+                bytesSent += written;
+                queuedBytes.addAndGet(-written);
+                flushes++;
+                boolean socketFull = gatheredWrites[count - 1].hasRemaining();
+                Arrays.fill(gatheredWrites, 0, count, null);
+
+                // Drop the messages that have been written completely.
+                ByteBuffer head = writeQueue.peek();
+                while (head != null && !head.hasRemaining()) {
+                    writeQueue.poll();
+                    head = writeQueue.peek();
+                }
+
+                if (socketFull) {
+                    // Continue when the socket has room again.
+                    key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                    return;
+                }
+            }
+        } catch (IOException e) {
+            connectionLost();
+        }
+    }
+
+    /**
+     * Kills the connection and lets the peer know.
+     */
+    void connectionLost() {
+        killConnection();
+
+        if (peer != null) {
+            peer.connectionLost();
+        }
+    }
+
+    private void appendToLine(byte b) {
+        if (lineLength == lineBytes.length) {
+            if (lineLength >= MAX_LINE_LENGTH) {
+                LOG.warn("Peer sent a line that is too long, disconnecting.");
+                connectionLost();
+                return;
+            }
+
+            lineBytes = Arrays.copyOf(lineBytes, Math.min(lineLength * 2, MAX_LINE_LENGTH));
+        }
+
+        lineBytes[lineLength++] = b;
+    }
+
+    private void dispatchLine() {
+        int end = lineLength;
+        if (end > 0 && lineBytes[end - 1] == '\r') {
+            end--;
+        }
+
+        String message = new String(lineBytes, 0, end, StandardCharsets.UTF_8);
+        lineLength = 0;
+        Traffic.messageReceived();
+
+        try {
+            peer.handleReceivedMessage(message);
+        } catch (RuntimeException e) {
+            // Don't let one misbehaving peer take down the event loop, and every other peer.
+            LOG.error("Peer failed to handle a message.", e);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package ss.spec.networking;
+
+import ss.spec.logging.Logger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Serves many `NioConnection`s from a single thread, using a `Selector`.
+ * Run it on its own thread, and stop it with `stop()`.
+ */
+public class NioEventLoop implements Runnable {
+
+    private static final Logger LOG = Logger.get("network");
+
+    private static final int READ_BUFFER_SIZE = 16 * 1024;
+
+    private final Selector selector;
+    /**
+     * Shared by all connections of this loop, as only one of them reads at a time.
+     */
+    private final ByteBuffer readBuffer;
+
+    /**
+     * Work handed to the loop by other threads. Executed on the loop's thread.
+     */
+    private final ConcurrentLinkedQueue<Runnable> tasks;
+
+    private volatile boolean stopLoop;
+
+    public NioEventLoop() throws IOException {
+        selector = Selector.open();
+        readBuffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+        tasks = new ConcurrentLinkedQueue<>();
+        stopLoop = false;
+    }
+
+    /**
+     * Stops the loop on its next iteration, and closes all its connections.
+     */
+    public void stop() {
+        stopLoop = true;
+        selector.wakeup();
+    }
+
+    /**
+     * @return The amount of connections this loop is serving.
+     */
+    //@ pure
+    public int getNumberOfConnections() {
+        return selector.keys().size();
+    }
+
+    void register(NioConnection connection) {
+        submit(() -> connection.register(selector));
+    }
+
+    void requestWrite(NioConnection connection) {
+        submit(connection::handleWritable);
+    }
+
+    private void submit(Runnable task) {
+        tasks.add(task);
+        selector.wakeup();
+    }
+
+    @Override
+    public void run() {
+        while (!stopLoop) {
+            try {
+                selector.select();
+            } catch (IOException e) {
+                LOG.error("Selecting failed, stopping the event loop.", e);
+                break;
+            }
+
+            Runnable task = tasks.poll();
+            while (task != null) {
+                task.run();
+                task = tasks.poll();
+            }
+
+            Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+            while (keys.hasNext()) {
+                SelectionKey key = keys.next();
+                keys.remove();
+
+                NioConnection connection = (NioConnection) key.attachment();
+
+                if (key.isValid() && key.isReadable()) {
+                    connection.handleReadable(readBuffer);
+                }
+                if (key.isValid() && key.isWritable()) {
+                    connection.handleWritable();
+                }
+            }
+        }
+
+        for (SelectionKey key : selector.keys()) {
+            ((NioConnection) key.attachment()).connectionLost();
+        }
+
+        try {
+            selector.close();
+        } catch (IOException e) {
+            LOG.error("Could not close the selector.", e);
+        }
+    }
+}
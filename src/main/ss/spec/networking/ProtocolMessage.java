@@ -0,0 +1,116 @@
+package ss.spec.networking;
+
+import ss.spec.gamepieces.Tile;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A message of the protocol, as an immutable object.
+ * <p>
+ * Messages from the server to a client are `ServerMessage`s, messages from a client to the
+ * server are `ClientMessage`s. Both sides encode and decode messages with these classes,
+ * so there is only one place that knows what the protocol looks like.
+ */
+public abstract class ProtocolMessage {
+
+    /**
+     * Reused by every message encoded on a thread.
+     */
+    private static final ThreadLocal<StringBuilder> ENCODE_BUFFER =
+            ThreadLocal.withInitial(StringBuilder::new);
+
+    // Only the messages in this package.
+    ProtocolMessage() {
+    }
+
+    /**
+     * Appends the message, as it goes over the wire, without the line end.
+     *
+     * @param out The builder to append to.
+     */
+    public abstract void encodeTo(StringBuilder out);
+
+    /**
+     * Encodes the message into bytes that can be sent to any amount of peers.
+     * No string is built for the message along the way.
+     *
+     * @return The encoded message.
+     */
+    public EncodedMessage encode() {
+        StringBuilder out = ENCODE_BUFFER.get();
+        out.setLength(0);
+
+        encodeTo(out);
+
+        return EncodedMessage.of(out);
+    }
+
+    /**
+     * @return The message, as it goes over the wire, without the line end.
+     */
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder();
+        encodeTo(out);
+
+        return out.toString();
+    }
+
+    // ---- Helpers for the messages ---------------------------------------------------------------
+
+    static List<String> copyOf(List<String> words) {
+        return Collections.unmodifiableList(new ArrayList<>(words));
+    }
+
+    static void appendWords(StringBuilder out, List<String> words) {
+        for (int i = 0; i < words.size(); i++) {
+            out.append(' ').append(words.get(i));
+        }
+    }
+
+    static List<String> decodeWords(MessageTokenizer tokens) {
+        List<String> words = new ArrayList<>();
+
+        while (tokens.hasNext()) {
+            words.add(tokens.next());
+        }
+
+        return Collections.unmodifiableList(words);
+    }
+
+    static String decodeWord(MessageTokenizer tokens, String errorMessage)
+            throws InvalidCommandException {
+        if (!tokens.hasNext()) {
+            throw new InvalidCommandException(errorMessage);
+        }
+
+        return tokens.next();
+    }
+
+    static void expectWord(MessageTokenizer tokens, String word, String errorMessage)
+            throws InvalidCommandException {
+        if (!tokens.nextIs(word)) {
+            throw new InvalidCommandException(errorMessage);
+        }
+    }
+
+    static int decodeInt(MessageTokenizer tokens, String errorMessage)
+            throws InvalidCommandException {
+        try {
+            return tokens.nextInt();
+        } catch (DecodeException e) {
+            throw new InvalidCommandException(errorMessage, e);
+        }
+    }
+
+    static Tile decodeTile(MessageTokenizer tokens, String errorMessage)
+            throws InvalidCommandException {
+        try {
+            return tokens.nextTile();
+        } catch (DecodeException e) {
+            throw new InvalidCommandException(errorMessage, e);
+        }
+    }
+}
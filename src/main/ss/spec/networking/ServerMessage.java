@@ -0,0 +1,779 @@
+package ss.spec.networking;
+
+import ss.spec.gamepieces.Tile;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+import static ss.spec.gamepieces.AbstractPlayer.MAX_HAND_SIZE;
+
+/**
+ * A message the server sends to a client.
+ * <p>
+ * Decode a received line with `decode()`, and pass the result to a `Handler` with `accept()`.
+ */
+public abstract class ServerMessage extends ProtocolMessage {
+
+    /**
+     * Does something with every kind of message the server can send.
+     */
+    public interface Handler {
+        void handle(Welcome message) throws InvalidCommandException;
+
+        void handle(Chat message) throws InvalidCommandException;
+
+        void handle(Waiting message) throws InvalidCommandException;
+
+        void handle(Start message) throws InvalidCommandException;
+
+        void handle(Order message) throws InvalidCommandException;
+
+        void handle(Tiles message) throws InvalidCommandException;
+
+        void handle(Move message) throws InvalidCommandException;
+
+        void handle(Replace message) throws InvalidCommandException;
+
+        void handle(Skip message) throws InvalidCommandException;
+
+        void handle(PlayerSkipped message) throws InvalidCommandException;
+
+        void handle(PlayerLeft message) throws InvalidCommandException;
+
+        void handle(Leaderboard message) throws InvalidCommandException;
+
+        void handle(Error message) throws InvalidCommandException;
+    }
+
+    public static final Error INVALID_NAME = new Error(AbstractPeer.INVALID_NAME_ERROR_MESSAGE);
+    public static final Error INVALID_MOVE = new Error(AbstractPeer.INVALID_MOVE_ERROR_MESSAGE);
+    public static final Error INVALID_COMMAND =
+            new Error(AbstractPeer.INVALID_COMMAND_ERROR_MESSAGE);
+
+    private static final String[] COMMANDS = {
+            "welcome", "chat", "waiting", "start", "order", "tiles", "move", "replace", "skip",
+            "player", "game", AbstractPeer.INVALID_NAME_ERROR_MESSAGE,
+            AbstractPeer.INVALID_MOVE_ERROR_MESSAGE, AbstractPeer.INVALID_COMMAND_ERROR_MESSAGE
+    };
+
+    // Only the messages below.
+    ServerMessage() {
+    }
+
+    public abstract void accept(Handler handler) throws InvalidCommandException;
+
+    /**
+     * Decodes a message received from the server.
+     *
+     * @param tokens A tokenizer over the received line.
+     * @return The message.
+     * @throws InvalidCommandException When the line is not a valid message.
+     */
+    public static ServerMessage decode(MessageTokenizer tokens) throws InvalidCommandException {
+        if (!tokens.hasNext()) {
+            throw new InvalidCommandException("Empty command received.");
+        }
+
+        String command = tokens.nextKeyword(COMMANDS);
+
+        switch (command) {
+            case "welcome":
+                return new Welcome(decodeWords(tokens));
+            case "chat":
+                return new Chat(decodeWord(tokens, "Chat message has no name."), tokens.rest());
+            case "waiting":
+                return new Waiting(decodeWords(tokens));
+            case "start":
+                expectWord(tokens, "with", "Malformed start message.");
+                return new Start(decodeWords(tokens));
+            case "order":
+                return new Order(decodeWords(tokens));
+            case "tiles":
+                return Tiles.decodeTiles(tokens);
+            case "move":
+                return new Move(
+                        decodeWord(tokens, "Move message has no name."),
+                        decodeTile(tokens, "Move message has malformed tile."),
+                        decodeInt(tokens, "Move message has malformed index."),
+                        decodeInt(tokens, "Move message has malformed points."));
+            case "replace":
+                return Replace.decodeReplace(tokens);
+            case "skip":
+                return new Skip(decodeWord(tokens, "Skip message has no name."));
+            case "player":
+                if (tokens.nextIs("skipped")) {
+                    return new PlayerSkipped(
+                            decodeWord(tokens, "Player skipped message has no name."));
+                }
+
+                String name = decodeWord(tokens, "Malformed message starting with \'player\'");
+                expectWord(tokens, "left", "Malformed message starting with \'player\'");
+                return new PlayerLeft(name);
+            case "game":
+                return Leaderboard.decodeLeaderboard(tokens);
+            case AbstractPeer.INVALID_NAME_ERROR_MESSAGE:
+                return INVALID_NAME;
+            case AbstractPeer.INVALID_MOVE_ERROR_MESSAGE:
+                return INVALID_MOVE;
+            case AbstractPeer.INVALID_COMMAND_ERROR_MESSAGE:
+                return INVALID_COMMAND;
+            default:
+                throw new InvalidCommandException("Unknown command: " + command + ".");
+        }
+    }
+
+    // ---- Messages -------------------------------------------------------------------------------
+
+    /**
+     * `welcome [extensions]`, the server accepted the name.
+     */
+    public static final class Welcome extends ServerMessage {
+        private final List<String> extensions;
+
+        public Welcome(List<String> extensions) {
+            this.extensions = copyOf(extensions);
+        }
+
+        //@ pure
+        public List<String> getExtensions() {
+            return extensions;
+        }
+
+        @Override
+        public void encodeTo(StringBuilder out) {
+            out.append("welcome");
+            appendWords(out, extensions);
+        }
+
+        @Override
+        public void accept(Handler handler) throws InvalidCommandException {
+            handler.handle(this);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Welcome && extensions.equals(((Welcome) o).extensions);
+        }
+
+        @Override
+        public int hashCode() {
+            return extensions.hashCode();
+        }
+    }
+
+    /**
+     * `chat name message`, a player said something.
+     */
+    public static final class Chat extends ServerMessage {
+        private final String name;
+        private final String text;
+
+        public Chat(String name, String text) {
+            this.name = name;
+            this.text = text;
+        }
+
+        //@ pure
+        public String getName() {
+            return name;
+        }
+
+        //@ pure
+        public String getText() {
+            return text;
+        }
+
+        @Override
+        public void encodeTo(StringBuilder out) {
+            out.append("chat ").append(name).append(' ').append(text);
+        }
+
+        @Override
+        public void accept(Handler handler) throws InvalidCommandException {
+            handler.handle(this);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Chat)) {
+                return false;
+            }
+
+            Chat other = (Chat) o;
+            return name.equals(other.name) && text.equals(other.text);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(name, text);
+        }
+    }
+
+    /**
+     * Base of the messages that are nothing more than a command and a list of names.
+     */
+    abstract static class NameList extends ServerMessage {
+        private final String command;
+        private final List<String> names;
+
+        NameList(String command, List<String> names) {
+            this.command = command;
+            this.names = copyOf(names);
+        }
+
+        //@ pure
+        public List<String> getNames() {
+            return names;
+        }
+
+        @Override
+        public void encodeTo(StringBuilder out) {
+            out.append(command);
+            appendWords(out, names);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o != null && o.getClass() == getClass() && names.equals(((NameList) o).names);
+        }
+
+        @Override
+        public int hashCode() {
+            return names.hashCode();
+        }
+    }
+
+    /**
+     * `waiting names...`, the clients that wait for the same kind of game.
+     */
+    public static final class Waiting extends NameList {
+        public Waiting(List<String> names) {
+            super("waiting", names);
+        }
+
+        @Override
+        public void accept(Handler handler) throws InvalidCommandException {
+            handler.handle(this);
+        }
+    }
+
+    /**
+     * `start with names...`, a game started with these players.
+     */
+    public static final class Start extends NameList {
+        public Start(List<String> names) {
+            super("start with", names);
+        }
+
+        @Override
+        public void accept(Handler handler) throws InvalidCommandException {
+            handler.handle(this);
+        }
+    }
+
+    /**
+     * `order names...`, the order in which the players take their turns.
+     */
+    public static final class Order extends NameList {
+        public Order(List<String> names) {
+            super("order", names);
+        }
+
+        @Override
+        public void accept(Handler handler) throws InvalidCommandException {
+            handler.handle(this);
+        }
+    }
+
+    /**
+     * The tiles in one player's hand, part of the `tiles` message.
+     */
+    public static final class Hand {
+        private final String name;
+        private final List<Tile> tiles;
+
+        /**
+         * @param name  The player.
+         * @param tiles The player's tiles, at most `MAX_HAND_SIZE`.
+         */
+        public Hand(String name, List<Tile> tiles) {
+            if (tiles.size() > MAX_HAND_SIZE) {
+                throw new IllegalArgumentException("A hand has at most " + MAX_HAND_SIZE +
+                        " tiles, got " + tiles.size() + ".");
+            }
+
+            this.name = name;
+            this.tiles = Collections.unmodifiableList(new ArrayList<>(tiles));
+        }
+
+        //@ pure
+        public String getName() {
+            return name;
+        }
+
+        //@ pure
+        public List<Tile> getTiles() {
+            return tiles;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Hand)) {
+                return false;
+            }
+
+            Hand other = (Hand) o;
+            return name.equals(other.name) && tiles.equals(other.tiles);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(name, tiles);
+        }
+    }
+
+    /**
+     * `tiles (name tile tile tile tile)... turn name`, everyone's tiles, and whose turn it is.
+     * Hands with fewer tiles are padded with `null`.
+     */
+    public static final class Tiles extends ServerMessage {
+        private final List<Hand> hands;
+        private final String turn;
+
+        public Tiles(List<Hand> hands, String turn) {
+            this.hands = Collections.unmodifiableList(new ArrayList<>(hands));
+            this.turn = turn;
+        }
+
+        //@ pure
+        public List<Hand> getHands() {
+            return hands;
+        }
+
+        //@ pure
+        public String getTurn() {
+            return turn;
+        }
+
+        @Override
+        public void encodeTo(StringBuilder out) {
+            out.append("tiles ");
+
+            for (int h = 0; h < hands.size(); h++) {
+                Hand hand = hands.get(h);
+                out.append(hand.getName()).append(' ');
+
+                List<Tile> tiles = hand.getTiles();
+                for (int i = 0; i < MAX_HAND_SIZE; i++) {
+                    if (i < tiles.size()) {
+                        out.append(tiles.get(i).encode()).append(' ');
+                    } else {
+                        out.append("null ");
+                    }
+                }
+            }
+
+            out.append("turn ").append(turn);
+        }
+
+        static Tiles decodeTiles(MessageTokenizer tokens) throws InvalidCommandException {
+            List<Hand> hands = new ArrayList<>();
+
+            while (!tokens.nextIs("turn")) {
+                String name = decodeWord(tokens, "Malformed tiles message.");
+
+                List<Tile> tiles = new ArrayList<>(MAX_HAND_SIZE);
+                for (int i = 0; i < MAX_HAND_SIZE; i++) {
+                    if (!tokens.hasNext()) {
+                        throw new InvalidCommandException(
+                                "Not all players have " + MAX_HAND_SIZE + " tile slots");
+                    }
+
+                    // "null" means the player has less than the maximum amount of tiles.
+                    if (!tokens.nextIs("null")) {
+                        tiles.add(decodeTile(tokens, "Malformed tile in the tiles message."));
+                    }
+                }
+
+                hands.add(new Hand(name, tiles));
+            }
+
+            return new Tiles(hands, decodeWord(tokens, "Tiles message does not include turn"));
+        }
+
+        @Override
+        public void accept(Handler handler) throws InvalidCommandException {
+            handler.handle(this);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Tiles)) {
+                return false;
+            }
+
+            Tiles other = (Tiles) o;
+            return hands.equals(other.hands) && turn.equals(other.turn);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(hands, turn);
+        }
+    }
+
+    /**
+     * `move name tile index points`, a player made a move.
+     */
+    public static final class Move extends ServerMessage {
+        private final String name;
+        private final Tile tile;
+        private final int index;
+        private final int points;
+
+        public Move(String name, Tile tile, int index, int points) {
+            this.name = name;
+            this.tile = tile;
+            this.index = index;
+            this.points = points;
+        }
+
+        //@ pure
+        public String getName() {
+            return name;
+        }
+
+        //@ pure
+        public Tile getTile() {
+            return tile;
+        }
+
+        //@ pure
+        public int getIndex() {
+            return index;
+        }
+
+        //@ pure
+        public int getPoints() {
+            return points;
+        }
+
+        @Override
+        public void encodeTo(StringBuilder out) {
+            out.append("move ").append(name)
+                    .append(' ').append(tile.encode())
+                    .append(' ').append(index)
+                    .append(' ').append(points);
+        }
+
+        @Override
+        public void accept(Handler handler) throws InvalidCommandException {
+            handler.handle(this);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Move)) {
+                return false;
+            }
+
+            Move other = (Move) o;
+            return name.equals(other.name) && tile.equals(other.tile) &&
+                    index == other.index && points == other.points;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(name, tile, index, points);
+        }
+    }
+
+    /**
+     * `replace name tile with tile`, a player exchanged a tile.
+     * The replacement is `null` when the bag was empty.
+     */
+    public static final class Replace extends ServerMessage {
+        private final String name;
+        private final Tile previous;
+        private final Tile replacement;
+
+        public Replace(String name, Tile previous, Tile replacement) {
+            this.name = name;
+            this.previous = previous;
+            this.replacement = replacement;
+        }
+
+        //@ pure
+        public String getName() {
+            return name;
+        }
+
+        //@ pure
+        public Tile getPrevious() {
+            return previous;
+        }
+
+        /**
+         * @return The tile that was drawn, `null` if there was none left.
+         */
+        //@ pure
+        public Tile getReplacement() {
+            return replacement;
+        }
+
+        @Override
+        public void encodeTo(StringBuilder out) {
+            out.append("replace ").append(name)
+                    .append(' ').append(previous.encode())
+                    .append(" with ");
+
+            // It can happen that there is no replacement left in the bag.
+            if (replacement == null) {
+                out.append("null");
+            } else {
+                out.append(replacement.encode());
+            }
+        }
+
+        static Replace decodeReplace(MessageTokenizer tokens) throws InvalidCommandException {
+            String name = decodeWord(tokens, "Replace message has no name.");
+            Tile previous = decodeTile(tokens, "Replace message has malformed replaced tile.");
+
+            expectWord(tokens, "with", "Malformed replace message.");
+
+            Tile replacement = null;
+            if (!tokens.nextIs("null")) {
+                replacement = decodeTile(tokens, "Replace message has malformed replacing tile.");
+            }
+
+            return new Replace(name, previous, replacement);
+        }
+
+        @Override
+        public void accept(Handler handler) throws InvalidCommandException {
+            handler.handle(this);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Replace)) {
+                return false;
+            }
+
+            Replace other = (Replace) o;
+            return name.equals(other.name) && previous.equals(other.previous) &&
+                    Objects.equals(replacement, other.replacement);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(name, previous, replacement);
+        }
+    }
+
+    /**
+     * Base of the messages that are nothing more than a command about one player.
+     */
+    abstract static class AboutPlayer extends ServerMessage {
+        private final String prefix;
+        private final String suffix;
+        private final String name;
+
+        AboutPlayer(String prefix, String name, String suffix) {
+            this.prefix = prefix;
+            this.name = name;
+            this.suffix = suffix;
+        }
+
+        //@ pure
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public void encodeTo(StringBuilder out) {
+            out.append(prefix).append(name).append(suffix);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o != null && o.getClass() == getClass() && name.equals(((AboutPlayer) o).name);
+        }
+
+        @Override
+        public int hashCode() {
+            return name.hashCode();
+        }
+    }
+
+    /**
+     * `skip name`, the player can't move, and has to skip or exchange a tile.
+     */
+    public static final class Skip extends AboutPlayer {
+        public Skip(String name) {
+            super("skip ", name, "");
+        }
+
+        @Override
+        public void accept(Handler handler) throws InvalidCommandException {
+            handler.handle(this);
+        }
+    }
+
+    /**
+     * `player skipped name`, the player skipped their turn.
+     */
+    public static final class PlayerSkipped extends AboutPlayer {
+        public PlayerSkipped(String name) {
+            super("player skipped ", name, "");
+        }
+
+        @Override
+        public void accept(Handler handler) throws InvalidCommandException {
+            handler.handle(this);
+        }
+    }
+
+    /**
+     * `player name left`, the player disconnected, which ends the game.
+     */
+    public static final class PlayerLeft extends AboutPlayer {
+        public PlayerLeft(String name) {
+            super("player ", name, " left");
+        }
+
+        @Override
+        public void accept(Handler handler) throws InvalidCommandException {
+            handler.handle(this);
+        }
+    }
+
+    /**
+     * A player's final score, part of the `game finished leaderboard` message.
+     */
+    public static final class Score {
+        private final String name;
+        private final int score;
+
+        public Score(String name, int score) {
+            this.name = name;
+            this.score = score;
+        }
+
+        //@ pure
+        public String getName() {
+            return name;
+        }
+
+        //@ pure
+        public int getScore() {
+            return score;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Score)) {
+                return false;
+            }
+
+            Score other = (Score) o;
+            return name.equals(other.name) && score == other.score;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(name, score);
+        }
+    }
+
+    /**
+     * `game finished leaderboard (name score)...`, the game is over.
+     * The scores are ordered from highest to lowest.
+     */
+    public static final class Leaderboard extends ServerMessage {
+        private final List<Score> scores;
+
+        public Leaderboard(List<Score> scores) {
+            this.scores = Collections.unmodifiableList(new ArrayList<>(scores));
+        }
+
+        //@ pure
+        public List<Score> getScores() {
+            return scores;
+        }
+
+        @Override
+        public void encodeTo(StringBuilder out) {
+            out.append("game finished leaderboard");
+
+            for (int i = 0; i < scores.size(); i++) {
+                Score score = scores.get(i);
+                out.append(' ').append(score.getName()).append(' ').append(score.getScore());
+            }
+        }
+
+        static Leaderboard decodeLeaderboard(MessageTokenizer tokens)
+                throws InvalidCommandException {
+            expectWord(tokens, "finished", "Malformed leaderboard message");
+            expectWord(tokens, "leaderboard", "Malformed leaderboard message");
+
+            List<Score> scores = new ArrayList<>();
+
+            while (tokens.hasNext()) {
+                String name = tokens.next();
+
+                if (!tokens.hasNext()) {
+                    throw new InvalidCommandException("Leaderboard message has name without score");
+                }
+
+                scores.add(new Score(name,
+                        decodeInt(tokens, "Leaderboard message has malformed number")));
+            }
+
+            return new Leaderboard(scores);
+        }
+
+        @Override
+        public void accept(Handler handler) throws InvalidCommandException {
+            handler.handle(this);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Leaderboard && scores.equals(((Leaderboard) o).scores);
+        }
+
+        @Override
+        public int hashCode() {
+            return scores.hashCode();
+        }
+    }
+
+    /**
+     * `invalidName`, `invalidMove` or `invalidCommand`. Use the constants.
+     */
+    public static final class Error extends ServerMessage {
+        private final String error;
+
+        private Error(String error) {
+            this.error = error;
+        }
+
+        //@ pure
+        public String getError() {
+            return error;
+        }
+
+        @Override
+        public void encodeTo(StringBuilder out) {
+            out.append(error);
+        }
+
+        @Override
+        public void accept(Handler handler) throws InvalidCommandException {
+            handler.handle(this);
+        }
+    }
+}
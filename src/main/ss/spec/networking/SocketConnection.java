@@ -1,25 +1,178 @@
 package ss.spec.networking;
 
+import ss.spec.logging.Logger;
+
 import java.io.*;
 import java.net.Socket;
+import java.net.SocketException;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 
+/**
+ * A connection over a blocking socket.
+ * <p>
+ * By default every message is flushed right away. In batching mode, messages are collected in a
+ * buffer and only written when `flush()` is called, so all messages of one game iteration go out
+ * in a single write. To make sure nothing stays in the buffer forever, the buffer is flushed
+ * anyway after the maximum flush delay.
+ * <p>
+ * Writing blocks while the client's receive window is full. A client that stops reading would
+ * hold up the sending thread forever, and with it a thread of the game pool. So a write timeout
+ * can be given: a connection that is stuck in a write for longer than that is killed, which
+ * makes the write fail.
+ */
 public class SocketConnection implements Connection {
 
+    private static final Logger LOG = Logger.get("network");
+
+    private static final int OUTPUT_BUFFER_SIZE = 8 * 1024;
+
+    /**
+     * Write timeout that means writes can block for as long as the client wants.
+     */
+    public static final long NO_WRITE_TIMEOUT = 0;
+    /**
+     * How often the writes are checked for being stuck.
+     */
+    private static final long WATCHDOG_PERIOD_MILLIS = 250;
+
     private final Socket socket;
+    /**
+     * How long a message can wait in the buffer, or 0 to flush every message right away.
+     */
+    private final long maxFlushDelayMillis;
+    /**
+     * How long a write can block before the connection is killed, or `NO_WRITE_TIMEOUT`.
+     */
+    private final long writeTimeoutNanos;
 
     private BufferedReader in;
-    private BufferedWriter out;
+    private OutputStream out;
+
+    private volatile boolean connectionDead;
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+    // Guarded by `writeLock`.
+    private boolean unflushed;
+    private boolean flushScheduled;
+    private long bytesSent;
+    private long flushes;
+
+    /**
+     * When the write that is going on started, by `System.nanoTime()`, or 0 when not writing.
+     * Read by the watchdog.
+     */
+    private volatile long writeStartedNanos;
+
+    /**
+     * Flushes the connections whose messages have waited long enough.
+     * Holder class, so the thread only starts when a connection uses batching.
+     */
+    private static class FlushTimer {
+        private static final ScheduledExecutorService TIMER =
+                Executors.newSingleThreadScheduledExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "flush-timer");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Kills the connections that are stuck in a write.
+     * Holder class, so the check only runs when a connection has a write timeout.
+     * It has its own thread, as a delayed flush to a stuck client blocks the flush timer until
+     * the watchdog kills that client.
+     */
+    private static class WriteWatchdog {
+        private static final Set<SocketConnection> WATCHED = ConcurrentHashMap.newKeySet();
 
-    private boolean connectionDead;
+        private static final ScheduledExecutorService TIMER =
+                Executors.newSingleThreadScheduledExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "write-watchdog");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        static {
+            TIMER.scheduleWithFixedDelay(WriteWatchdog::check,
+                    WATCHDOG_PERIOD_MILLIS, WATCHDOG_PERIOD_MILLIS, TimeUnit.MILLISECONDS);
+        }
+
+        static void watch(SocketConnection connection) {
+            WATCHED.add(connection);
+        }
+
+        private static void check() {
+            long now = System.nanoTime();
+
+            Iterator<SocketConnection> connections = WATCHED.iterator();
+            while (connections.hasNext()) {
+                SocketConnection connection = connections.next();
+
+                if (connection.isDead()) {
+                    connections.remove();
+                } else if (connection.isWriteStuck(now)) {
+                    LOG.warn("Peer is not reading its messages, disconnecting.");
+                    // Closing the socket makes the blocked write fail.
+                    connection.killConnection();
+                    connections.remove();
+                }
+            }
+        }
+    }
 
+    /**
+     * Creates a connection that flushes every message right away.
+     *
+     * @param socket The connected socket.
+     */
     public SocketConnection(Socket socket) {
+        this(socket, 0);
+    }
+
+    /**
+     * Creates a connection.
+     *
+     * @param socket              The connected socket.
+     * @param maxFlushDelayMillis How long messages can wait for `flush()`.
+     *                            With 0 every message is flushed right away.
+     */
+    //@ requires maxFlushDelayMillis >= 0;
+    public SocketConnection(Socket socket, long maxFlushDelayMillis) {
+        this(socket, maxFlushDelayMillis, NO_WRITE_TIMEOUT);
+    }
+
+    /**
+     * Creates a connection that gives up on clients that don't read their messages.
+     *
+     * @param socket              The connected socket.
+     * @param maxFlushDelayMillis How long messages can wait for `flush()`.
+     *                            With 0 every message is flushed right away.
+     * @param writeTimeoutMillis  How long a write can block before the connection is killed,
+     *                            or `NO_WRITE_TIMEOUT`.
+     */
+    //@ requires maxFlushDelayMillis >= 0 && writeTimeoutMillis >= 0;
+    public SocketConnection(Socket socket, long maxFlushDelayMillis, long writeTimeoutMillis) {
         this.socket = socket;
+        this.maxFlushDelayMillis = maxFlushDelayMillis;
+        this.writeTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(writeTimeoutMillis);
+
+        unflushed = false;
+        flushScheduled = false;
+        bytesSent = 0;
+        flushes = 0;
+        writeStartedNanos = 0;
 
         if (socket.isConnected()) {
             connectionDead = false;
             try {
                 in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
-                out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream()));
+                out = new BufferedOutputStream(socket.getOutputStream(), OUTPUT_BUFFER_SIZE);
             } catch (IOException e) {
                 e.printStackTrace();
                 connectionDead = true;
@@ -27,6 +180,10 @@ public class SocketConnection implements Connection {
         } else {
             connectionDead = true;
         }
+
+        if (writeTimeoutNanos != NO_WRITE_TIMEOUT && !connectionDead) {
+            WriteWatchdog.watch(this);
+        }
     }
 
     /**
@@ -68,13 +225,40 @@ public class SocketConnection implements Connection {
      */
     @Override
     public void sendMessage(String message) throws DeadConnectionException {
+        sendMessage(EncodedMessage.of(message));
+    }
+
+    /**
+     * Sends a message that has already been encoded, the bytes are written as they are.
+     * If you get a `DeadConnectionException` that means the connection can be deleted safely.
+     *
+     * @param message The message to send.
+     */
+    @Override
+    public void sendMessage(EncodedMessage message) throws DeadConnectionException {
         if (isDead()) {
             throw new DeadConnectionException();
         }
         try {
-            out.write(message);
-            out.newLine();
-            out.flush();
+            // One write per message, so messages from different threads don't get mixed up.
+            writeLock.lock();
+            try {
+                startWrite();
+                message.writeTo(out);
+                bytesSent += message.getLength();
+                Traffic.messageSent(message.getLength());
+                unflushed = true;
+
+                if (maxFlushDelayMillis == 0) {
+                    flushBuffer();
+                } else if (!flushScheduled) {
+                    flushScheduled = true;
+                    scheduleDelayedFlush();
+                }
+            } finally {
+                writeStartedNanos = 0;
+                writeLock.unlock();
+            }
         } catch (IOException e) {
             // Going to assume the connection is dead.
             killConnection();
@@ -82,6 +266,126 @@ public class SocketConnection implements Connection {
         }
     }
 
+    @Override
+    public void flush() throws DeadConnectionException {
+        if (isDead()) {
+            throw new DeadConnectionException();
+        }
+
+        try {
+            writeLock.lock();
+            try {
+                startWrite();
+                flushBuffer();
+            } finally {
+                writeStartedNanos = 0;
+                writeLock.unlock();
+            }
+        } catch (IOException e) {
+            // Going to assume the connection is dead.
+            killConnection();
+            throw new DeadConnectionException();
+        }
+    }
+
+    /**
+     * Makes the operating system send segments right away, instead of waiting a little to
+     * combine small writes (Nagle's algorithm). Useful in batching mode, where messages are
+     * already combined before they are written.
+     *
+     * @param noDelay True to send right away.
+     */
+    public void setTcpNoDelay(boolean noDelay) {
+        try {
+            socket.setTcpNoDelay(noDelay);
+        } catch (SocketException e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public long getBytesSent() {
+        writeLock.lock();
+        try {
+            return bytesSent;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public long getFlushes() {
+        writeLock.lock();
+        try {
+            return flushes;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Lets the watchdog know a write that might block is starting.
+     */
+    //@ requires writeLock.isHeldByCurrentThread();
+    private void startWrite() {
+        // Never 0, that means not writing.
+        writeStartedNanos = System.nanoTime() | 1;
+    }
+
+    /**
+     * @param now The current time, by `System.nanoTime()`.
+     * @return true if a write has been blocked for longer than the write timeout.
+     */
+    private boolean isWriteStuck(long now) {
+        long started = writeStartedNanos;
+
+        return started != 0 && now - started > writeTimeoutNanos;
+    }
+
+    //@ requires writeLock.isHeldByCurrentThread();
+    private void flushBuffer() throws IOException {
+        if (unflushed) {
+            unflushed = false;
+            flushes++;
+            out.flush();
+        }
+    }
+
+    private void scheduleDelayedFlush() {
+        FlushTimer.TIMER.schedule(this::delayedFlush, maxFlushDelayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Called by the flush timer, when the first message that wasn't flushed has waited long enough.
+     * The timer is shared by all connections, so it doesn't wait for a write that is going on.
+     * It tries again later instead.
+     */
+    private void delayedFlush() {
+        if (isDead()) {
+            return;
+        }
+
+        if (!writeLock.tryLock()) {
+            // Still marked as scheduled, so no sender schedules another.
+            scheduleDelayedFlush();
+            return;
+        }
+
+        try {
+            try {
+                flushScheduled = false;
+                startWrite();
+                flushBuffer();
+            } finally {
+                writeStartedNanos = 0;
+                writeLock.unlock();
+            }
+        } catch (IOException e) {
+            // The next send will notice.
+            killConnection();
+        }
+    }
+
     @Override
     public String readMessage() throws DeadConnectionException {
         if (isDead()) {
@@ -104,6 +408,10 @@ public class SocketConnection implements Connection {
             throw new DeadConnectionException();
         }
 
+        Traffic.messageReceived();
+        // The reader already decoded the line, this is exact as long as it is ASCII.
+        Traffic.bytesReceived(message.length() + 1);
+
         return message;
     }
 }
@@ -0,0 +1,62 @@
+package ss.spec.networking;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the messages and bytes that went through all connections in this process, so the
+ * server can report its throughput.
+ * <p>
+ * Every connection adds to the same counters from its own thread, `LongAdder`s keep that from
+ * becoming a point of contention.
+ */
+public final class Traffic {
+
+    private static final LongAdder MESSAGES_SENT = new LongAdder();
+    private static final LongAdder BYTES_SENT = new LongAdder();
+    private static final LongAdder MESSAGES_RECEIVED = new LongAdder();
+    private static final LongAdder BYTES_RECEIVED = new LongAdder();
+
+    private Traffic() {
+    }
+
+    static void messageSent(int bytes) {
+        MESSAGES_SENT.increment();
+        BYTES_SENT.add(bytes);
+    }
+
+    static void messageReceived() {
+        MESSAGES_RECEIVED.increment();
+    }
+
+    static void bytesReceived(int bytes) {
+        BYTES_RECEIVED.add(bytes);
+    }
+
+    /**
+     * @return The amount of messages handed to a connection to send.
+     */
+    public static long getMessagesSent() {
+        return MESSAGES_SENT.sum();
+    }
+
+    /**
+     * @return The amount of bytes of the messages handed to a connection to send.
+     */
+    public static long getBytesSent() {
+        return BYTES_SENT.sum();
+    }
+
+    /**
+     * @return The amount of messages received by all connections.
+     */
+    public static long getMessagesReceived() {
+        return MESSAGES_RECEIVED.sum();
+    }
+
+    /**
+     * @return The amount of bytes received by all connections.
+     */
+    public static long getBytesReceived() {
+        return BYTES_RECEIVED.sum();
+    }
+}
@@ -0,0 +1,50 @@
+package ss.spec.server;
+
+import ss.spec.networking.Connection;
+import ss.spec.networking.DeadConnectionException;
+import ss.spec.networking.EncodedMessage;
+
+/**
+ * The connection of a peer that lives on the server. There is nobody on the other end, so
+ * messages are dropped, and nothing is ever read.
+ */
+final class BotConnection implements Connection {
+
+    private volatile boolean dead;
+
+    BotConnection() {
+        dead = false;
+    }
+
+    @Override
+    public boolean isDead() {
+        return dead;
+    }
+
+    @Override
+    public void killConnection() {
+        dead = true;
+    }
+
+    @Override
+    public void sendMessage(String message) throws DeadConnectionException {
+        if (dead) {
+            throw new DeadConnectionException();
+        }
+    }
+
+    @Override
+    public void sendMessage(EncodedMessage message) throws DeadConnectionException {
+        if (dead) {
+            throw new DeadConnectionException();
+        }
+    }
+
+    /**
+     * Bots don't send messages, they act on the peer directly.
+     */
+    @Override
+    public String readMessage() throws DeadConnectionException {
+        throw new DeadConnectionException();
+    }
+}
@@ -0,0 +1,156 @@
+package ss.spec.server;
+
+import ss.spec.bot.BotStrategy;
+import ss.spec.gamepieces.Move;
+import ss.spec.gamepieces.Tile;
+import ss.spec.logging.LogLevel;
+import ss.spec.logging.Logger;
+import ss.spec.networking.ClientMessage;
+import ss.spec.networking.InvalidCommandException;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A player that lives on the server, used to fill the empty seats of a game.
+ * <p>
+ * There is no client and no thread behind it. When the game asks it for a move, it decides
+ * right there on the game thread, and answers the way a client's message would. The game can't
+ * tell the difference, and a bot costs no more than the objects it is made of.
+ */
+public class BotPeer extends ClientPeer {
+
+    private static final Logger LOG = Logger.get("bot");
+
+    /**
+     * How long a bot may think about a move, so it never holds up the game thread.
+     */
+    public static final long MOVE_BUDGET_NANOS = TimeUnit.MICROSECONDS.toNanos(500);
+
+    /**
+     * How many invalid moves a bot makes in a game before it gives up on it.
+     * Only a broken strategy makes any, and it shouldn't keep the game going forever.
+     */
+    public static final int MAX_INVALID_MOVES = 3;
+
+    /**
+     * Numbers the bots on the server, so every bot gets its own name.
+     */
+    private static final AtomicLong NEXT_BOT_NUMBER = new AtomicLong(1);
+
+    private final BotStrategy strategy;
+
+    /**
+     * The game we play in, and who we are in it. Only used on the game thread.
+     */
+    private Game game;
+    private Player player;
+
+    private int invalidMoves;
+
+    /**
+     * @param name     The name of the bot.
+     * @param strategy How the bot decides its moves.
+     */
+    //@ requires name != null && strategy != null;
+    public BotPeer(String name, BotStrategy strategy) {
+        super(new BotConnection(), name);
+
+        this.strategy = strategy;
+        game = null;
+        player = null;
+        invalidMoves = 0;
+    }
+
+    /**
+     * Creates a bot with a name that nobody on the server has, and reserves that name.
+     *
+     * @param names    The names in use on the server.
+     * @param strategy How the bot decides its moves.
+     * @return The bot.
+     */
+    //@ requires names != null && strategy != null;
+    //@ ensures names.getOwner(\result.getName()) == \result;
+    public static BotPeer withUniqueName(NameRegistry names, BotStrategy strategy) {
+        while (true) {
+            BotPeer bot = new BotPeer("bot-" + NEXT_BOT_NUMBER.getAndIncrement(), strategy);
+
+            if (names.reserve(bot.getName(), bot)) {
+                return bot;
+            }
+        }
+    }
+
+    @Override
+    public boolean isBot() {
+        return true;
+    }
+
+    @Override
+    void joinedGame(Game game, Player player) {
+        this.game = game;
+        this.player = player;
+        invalidMoves = 0;
+    }
+
+    @Override
+    public void clientDecideMove() {
+        super.clientDecideMove();
+
+        long start = System.nanoTime();
+        Move move = strategy.decideMove(game.getBoard(), player.getTiles());
+        ServerMetrics.BOT_DECISION.record(System.nanoTime() - start);
+
+        if (move == null) {
+            giveUp("found no move");
+            return;
+        }
+
+        try {
+            handle(new ClientMessage.Place(move.getTile(), move.getIndex()));
+        } catch (InvalidCommandException e) {
+            giveUp("was not allowed to move: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void clientDecideSkip() {
+        super.clientDecideSkip();
+
+        Tile replaceTile = strategy.decideReplaceTile(game.getBoard(), player.getTiles(),
+                game.getTileBag().getNumTilesLeft());
+
+        try {
+            if (replaceTile == null) {
+                handle(ClientMessage.SKIP);
+            } else {
+                handle(new ClientMessage.Exchange(replaceTile));
+            }
+        } catch (InvalidCommandException e) {
+            giveUp("was not allowed to move: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void invalidMove() {
+        invalidMoves++;
+
+        if (invalidMoves >= MAX_INVALID_MOVES) {
+            giveUp("made " + invalidMoves + " invalid moves");
+            return;
+        }
+
+        super.invalidMove();
+    }
+
+    /**
+     * Leaves the game, the way a client would by disconnecting.
+     */
+    private void giveUp(String reason) {
+        if (LOG.isEnabled(LogLevel.WARN)) {
+            LOG.warn("Bot \'" + getName() + "\' gives up, it " + reason);
+        }
+
+        disconnect();
+    }
+}
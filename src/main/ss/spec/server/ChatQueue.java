@@ -0,0 +1,159 @@
+package ss.spec.server;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * The chat messages one client sent, waiting for the lobby or game to distribute them.
+ * <p>
+ * Messages are added by the thread reading from the client, and taken by the lobby or game
+ * thread. Neither has to lock.
+ * <p>
+ * A client can't flood the server with chat: the queue holds at most `capacity` messages, and
+ * messages are only accepted at a limited rate. A client can send a burst of messages, after that
+ * it has to wait for the rate limit to let more through. Messages that don't fit are dropped.
+ */
+public class ChatQueue {
+
+    public static final int DEFAULT_CAPACITY = 32;
+    public static final int DEFAULT_BURST = 10;
+    public static final double DEFAULT_MESSAGES_PER_SECOND = 5;
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final ConcurrentLinkedQueue<String> messages;
+    private final AtomicInteger size;
+    private final int capacity;
+
+    private final int burst;
+    private final long nanosPerMessage;
+    private final LongSupplier nanoClock;
+
+    // Rate limit state. Only touched by `offer()`, which has one caller at a time.
+    private double tokens;
+    private long lastRefill;
+
+    private final AtomicLong dropped;
+
+    /**
+     * Creates a queue with the default limits.
+     */
+    public ChatQueue() {
+        this(DEFAULT_CAPACITY, DEFAULT_BURST, DEFAULT_MESSAGES_PER_SECOND, System::nanoTime);
+    }
+
+    /**
+     * @param capacity          The maximum amount of messages waiting in the queue.
+     * @param burst             The amount of messages that can be sent at once.
+     * @param messagesPerSecond How many messages per second are let through after a burst.
+     * @param nanoClock         Gives the current time in nanoseconds, like `System.nanoTime()`.
+     */
+    //@ requires capacity > 0 && burst > 0 && messagesPerSecond > 0;
+    public ChatQueue(int capacity, int burst, double messagesPerSecond, LongSupplier nanoClock) {
+        if (capacity <= 0 || burst <= 0 || messagesPerSecond <= 0) {
+            throw new IllegalArgumentException("Chat limits have to be positive.");
+        }
+
+        this.messages = new ConcurrentLinkedQueue<>();
+        this.size = new AtomicInteger(0);
+        this.capacity = capacity;
+
+        this.burst = burst;
+        this.nanosPerMessage = (long) (NANOS_PER_SECOND / messagesPerSecond);
+        this.nanoClock = nanoClock;
+
+        this.tokens = burst;
+        this.lastRefill = nanoClock.getAsLong();
+
+        this.dropped = new AtomicLong(0);
+    }
+
+    /**
+     * Adds a message, unless the client is over its rate limit, or the queue is full.
+     * Should only be called by one thread at a time, the one reading from the client.
+     *
+     * @param message The message to add.
+     * @return Whether the message was added. If not, it was dropped.
+     */
+    //@ requires message != null;
+    public boolean offer(String message) {
+        if (!reserveSpace()) {
+            dropped.incrementAndGet();
+            return false;
+        }
+
+        // Messages that don't fit don't count towards the rate limit.
+        if (!takeToken()) {
+            size.decrementAndGet();
+            dropped.incrementAndGet();
+            return false;
+        }
+
+        messages.add(message);
+        return true;
+    }
+
+    /**
+     * Takes the oldest message from the queue.
+     *
+     * @return The message, or `null` if the queue is empty.
+     */
+    public String poll() {
+        String message = messages.poll();
+
+        if (message != null) {
+            size.decrementAndGet();
+        }
+
+        return message;
+    }
+
+    //@ pure
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * @return The amount of messages that were dropped, because of the rate limit or capacity.
+     */
+    //@ pure
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Refills the tokens for the time that passed, and takes one if there is one.
+     */
+    private boolean takeToken() {
+        long now = nanoClock.getAsLong();
+        long elapsed = now - lastRefill;
+
+        if (elapsed > 0) {
+            tokens = Math.min(burst, tokens + (double) elapsed / nanosPerMessage);
+            lastRefill = now;
+        }
+
+        if (tokens < 1) {
+            return false;
+        }
+
+        tokens--;
+        return true;
+    }
+
+    private boolean reserveSpace() {
+        while (true) {
+            int current = size.get();
+
+            if (current >= capacity) {
+                return false;
+            }
+
+            if (size.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+}
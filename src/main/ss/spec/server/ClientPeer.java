@@ -3,14 +3,23 @@ package ss.spec.server;
 import ss.spec.gamepieces.Board;
 import ss.spec.gamepieces.Move;
 import ss.spec.gamepieces.Tile;
+import ss.spec.logging.LogLevel;
+import ss.spec.logging.Logger;
 import ss.spec.networking.AbstractPeer;
+import ss.spec.networking.ClientMessage;
 import ss.spec.networking.Connection;
-import ss.spec.networking.DecodeException;
+import ss.spec.networking.EncodedMessage;
 import ss.spec.networking.InvalidCommandException;
+import ss.spec.networking.MessageTokenizer;
+import ss.spec.networking.ServerMessage;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class ClientPeer extends AbstractPeer implements ClientMessage.Handler {
+
+    private static final Logger LOG = Logger.get("peer");
 
-public class ClientPeer extends AbstractPeer {
     //@ invariant getName() != null;
     //@ invariant getState() != null;
 	/*@ invariant getState().equals(State.LOBBY_START_WAITING_FOR_PLAYERS) &&
@@ -34,6 +43,10 @@ public class ClientPeer extends AbstractPeer {
      * It is the responsibility of the lobby thread to further the state.
      * <p>
      * GAME: means we are waiting for an action from the game thread.
+     * <p>
+     * Every change of state is a single atomic step. Anything the new state promises, like the
+     * name or the pending action, is written before the state is, so whoever sees the new state
+     * also sees what comes with it.
      * </p>
      */
     public enum State {
@@ -53,40 +66,87 @@ public class ClientPeer extends AbstractPeer {
         GAME_VERIFY_SKIP,
     }
 
-    private String name;
+    /**
+     * We support the chat extension.
+     */
+    private static final ServerMessage.Welcome WELCOME =
+            new ServerMessage.Welcome(Collections.singletonList("chat"));
+
+    private volatile String name;
 
-    private boolean supportsChat;
-    private final LinkedList<String> chatMessages;
+    private volatile boolean supportsChat;
+    private final ChatQueue chatMessages;
+
+    /**
+     * Where we reserve our name ourselves. When `null`, the lobby verifies the name instead.
+     */
+    private final NameRegistry nameRegistry;
+
+    /**
+     * Reused for every received message.
+     */
+    private final MessageTokenizer tokenizer;
 
-    private int requestedPlayerAmount;
+    private volatile int requestedPlayerAmount;
 
-    private State state;
+    private final AtomicReference<State> state;
 
     /**
-     * The move the peer wants to make.
-     * Is only valid when getState() == ClientPeer.State.GAME_VERIFY_MOVE.
+     * Who to tell about state changes, chat messages and disconnects. Can be null.
      */
-    private Move proposedMove;
+    private volatile ClientPeerListener listener;
 
     /**
-     * The tile we propose to replace.
-     * `null` if we want to skip.
-     * Is only valid when getState() == ClientPeer.State.GAME_VERIFY_SKIP.
+     * Who to tell when the peer disconnects, next to `listener`. Can be null.
      */
-    private Tile proposedReplaceTile;
+    private volatile ClientPeerListener disconnectListener;
+
+    /**
+     * What the peer wants to do on its turn.
+     * Is only valid when getState() is ClientPeer.State.GAME_VERIFY_MOVE or GAME_VERIFY_SKIP.
+     * Only written by the peer thread, while the state is PEER_DECIDE_MOVE or PEER_DECIDE_SKIP,
+     * so the game never reads it while it changes.
+     */
+    private volatile PendingAction pendingAction;
+
+    /**
+     * When the game asked the client for a move, to measure how long the client takes.
+     */
+    private volatile long decideMoveStartNanos;
 
     //@ requires connection != null;
     //@ ensures isPeerConnected() == !connection.isDead();
     //@ ensures getState().equals(State.PEER_AWAITING_CONNECT_MESSAGE);
     public ClientPeer(Connection connection, boolean verbose) {
+        this(connection, verbose, null);
+    }
+
+    /**
+     * Creates a peer that reserves its own name, as soon as the client sends it.
+     * This way the client is welcomed right away, without waiting for the lobby.
+     * The name is released again when the client disconnects.
+     *
+     * @param connection   The connection to the client.
+     * @param verbose      Whether to print the messages that are sent and received.
+     * @param nameRegistry The names in use on the server, or `null` to let the lobby verify the
+     *                     name.
+     */
+    //@ requires connection != null;
+    //@ ensures isPeerConnected() == !connection.isDead();
+    //@ ensures getState().equals(State.PEER_AWAITING_CONNECT_MESSAGE);
+    public ClientPeer(Connection connection, boolean verbose, NameRegistry nameRegistry) {
         super(connection, verbose);
 
+        this.nameRegistry = nameRegistry;
+
         name = null;
         this.supportsChat = false;
-        this.chatMessages = new LinkedList<>();
+        this.chatMessages = new ChatQueue();
+        this.tokenizer = new MessageTokenizer();
 
-        state = State.PEER_AWAITING_CONNECT_MESSAGE;
+        state = new AtomicReference<>(State.PEER_AWAITING_CONNECT_MESSAGE);
         requestedPlayerAmount = 0;
+        pendingAction = null;
     }
 
     //@ requires connection != null;
@@ -96,6 +156,24 @@ public class ClientPeer extends AbstractPeer {
         this(connection, false);
     }
 
+    /**
+     * Creates a peer that lives on the server itself, like a bot. It has no client to send a
+     * connect message, so it starts out with its name, ready to be put in a game.
+     * Its name is reserved and released by whoever creates it.
+     *
+     * @param connection The connection to the peer.
+     * @param name       The name of the peer.
+     */
+    //@ requires connection != null && name != null;
+    //@ ensures getName() == name;
+    //@ ensures getState().equals(State.PEER_AWAITING_GAME_REQUEST);
+    protected ClientPeer(Connection connection, String name) {
+        this(connection, false, null);
+
+        this.name = name;
+        state.set(State.PEER_AWAITING_GAME_REQUEST);
+    }
+
     /**
      * The name this client has chosen.
      *
@@ -118,7 +196,7 @@ public class ClientPeer extends AbstractPeer {
      */
     //@ pure
     public State getState() {
-        return state;
+        return state.get();
     }
 
     /**
@@ -146,7 +224,9 @@ public class ClientPeer extends AbstractPeer {
     //@ requires getState().equals(State.GAME_VERIFY_MOVE);
     //@ pure
     public Move getProposedMove() {
-        return proposedMove;
+        PendingAction action = pendingAction;
+
+        return action == null ? null : action.getMove();
     }
 
     /**
@@ -161,7 +241,7 @@ public class ClientPeer extends AbstractPeer {
     //@ ensures \result == (getProposedReplaceTile() == null);
     //@ pure
     public boolean wantsToSkip() {
-        return proposedReplaceTile == null;
+        return getProposedReplaceTile() == null;
     }
 
     /**
@@ -175,7 +255,106 @@ public class ClientPeer extends AbstractPeer {
     //@ requires getState().equals(State.GAME_VERIFY_SKIP);
     //@ pure
     public Tile getProposedReplaceTile() {
-        return proposedReplaceTile;
+        PendingAction action = pendingAction;
+
+        return action == null ? null : action.getReplaceTile();
+    }
+
+    /**
+     * What this client wants to do on its turn, as a whole. Reading it once gives a consistent
+     * view, even if the client sends something else right after.
+     * <p>
+     * Is only valid when the client's state is: State.GAME_VERIFY_MOVE or State.GAME_VERIFY_SKIP.
+     *
+     * @return The action this client wants to take. Or `null` if it hasn't sent one yet.
+     */
+    /*@ requires getState().equals(State.GAME_VERIFY_MOVE) ||
+                 getState().equals(State.GAME_VERIFY_SKIP);
+      @*/
+    //@ pure
+    public PendingAction getPendingAction() {
+        return pendingAction;
+    }
+
+    /**
+     * @return true if this peer is played by the server itself, rather than by a client.
+     */
+    //@ pure
+    public boolean isBot() {
+        return false;
+    }
+
+    /**
+     * Sets who to notify when this peer changes state, receives a chat message or disconnects.
+     * Replaces any previous listener.
+     *
+     * @param listener The new listener, or null to stop notifying.
+     */
+    public void setListener(ClientPeerListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Sets who to notify when this peer disconnects, apart from the listener set by the lobby
+     * or game. Replaces any previous disconnect listener.
+     * Set it before checking `isPeerConnected()`, or a disconnect in between might be missed.
+     *
+     * @param disconnectListener The disconnect listener, or null to stop notifying.
+     */
+    void setDisconnectListener(ClientPeerListener disconnectListener) {
+        this.disconnectListener = disconnectListener;
+    }
+
+    private void notifyListener() {
+        ClientPeerListener currentListener = listener;
+
+        if (currentListener != null) {
+            currentListener.peerChanged(this);
+        }
+    }
+
+    private void setState(State newState) {
+        state.set(newState);
+        notifyListener();
+    }
+
+    /**
+     * Moves to the next state, but only if we are still in the expected state.
+     * Listeners are only notified when the state actually changed.
+     *
+     * @param expected The state we should be in.
+     * @param next     The state to move to.
+     * @return true if the state changed, false if we were in another state.
+     */
+    private boolean transition(State expected, State next) {
+        if (state.compareAndSet(expected, next)) {
+            notifyListener();
+            return true;
+        }
+
+        return false;
+    }
+
+    @Override
+    protected void peerDisconnected() {
+        releaseName();
+        notifyListener();
+
+        ClientPeerListener currentDisconnectListener = disconnectListener;
+        if (currentDisconnectListener != null) {
+            currentDisconnectListener.peerChanged(this);
+        }
+    }
+
+    /**
+     * Gives up the name we reserved ourselves, if any.
+     */
+    private void releaseName() {
+        String currentName = name;
+
+        if (nameRegistry != null && currentName != null) {
+            nameRegistry.release(currentName, this);
+        }
     }
 
     /**
@@ -185,11 +364,16 @@ public class ClientPeer extends AbstractPeer {
      * @return The next chat message in the queue. `null` if the queue is empty.
      */
     public String getNextChatMessage() {
-        try {
-            return chatMessages.removeFirst();
-        } catch (NoSuchElementException e) {
-            return null;
-        }
+        return chatMessages.poll();
+    }
+
+    /**
+     * @return The amount of chat messages of this client that were dropped, because it sent
+     * too many.
+     */
+    //@ pure
+    public long getDroppedChatMessages() {
+        return chatMessages.getDroppedCount();
     }
 
     // ---------------------------------------------------------------------------------------------
@@ -197,266 +381,243 @@ public class ClientPeer extends AbstractPeer {
     /**
      * This method is called by the inherited `run()` method of `AbstractPeer` when a new message
      * has been received.
-     * This method parses the first word of the message, and identifies the command based on that
-     * word. It then calls the correct parsing function for that command.
+     * This method decodes the message, and calls the correct handler for that command.
      * <p>
-     * If the command cannot be parsed, either by this function or one of the called parsers,
-     * then a message will be sent to the client stating that it sent an invalid command.
+     * If the command cannot be decoded or handled, then a message will be sent to the client
+     * stating that it sent an invalid command.
      *
      * @param message The message that was received.
      */
     @Override
     public void handleReceivedMessage(String message) {
-        if (verbosePrinting()) {
-            System.out.println("Client \'" + name + "\' sent: \'" + message + "\'");
+        if (verbosePrinting() && PROTOCOL_LOG.isEnabled(LogLevel.INFO)) {
+            PROTOCOL_LOG.info("Client \'" + name + "\' sent: \'" + message + "\'");
         }
 
-        Scanner scanner = new Scanner(message);
-
-        if (scanner.hasNext()) {
-            String command = scanner.next();
-
-            try {
-                switch (command) {
-                    case "connect":
-                        parseConnectMessage(scanner);
-                        break;
-                    case "request":
-                        parseRequestMessage(scanner);
-                        break;
-                    case "place":
-                        parseMoveMessage(scanner);
-                        break;
-                    case "skip":
-                        parseSkipMessage(scanner);
-                        break;
-                    case "exchange":
-                        parseExchangeMessage(scanner);
-                        break;
-                    case "chat":
-                        parseChatMessage(scanner);
-                        break;
-                    case "invalidCommand":
-                        System.out.println("Uh oh! It looks like we sent an invalid command!");
-                        break;
-                    default:
-                        // We don't know this command.
-                        throw new InvalidCommandException("Unknown command: " + command + ".");
-                }
-            } catch (InvalidCommandException e) {
-                System.out.println("Invalid command: \'" + e.getMessage() + "\'.");
-                sendInvalidCommandError(e);
+        try {
+            ClientMessage.decode(tokenizer.reset(message)).accept(this);
+        } catch (InvalidCommandException e) {
+            if (LOG.isEnabled(LogLevel.WARN)) {
+                LOG.warn("Invalid command: \'" + e.getMessage() + "\'.");
             }
-        } else {
-            sendInvalidCommandError(new InvalidCommandException("Empty command received."));
+            sendInvalidCommandError(e);
         }
     }
 
     /**
-     * Parses the connect message.
-     * If the message parses, it sets the name value and the extensions.
+     * Handles the connect message.
+     * Sets the name value and the extensions.
+     * <p>
+     * If we have a `NameRegistry`, the name is reserved right away, and the client is welcomed or
+     * told the name is taken. Otherwise the lobby verifies the name.
      *
-     * @param message A scanner over the message that needs parsing.
+     * @param message The connect message.
      */
     /*@ signals (InvalidCommandException e)
-                !\old(getState()).equals(State.PEER_AWAITING_CONNECT_MESSAGE) ||
-                !message.hasNext();
+                !\old(getState()).equals(State.PEER_AWAITING_CONNECT_MESSAGE);
       @ ensures \old(getState()).equals(State.PEER_AWAITING_CONNECT_MESSAGE) &&
-                message.hasNext() &&
-                getState().equals(State.LOBBY_VERIFY_NAME) &&
+                (getState().equals(State.LOBBY_VERIFY_NAME) ||
+                 getState().equals(State.PEER_AWAITING_GAME_REQUEST)) &&
                 getName() != null;
       @*/
-    private void parseConnectMessage(Scanner message)
-            throws InvalidCommandException {
-
+    @Override
+    public void handle(ClientMessage.Connect message) throws InvalidCommandException {
         if (!getState().equals(State.PEER_AWAITING_CONNECT_MESSAGE)) {
             throw new InvalidCommandException("Not expecting a connect message.");
         }
 
-        if (!message.hasNext()) {
-            // Whoops, `connect` message with no name.
-            throw new InvalidCommandException("Connect message does not have a name.");
+        String newName = message.getName();
+
+        if (LOG.isEnabled(LogLevel.INFO)) {
+            LOG.info("Client connected with name: " + newName);
         }
 
-        String newName = message.next();
-        // Wait for the lobby to verify the given name.
-        state = State.LOBBY_VERIFY_NAME;
+        // See if the client supports the chat extension.
+        if (message.getExtensions().contains("chat")) {
+            this.supportsChat = true;
+        }
 
-        // We cannot check for spaces in the name, because a space means we start
-        // with the list of extensions.
+        if (nameRegistry == null) {
+            this.name = newName;
 
-        System.out.println("Client connected with name: " + newName);
+            // Wait for the lobby to verify the given name.
+            if (!transition(State.PEER_AWAITING_CONNECT_MESSAGE, State.LOBBY_VERIFY_NAME)) {
+                throw new InvalidCommandException("Not expecting a connect message.");
+            }
+            return;
+        }
+
+        if (!NameRegistry.isValidName(newName) || !nameRegistry.reserve(newName, this)) {
+            // Bad or already used name, the client can try another.
+            sendInvalidNameError();
+            return;
+        }
 
         this.name = newName;
 
-        // See if the client supports the chat extension.
-        while (message.hasNext()) {
-            if (message.next().equals("chat")) {
-                this.supportsChat = true;
-            }
+        if (!isPeerConnected()) {
+            // Disconnected before the name was set, so `peerDisconnected()` couldn't release it.
+            releaseName();
+            return;
+        }
+
+        if (!transition(State.PEER_AWAITING_CONNECT_MESSAGE, State.PEER_AWAITING_GAME_REQUEST)) {
+            releaseName();
+            this.name = null;
+            throw new InvalidCommandException("Not expecting a connect message.");
         }
+
+        sendWelcomeMessage();
     }
 
 
     /**
-     * Parses a request message and remembers the amount of players requested.
-     * If the message parses correctly, the state advances to
-     * `State.LOBBY_START_WAITING_FOR_PLAYERS`.
-     * <p>
-     * Can't @ensure anything in the JML because that requires calls to message.nextInt(),
-     * which is not a pure method.
+     * Handles a request message and remembers the amount of players requested.
+     * If the request is valid, the state advances to `State.LOBBY_START_WAITING_FOR_PLAYERS`.
      *
-     * @param message The message to parse.
-     * @throws InvalidCommandException When the message cannot be parsed as a `request` command.
+     * @param message The request message.
+     * @throws InvalidCommandException When the client can't request this game now.
      */
     /*@ signals (InvalidCommandException e)
 	    		!\old(getState()).equals(State.PEER_AWAITING_GAME_REQUEST) ||
-	    		!message.hasNext();
+	    		message.getPlayers() < 2 || message.getPlayers() > 4;
 	  @ requires message != null;
 	  @*/
-    private void parseRequestMessage(Scanner message) throws InvalidCommandException {
+    @Override
+    public void handle(ClientMessage.Request message) throws InvalidCommandException {
         if (getState() != State.PEER_AWAITING_GAME_REQUEST) {
             throw new InvalidCommandException("Not expecting a game request.");
         }
 
-        if (!message.hasNext()) {
-            throw new InvalidCommandException("Request message does not have a number.");
-        }
+        int amount = message.getPlayers();
 
-        try {
-            int amount = message.nextInt();
-
-            // 2 to 4 players.
-            if (amount >= 2 && amount <= 4) {
-                requestedPlayerAmount = amount;
-                state = State.LOBBY_START_WAITING_FOR_PLAYERS;
-            } else {
-                throw new InvalidCommandException("Can only request 2 to 4 players.");
-            }
+        // 2 to 4 players.
+        if (amount >= 2 && amount <= 4) {
+            requestedPlayerAmount = amount;
 
-        } catch (InputMismatchException e) {
-            // No integer after the `request` message.
-            throw new InvalidCommandException("Request message does not have a number.");
+            if (!transition(State.PEER_AWAITING_GAME_REQUEST,
+                    State.LOBBY_START_WAITING_FOR_PLAYERS)) {
+                throw new InvalidCommandException("Not expecting a game request.");
+            }
+        } else {
+            throw new InvalidCommandException("Can only request 2 to 4 players.");
         }
     }
 
     /**
-     * Can't @ensure anything in the JML because that requires calls to message.next(),
-     * which is not a pure method.
+     * Handles a place message, by saving the move so the game can check it.
      *
-     * @param message The message to parse.
-     * @throws InvalidCommandException Thrown when the message can't be parsed propperly.
+     * @param message The place message.
+     * @throws InvalidCommandException Thrown when the client can't make this move now.
      */
     /*@ signals (InvalidCommandException e)
 		        !\old(getState()).equals(State.PEER_DECIDE_MOVE) ||
-		        !message.hasNext();
+		        !Board.isIdValid(message.getIndex());
      @ requires message != null;
 	 @*/
-    private void parseMoveMessage(Scanner message) throws InvalidCommandException {
+    @Override
+    public void handle(ClientMessage.Place message) throws InvalidCommandException {
         if (getState() != State.PEER_DECIDE_MOVE) {
             throw new InvalidCommandException("Client is not allowed to make a move.");
         }
 
-        if (!message.hasNext()) {
-            throw new InvalidCommandException("Move message does not have a tile.");
-        }
-
-        Tile tile;
-
-        try {
-            tile = Tile.decode(message.next());
-        } catch (DecodeException e) {
-            throw new InvalidCommandException("Move message does not have a tile.", e);
-        }
-
-        if (!message.hasNext() || !message.next().equals("on")) {
-            throw new InvalidCommandException("Malformed move message.");
-        }
-
-        if (!message.hasNext()) {
-            throw new InvalidCommandException("Move message does not have an index.");
+        if (!Board.isIdValid(message.getIndex())) {
+            throw new InvalidCommandException("Move message index is invalid.");
         }
 
-        int index;
+        // Read it first, once the game has the move it might ask for another.
+        long askedAt = decideMoveStartNanos;
 
-        try {
-            index = Integer.decode(message.next());
-        } catch (NumberFormatException e) {
-            throw new InvalidCommandException("Move message does not have an index.", e);
-        }
+        // Save the move so that the game thread can check it.
+        proposeAction(PendingAction.move(new Move(message.getTile(), message.getIndex())),
+                State.PEER_DECIDE_MOVE, State.GAME_VERIFY_MOVE);
 
-        if (!Board.isIdValid(index)) {
-            throw new InvalidCommandException("Move message index is invalid.");
+        if (!isBot()) {
+            // Bots answer right away, their time goes in `ServerMetrics.BOT_DECISION`.
+            ServerMetrics.TURN_LATENCY.record(System.nanoTime() - askedAt);
         }
-
-        // Save the move so that the game thread can check it.
-        proposedMove = new Move(tile, index);
-        state = State.GAME_VERIFY_MOVE;
     }
 
     /*@ signals (InvalidCommandException e)
 			    !\old(getState()).equals(State.PEER_DECIDE_SKIP);
       @ ensures getState().equals(State.GAME_VERIFY_SKIP);
 	  @*/
-    private void parseSkipMessage(Scanner message) throws InvalidCommandException {
+    @Override
+    public void handle(ClientMessage.Skip message) throws InvalidCommandException {
         if (getState() != State.PEER_DECIDE_SKIP) {
             throw new InvalidCommandException("Not expecting a skip message.");
         }
 
-        // An exchange tile of `null` means we want to skip.
-        proposedReplaceTile = null;
-        state = State.GAME_VERIFY_SKIP;
+        proposeAction(PendingAction.SKIP, State.PEER_DECIDE_SKIP, State.GAME_VERIFY_SKIP);
     }
 
     /**
-     * Can't @ensure anything in the JML because that requires calls to message.nextInt(),
-     * which is not a pure method.
+     * Handles an exchange message, by saving the tile so the game can check it.
      *
-     * @param message The message to be parsed.
-     * @throws InvalidCommandException Thrown when the message cannot be parsed propperly.
+     * @param message The exchange message.
+     * @throws InvalidCommandException Thrown when the client can't exchange a tile now.
      */
     /*@ signals (InvalidCommandException e)
-				!\old(getState()).equals(State.PEER_DECIDE_SKIP) ||
-		        !message.hasNext();
+				!\old(getState()).equals(State.PEER_DECIDE_SKIP);
 	  @ requires message != null;
 	  @*/
-    private void parseExchangeMessage(Scanner message) throws InvalidCommandException {
+    @Override
+    public void handle(ClientMessage.Exchange message) throws InvalidCommandException {
         if (getState() != State.PEER_DECIDE_SKIP) {
             throw new InvalidCommandException("Not expecting an exchange message.");
         }
 
-        if (!message.hasNext()) {
-            throw new InvalidCommandException("Exchange message does not have a tile.");
-        }
+        proposeAction(PendingAction.replace(message.getTile()),
+                State.PEER_DECIDE_SKIP, State.GAME_VERIFY_SKIP);
+    }
 
-        Tile tile;
+    /**
+     * Publishes the action, and hands it to the game to verify.
+     * The action is written before the state changes, so the game sees it as soon as it sees
+     * the new state.
+     *
+     * @param action   The action the peer wants to take.
+     * @param deciding The state the peer should be in to take this action.
+     * @param verify   The state in which the game verifies the action.
+     * @throws InvalidCommandException When the peer is not deciding (anymore).
+     */
+    private void proposeAction(PendingAction action, State deciding, State verify)
+            throws InvalidCommandException {
+        // The state has been checked by the caller, so the game isn't reading the old action.
+        pendingAction = action;
 
-        try {
-            tile = Tile.decode(message.next());
-        } catch (DecodeException e) {
-            throw new InvalidCommandException("Exchange message does not have a tile.", e);
+        if (!transition(deciding, verify)) {
+            // The game or lobby moved us along in the meantime, like when the game ended.
+            throw new InvalidCommandException("Not expecting this move anymore.");
         }
-
-        proposedReplaceTile = tile;
-        state = State.GAME_VERIFY_SKIP;
     }
 
     /**
      * Cannot ensure anything about `getNextChatMessage()` for that is not pure.
-     * After calling this method with a valid message,
-     * `getNextChatMessage()` will return a valid string.
+     * After calling this method with a chat message that isn't empty,
+     * `getNextChatMessage()` will return that message, unless the client is sending chat
+     * messages too fast. Then the message is dropped.
      *
-     * @param message The message to be parsed.
+     * @param message The chat message.
      */
     //@ requires message != null;
-    private void parseChatMessage(Scanner message) {
-        if (message.hasNextLine()) {
+    @Override
+    public void handle(ClientMessage.Chat message) {
+        if (!message.getText().isEmpty()) {
             // Add the chat message to the message queue.
-            // Remove unnecessary spaces.
-            chatMessages.addLast(message.nextLine().trim());
+            if (chatMessages.offer(message.getText())) {
+                notifyListener();
+            } else if (LOG.isEnabled(LogLevel.DEBUG)) {
+                LOG.debug("Client \'" + name + "\' is chatting too fast, dropped a message.");
+            }
         }
     }
 
+    @Override
+    public void handle(ClientMessage.InvalidCommand message) {
+        LOG.warn("Uh oh! It looks like we sent an invalid command!");
+    }
+
 
     /**
      * Called by the Lobby to signal to the client that the chosen name, as given by
@@ -469,9 +630,7 @@ public class ClientPeer extends AbstractPeer {
 	            getState().equals(State.PEER_AWAITING_GAME_REQUEST);
 	  @*/
     public void acceptName() {
-        if (getState() == State.LOBBY_VERIFY_NAME) {
-            state = State.PEER_AWAITING_GAME_REQUEST;
-
+        if (transition(State.LOBBY_VERIFY_NAME, State.PEER_AWAITING_GAME_REQUEST)) {
             // Let the client know everything is ok.
             sendWelcomeMessage();
         }
@@ -491,9 +650,9 @@ public class ClientPeer extends AbstractPeer {
 	  @*/
     public void rejectName() {
         if (getState() == State.LOBBY_VERIFY_NAME) {
-            state = State.PEER_AWAITING_CONNECT_MESSAGE;
-            // Clear the name.
+            // Clear the name before the peer thread may set a new one.
             name = null;
+            transition(State.LOBBY_VERIFY_NAME, State.PEER_AWAITING_CONNECT_MESSAGE);
 
             // Let the client know that this name is not acceptable.
             sendInvalidNameError();
@@ -507,16 +666,27 @@ public class ClientPeer extends AbstractPeer {
     //@ ensures getState().equals(State.LOBBY_WAITING_FOR_PLAYERS);
     void signalWaitingForPlayers(List<String> names) {
         sendWaitingMessage(names);
-        state = State.LOBBY_WAITING_FOR_PLAYERS;
+        setState(State.LOBBY_WAITING_FOR_PLAYERS);
     }
 
 
+    /**
+     * Called by the game when it is set up, before anyone is asked for a move.
+     * Peers that decide their moves on the server use this to look at the board and their hand.
+     *
+     * @param game   The game this peer plays in.
+     * @param player The player this peer plays as.
+     */
+    void joinedGame(Game game, Player player) {
+        // Clients keep track of the game themselves.
+    }
+
     /**
      * Called by the game to signal this client is now waiting for their turn.
      */
     //@ ensures getState().equals(State.GAME_AWAITING_TURN);
     void awaitTurn() {
-        state = State.GAME_AWAITING_TURN;
+        setState(State.GAME_AWAITING_TURN);
     }
 
     /**
@@ -525,7 +695,8 @@ public class ClientPeer extends AbstractPeer {
      */
     //@ ensures getState().equals(State.PEER_DECIDE_MOVE);
     public void clientDecideMove() {
-        state = State.PEER_DECIDE_MOVE;
+        decideMoveStartNanos = System.nanoTime();
+        setState(State.PEER_DECIDE_MOVE);
     }
 
     /**
@@ -534,7 +705,7 @@ public class ClientPeer extends AbstractPeer {
      */
     //@ ensures getState().equals(State.PEER_DECIDE_SKIP);
     public void clientDecideSkip() {
-        state = State.PEER_DECIDE_SKIP;
+        setState(State.PEER_DECIDE_SKIP);
     }
 
     /**
@@ -543,7 +714,7 @@ public class ClientPeer extends AbstractPeer {
      */
     //@ ensures getState().equals(State.PEER_AWAITING_GAME_REQUEST);
     void returningToLobby() {
-        state = State.PEER_AWAITING_GAME_REQUEST;
+        setState(State.PEER_AWAITING_GAME_REQUEST);
     }
 
     /**
@@ -562,7 +733,7 @@ public class ClientPeer extends AbstractPeer {
 
     private void sendWelcomeMessage() {
         // We support the chat extension.
-        sendMessage("welcome chat");
+        sendMessage(WELCOME);
     }
 
     /**
@@ -572,8 +743,18 @@ public class ClientPeer extends AbstractPeer {
      * @param message    The message the other client sent.
      */
     public void sendChatMessage(String playerName, String message) {
+        sendChatMessage(new ServerMessage.Chat(playerName, message).encode());
+    }
+
+    /**
+     * Sends an encoded `ServerMessage.Chat`, that can be shared with other clients.
+     * Is only sent when the client supports chat.
+     *
+     * @param message The encoded chat message.
+     */
+    public void sendChatMessage(EncodedMessage message) {
         if (supportsChat) {
-            sendMessage("chat " + playerName + " " + message);
+            sendMessage(message);
         }
     }
 
@@ -584,7 +765,7 @@ public class ClientPeer extends AbstractPeer {
      * @param names The other clients who are waiting for the same game as this client.
      */
     public void sendWaitingMessage(List<String> names) {
-        sendMessage("waiting" + convertNameListToProtocol(names));
+        sendMessage(new ServerMessage.Waiting(names));
     }
 
     /**
@@ -594,7 +775,7 @@ public class ClientPeer extends AbstractPeer {
      * @param names The clients who are participating in this game.
      */
     public void sendStartMessage(List<String> names) {
-        sendMessage("start with" + convertNameListToProtocol(names));
+        sendMessage(new ServerMessage.Start(names));
     }
 
     /**
@@ -604,7 +785,7 @@ public class ClientPeer extends AbstractPeer {
      *                  by the names of the players.
      */
     public void sendOrderMessage(List<String> turnOrder) {
-        sendMessage("order" + convertNameListToProtocol(turnOrder));
+        sendMessage(new ServerMessage.Order(turnOrder));
     }
 
     /**
@@ -616,11 +797,7 @@ public class ClientPeer extends AbstractPeer {
      * @param points     The points the player gained by making this move.
      */
     public void sendMoveMessage(String playerName, Move move, int points) {
-        sendMessage("move " +
-                playerName + " " +
-                move.getTile().encode() + " " +
-                move.getIndex() + " " +
-                points);
+        sendMessage(new ServerMessage.Move(playerName, move.getTile(), move.getIndex(), points));
     }
 
     /**
@@ -630,7 +807,7 @@ public class ClientPeer extends AbstractPeer {
      * @param playerName The name of the player who needs to skip or replace a tile.
      */
     public void sendSkipMessage(String playerName) {
-        sendMessage("skip " + playerName);
+        sendMessage(new ServerMessage.Skip(playerName));
     }
 
     /**
@@ -641,17 +818,7 @@ public class ClientPeer extends AbstractPeer {
      * @param replacement The replacing tile.
      */
     public void sendReplaceMessage(String playerName, Tile previous, Tile replacement) {
-        // It can happen that there is no replacement left in the bag.
-        String replacedWith = "null";
-        if (replacement != null) {
-            replacedWith = replacement.encode();
-        }
-
-        sendMessage("replace " +
-                playerName + " " +
-                previous.encode() +
-                " with " +
-                replacedWith);
+        sendMessage(new ServerMessage.Replace(playerName, previous, replacement));
     }
 
     /**
@@ -661,7 +828,7 @@ public class ClientPeer extends AbstractPeer {
      * @param playerName The name of the player who left the game prematurely.
      */
     public void sendPlayerLeftMessage(String playerName) {
-        sendMessage("player " + playerName + " left");
+        sendMessage(new ServerMessage.PlayerLeft(playerName));
     }
 
     /**
@@ -669,7 +836,7 @@ public class ClientPeer extends AbstractPeer {
      * need to chose another.
      */
     public void sendInvalidNameError() {
-        sendMessage(INVALID_NAME_ERROR_MESSAGE);
+        sendMessage(ServerMessage.INVALID_NAME);
     }
 
     /**
@@ -677,25 +844,57 @@ public class ClientPeer extends AbstractPeer {
      * need to propose another.
      */
     public void sendInvalidMoveError() {
-        sendMessage(INVALID_MOVE_ERROR_MESSAGE);
+        sendMessage(ServerMessage.INVALID_MOVE);
     }
 
-
     /**
-     * Converts a list of names into a message usable in the communication protocol.
-     * Includes the space to signal the start of the list of names.
-     *
-     * @param names The list of names to convert.
-     * @return The string to use in the protocol.
+     * What a peer wants to do on its turn: place a tile, replace a tile, or skip.
+     * Immutable, so it can be handed from the peer thread to the game thread as is.
      */
-    private String convertNameListToProtocol(List<String> names) {
-        StringBuilder message = new StringBuilder();
+    public static final class PendingAction {
+
+        static final PendingAction SKIP = new PendingAction(null, null);
+
+        private final Move move;
+        private final Tile replaceTile;
+
+        private PendingAction(Move move, Tile replaceTile) {
+            this.move = move;
+            this.replaceTile = replaceTile;
+        }
+
+        //@ requires move != null;
+        static PendingAction move(Move move) {
+            return new PendingAction(move, null);
+        }
 
-        for (String n : names) {
-            message.append(" ");
-            message.append(n);
+        //@ requires tile != null;
+        static PendingAction replace(Tile tile) {
+            return new PendingAction(null, tile);
         }
 
-        return message.toString();
+        /**
+         * @return The move to make, or `null` when this is not a move.
+         */
+        //@ pure
+        public Move getMove() {
+            return move;
+        }
+
+        /**
+         * @return The tile to replace, or `null` when this is not a replacement.
+         */
+        //@ pure
+        public Tile getReplaceTile() {
+            return replaceTile;
+        }
+
+        /**
+         * @return true if the peer wants to skip its turn.
+         */
+        //@ pure
+        public boolean isSkip() {
+            return move == null && replaceTile == null;
+        }
     }
 }
@@ -0,0 +1,18 @@
+package ss.spec.server;
+
+/**
+ * Gets told when something happens to a `ClientPeer` that its owner (the `Lobby` or a `Game`)
+ * might want to act upon. This way the owner does not have to keep checking up on the peer.
+ */
+public interface ClientPeerListener {
+
+    /**
+     * Called when the peer changed state, received a chat message, or disconnected.
+     * <p>
+     * This is called from whichever thread caused the change, often the peer's own thread.
+     * So implementations should be thread safe, and return quickly.
+     *
+     * @param peer The peer that changed.
+     */
+    void peerChanged(ClientPeer peer);
+}
@@ -1,19 +1,56 @@
 package ss.spec.server;
 
 import ss.spec.gamepieces.*;
+import ss.spec.logging.LogLevel;
+import ss.spec.logging.Logger;
+import ss.spec.networking.EncodedMessage;
+import ss.spec.networking.ProtocolMessage;
+import ss.spec.networking.ServerMessage;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.Executor;
 
 /**
  * Responsible for the whole lifecycle of a Spectrangle Game.
- * The game starts when the `run()` method is called, and ends when the method finishes.
+ * <p>
+ * The game listens to its players' `ClientPeer`s, and only does work when one of them changes.
+ * There are two ways to run a game:
+ * <ul>
+ * <li>Call `run()` on a dedicated thread. The game starts when the method is called, and ends
+ * when the method finishes. While everyone is thinking, the thread sleeps.</li>
+ * <li>Call `startOn()` with an `Executor`. Every time a player changes, a task is handed to the
+ * executor to process the change. This way many games can share a few threads.</li>
+ * </ul>
  */
-public class Game implements Runnable {
+public class Game implements Runnable, ClientPeerListener {
 
-    private boolean gameOver;
+    private static final Logger LOG = Logger.get("game");
+
+    private volatile boolean gameOver;
+
+    /**
+     * Set when one of the players changed, and the game should do another iteration.
+     * Guarded by `eventLock`.
+     */
+    private boolean pendingEvent;
+    private final Object eventLock = new Object();
+
+    /**
+     * The executor to hand iterations to, when started with `startOn()`. Guarded by `eventLock`.
+     */
+    private Executor executor;
+    /**
+     * Whether an iteration task has been handed to the executor and hasn't finished yet.
+     * There is at most one at a time, so the game is never updated by two threads at once.
+     * Guarded by `eventLock`.
+     */
+    private boolean iterationScheduled;
+
+    /**
+     * Who to tell when the game is over. Can be null.
+     */
+    private volatile GameListener listener;
 
     private final ArrayList<Player> players;
     private final Board board;
@@ -41,6 +78,9 @@ public class Game implements Runnable {
         this.bag = bag;
 
         gameOver = false;
+        pendingEvent = false;
+        executor = null;
+        iterationScheduled = false;
 
         this.turnOrder = new ArrayList<>();
     }
@@ -62,7 +102,158 @@ public class Game implements Runnable {
      */
     //@ ensures isGameOver() == true;
     public void gameIsNowOver() {
-        gameOver = true;
+        synchronized (eventLock) {
+            if (gameOver) {
+                // Only end once, so the listener hears about it once.
+                return;
+            }
+
+            gameOver = true;
+        }
+
+        // Stop listening to the players, and wake up the game thread so it can stop.
+        for (Player player : players) {
+            player.getPeer().setListener(null);
+        }
+        signalEvent();
+
+        GameListener currentListener = listener;
+        if (currentListener != null) {
+            currentListener.gameOver(this);
+        }
+    }
+
+    /**
+     * Sets who to notify when this game is over. Replaces any previous listener.
+     *
+     * @param listener The new listener, or null to stop notifying.
+     */
+    public void setListener(GameListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Called by the players' `ClientPeer`s when they change.
+     * Wakes up the game thread.
+     *
+     * @param peer The peer that changed.
+     */
+    @Override
+    public void peerChanged(ClientPeer peer) {
+        signalEvent();
+    }
+
+    private void signalEvent() {
+        Executor scheduleOn = null;
+
+        synchronized (eventLock) {
+            pendingEvent = true;
+            eventLock.notifyAll();
+
+            if (executor != null && !iterationScheduled && !isGameOver()) {
+                iterationScheduled = true;
+                scheduleOn = executor;
+            }
+        }
+
+        // Don't hold the lock while handing off the task.
+        if (scheduleOn != null) {
+            scheduleOn.execute(() -> doScheduledIterations(false));
+        }
+    }
+
+    /**
+     * Starts the game on the given executor, instead of on a dedicated thread.
+     * Sets up the game, and afterwards hands an iteration task to the executor every time one of
+     * the players changes.
+     * Don't call `run()` on a game started this way.
+     *
+     * @param gameExecutor The executor to run the game on.
+     */
+    public void startOn(Executor gameExecutor) {
+        synchronized (eventLock) {
+            executor = gameExecutor;
+            // The set up counts as the first iteration. Changes during the set up will be
+            // handled by that same task, afterwards.
+            iterationScheduled = true;
+        }
+
+        gameExecutor.execute(() -> doScheduledIterations(true));
+    }
+
+    /**
+     * Task handed to the executor. Does iterations until there are no more pending changes.
+     * If an iteration fails, the failure is logged, and the next change schedules a new task.
+     *
+     * @param setUp Whether to set up the game first.
+     */
+    private void doScheduledIterations(boolean setUp) {
+        boolean finished = false;
+
+        try {
+            if (setUp) {
+                setUpGame();
+            }
+
+            while (true) {
+                synchronized (eventLock) {
+                    if (!pendingEvent || isGameOver()) {
+                        // Nothing left to do, the next change will schedule a new task.
+                        iterationScheduled = false;
+                        finished = true;
+                        return;
+                    }
+
+                    pendingEvent = false;
+                }
+
+                doSingleGameThreadIteration();
+            }
+        } catch (RuntimeException e) {
+            LOG.error("Game iteration failed.", e);
+        } finally {
+            if (!finished) {
+                synchronized (eventLock) {
+                    // Otherwise the game is never scheduled again.
+                    iterationScheduled = false;
+                }
+            }
+        }
+    }
+
+    /**
+     * Blocks until one of the players has changed since the last call, or the game is over.
+     * Locking on `eventLock` also makes sure we see everything the peer's thread did before
+     * signalling us.
+     */
+    private void waitForEvent() {
+        synchronized (eventLock) {
+            while (!pendingEvent && !isGameOver()) {
+                try {
+                    eventLock.wait();
+                } catch (InterruptedException e) {
+                    LOG.error("Interrupted while waiting for an event.", e);
+                }
+            }
+
+            pendingEvent = false;
+        }
+    }
+
+    /**
+     * @return The bag the game draws from. A `SeededTileBag` knows the seed to replay the game.
+     */
+    //@ pure
+    public TileBag getTileBag() {
+        return bag;
+    }
+
+    /**
+     * @return The board the game is played on. Only to be read on the game thread.
+     */
+    //@ pure
+    public Board getBoard() {
+        return board;
     }
 
     /**
@@ -77,8 +268,8 @@ public class Game implements Runnable {
      * Run method that will run a complete game from start to end.
      * First sets up the game, and then calls `doSingleGameThreadIteration()` until the game
      * is over.
-     * Sleeps for a small time between iterations, because we can afford to be a few milliseconds
-     * late with updates. This is no FPS after all. And it keeps the processor usage reasonable.
+     * Between iterations it waits until one of the players changes state, sends a chat message
+     * or disconnects, so a game where everyone is thinking costs no processor time.
      */
     @Override
     public void run() {
@@ -87,11 +278,7 @@ public class Game implements Runnable {
         while (!isGameOver()) {
             doSingleGameThreadIteration();
 
-            try {
-                Thread.sleep(10);
-            } catch (InterruptedException e) {
-                e.printStackTrace();
-            }
+            waitForEvent();
         }
     }
 
@@ -102,22 +289,18 @@ public class Game implements Runnable {
      * Makes sure everyone has 4 tiles.
      */
     public void setUpGame() {
+        // Get told when the players do something.
+        for (Player player : players) {
+            player.getPeer().setListener(this);
+            player.getPeer().joinedGame(this, player);
+        }
+
         bag.addAllStartingTiles();
 
         decideTurnOrder();
 
         // Fill the client's tiles till everyone has 4.
-        for (Player player : players) {
-            List<Tile> tiles = player.getTiles();
-            // The turn order procedure can leave players with more than 4 tiles.
-            while (tiles.size() > Player.MAX_HAND_SIZE) {
-                // Put them back in the bag.
-                bag.addTile(tiles.remove(tiles.size() - 1));
-            }
-            while (tiles.size() < Player.MAX_HAND_SIZE) {
-                attemptDrawTileForPlayer(player);
-            }
-        }
+        Dealer.dealStartingHands(players, bag);
 
         // Let the clients know the game is on.
         for (Player player : players) {
@@ -126,13 +309,15 @@ public class Game implements Runnable {
 
             player.getPeer().awaitTurn();
         }
+
+        flushAllPlayers();
     }
 
 
     /**
      * Call this method to do a single iteration of the game loop.
-     * Normally called continuously by the `run()` function to further the game progress,
-     * but can also be called separately if a more granular approach is needed.
+     * Normally called by the `run()` function whenever a player changed, to further the game
+     * progress, but can also be called separately if a more granular approach is needed.
      * <p>
      * A single iteration does the following:
      * <ul>
@@ -196,7 +381,7 @@ public class Game implements Runnable {
 
                         try {
                             // Now we can make the move.
-                            int points = board.makeMove(move);
+                            int points = timedMakeMove(move);
 
                             player.addPoints(points);
                             player.removeTile(move.getTile());
@@ -258,8 +443,9 @@ public class Game implements Runnable {
             // No tiles left in the bag.
             // Are there any players who can make a move?
             boolean noOneCanMove = true;
-            for (Player player : players) {
-                if (board.hasValidMoves(player.getTiles())) {
+            // Indexed loop, this check runs every iteration once the bag is empty.
+            for (int i = 0; i < players.size(); i++) {
+                if (board.hasValidMoves(players.get(i).getTiles())) {
                     // Hey! someone can still move.
                     // The game goes on.
                     noOneCanMove = false;
@@ -272,67 +458,36 @@ public class Game implements Runnable {
                 stopGameNoMovesLeft();
             }
         }
+
+        // Everything this iteration sent goes out together.
+        flushAllPlayers();
     }
 
     /**
-     * Will draw tiles and use the point values to determine the players' turn order.
-     * Equal points are resolved by having the tied players draw again until there is no tie.
-     * Players can end up with more than 4 tiles after this procedure.
+     * Makes the move on the board, and records how long checking and making it took.
      */
-    private void decideTurnOrder() {
-        ArrayList<Player> noTurnYet = new ArrayList<>();
+    private int timedMakeMove(Move move) throws InvalidMoveException {
+        long start = System.nanoTime();
 
-        for (Player player : players) {
-            noTurnYet.add(player);
-            // Draw a tile.
-            try {
-                player.addTileToHand(bag.takeTile());
-            } catch (EmptyTileBagException e) {
-                // This should not be possible.
-                e.printStackTrace();
-            }
+        try {
+            return board.makeMove(move);
+        } finally {
+            ServerMetrics.MOVE_VALIDATION.record(System.nanoTime() - start);
         }
+    }
 
-        while (!noTurnYet.isEmpty()) {
-            int highest = Integer.MIN_VALUE;
-            int tiedPoints = Integer.MIN_VALUE;
-            Player highestPlayer = noTurnYet.get(0);
-
-            for (Player player : noTurnYet) {
-                List<Tile> tiles = player.getTiles();
-
-                int points = tiles.get(tiles.size() - 1).getPoints();
-                if (points > highest) {
-                    highest = points;
-                    highestPlayer = player;
-                } else if (points == highest) {
-                    // The highest is potentially a tie.
-                    tiedPoints = points;
-                }
-            }
-
-            if (highest > tiedPoints) {
-                // No tie for highest, let's add the player to the turn order.
-                turnOrder.add(highestPlayer.getName());
-                noTurnYet.remove(highestPlayer);
-            } else {
-                // Two or more players have the highest value.
-                // Have them draw again.
-                for (Player player : noTurnYet) {
-                    List<Tile> tiles = player.getTiles();
-
-                    int points = tiles.get(tiles.size() - 1).getPoints();
-
-                    if (points == tiedPoints) {
-                        try {
-                            tiles.add(bag.takeTile());
-                        } catch (EmptyTileBagException e) {
-                            // This should not be possible.
-                            e.printStackTrace();
-                        }
-                    }
-                }
+    /**
+     * Will draw tiles and use the point values to determine the players' turn order.
+     * Players can end up with more than 4 tiles after this procedure.
+     */
+    private void decideTurnOrder() {
+        try {
+            for (Player player : Dealer.decideTurnOrder(players, bag)) {
+                turnOrder.add(player.getName());
             }
+        } catch (EmptyTileBagException e) {
+            // This should not be possible.
+            LOG.error("Ran out of tiles while deciding the turn order.", e);
         }
 
         currentTurnPlayer = 0;
@@ -359,24 +514,10 @@ public class Game implements Runnable {
      * All of the cases above are handled gracefully.
      *
      * @param player The player to draw a tile for.
-     * @return A copy of the tile the player got, null if there are no tiles left in the bag.
+     * @return The tile the player got, null if there are no tiles left in the bag.
      */
     private Tile attemptDrawTileForPlayer(Player player) {
-        List<Tile> tiles = player.getTiles();
-        Tile tile = null;
-
-        if (tiles.size() < Player.MAX_HAND_SIZE) {
-            try {
-                tile = bag.takeTile();
-                // Make sure we copy the tile.
-                tiles.add(new Tile(tile));
-            } catch (EmptyTileBagException e) {
-                // Empty bag.
-                // No need to do anything.
-            }
-        }
-
-        return tile;
+        return Dealer.drawTile(player, bag);
     }
 
     /**
@@ -386,46 +527,21 @@ public class Game implements Runnable {
      */
     //@ requires playerName != null;
     private void sendTileAndTurnAnnouncement(String playerName) {
-        StringBuilder message = new StringBuilder();
-
-        message.append("tiles ");
-
-        for (Player player : players) {
-            message.append(player.getName());
-            message.append(" ");
-
-            for (int i = 0; i < 4; i++) {
-                try {
-                    message.append(player.getTiles().get(i).encode());
-                    message.append(" ");
-                } catch (IndexOutOfBoundsException e) {
-                    // No tiles left. Pad message to 4 items.
-                    message.append("null ");
-                }
-            }
-        }
-
-
-        message.append("turn ");
-        message.append(playerName);
+        List<ServerMessage.Hand> hands = new ArrayList<>(players.size());
 
         for (Player player : players) {
-            player.getPeer().sendMessage(message.toString());
+            hands.add(new ServerMessage.Hand(player.getName(), player.getTiles()));
         }
 
-
+        sendToAllPlayers(new ServerMessage.Tiles(hands, playerName));
     }
 
     private void sendMoveAnnouncement(String name, Move move, int points) {
-        for (Player player : players) {
-            player.getPeer().sendMoveMessage(name, move, points);
-        }
+        sendToAllPlayers(new ServerMessage.Move(name, move.getTile(), move.getIndex(), points));
     }
 
     private void sendReplaceAnnouncement(String name, Tile removed, Tile drawn) {
-        for (Player player : players) {
-            player.getPeer().sendReplaceMessage(name, removed, drawn);
-        }
+        sendToAllPlayers(new ServerMessage.Replace(name, removed, drawn));
     }
 
     /**
@@ -434,43 +550,38 @@ public class Game implements Runnable {
      * @param playerName The player who has to skip.
      */
     private void sendSkipAnnouncement(String playerName) {
-        for (Player player : players) {
-            player.getPeer().sendSkipMessage(playerName);
-        }
+        sendToAllPlayers(new ServerMessage.Skip(playerName));
     }
 
     private void sendLeaderBoardAnnouncement() {
-        Map<String, Integer> sortScores = new HashMap<>();
+        List<ServerMessage.Score> scores = new ArrayList<>(players.size());
 
         for (Player player : players) {
-            sortScores.put(player.getName(), player.getScore());
+            scores.add(new ServerMessage.Score(player.getName(), player.getScore()));
         }
 
-        StringBuilder message = new StringBuilder();
+        // Highest score first.
+        scores.sort((a, b) -> Integer.compare(b.getScore(), a.getScore()));
 
-        message.append("game finished leaderboard ");
-
-        // Sort the scores.
-        while (!sortScores.isEmpty()) {
-            int highest = Integer.MIN_VALUE;
-            String highestName = "";
-            for (Map.Entry<String, Integer> score : sortScores.entrySet()) {
-                if (score.getValue() >= highest) {
-                    highest = score.getValue();
-                    highestName = score.getKey();
-                }
-            }
+        sendToAllPlayers(new ServerMessage.Leaderboard(scores));
+    }
 
-            message.append(highestName);
-            message.append(" ");
-            message.append(highest);
-            message.append(" ");
+    /**
+     * Sends the message to every player. The message is encoded only once, for all of them.
+     *
+     * @param message The message to send.
+     */
+    private void sendToAllPlayers(ProtocolMessage message) {
+        EncodedMessage encoded = message.encode();
 
-            sortScores.remove(highestName);
+        for (Player player : players) {
+            player.getPeer().sendMessage(encoded);
         }
+    }
 
+    private void flushAllPlayers() {
         for (Player player : players) {
-            player.getPeer().sendMessage(message.toString());
+            player.getPeer().flush();
         }
     }
 
@@ -482,14 +593,14 @@ public class Game implements Runnable {
      */
     //@ ensures isGameOver() == true;
     private void stopGamePlayerDisconnected(String playerName) {
-        System.out.println("Connection to client \'" + playerName + "\' lost during a game.");
-
-        for (Player player : players) {
-            // We are also sending this message to the one who disconnected.
-            // This is not a problem however, as that is handled gracefully.
-            player.getPeer().sendPlayerLeftMessage(playerName);
+        if (LOG.isEnabled(LogLevel.INFO)) {
+            LOG.info("Connection to client \'" + playerName + "\' lost during a game.");
         }
 
+        // We are also sending this message to the one who disconnected.
+        // This is not a problem however, as that is handled gracefully.
+        sendToAllPlayers(new ServerMessage.PlayerLeft(playerName));
+
         gameIsNowOver();
     }
 
@@ -514,8 +625,11 @@ public class Game implements Runnable {
             String message = player.getPeer().getNextChatMessage();
 
             while (message != null) {
+                EncodedMessage chatMessage =
+                        new ServerMessage.Chat(player.getName(), message).encode();
+
                 for (Player sendPlayer : players) {
-                    sendPlayer.getPeer().sendChatMessage(player.getName(), message);
+                    sendPlayer.getPeer().sendChatMessage(chatMessage);
                 }
 
                 message = player.getPeer().getNextChatMessage();
@@ -0,0 +1,146 @@
+package ss.spec.server;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the iterations of many `Game`s on a bounded pool of threads.
+ * <p>
+ * A `Game` started with `Game.startOn()` only hands a task to this executor when one of its
+ * players does something. So a few threads can host thousands of games, as long as most of the
+ * players are thinking at any given moment.
+ * <p>
+ * Games write to their clients on these threads. With blocking sockets a write waits while a
+ * client isn't reading, and holds a thread for that long. `Server` gives its connections a write
+ * timeout to bound this, the non-blocking `NioConnection` doesn't wait at all.
+ * <p>
+ * Keeps count of how many game tasks are waiting for a thread, and how many are running.
+ */
+public class GameExecutor implements Executor {
+
+    /**
+     * Parallelism of an executor without a bound on the amount of threads.
+     */
+    public static final int UNBOUNDED = Integer.MAX_VALUE;
+
+    private static final long IDLE_THREAD_TIMEOUT_SECONDS = 60;
+
+    private final ExecutorService pool;
+    private final int parallelism;
+
+    private final AtomicInteger queuedTasks;
+    private final AtomicInteger activeTasks;
+
+    /**
+     * Creates an executor with the given amount of (daemon) threads.
+     *
+     * @param parallelism The amount of games that can be updated at the same time.
+     */
+    //@ requires parallelism > 0;
+    public GameExecutor(int parallelism) {
+        this(parallelism, VirtualThreads.platformFactory("game-", true));
+    }
+
+    /**
+     * Creates an executor with the given amount of threads, made by the given factory.
+     *
+     * @param parallelism   The amount of games that can be updated at the same time.
+     * @param threadFactory Creates the threads for the pool.
+     */
+    //@ requires parallelism > 0;
+    //@ requires threadFactory != null;
+    public GameExecutor(int parallelism, ThreadFactory threadFactory) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism should be at least 1.");
+        }
+
+        this.parallelism = parallelism;
+        this.pool = new ThreadPoolExecutor(parallelism, parallelism,
+                0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), threadFactory);
+
+        queuedTasks = new AtomicInteger(0);
+        activeTasks = new AtomicInteger(0);
+    }
+
+    /**
+     * Creates an executor without a bound on the amount of threads. A task that finds no idle
+     * thread gets a new one from the factory.
+     * Meant to be used with virtual threads, which are cheap enough to not need a bound.
+     *
+     * @param threadFactory Creates the threads for the pool.
+     */
+    //@ requires threadFactory != null;
+    //@ ensures getParallelism() == UNBOUNDED;
+    public GameExecutor(ThreadFactory threadFactory) {
+        this.parallelism = UNBOUNDED;
+        this.pool = new ThreadPoolExecutor(0, Integer.MAX_VALUE,
+                IDLE_THREAD_TIMEOUT_SECONDS, TimeUnit.SECONDS, new SynchronousQueue<>(),
+                threadFactory);
+
+        queuedTasks = new AtomicInteger(0);
+        activeTasks = new AtomicInteger(0);
+    }
+
+    /**
+     * Hands a game task to the pool. Silently drops the task after `shutdown()`.
+     *
+     * @param task The task to run.
+     */
+    @Override
+    public void execute(Runnable task) {
+        queuedTasks.incrementAndGet();
+
+        try {
+            pool.execute(() -> {
+                queuedTasks.decrementAndGet();
+                activeTasks.incrementAndGet();
+                try {
+                    task.run();
+                } finally {
+                    activeTasks.decrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // We are shutting down.
+            queuedTasks.decrementAndGet();
+        }
+    }
+
+    /**
+     * Stops accepting new tasks. Already queued tasks will still run.
+     */
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * @return The amount of games that can be updated at the same time, or `UNBOUNDED`.
+     */
+    //@ pure
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * @return The amount of game tasks that are waiting for a free thread.
+     */
+    //@ pure
+    public int getQueuedTasks() {
+        return queuedTasks.get();
+    }
+
+    /**
+     * @return The amount of game tasks that are running right now.
+     */
+    //@ pure
+    public int getActiveTasks() {
+        return activeTasks.get();
+    }
+}
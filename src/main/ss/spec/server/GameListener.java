@@ -0,0 +1,18 @@
+package ss.spec.server;
+
+/**
+ * Gets told when a `Game` ends, so its owner (the `Lobby`) can take the players back without
+ * checking up on every running game.
+ */
+public interface GameListener {
+
+    /**
+     * Called once, when the game is over.
+     * <p>
+     * This is called from whichever thread ended the game, often the game's own thread.
+     * So implementations should be thread safe, and return quickly.
+     *
+     * @param game The game that ended.
+     */
+    void gameOver(Game game);
+}
@@ -0,0 +1,136 @@
+package ss.spec.server;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records how long something took, so we can tell the typical time from the worst.
+ * <p>
+ * Durations are counted in buckets: four per power of two, so every bucket is at most 25% wide.
+ * That is precise enough to see where time goes, and a fixed amount of memory no matter how
+ * much is recorded. Recording never locks, so any thread can record at any time.
+ */
+public class LatencyHistogram {
+
+    /**
+     * Every power of two is split into this many buckets.
+     */
+    private static final int SUB_BUCKETS = 4;
+    private static final int SUB_BUCKET_BITS = 2;
+    private static final int BUCKETS = SUB_BUCKETS + (63 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts;
+    private final LongAdder count;
+    private final LongAdder total;
+    private final AtomicLong max;
+
+    public LatencyHistogram() {
+        counts = new AtomicLongArray(BUCKETS);
+        count = new LongAdder();
+        total = new LongAdder();
+        max = new AtomicLong(0);
+    }
+
+    /**
+     * Records a duration.
+     *
+     * @param nanos The duration in nanoseconds. Negative durations count as 0.
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+
+        counts.incrementAndGet(bucketOf(value));
+        count.increment();
+        total.add(value);
+        max.accumulateAndGet(value, Math::max);
+    }
+
+    /**
+     * @return The amount of recorded durations.
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * @return The average duration in nanoseconds, or 0 if nothing was recorded.
+     */
+    public double getMean() {
+        long n = count.sum();
+
+        return n == 0 ? 0 : total.sum() / (double) n;
+    }
+
+    /**
+     * @return The longest duration in nanoseconds, or 0 if nothing was recorded.
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Gives a duration that the given fraction of recorded durations did not exceed.
+     * Precise to the width of a bucket, it is rounded up to the end of the bucket.
+     *
+     * @param fraction The fraction, like 0.99 for the 99th percentile.
+     * @return The duration in nanoseconds, or 0 if nothing was recorded.
+     */
+    //@ requires fraction >= 0 && fraction <= 1;
+    public long getPercentile(double fraction) {
+        long n = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            n += counts.get(i);
+        }
+
+        if (n == 0) {
+            return 0;
+        }
+
+        long wanted = Math.max(1, (long) Math.ceil(fraction * n));
+        long seen = 0;
+
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+
+            if (seen >= wanted) {
+                // Don't claim more than was actually seen.
+                return Math.min(upperBoundOf(i), getMax());
+            }
+        }
+
+        return getMax();
+    }
+
+    /**
+     * Small values get a bucket each, larger values share a bucket with values that have the
+     * same highest three bits.
+     */
+    private static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+
+        int highestBit = 63 - Long.numberOfLeadingZeros(value);
+        int shift = highestBit - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+
+        return SUB_BUCKETS + shift * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * @return The largest value that falls in the bucket.
+     */
+    private static long upperBoundOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+
+        int shift = (bucket - SUB_BUCKETS) / SUB_BUCKETS;
+        long subBucket = (bucket - SUB_BUCKETS) % SUB_BUCKETS;
+
+        long upper = ((SUB_BUCKETS + subBucket + 1) << shift) - 1;
+        // The last bucket ends at the largest long.
+        return upper < 0 ? Long.MAX_VALUE : upper;
+    }
+}
@@ -1,72 +1,199 @@
 package ss.spec.server;
 
+import ss.spec.bot.GreedyBot;
 import ss.spec.gamepieces.Board;
-import ss.spec.gamepieces.RandomTileBag;
-import ss.spec.gamepieces.TileBag;
+import ss.spec.gamepieces.SeededTileBag;
+import ss.spec.logging.LogLevel;
+import ss.spec.logging.Logger;
+import ss.spec.networking.EncodedMessage;
+import ss.spec.networking.ServerMessage;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
-import java.util.ListIterator;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.LongSupplier;
 
 /**
  * The Lobby is responsible for keeping track of all the connected clients, as well as ongoing
  * games.
- * It also keeps a list of all the names used by clients on this server, so that no two clients
- * have the same name.
+ * It also keeps track of the names used by clients on this server, so that no two clients
+ * have the same name. Several lobbies can share their names, see `ShardedLobby`.
+ * <p>
+ * The lobby listens to the clients in it and to the games it started, and only does work when
+ * one of them changes. So an idle client costs nothing, no matter how many are waiting.
+ * <p>
+ * Clients that wait too long for other players can be given bots instead, see
+ * `setBotFillTimeout()`.
  */
-public class Lobby implements Runnable {
+public class Lobby implements Runnable, ClientPeerListener, GameListener {
 
-    // This object is just there to synchronize on.
-    private final Object newClientSyncObject = new Object();
-    private volatile boolean hasNewClient;
-    private ClientPeer newClient;
+    private static final Logger LOG = Logger.get("lobby");
+
+    /**
+     * Bot fill timeout that means tables are never filled with bots.
+     */
+    public static final long NO_BOT_FILL = 0;
+
+    /**
+     * Clients added by `addNewClient()`, that the lobby thread hasn't taken in yet.
+     */
+    private final ConcurrentLinkedQueue<ClientPeer> newClients;
+    /**
+     * Measures how fast clients are added.
+     */
+    private final RateMeter intake;
 
     /**
      * To signal the lobby thread to stop running.
      */
     private volatile boolean stopLobbyThread;
 
+    /**
+     * Set when a client or game changed, and the lobby should do another iteration.
+     * Guarded by `eventLock`.
+     */
+    private boolean pendingEvent;
+    private final Object eventLock = new Object();
+
+    /**
+     * Clients that changed since the last iteration. A client can be in here more than once,
+     * handling a client that didn't change does nothing.
+     */
+    private final ConcurrentLinkedQueue<ClientPeer> changedClients;
+    /**
+     * Games that ended since the last iteration.
+     */
+    private final ConcurrentLinkedQueue<Game> finishedGames;
+
     /**
      * These are clients that might not have a name yet.
      * And they have not yet requested a game.
      */
-    private final ArrayList<ClientPeer> waitingClients;
+    private final HashSet<ClientPeer> waitingClients;
+
+    /**
+     * Clients waiting for a game with a specific amount of players, in order of arrival.
+     * A game starts as soon as enough clients are waiting, so these never hold more than a few.
+     */
+    private final ArrayDeque<ClientPeer> waitingTwoPlayerGame;
+    private final ArrayDeque<ClientPeer> waitingThreePlayerGame;
+    private final ArrayDeque<ClientPeer> waitingFourPlayerGame;
+
+    /**
+     * When the clients in the lists above started waiting for other players, by `nanoClock`.
+     */
+    private final HashMap<ClientPeer, Long> waitingSince;
 
     /**
-     * Clients waiting for a game with a specific amount of players.
+     * How long a client waits for other players before the empty seats are given to bots,
+     * or `NO_BOT_FILL`.
      */
-    private final ArrayList<ClientPeer> waitingTwoPlayerGame;
-    private final ArrayList<ClientPeer> waitingThreePlayerGame;
-    private final ArrayList<ClientPeer> waitingFourPlayerGame;
+    private volatile long botFillTimeoutNanos;
+    private final LongSupplier nanoClock;
+
+    /**
+     * Kept up to date by the lobby thread, so other threads can read them.
+     */
+    private volatile int numberOfWaitingClients;
+    private final AtomicIntegerArray numberWaitingForGame;
+    private volatile int numberOfRunningGames;
+
+    /**
+     * Clients that were sent something this iteration.
+     */
+    private final HashSet<ClientPeer> unflushedClients;
 
     /**
      * Running games.
      */
     private final ArrayList<Game> games;
 
+    /**
+     * The pool the games run on.
+     */
+    private final GameExecutor gameExecutor;
+
 
     /**
-     * List of names that are already in use on this server.
+     * The names that are already in use on this server, possibly shared with other lobbies.
      * Duplicate names are not allowed.
      */
-    private final HashSet<String> usedNames;
+    private final NameRegistry usedNames;
 
+    /**
+     * Picks the seed of the tile bag of every new game. Only used by the lobby thread.
+     */
+    private final SplittableRandom gameSeeds;
 
+    /**
+     * Creates a lobby that runs its games on a pool with a thread per processor.
+     */
     public Lobby() {
-        hasNewClient = false;
-        newClient = null;
+        this(new GameExecutor(Runtime.getRuntime().availableProcessors()));
+    }
+
+    /**
+     * Creates a lobby that runs its games on the given executor.
+     *
+     * @param gameExecutor The executor to run the games on.
+     */
+    public Lobby(GameExecutor gameExecutor) {
+        this(gameExecutor, new NameRegistry());
+    }
+
+    /**
+     * Creates a lobby that runs its games on the given executor, and shares its names with
+     * other lobbies.
+     *
+     * @param gameExecutor The executor to run the games on.
+     * @param usedNames    The names in use on the server.
+     */
+    public Lobby(GameExecutor gameExecutor, NameRegistry usedNames) {
+        this(gameExecutor, usedNames, System::nanoTime);
+    }
+
+    /**
+     * Creates a lobby that tells how long clients have been waiting by the given clock.
+     *
+     * @param gameExecutor The executor to run the games on.
+     * @param usedNames    The names in use on the server.
+     * @param nanoClock    The clock, in nanoseconds.
+     */
+    public Lobby(GameExecutor gameExecutor, NameRegistry usedNames, LongSupplier nanoClock) {
+        this.gameExecutor = gameExecutor;
+        this.usedNames = usedNames;
+        this.nanoClock = nanoClock;
+        this.gameSeeds = new SplittableRandom();
+
+        newClients = new ConcurrentLinkedQueue<>();
+        intake = new RateMeter();
         stopLobbyThread = false;
+        pendingEvent = false;
 
-        waitingClients = new ArrayList<>();
+        changedClients = new ConcurrentLinkedQueue<>();
+        finishedGames = new ConcurrentLinkedQueue<>();
 
-        waitingTwoPlayerGame = new ArrayList<>();
-        waitingThreePlayerGame = new ArrayList<>();
-        waitingFourPlayerGame = new ArrayList<>();
+        waitingClients = new HashSet<>();
 
-        games = new ArrayList<>();
+        waitingTwoPlayerGame = new ArrayDeque<>();
+        waitingThreePlayerGame = new ArrayDeque<>();
+        waitingFourPlayerGame = new ArrayDeque<>();
+        waitingSince = new HashMap<>();
+        botFillTimeoutNanos = NO_BOT_FILL;
 
-        usedNames = new HashSet<>();
+        numberOfWaitingClients = 0;
+        numberWaitingForGame = new AtomicIntegerArray(5);
+        numberOfRunningGames = 0;
+        unflushedClients = new HashSet<>();
+
+        games = new ArrayList<>();
     }
 
     /**
@@ -75,6 +202,33 @@ public class Lobby implements Runnable {
      */
     public void stopLobbyThread() {
         stopLobbyThread = true;
+        signalEvent();
+    }
+
+    /**
+     * Fills the empty seats of a table with bots, once its first client has waited this long
+     * for other players. The game then starts right away.
+     * Can be called from any thread, also while the lobby is running.
+     *
+     * @param timeout How long to wait, or `NO_BOT_FILL` to never use bots.
+     * @param unit    The unit of the timeout.
+     */
+    //@ requires timeout >= 0;
+    //@ ensures getBotFillTimeoutNanos() == unit.toNanos(timeout);
+    public void setBotFillTimeout(long timeout, TimeUnit unit) {
+        botFillTimeoutNanos = unit.toNanos(timeout);
+
+        // The lobby might be waiting without a deadline.
+        signalEvent();
+    }
+
+    /**
+     * @return How long a client waits before the empty seats are given to bots, in nanoseconds,
+     * or `NO_BOT_FILL`.
+     */
+    //@ pure
+    public long getBotFillTimeoutNanos() {
+        return botFillTimeoutNanos;
     }
 
     /**
@@ -85,7 +239,40 @@ public class Lobby implements Runnable {
      */
     //@ pure
     public int getNumberOfWaitingClients() {
-        return waitingClients.size() + waitingTwoPlayerGame.size() +
+        return numberOfWaitingClients;
+    }
+
+    /**
+     * The number of clients waiting for a game with the given amount of players.
+     *
+     * @param numberOfPlayers The amount of players in the game, in the range [2-4].
+     * @return The number of clients waiting for that game, 0 for other amounts.
+     */
+    //@ pure
+    public int getNumberOfClientsWaitingFor(int numberOfPlayers) {
+        if (numberOfPlayers < 2 || numberOfPlayers > 4) {
+            return 0;
+        }
+
+        return numberWaitingForGame.get(numberOfPlayers);
+    }
+
+    /**
+     * Like `getRunningGames().size()`, but safe to call from any thread.
+     *
+     * @return The amount of games that are currently ongoing.
+     */
+    //@ pure
+    public int getNumberOfRunningGames() {
+        return numberOfRunningGames;
+    }
+
+    private void updateNumberOfWaitingClients() {
+        numberWaitingForGame.set(2, waitingTwoPlayerGame.size());
+        numberWaitingForGame.set(3, waitingThreePlayerGame.size());
+        numberWaitingForGame.set(4, waitingFourPlayerGame.size());
+
+        numberOfWaitingClients = waitingClients.size() + waitingTwoPlayerGame.size() +
                 waitingThreePlayerGame.size() + waitingFourPlayerGame.size();
     }
 
@@ -99,46 +286,124 @@ public class Lobby implements Runnable {
         return games;
     }
 
+    /**
+     * @return The names in use on the server.
+     */
+    //@ pure
+    public NameRegistry getNameRegistry() {
+        return usedNames;
+    }
+
+    /**
+     * @return The executor the games are running on.
+     */
+    //@ pure
+    public GameExecutor getGameExecutor() {
+        return gameExecutor;
+    }
+
+    /**
+     * How many clients have been added per second, recently.
+     *
+     * @return The amount of clients added in the last second.
+     */
+    public double getIntakeRate() {
+        return intake.getRatePerSecond();
+    }
+
+    /**
+     * @return The amount of clients that have been added since the lobby was created.
+     */
+    //@ pure
+    public long getTotalClientsAdded() {
+        return intake.getTotal();
+    }
+
     /**
      * Called by the main thread to add newly connecting clients.
-     * Only one client can be added at a time. The Lobby loop has to process the added client
-     * before another client can be added.
-     * If one adds another client anyway, this method will block until the previously added
-     * client has been processed.
+     * Never blocks: the client is queued, and the lobby thread takes it in on its next iteration.
+     * Can be called from any thread.
      *
      * @param client The new client to add to the lobby.
      */
+    //@ requires client != null;
     public void addNewClient(ClientPeer client) {
-        synchronized (newClientSyncObject) {
-            // Wait until the previous new client has been handled.
-            while (hasNewClient) {
-                try {
-                    newClient.wait();
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
-                }
-            }
+        newClients.add(client);
+        intake.mark();
 
-            // We can add the new client.
-            newClient = client;
-            hasNewClient = true;
-        }
+        signalEvent();
     }
 
     /**
      * Called by the lobby thread to handle the newly incoming clients.
-     * After this has been called, a new client can be added using `addNewClient()`;
      */
-    private void checkForNewClient() {
-        synchronized (newClientSyncObject) {
-            if (hasNewClient) {
-                // Add the new client to the waiting clients.
-                waitingClients.add(newClient);
+    private void checkForNewClients() {
+        ClientPeer client = newClients.poll();
+
+        while (client != null) {
+            // Add the new client to the waiting clients.
+            addToWaitingClients(client);
+
+            client = newClients.poll();
+        }
+    }
+
+    /**
+     * Called by the clients in the lobby when they change.
+     * Wakes up the lobby thread to handle the change.
+     *
+     * @param peer The peer that changed.
+     */
+    @Override
+    public void peerChanged(ClientPeer peer) {
+        changedClients.add(peer);
+        signalEvent();
+    }
+
+    /**
+     * Called by the games this lobby started when they are over.
+     * Wakes up the lobby thread to take the players back.
+     *
+     * @param game The game that ended.
+     */
+    @Override
+    public void gameOver(Game game) {
+        finishedGames.add(game);
+        signalEvent();
+    }
+
+    private void signalEvent() {
+        synchronized (eventLock) {
+            pendingEvent = true;
+            eventLock.notifyAll();
+        }
+    }
+
+    /**
+     * Blocks until a client or game has changed since the last call, the lobby is stopped,
+     * or a table is due to be filled with bots.
+     */
+    private void waitForEvent() {
+        synchronized (eventLock) {
+            while (!pendingEvent && !stopLobbyThread) {
+                long untilBotFill = nanosUntilBotFill();
+
+                if (untilBotFill == 0) {
+                    break;
+                }
 
-                newClient = null;
-                hasNewClient = false;
-                newClientSyncObject.notifyAll();
+                try {
+                    if (untilBotFill < 0) {
+                        eventLock.wait();
+                    } else {
+                        TimeUnit.NANOSECONDS.timedWait(eventLock, untilBotFill);
+                    }
+                } catch (InterruptedException e) {
+                    LOG.error("Interrupted while waiting for an event.", e);
+                }
             }
+
+            pendingEvent = false;
         }
     }
 
@@ -146,234 +411,366 @@ public class Lobby implements Runnable {
     /**
      * Continuously calls the `doSingleLobbyIteration()` method.
      * Can be stopped by calling `stopLobbyThread()`.
-     * Sleeps for a small time between iterations, because we can afford to be a few
-     * milliseconds late with updates. This is no FPS after all.
-     * And it keeps the processor usage reasonable.
+     * Between iterations it waits until a client changes or a game ends, so a lobby full of
+     * idle clients costs no processor time.
      */
     @Override
     public void run() {
         while (!stopLobbyThread) {
             doSingleLobbyIteration();
 
-            try {
-                Thread.sleep(10);
-            } catch (InterruptedException e) {
-                e.printStackTrace();
-            }
+            waitForEvent();
         }
     }
 
     /**
      * Call this method to do a single iteration of the game loop.
-     * Normally called continuously by the `run()` function.
+     * Normally called by the `run()` function whenever something changed,
      * but can also be called separately if a more granular approach is needed.
      *
      * <p>
      * Does the following on every call of this function:
      * <ul>
      * <li>Handle's newly connected clients who've been added by `addNewClient()`.</li>
-     * <li>Updates clients who have not yet requested a game:
+     * <li>When a game ends, the clients who are still connected are moved to the list of clients
+     * who can request a game, and the `Game` is deleted.</li>
+     * <li>Updates the clients that changed since the last iteration:
      * <ul>
      * <li>It checks if their requested name is unique, and let's them know if it is okay.</li>
      * <li>Clients that have requested a game are moved to the waiting list corresponding to
-     * the amount of players they requested to play with.</li>
-     * </ul></li>
-     * <li>Then each list of clients who are waiting for more players is updated:
-     * <ul>
-     * <li>If there are enough clients in the list to start a game with the desired amount of
-     * players, a `Game` is created with those clients and the `Game` is started in a
-     * separate thread.</li>
+     * the amount of players they requested to play with.
+     * If there are now enough clients in that list to start a game, a `Game` is created with
+     * those clients and the `Game` is started on the game executor.</li>
+     * <li>Clients that disconnected are removed.</li>
      * </ul></li>
      * <li>In each list the clients can chat with the other clients in that list.
      * The `Lobby` distributes the messages.</li>
-     * <li>When a game ends, the clients who are still connected are moved to the list of clients
-     * who can request a game, and the `Game` is deleted.</li>
+     * <li>Tables where a client has waited longer than the bot fill timeout are filled up with
+     * bots, and their game is started.</li>
      * </ul>
      * </p>
      */
     public void doSingleLobbyIteration() {
-        checkForNewClient();
+        checkForNewClients();
+
+        checkOnFinishedGames();
 
-        updateWaitingClients();
+        ClientPeer client = changedClients.poll();
+        while (client != null) {
+            updateClient(client);
+            client = changedClients.poll();
+        }
 
-        updateWaitingForGameClients(waitingTwoPlayerGame, 2);
-        updateWaitingForGameClients(waitingThreePlayerGame, 3);
-        updateWaitingForGameClients(waitingFourPlayerGame, 4);
+        fillStalledTablesWithBots();
 
-        checkOnRunningGames();
+        // Everything this iteration sent goes out together.
+        for (ClientPeer unflushed : unflushedClients) {
+            unflushed.flush();
+        }
+        unflushedClients.clear();
     }
 
-    private void updateWaitingClients() {
-        ListIterator<ClientPeer> clientIter = waitingClients.listIterator();
+    /**
+     * Adds a client to the clients who have not yet requested a game, and starts listening to it.
+     */
+    private void addToWaitingClients(ClientPeer client) {
+        waitingClients.add(client);
+        updateNumberOfWaitingClients();
 
-        // Check up on all the waiting clients.
-        while (clientIter.hasNext()) {
-            ClientPeer client = clientIter.next();
+        // Listen first and look afterwards, so we can't miss a change in between.
+        client.setListener(this);
+        updateClient(client);
+    }
 
-            if (client.isPeerConnected()) {
-                switch (client.getState()) {
-                    case LOBBY_VERIFY_NAME:
-                        verifyClientName(client);
-                        break;
-                    case LOBBY_START_WAITING_FOR_PLAYERS:
-                        putClientInChosenWaitingList(client, clientIter);
-                        break;
-                }
-            } else {
-                // Connection lost, client will be removed from list.
-                System.out.println("Connection to client \'" + client.getName() + "\' lost.");
+    /**
+     * Acts upon whatever changed about the client.
+     * Does nothing if the client is no longer in the lobby, because it has moved on to a game.
+     */
+    private void updateClient(ClientPeer client) {
+        if (waitingClients.contains(client)) {
+            if (!client.isPeerConnected()) {
+                removeLostClient(client, waitingClients);
+                return;
+            }
 
-                // Remove the clients name from the list of used names.
-                freeUpClientName(client);
+            switch (client.getState()) {
+                case LOBBY_VERIFY_NAME:
+                    verifyClientName(client);
+                    break;
+                case LOBBY_START_WAITING_FOR_PLAYERS:
+                    putClientInChosenWaitingList(client);
+                    break;
+            }
+        } else {
+            ArrayDeque<ClientPeer> waitingList = findWaitingList(client);
 
-                // Remove client from list.
-                clientIter.remove();
+            if (waitingList == null) {
+                // Not ours anymore.
+                return;
+            }
+
+            if (!client.isPeerConnected()) {
+                removeLostClient(client, waitingList);
+                return;
             }
         }
 
-        distributeChatMessages(waitingClients);
+        unflushedClients.add(client);
+
+        // The client might have just started a game, then the game handles its chat.
+        Collection<ClientPeer> sameList =
+                waitingClients.contains(client) ? waitingClients : findWaitingList(client);
+        if (sameList != null) {
+            distributeChatMessages(client, sameList);
+        }
     }
 
     /**
-     * @param clients         The list of waiting clients.
-     * @param numberOfPlayers The number of players they are waiting for before starting the game.
-     *                        Should be in the range [2-4].
+     * @return The list the client waits in for more players, or null if it isn't in one.
      */
-    private void updateWaitingForGameClients(List<ClientPeer> clients, int numberOfPlayers) {
-        ListIterator<ClientPeer> clientIter = clients.listIterator();
+    private ArrayDeque<ClientPeer> findWaitingList(ClientPeer client) {
+        if (client.getState() != ClientPeer.State.LOBBY_WAITING_FOR_PLAYERS) {
+            return null;
+        }
 
-        // Check up on all the waiting clients.
-        while (clientIter.hasNext()) {
-            ClientPeer client = clientIter.next();
+        ArrayDeque<ClientPeer> waitingList = getWaitingList(client.getRequestedPlayerAmount());
 
-            if (!client.isPeerConnected()) {
-                // Connection lost, client will be removed from list.
-                System.out.println("Connection to client \'" + client.getName() + "\' lost.");
+        // The lists are short, so this is quick.
+        if (waitingList == null || !waitingList.contains(client)) {
+            return null;
+        }
 
-                // Remove the clients name from the list of used names.
-                freeUpClientName(client);
+        return waitingList;
+    }
 
-                // Remove client from list.
-                clientIter.remove();
+    /**
+     * @param numberOfPlayers The number of players in the game.
+     * @return The list of clients waiting for a game with that many players,
+     * or null if there is no such game.
+     */
+    private ArrayDeque<ClientPeer> getWaitingList(int numberOfPlayers) {
+        switch (numberOfPlayers) {
+            case 2:
+                return waitingTwoPlayerGame;
+            case 3:
+                return waitingThreePlayerGame;
+            case 4:
+                return waitingFourPlayerGame;
+            default:
+                return null;
+        }
+    }
+
+    private void removeLostClient(ClientPeer client, Collection<ClientPeer> list) {
+        // Connection lost, client will be removed from list.
+        if (LOG.isEnabled(LogLevel.INFO)) {
+            LOG.info("Connection to client \'" + client.getName() + "\' lost.");
+        }
+
+        // Remove the clients name from the list of used names.
+        freeUpClientName(client);
+
+        // Remove client from list.
+        list.remove(client);
+        waitingSince.remove(client);
+        updateNumberOfWaitingClients();
+    }
+
+    private void checkOnFinishedGames() {
+        Game game = finishedGames.poll();
+
+        while (game != null) {
+            // The game thread might still be finishing its last iteration, but it has stopped
+            // listening to the players, and won't change their state anymore.
+            for (Player player : game.getPlayers()) {
+                if (player.getPeer().isBot()) {
+                    // Bots only live for one game.
+                    player.getPeer().disconnect();
+                    freeUpClientName(player.getPeer());
+                } else if (player.isPeerConnected()) {
+
+                    player.getPeer().returningToLobby();
+                    addToWaitingClients(player.getPeer());
+
+                } else {
+                    // Client has disconnected.
+                    // Free up their name.
+                    freeUpClientName(player.getPeer());
+                }
             }
+
+            games.remove(game);
+            numberOfRunningGames = games.size();
+
+            game = finishedGames.poll();
         }
+    }
 
-        distributeChatMessages(clients);
+    /**
+     * Puts the client in the waiting list for their chosen amount of players.
+     * Removes the client from the general waiting list.
+     * Starts a game right away if enough clients are waiting.
+     *
+     * @param client The client in question.
+     */
+    private void putClientInChosenWaitingList(ClientPeer client) {
+        int numberOfPlayers = client.getRequestedPlayerAmount();
+        ArrayDeque<ClientPeer> waitingList = getWaitingList(numberOfPlayers);
+
+        if (waitingList == null) {
+            // This should not actually be able to happen.
+            LOG.warn("Client " +
+                    client.getName() +
+                    " managed to request a weird amount of players: " +
+                    numberOfPlayers);
+            return;
+        }
+
+        waitingClients.remove(client);
+        waitingList.add(client);
+        waitingSince.put(client, nanoClock.getAsLong());
+        client.signalWaitingForPlayers(getNamesFromClients(waitingList));
 
-        if (clients.size() >= numberOfPlayers) {
+        if (waitingList.size() >= numberOfPlayers) {
             ArrayList<ClientPeer> players = new ArrayList<>();
 
-            // Get the amount of players specified.
+            // Get the amount of players specified, who have waited the longest.
             for (int i = 0; i < numberOfPlayers; i++) {
-                players.add(clients.remove(0));
+                players.add(takeFromWaitingList(waitingList));
             }
 
             startNewGame(players);
         }
+
+        updateNumberOfWaitingClients();
     }
 
-    private void checkOnRunningGames() {
-        ListIterator<Game> gameIter = games.listIterator();
+    private ClientPeer takeFromWaitingList(ArrayDeque<ClientPeer> waitingList) {
+        ClientPeer client = waitingList.poll();
+        waitingSince.remove(client);
+
+        return client;
+    }
+
+    /**
+     * How long until the client that has waited longest, in any list, is due for bots.
+     *
+     * @return The time in nanoseconds, 0 if a table is due already,
+     * or a negative number if no table will be due.
+     */
+    private long nanosUntilBotFill() {
+        long timeout = botFillTimeoutNanos;
+
+        if (timeout == NO_BOT_FILL) {
+            return -1;
+        }
 
-        while (gameIter.hasNext()) {
-            Game game = gameIter.next();
+        long now = nanoClock.getAsLong();
+        long until = -1;
 
-            if (game.isGameOver()) {
-                // If the game is flagged as over,
-                // this means the game thread has already stopped.
-                // Because that thread is the only one who can flag the game as over.
-                // We can therefore clean up safely.
-                for (Player player : game.getPlayers()) {
-                    if (player.isPeerConnected()) {
+        for (int numberOfPlayers = 2; numberOfPlayers <= 4; numberOfPlayers++) {
+            ClientPeer first = getWaitingList(numberOfPlayers).peek();
 
-                        player.getPeer().returningToLobby();
-                        waitingClients.add(player.getPeer());
+            if (first != null) {
+                long left = Math.max(0, waitingSince.get(first) + timeout - now);
 
-                    } else {
-                        // Client has disconnected.
-                        // Free up their name.
-                        freeUpClientName(player.getPeer());
-                    }
+                if (until < 0 || left < until) {
+                    until = left;
                 }
-
-                gameIter.remove();
             }
         }
+
+        return until;
     }
 
     /**
-     * Puts the client in the waiting list for their chosen amount of players.
-     * Removes the client from the general waiting list.
-     *
-     * @param client     The client in question.
-     * @param clientIter The iterator to use to remove the client.
+     * Starts a game for every list where the first client has waited longer than the bot fill
+     * timeout, with bots in the seats nobody came for.
      */
-    private void putClientInChosenWaitingList(ClientPeer client,
-                                              ListIterator<ClientPeer> clientIter) {
+    private void fillStalledTablesWithBots() {
+        long timeout = botFillTimeoutNanos;
 
-        switch (client.getRequestedPlayerAmount()) {
-            case 2:
-                waitingTwoPlayerGame.add(client);
-                client.signalWaitingForPlayers(getNamesFromClients(waitingTwoPlayerGame));
-                clientIter.remove();
-                break;
-            case 3:
-                waitingThreePlayerGame.add(client);
-                client.signalWaitingForPlayers(getNamesFromClients(waitingThreePlayerGame));
-                clientIter.remove();
-                break;
-            case 4:
-                waitingFourPlayerGame.add(client);
-                client.signalWaitingForPlayers(getNamesFromClients(waitingFourPlayerGame));
-                clientIter.remove();
-                break;
-            default:
-                // This should not actually be able to happen.
-                System.out.println("Client " +
-                        client.getName() +
-                        " managed to request a weird amount of players: " +
-                        client.getRequestedPlayerAmount());
+        if (timeout == NO_BOT_FILL) {
+            return;
+        }
+
+        long now = nanoClock.getAsLong();
+
+        for (int numberOfPlayers = 2; numberOfPlayers <= 4; numberOfPlayers++) {
+            ArrayDeque<ClientPeer> waitingList = getWaitingList(numberOfPlayers);
+            ClientPeer first = waitingList.peek();
+
+            if (first == null || now - waitingSince.get(first) < timeout) {
+                continue;
+            }
+
+            if (LOG.isEnabled(LogLevel.INFO)) {
+                LOG.info("Filling a table for " + numberOfPlayers + " players with " +
+                        (numberOfPlayers - waitingList.size()) + " bots.");
+            }
+
+            // A game starts as soon as the list is full, so everyone waiting fits.
+            ArrayList<ClientPeer> players = new ArrayList<>();
+            while (!waitingList.isEmpty()) {
+                players.add(takeFromWaitingList(waitingList));
+            }
+            while (players.size() < numberOfPlayers) {
+                players.add(BotPeer.withUniqueName(usedNames,
+                        new GreedyBot(BotPeer.MOVE_BUDGET_NANOS)));
+            }
+
+            startNewGame(players);
+            updateNumberOfWaitingClients();
         }
     }
 
     private void startNewGame(List<ClientPeer> players) {
         Board board = new Board();
-        TileBag bag = new RandomTileBag();
+        SeededTileBag bag = new SeededTileBag(gameSeeds.nextLong());
+
+        if (LOG.isEnabled(LogLevel.INFO)) {
+            // Enough to replay the game, together with the moves.
+            LOG.info("Starting a game for " + players.size() + " players with tile bag seed " +
+                    bag.getSeed() + ".");
+        }
 
         Game game = new Game(players, board, bag);
+        game.setListener(this);
 
-        Thread gameThread = new Thread(game);
-        gameThread.start();
+        game.startOn(gameExecutor);
 
         games.add(game);
+        numberOfRunningGames = games.size();
     }
 
     /**
      * Verifies whether a client's chosen name is valid.
      * And notifies the client of the decision.
+     * Clients that share our `NameRegistry` reserve their own name, this is for those that don't.
      *
      * @param client The client to verify the name of.
      */
     private void verifyClientName(ClientPeer client) {
         String name = client.getName();
 
-        if (name == null || usedNames.contains(name) || name.contains(" ")) {
+        // Another lobby might be verifying the same name, reserving settles it.
+        if (!NameRegistry.isValidName(name) || !usedNames.reserve(name, client)) {
             // No name, bad name or already used name.
             client.rejectName();
         } else {
             client.acceptName();
-            usedNames.add(name);
         }
     }
 
     /**
      * Call after a client has disconnected, this will make it's name available again.
+     * Names held by another client are left alone.
      */
     private void freeUpClientName(ClientPeer client) {
         String name = client.getName();
 
         if (name != null) {
-            usedNames.remove(name);
+            usedNames.release(name, client);
         }
     }
 
@@ -382,7 +779,7 @@ public class Lobby implements Runnable {
      *
      * @return The list of names.
      */
-    private List<String> getNamesFromClients(List<ClientPeer> clients) {
+    private List<String> getNamesFromClients(Collection<ClientPeer> clients) {
         List<String> names = new ArrayList<>();
 
         for (ClientPeer client : clients) {
@@ -392,17 +789,22 @@ public class Lobby implements Runnable {
         return names;
     }
 
-    private void distributeChatMessages(List<ClientPeer> clients) {
-        for (ClientPeer client : clients) {
-            String message = client.getNextChatMessage();
+    /**
+     * Sends the chat messages of one client to all the clients in its list.
+     */
+    private void distributeChatMessages(ClientPeer client, Collection<ClientPeer> clients) {
+        String message = client.getNextChatMessage();
 
-            while (message != null) {
-                for (ClientPeer sendClient : clients) {
-                    sendClient.sendChatMessage(client.getName(), message);
-                }
+        while (message != null) {
+            EncodedMessage chatMessage =
+                    new ServerMessage.Chat(client.getName(), message).encode();
 
-                message = client.getNextChatMessage();
+            for (ClientPeer sendClient : clients) {
+                sendClient.sendChatMessage(chatMessage);
+                unflushedClients.add(sendClient);
             }
+
+            message = client.getNextChatMessage();
         }
     }
 }
@@ -0,0 +1,84 @@
+package ss.spec.server;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The names in use on the server. No two clients can have the same name.
+ * <p>
+ * Shared by all lobby shards and by the clients themselves, so a name is unique over the whole
+ * server. A name is reserved for a client in a single atomic step, so two threads can't both get
+ * the same name. Only the client that holds a name can release it, so a client that asked for a
+ * name and didn't get it can never free it for someone else.
+ */
+public class NameRegistry {
+
+    private final ConcurrentHashMap<String, ClientPeer> owners;
+
+    public NameRegistry() {
+        owners = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Whether a name can be used at all, whether it is free or not.
+     *
+     * @param name The name.
+     * @return true if the name is not empty, and has no spaces.
+     */
+    //@ pure
+    public static boolean isValidName(String name) {
+        return name != null && !name.isEmpty() && name.indexOf(' ') < 0;
+    }
+
+    /**
+     * Claims a name for a client, if nobody else has it.
+     *
+     * @param name  The name to claim.
+     * @param owner The client who wants the name.
+     * @return true if the name is now the client's, also when it already was.
+     * false if someone else has it.
+     */
+    //@ requires name != null && owner != null;
+    //@ ensures \result == (getOwner(name) == owner);
+    public boolean reserve(String name, ClientPeer owner) {
+        ClientPeer current = owners.putIfAbsent(name, owner);
+
+        return current == null || current == owner;
+    }
+
+    /**
+     * Makes a name available again, if the client holds it.
+     *
+     * @param name  The name to release.
+     * @param owner The client releasing the name.
+     * @return true if the name was released, false if the client didn't hold it.
+     */
+    //@ requires name != null && owner != null;
+    //@ ensures getOwner(name) != owner;
+    public boolean release(String name, ClientPeer owner) {
+        return owners.remove(name, owner);
+    }
+
+    /**
+     * @param name The name.
+     * @return The client holding the name, or `null` if it is free.
+     */
+    //@ requires name != null;
+    //@ pure
+    public ClientPeer getOwner(String name) {
+        return owners.get(name);
+    }
+
+    //@ requires name != null;
+    //@ pure
+    public boolean isRegistered(String name) {
+        return owners.containsKey(name);
+    }
+
+    /**
+     * @return The amount of names in use.
+     */
+    //@ pure
+    public int size() {
+        return owners.size();
+    }
+}
@@ -0,0 +1,94 @@
+package ss.spec.server;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Counts how often something happens, and how often it happened per second recently.
+ * <p>
+ * Time is split into windows. The rate is the count of the last complete window, so it lags
+ * behind by at most one window, and drops to 0 once nothing happened for a full window.
+ * <p>
+ * Meant for things that happen at most a few thousand times per second, like clients
+ * connecting. An uncontended lock is cheap enough for that.
+ */
+public class RateMeter {
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final long windowNanos;
+    private final LongSupplier nanoClock;
+
+    // All guarded by `this`.
+    private long total;
+    private long windowStart;
+    private long countInWindow;
+    private long countInLastWindow;
+
+    /**
+     * Creates a meter that measures over windows of one second.
+     */
+    public RateMeter() {
+        this(NANOS_PER_SECOND, System::nanoTime);
+    }
+
+    /**
+     * @param windowNanos The length of a window in nanoseconds.
+     * @param nanoClock   Gives the current time in nanoseconds, like `System.nanoTime()`.
+     */
+    //@ requires windowNanos > 0;
+    public RateMeter(long windowNanos, LongSupplier nanoClock) {
+        if (windowNanos <= 0) {
+            throw new IllegalArgumentException("The window has to be positive.");
+        }
+
+        this.windowNanos = windowNanos;
+        this.nanoClock = nanoClock;
+
+        total = 0;
+        windowStart = nanoClock.getAsLong();
+        countInWindow = 0;
+        countInLastWindow = 0;
+    }
+
+    /**
+     * Records that it happened once.
+     */
+    public synchronized void mark() {
+        roll();
+
+        countInWindow++;
+        total++;
+    }
+
+    /**
+     * @return How many times it happened in total.
+     */
+    //@ pure
+    public synchronized long getTotal() {
+        return total;
+    }
+
+    /**
+     * @return How many times per second it happened in the last complete window.
+     */
+    public synchronized double getRatePerSecond() {
+        roll();
+
+        return countInLastWindow * (double) NANOS_PER_SECOND / windowNanos;
+    }
+
+    /**
+     * Starts a new window if the current one has passed.
+     */
+    private void roll() {
+        long elapsed = nanoClock.getAsLong() - windowStart;
+
+        if (elapsed >= windowNanos) {
+            // If more than one window passed, the last complete one was empty.
+            countInLastWindow = elapsed < 2 * windowNanos ? countInWindow : 0;
+            countInWindow = 0;
+            // Keep the windows aligned.
+            windowStart += elapsed - elapsed % windowNanos;
+        }
+    }
+}
@@ -1,68 +1,419 @@
 package ss.spec.server;
 
+import ss.spec.logging.Logger;
+import ss.spec.networking.NioConnection;
+import ss.spec.networking.NioEventLoop;
 import ss.spec.networking.SocketConnection;
 
 import java.io.IOException;
+import java.net.InetSocketAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
 
 public class Server {
 
+    private static final Logger LOG = Logger.get("server");
+
     // Protocol dictates port 4000.
-    private static final int PORT = 4000;
+    public static final int PORT = 4000;
+
+    private static final String VIRTUAL_THREADS_OPTION = "--virtual-threads";
+    private static final String NIO_OPTION = "--nio";
+    private static final String LOBBY_SHARDS_OPTION = "--lobby-shards";
+
+    /**
+     * Messages to clients are batched, and sent at the end of every game or lobby iteration.
+     * This is how long a message can wait if nobody flushes.
+     */
+    private static final long MAX_FLUSH_DELAY_MILLIS = 5;
+
+    /**
+     * Writes to a client that doesn't read block a game thread. A client whose write is stuck
+     * this long is disconnected, so it can't hold up the other games on the pool for longer.
+     */
+    private static final long WRITE_TIMEOUT_MILLIS = 10_000;
+
+    /**
+     * System property with the amount of seconds between metrics reports, 0 or absent for none.
+     */
+    public static final String METRICS_INTERVAL_PROPERTY = "ss.metrics.interval";
+
+    /**
+     * System property with the amount of seconds a client waits for other players before the
+     * empty seats are given to bots, 0 or absent for never.
+     */
+    public static final String BOT_FILL_TIMEOUT_PROPERTY = "ss.bots.timeout";
+
+    private final ShardedLobby lobby;
+    private final ServerMetrics metrics;
 
-    private final Lobby lobby;
+    /**
+     * Creates the threads that read the messages of the connected clients.
+     */
+    private final ThreadFactory peerThreadFactory;
+    /**
+     * The amount of event loops that serve all clients, or 0 to give every client its own thread.
+     */
+    private final int ioThreads;
 
+    private volatile ServerSocket serverSocket;
+    private volatile boolean stopServer;
+
+    /**
+     * Creates a server that runs its games on a thread per processor.
+     */
     public Server() {
-        lobby = new Lobby();
+        this(new ShardedLobby(1, defaultGameExecutor()),
+                VirtualThreads.platformFactory("peer-", false), 0);
+    }
+
+    /**
+     * Creates a server that runs its games on the given amount of threads.
+     *
+     * @param gameThreads The amount of games that can be updated at the same time.
+     */
+    //@ requires gameThreads > 0;
+    public Server(int gameThreads) {
+        this(new ShardedLobby(1, new GameExecutor(gameThreads)),
+                VirtualThreads.platformFactory("peer-", false), 0);
+    }
+
+    private Server(ShardedLobby lobby, ThreadFactory peerThreadFactory, int ioThreads) {
+        this.lobby = lobby;
+        this.metrics = new ServerMetrics(lobby);
+
+        lobby.setBotFillTimeout(Math.max(0, Long.getLong(BOT_FILL_TIMEOUT_PROPERTY, 0)),
+                TimeUnit.SECONDS);
+        this.peerThreadFactory = peerThreadFactory;
+        this.ioThreads = ioThreads;
+
+        serverSocket = null;
+        stopServer = false;
+    }
+
+    /**
+     * Creates a server that runs every client's reader, and every game, on a virtual thread.
+     * This way the amount of connected clients is limited by memory, rather than by the amount
+     * of threads the operating system allows.
+     *
+     * @return The server.
+     * @throws UnsupportedOperationException When the runtime does not support virtual threads.
+     */
+    public static Server withVirtualThreads() {
+        GameExecutor gameExecutor = new GameExecutor(VirtualThreads.factory("game-"));
+
+        return new Server(new ShardedLobby(1, gameExecutor), VirtualThreads.factory("peer-"), 0);
+    }
+
+    /**
+     * Creates a server that serves all clients from a few threads, using non-blocking IO.
+     * The games run on a thread per processor.
+     *
+     * @param ioThreads The amount of threads that read from and write to the clients.
+     * @return The server.
+     */
+    //@ requires ioThreads > 0;
+    public static Server withNonBlockingIo(int ioThreads) {
+        if (ioThreads <= 0) {
+            throw new IllegalArgumentException("Need at least one IO thread, got " + ioThreads);
+        }
+
+        return new Server(new ShardedLobby(1, defaultGameExecutor()),
+                VirtualThreads.platformFactory("io-", true), ioThreads);
+    }
+
+    /**
+     * Creates a server that splits its clients over several lobbies, each with its own thread.
+     * Clients are only matched with clients in the same lobby.
+     * The games run on a thread per processor.
+     *
+     * @param lobbyShards The amount of lobbies.
+     * @return The server.
+     */
+    //@ requires lobbyShards > 0;
+    public static Server withLobbyShards(int lobbyShards) {
+        return new Server(new ShardedLobby(lobbyShards, defaultGameExecutor()),
+                VirtualThreads.platformFactory("peer-", false), 0);
+    }
+
+    private static GameExecutor defaultGameExecutor() {
+        return new GameExecutor(Runtime.getRuntime().availableProcessors());
     }
 
+    //@ pure
+    public ShardedLobby getLobby() {
+        return lobby;
+    }
+
+    //@ pure
+    public ServerMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * @return The port the server is listening on, or -1 if it is not listening (yet).
+     */
+    //@ pure
+    public int getLocalPort() {
+        ServerSocket socket = serverSocket;
+
+        if (socket == null) {
+            return -1;
+        }
+
+        return socket.getLocalPort();
+    }
+
+    /**
+     * Starts the server on the port the protocol dictates.
+     * Blocks until `stop()` is called.
+     */
     public void start() {
+        start(PORT);
+    }
+
+    /**
+     * Starts the server on the given port. Blocks until `stop()` is called.
+     *
+     * @param port The port to listen on, 0 to let the system pick one.
+     */
+    public void start(int port) {
+        if (ioThreads > 0) {
+            startNonBlocking(port);
+            return;
+        }
+
         // try to open a server socket;
-        ServerSocket serverSocket;
         try {
-            serverSocket = new ServerSocket(PORT);
+            serverSocket = new ServerSocket(port);
         } catch (IOException e) {
-            System.out.println("ERROR: could not create a socket on port " + PORT);
+            LOG.error("Could not create a socket on port " + port, e);
             return;
         }
 
-        // Start the lobby thread.
-        Thread lobbyThread = new Thread(lobby);
-        lobbyThread.start();
+        // Start the lobby thread(s).
+        lobby.start();
+        startMetricsReporting();
 
-        System.out.println("Server up and running.");
+        LOG.info("Server up and running.");
 
-        while (true) {
+        while (!stopServer) {
             Socket clientSocket;
 
             try {
                 // Wait for clients to connect.
                 clientSocket = serverSocket.accept();
 
-                SocketConnection connection = new SocketConnection(clientSocket);
-                ClientPeer newClient = new ClientPeer(connection, true);
+                SocketConnection connection =
+                        new SocketConnection(clientSocket, MAX_FLUSH_DELAY_MILLIS,
+                                WRITE_TIMEOUT_MILLIS);
+                // We do our own batching.
+                connection.setTcpNoDelay(true);
+                ClientPeer newClient =
+                        new ClientPeer(connection, true, lobby.getNameRegistry());
 
-                System.out.println("New client connected!");
+                metrics.clientConnected(newClient);
+                LOG.info("New client connected!");
 
-                Thread newConnectionThread = new Thread(newClient);
+                Thread newConnectionThread = peerThreadFactory.newThread(newClient);
                 newConnectionThread.start();
 
                 // Hand the client off to the lobby.
                 lobby.addNewClient(newClient);
 
             } catch (IOException e) {
-                System.out.println(
-                        "Something went wrong while trying to accept a clients connection: \'" +
-                                e.getMessage() + "\'.");
+                if (!stopServer) {
+                    LOG.warn("Something went wrong while trying to accept a clients " +
+                            "connection: \'" + e.getMessage() + "\'.");
+                }
+            }
+        }
+
+        lobby.stop();
+        metrics.stopReporting();
+    }
+
+    /**
+     * Like `start(int)`, but the clients are served by a few event loops.
+     */
+    private void startNonBlocking(int port) {
+        ServerSocketChannel serverChannel;
+        NioEventLoop[] eventLoops = new NioEventLoop[ioThreads];
+
+        try {
+            serverChannel = ServerSocketChannel.open();
+            serverChannel.bind(new InetSocketAddress(port));
+
+            for (int i = 0; i < eventLoops.length; i++) {
+                eventLoops[i] = new NioEventLoop();
+            }
+        } catch (IOException e) {
+            LOG.error("Could not create a socket on port " + port, e);
+            return;
+        }
+
+        serverSocket = serverChannel.socket();
+
+        for (NioEventLoop eventLoop : eventLoops) {
+            peerThreadFactory.newThread(eventLoop).start();
+        }
+
+        lobby.start();
+        startMetricsReporting();
+
+        LOG.info("Server up and running, serving clients from " + ioThreads +
+                " IO thread(s).");
+
+        int nextEventLoop = 0;
+
+        while (!stopServer) {
+            try {
+                // Wait for clients to connect.
+                SocketChannel clientChannel = serverChannel.accept();
+
+                // Spread the clients over the event loops.
+                NioConnection connection =
+                        new NioConnection(clientChannel, eventLoops[nextEventLoop]);
+                nextEventLoop = (nextEventLoop + 1) % eventLoops.length;
+
+                ClientPeer newClient =
+                        new ClientPeer(connection, true, lobby.getNameRegistry());
+
+                metrics.clientConnected(newClient);
+                LOG.info("New client connected!");
+
+                connection.start(newClient);
+
+                // Hand the client off to the lobby.
+                lobby.addNewClient(newClient);
+
+            } catch (IOException e) {
+                if (!stopServer) {
+                    LOG.warn("Something went wrong while trying to accept a clients " +
+                            "connection: \'" + e.getMessage() + "\'.");
+                }
             }
         }
+
+        for (NioEventLoop eventLoop : eventLoops) {
+            eventLoop.stop();
+        }
+
+        lobby.stop();
+        metrics.stopReporting();
+    }
+
+    /**
+     * Prints metrics periodically, if the `ss.metrics.interval` system property asks for it.
+     */
+    private void startMetricsReporting() {
+        long interval = Long.getLong(METRICS_INTERVAL_PROPERTY, 0);
+
+        if (interval > 0) {
+            metrics.startReporting(interval, System.out);
+        }
     }
 
+    /**
+     * Stops accepting new clients, and makes `start()` return.
+     * Clients that are already connected are left alone.
+     */
+    public void stop() {
+        stopServer = true;
 
+        ServerSocket socket = serverSocket;
+        if (socket != null) {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                LOG.error("Could not close the server socket.", e);
+            }
+        }
+    }
+
+    /**
+     * Starts the server.
+     *
+     * @param args Optionally `--virtual-threads`, to run clients and games on virtual threads.
+     *             Or `--nio`, optionally followed by the amount of IO threads, to serve all
+     *             clients from a few threads.
+     *             Or `--lobby-shards` followed by the amount of lobbies to split the clients over.
+     *             Otherwise optionally the amount of threads to run the games on,
+     *             which defaults to the amount of processors.
+     *             Run with `-Dss.metrics.interval=10` to print metrics every 10 seconds.
+     *             Run with `-Dss.bots.timeout=30` to give clients bots to play with, when
+     *             nobody else joins them within 30 seconds.
+     */
     public static void main(String[] args) {
-        Server server = new Server();
+        Server server;
+
+        if (args.length > 0 && args[0].equals(VIRTUAL_THREADS_OPTION)) {
+            if (VirtualThreads.isSupported()) {
+                System.out.println("Running clients and games on virtual threads.");
+                server = Server.withVirtualThreads();
+            } else {
+                System.out.println("This Java runtime does not support virtual threads, " +
+                        "falling back to normal threads.");
+                server = new Server();
+            }
+        } else if (args.length > 0 && args[0].equals(NIO_OPTION)) {
+            int ioThreads = 1;
+            if (args.length > 1) {
+                try {
+                    ioThreads = Integer.parseInt(args[1]);
+                } catch (NumberFormatException e) {
+                    ioThreads = 0;
+                }
+            }
+
+            if (ioThreads <= 0) {
+                System.out.println("Usage: Server " + NIO_OPTION + " [amount of IO threads]");
+                return;
+            }
+
+            server = Server.withNonBlockingIo(ioThreads);
+        } else if (args.length > 0 && args[0].equals(LOBBY_SHARDS_OPTION)) {
+            int lobbyShards = 0;
+            if (args.length > 1) {
+                try {
+                    lobbyShards = Integer.parseInt(args[1]);
+                } catch (NumberFormatException e) {
+                    lobbyShards = 0;
+                }
+            }
+
+            if (lobbyShards <= 0) {
+                System.out.println("Usage: Server " + LOBBY_SHARDS_OPTION +
+                        " <amount of lobbies>");
+                return;
+            }
+
+            server = Server.withLobbyShards(lobbyShards);
+        } else if (args.length > 0) {
+            int gameThreads;
+            try {
+                gameThreads = Integer.parseInt(args[0]);
+            } catch (NumberFormatException e) {
+                gameThreads = 0;
+            }
+
+            if (gameThreads <= 0) {
+                System.out.println(
+                        "Usage: Server [amount of game threads | " + VIRTUAL_THREADS_OPTION +
+                                " | " + NIO_OPTION + " [amount of IO threads] | " +
+                                LOBBY_SHARDS_OPTION + " <amount of lobbies>]");
+                return;
+            }
+
+            server = new Server(gameThreads);
+        } else {
+            server = new Server();
+        }
 
         server.start();
     }
@@ -0,0 +1,241 @@
+package ss.spec.server;
+
+import ss.spec.networking.Traffic;
+
+import java.io.PrintStream;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects what the server is doing, so we can see where time goes under load.
+ * The report is plain text, made on request with `report()`, or printed periodically after
+ * `startReporting()`.
+ * <p>
+ * Most numbers are read from where they are kept anyway: the lobby, the game executor and the
+ * connections' `Traffic`. The durations are recorded in the shared histograms below, by whoever
+ * measures them. Message and byte rates are per second since the previous report.
+ */
+public class ServerMetrics {
+
+    /**
+     * How long `Board.makeMove()` takes to check and make a move, as called by `Game`.
+     */
+    public static final LatencyHistogram MOVE_VALIDATION = new LatencyHistogram();
+    /**
+     * How long clients take from being asked for a move, to sending one.
+     */
+    public static final LatencyHistogram TURN_LATENCY = new LatencyHistogram();
+    /**
+     * How long bots take to decide a move, on the game thread.
+     */
+    public static final LatencyHistogram BOT_DECISION = new LatencyHistogram();
+
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+    private final ShardedLobby lobby;
+
+    /**
+     * The connected clients. Clients are removed as soon as they disconnect.
+     */
+    private final Set<ClientPeer> clients;
+
+    // Traffic at the previous report. Guarded by `this`.
+    private long lastReportNanos;
+    private long lastMessagesSent;
+    private long lastBytesSent;
+    private long lastMessagesReceived;
+    private long lastBytesReceived;
+
+    /**
+     * Prints the reports, or `null` when not reporting. Guarded by `this`.
+     */
+    private ScheduledExecutorService reporter;
+
+    /**
+     * @param lobby The lobby of the server.
+     */
+    //@ requires lobby != null;
+    public ServerMetrics(ShardedLobby lobby) {
+        this.lobby = lobby;
+        this.clients = ConcurrentHashMap.newKeySet();
+
+        lastReportNanos = System.nanoTime();
+        lastMessagesSent = Traffic.getMessagesSent();
+        lastBytesSent = Traffic.getBytesSent();
+        lastMessagesReceived = Traffic.getMessagesReceived();
+        lastBytesReceived = Traffic.getBytesReceived();
+
+        reporter = null;
+    }
+
+    /**
+     * Starts counting a newly connected client, until it disconnects.
+     *
+     * @param client The client.
+     */
+    //@ requires client != null;
+    public void clientConnected(ClientPeer client) {
+        clients.add(client);
+        client.setDisconnectListener(clients::remove);
+
+        if (!client.isPeerConnected()) {
+            // Disconnected before we were listening.
+            clients.remove(client);
+        }
+    }
+
+    /**
+     * @return The amount of clients that are counted, some might have just disconnected.
+     */
+    //@ pure
+    public int getNumberOfClients() {
+        return clients.size();
+    }
+
+    /**
+     * Counts the connected clients by their state.
+     * Goes over all clients, so don't call it too often with many clients connected.
+     *
+     * @return For every state that at least one client is in, the number of clients in it.
+     */
+    public Map<ClientPeer.State, Integer> getClientsPerState() {
+        EnumMap<ClientPeer.State, Integer> perState = new EnumMap<>(ClientPeer.State.class);
+
+        Iterator<ClientPeer> clientIter = clients.iterator();
+        while (clientIter.hasNext()) {
+            ClientPeer client = clientIter.next();
+
+            if (client.isPeerConnected()) {
+                perState.merge(client.getState(), 1, Integer::sum);
+            } else {
+                clientIter.remove();
+            }
+        }
+
+        return perState;
+    }
+
+    /**
+     * Makes a report of everything there is to measure.
+     *
+     * @return The report, a few lines of text.
+     */
+    public synchronized String report() {
+        Map<ClientPeer.State, Integer> perState = getClientsPerState();
+        int connected = 0;
+        for (int count : perState.values()) {
+            connected += count;
+        }
+
+        StringBuilder builder = new StringBuilder();
+
+        builder.append("clients: ").append(connected).append(" connected");
+        for (Map.Entry<ClientPeer.State, Integer> entry : perState.entrySet()) {
+            builder.append(", ").append(entry.getKey()).append('=').append(entry.getValue());
+        }
+        builder.append('\n');
+
+        builder.append("lobby: ").append(lobby.getNumberOfWaitingClients()).append(" waiting");
+        for (int players = 2; players <= 4; players++) {
+            builder.append(", ").append(lobby.getNumberOfClientsWaitingFor(players))
+                    .append(" for ").append(players).append(" players");
+        }
+        builder.append(", intake ").append(format(lobby.getIntakeRate())).append("/s\n");
+
+        GameExecutor gameExecutor = lobby.getGameExecutor();
+        builder.append("games: ").append(lobby.getNumberOfRunningGames()).append(" running, ")
+                .append(gameExecutor.getActiveTasks()).append(" updating, ")
+                .append(gameExecutor.getQueuedTasks()).append(" queued\n");
+
+        appendTraffic(builder);
+
+        appendHistogram(builder, "move validation", MOVE_VALIDATION);
+        appendHistogram(builder, "turn latency", TURN_LATENCY);
+        appendHistogram(builder, "bot decision", BOT_DECISION);
+
+        return builder.toString();
+    }
+
+    //@ requires Thread.holdsLock(this);
+    private void appendTraffic(StringBuilder builder) {
+        long now = System.nanoTime();
+        double seconds = Math.max(now - lastReportNanos, 1) / NANOS_PER_SECOND;
+
+        long messagesSent = Traffic.getMessagesSent();
+        long bytesSent = Traffic.getBytesSent();
+        long messagesReceived = Traffic.getMessagesReceived();
+        long bytesReceived = Traffic.getBytesReceived();
+
+        builder.append("traffic: in ")
+                .append(format((messagesReceived - lastMessagesReceived) / seconds))
+                .append(" msg/s ")
+                .append(format((bytesReceived - lastBytesReceived) / seconds))
+                .append(" B/s, out ")
+                .append(format((messagesSent - lastMessagesSent) / seconds))
+                .append(" msg/s ")
+                .append(format((bytesSent - lastBytesSent) / seconds))
+                .append(" B/s\n");
+
+        lastReportNanos = now;
+        lastMessagesSent = messagesSent;
+        lastBytesSent = bytesSent;
+        lastMessagesReceived = messagesReceived;
+        lastBytesReceived = bytesReceived;
+    }
+
+    private static void appendHistogram(StringBuilder builder, String name,
+                                        LatencyHistogram histogram) {
+        builder.append(name).append(": ").append(histogram.getCount()).append(" recorded");
+
+        if (histogram.getCount() > 0) {
+            builder.append(", mean ").append(formatMicros(histogram.getMean()))
+                    .append(", p50 ").append(formatMicros(histogram.getPercentile(0.5)))
+                    .append(", p99 ").append(formatMicros(histogram.getPercentile(0.99)))
+                    .append(", max ").append(formatMicros(histogram.getMax()));
+        }
+
+        builder.append('\n');
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.1f", value);
+    }
+
+    private static String formatMicros(double nanos) {
+        return String.format(Locale.ROOT, "%.1f us", nanos / 1000);
+    }
+
+    /**
+     * Prints a report every so often, on a background thread.
+     * Replaces any previous reporting.
+     *
+     * @param intervalSeconds How many seconds between reports.
+     * @param out             Where to print the reports.
+     */
+    //@ requires intervalSeconds > 0;
+    public synchronized void startReporting(long intervalSeconds, PrintStream out) {
+        stopReporting();
+
+        reporter = Executors.newSingleThreadScheduledExecutor(
+                VirtualThreads.platformFactory("metrics-", true));
+        reporter.scheduleAtFixedRate(() -> out.print(report()),
+                intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stops printing reports, if we were.
+     */
+    public synchronized void stopReporting() {
+        if (reporter != null) {
+            reporter.shutdownNow();
+            reporter = null;
+        }
+    }
+}
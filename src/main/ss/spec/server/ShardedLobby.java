@@ -0,0 +1,181 @@
+package ss.spec.server;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Splits the clients over several `Lobby`s, each with its own thread, so verifying names,
+ * matchmaking and lobby chat can use more than one processor.
+ * <p>
+ * New clients are handed to the shards in turn. A client stays in its shard, also when it
+ * returns from a game. Clients are only matched with clients in the same shard, and only see
+ * the chat of clients in the same shard. Names are unique over all shards, they share one
+ * `NameRegistry`.
+ * <p>
+ * With a single shard, this behaves exactly like a single `Lobby`.
+ */
+public class ShardedLobby {
+
+    private final Lobby[] shards;
+    private final NameRegistry usedNames;
+    private final GameExecutor gameExecutor;
+
+    private final AtomicInteger nextShard;
+
+    /**
+     * Creates the shards. They don't run until `start()` is called.
+     *
+     * @param numberOfShards The amount of lobbies to split the clients over.
+     * @param gameExecutor   The executor all shards run their games on.
+     */
+    //@ requires numberOfShards > 0;
+    //@ requires gameExecutor != null;
+    //@ ensures getNumberOfShards() == numberOfShards;
+    public ShardedLobby(int numberOfShards, GameExecutor gameExecutor) {
+        if (numberOfShards <= 0) {
+            throw new IllegalArgumentException("Need at least one lobby shard, got " +
+                    numberOfShards);
+        }
+
+        this.gameExecutor = gameExecutor;
+        this.usedNames = new NameRegistry();
+
+        shards = new Lobby[numberOfShards];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new Lobby(gameExecutor, usedNames);
+        }
+
+        nextShard = new AtomicInteger(0);
+    }
+
+    /**
+     * Starts a thread for every shard.
+     */
+    public void start() {
+        for (int i = 0; i < shards.length; i++) {
+            new Thread(shards[i], "lobby-" + i).start();
+        }
+    }
+
+    /**
+     * Stops the threads of all shards, on their next iteration.
+     */
+    public void stop() {
+        for (Lobby shard : shards) {
+            shard.stopLobbyThread();
+        }
+    }
+
+    /**
+     * Sets the bot fill timeout of every shard, see `Lobby.setBotFillTimeout()`.
+     *
+     * @param timeout How long a client waits before the empty seats are given to bots,
+     *                or `Lobby.NO_BOT_FILL`.
+     * @param unit    The unit of the timeout.
+     */
+    //@ requires timeout >= 0;
+    public void setBotFillTimeout(long timeout, TimeUnit unit) {
+        for (Lobby shard : shards) {
+            shard.setBotFillTimeout(timeout, unit);
+        }
+    }
+
+    /**
+     * Hands a new client to the next shard. Never blocks, and can be called from any thread.
+     *
+     * @param client The new client.
+     */
+    //@ requires client != null;
+    public void addNewClient(ClientPeer client) {
+        int shard = Math.floorMod(nextShard.getAndIncrement(), shards.length);
+
+        shards[shard].addNewClient(client);
+    }
+
+    //@ pure
+    public int getNumberOfShards() {
+        return shards.length;
+    }
+
+    /**
+     * @param index The index of the shard, in the range [0, getNumberOfShards()).
+     * @return The lobby of that shard.
+     */
+    //@ requires index >= 0 && index < getNumberOfShards();
+    //@ pure
+    public Lobby getShard(int index) {
+        return shards[index];
+    }
+
+    /**
+     * @return The total amount of clients waiting in all shards.
+     */
+    //@ pure
+    public int getNumberOfWaitingClients() {
+        int total = 0;
+
+        for (Lobby shard : shards) {
+            total += shard.getNumberOfWaitingClients();
+        }
+
+        return total;
+    }
+
+    /**
+     * @param numberOfPlayers The amount of players in the game, in the range [2-4].
+     * @return The number of clients in all shards waiting for a game with that many players.
+     */
+    //@ pure
+    public int getNumberOfClientsWaitingFor(int numberOfPlayers) {
+        int total = 0;
+
+        for (Lobby shard : shards) {
+            total += shard.getNumberOfClientsWaitingFor(numberOfPlayers);
+        }
+
+        return total;
+    }
+
+    /**
+     * @return The amount of games started by any shard that are still ongoing.
+     */
+    //@ pure
+    public int getNumberOfRunningGames() {
+        int total = 0;
+
+        for (Lobby shard : shards) {
+            total += shard.getNumberOfRunningGames();
+        }
+
+        return total;
+    }
+
+    /**
+     * @return The amount of clients added to all shards in the last second.
+     */
+    public double getIntakeRate() {
+        double total = 0;
+
+        for (Lobby shard : shards) {
+            total += shard.getIntakeRate();
+        }
+
+        return total;
+    }
+
+    /**
+     * @return The names in use on the server, shared by all shards.
+     */
+    //@ pure
+    public NameRegistry getNameRegistry() {
+        return usedNames;
+    }
+
+    /**
+     * @return The executor the games of all shards are running on.
+     */
+    //@ pure
+    public GameExecutor getGameExecutor() {
+        return gameExecutor;
+    }
+}
@@ -0,0 +1,89 @@
+package ss.spec.server;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Gives access to virtual threads, when the Java runtime we are running on has them (Java 21+).
+ * <p>
+ * The project is compiled for Java 8, so the virtual thread API is looked up by reflection.
+ * A virtual thread blocking on a socket does not tie up an operating system thread, so with
+ * virtual threads the amount of connected clients is limited by memory rather than by the
+ * amount of threads the operating system allows.
+ */
+public final class VirtualThreads {
+
+    private VirtualThreads() {
+        // Only static methods.
+    }
+
+    /**
+     * @return true if the runtime supports virtual threads.
+     */
+    public static boolean isSupported() {
+        try {
+            Thread.class.getMethod("ofVirtual");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Creates a factory for virtual threads, named `namePrefix` followed by a counter.
+     *
+     * @param namePrefix The first part of the thread names.
+     * @return The thread factory.
+     * @throws UnsupportedOperationException When the runtime does not support virtual threads.
+     */
+    public static ThreadFactory factory(String namePrefix) {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+
+            // The builder's class is internal, so go through the public interface.
+            Class<?> builderInterface = Class.forName("java.lang.Thread$Builder");
+            builder = builderInterface.getMethod("name", String.class, long.class)
+                    .invoke(builder, namePrefix, 1L);
+            Method factory = builderInterface.getMethod("factory");
+
+            return (ThreadFactory) factory.invoke(builder);
+        } catch (NoSuchMethodException | ClassNotFoundException |
+                IllegalAccessException | InvocationTargetException e) {
+            throw new UnsupportedOperationException(
+                    "Virtual threads are not supported by this Java runtime.", e);
+        }
+    }
+
+    /**
+     * Creates a factory for normal (platform) threads, named `namePrefix` followed by a counter.
+     *
+     * @param namePrefix The first part of the thread names.
+     * @param daemon     Whether the threads should be daemon threads.
+     * @return The thread factory.
+     */
+    public static ThreadFactory platformFactory(String namePrefix, boolean daemon) {
+        return new PlatformThreadFactory(namePrefix, daemon);
+    }
+
+    private static class PlatformThreadFactory implements ThreadFactory {
+
+        private final String namePrefix;
+        private final boolean daemon;
+        private long threadNumber;
+
+        PlatformThreadFactory(String namePrefix, boolean daemon) {
+            this.namePrefix = namePrefix;
+            this.daemon = daemon;
+            threadNumber = 0;
+        }
+
+        @Override
+        public synchronized Thread newThread(Runnable runnable) {
+            threadNumber++;
+            Thread thread = new Thread(runnable, namePrefix + threadNumber);
+            thread.setDaemon(daemon);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package ss.spec.simulation;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Reads how many bytes the current thread has allocated, where the Java runtime supports it.
+ */
+final class AllocationCounter {
+
+    private static final com.sun.management.ThreadMXBean THREADS = findThreadBean();
+
+    private AllocationCounter() {
+    }
+
+    private static com.sun.management.ThreadMXBean findThreadBean() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+
+            if (threads.isThreadAllocatedMemorySupported()) {
+                threads.setThreadAllocatedMemoryEnabled(true);
+                return threads;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * @return The bytes allocated by the current thread so far, or -1 if this is not supported.
+     */
+    static long currentThreadAllocatedBytes() {
+        if (THREADS == null) {
+            return -1;
+        }
+
+        return THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
@@ -0,0 +1,94 @@
+package ss.spec.simulation;
+
+/**
+ * The outcome of a simulated game.
+ * Players are identified by their seat: their position in the list of strategies.
+ */
+public class GameResult {
+
+    private final int[] scores;
+    private final int moves;
+    private final int replaces;
+    private final int skips;
+    private final boolean stalled;
+
+    GameResult(int[] scores, int moves, int replaces, int skips, boolean stalled) {
+        this.scores = scores;
+        this.moves = moves;
+        this.replaces = replaces;
+        this.skips = skips;
+        this.stalled = stalled;
+    }
+
+    //@ pure
+    public int getNumberOfPlayers() {
+        return scores.length;
+    }
+
+    /**
+     * @param seat The seat of the player.
+     * @return The final score of the player, after subtracting the tiles left in hand.
+     */
+    //@ requires 0 <= seat && seat < getNumberOfPlayers();
+    //@ pure
+    public int getScore(int seat) {
+        return scores[seat];
+    }
+
+    /**
+     * @return The highest final score.
+     */
+    //@ pure
+    public int getWinningScore() {
+        int highest = Integer.MIN_VALUE;
+
+        for (int score : scores) {
+            highest = Math.max(highest, score);
+        }
+
+        return highest;
+    }
+
+    /**
+     * @param seat The seat of the player.
+     * @return Whether the player has the highest score. With a tie, there are multiple winners.
+     */
+    //@ requires 0 <= seat && seat < getNumberOfPlayers();
+    //@ pure
+    public boolean isWinner(int seat) {
+        return scores[seat] == getWinningScore();
+    }
+
+    /**
+     * @return The amount of tiles placed on the board.
+     */
+    //@ pure
+    public int getMoves() {
+        return moves;
+    }
+
+    /**
+     * @return The amount of tiles exchanged by players who couldn't move.
+     */
+    //@ pure
+    public int getReplaces() {
+        return replaces;
+    }
+
+    /**
+     * @return The amount of turns skipped.
+     */
+    //@ pure
+    public int getSkips() {
+        return skips;
+    }
+
+    /**
+     * @return true if the game was stopped because every player skipped in a row, while there
+     * were still tiles left. A real game would wait for a player to exchange forever.
+     */
+    //@ pure
+    public boolean isStalled() {
+        return stalled;
+    }
+}
@@ -0,0 +1,104 @@
+package ss.spec.simulation;
+
+import ss.spec.bot.BotStrategy;
+import ss.spec.bot.Bots;
+import ss.spec.gamepieces.SeededTileBag;
+import ss.spec.gamepieces.TileBag;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Plays many games between bots on the calling thread, as fast as possible, and measures how
+ * fast that goes. Used to see how many games the rules can handle, and to check that they keep
+ * working for every game that can come up.
+ */
+public class GameSimulator {
+
+    public static final int DEFAULT_GAMES = 100_000;
+
+    private final List<BotStrategy> strategies;
+    private final Supplier<TileBag> bags;
+
+    /**
+     * @param strategies The strategy of every player. The same instances play every game.
+     * @param bags       Creates an empty bag for every game.
+     */
+    //@ requires strategies.size() >= 2;
+    public GameSimulator(List<BotStrategy> strategies, Supplier<TileBag> bags) {
+        this.strategies = new ArrayList<>(strategies);
+        this.bags = bags;
+    }
+
+    /**
+     * Plays a single game.
+     *
+     * @return The outcome.
+     */
+    public GameResult playGame() {
+        return new SimulatedGame(strategies, bags.get()).play();
+    }
+
+    /**
+     * Plays the given amount of games.
+     *
+     * @param games The amount of games to play.
+     * @return How fast they were played.
+     */
+    //@ requires games >= 0;
+    public SimulationReport run(long games) {
+        long moves = 0;
+
+        long allocatedBefore = AllocationCounter.currentThreadAllocatedBytes();
+        long start = System.nanoTime();
+
+        for (long i = 0; i < games; i++) {
+            moves += playGame().getMoves();
+        }
+
+        long elapsed = System.nanoTime() - start;
+        long allocatedAfter = AllocationCounter.currentThreadAllocatedBytes();
+        long allocated = allocatedBefore < 0 ? -1 : allocatedAfter - allocatedBefore;
+
+        return new SimulationReport(games, moves, elapsed, allocated);
+    }
+
+    /**
+     * Usage: `GameSimulator [games] [strategy...]`, for example
+     * `GameSimulator 1000000 greedy random random`. Plays 2 greedy bots by default.
+     * A first run of the same size warms up the JIT compiler.
+     */
+    public static void main(String[] args) {
+        long games = DEFAULT_GAMES;
+        List<BotStrategy> strategies = new ArrayList<>();
+
+        try {
+            if (args.length > 0) {
+                games = Long.parseLong(args[0]);
+            }
+
+            for (int i = 1; i < args.length; i++) {
+                strategies.add(Bots.create(args[i], i));
+            }
+        } catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage());
+            System.out.println("Usage: GameSimulator [games] [" + Bots.GREEDY + "|" +
+                    Bots.RANDOM + "]...");
+            return;
+        }
+
+        while (strategies.size() < 2) {
+            strategies.add(Bots.create(Bots.GREEDY, 0));
+        }
+
+        // Seeds in a fixed order, so every run plays the same games.
+        AtomicLong seeds = new AtomicLong();
+        GameSimulator simulator =
+                new GameSimulator(strategies, () -> new SeededTileBag(seeds.getAndIncrement()));
+
+        System.out.println("Warming up: " + simulator.run(games));
+        System.out.println("Measured:   " + simulator.run(games));
+    }
+}
@@ -0,0 +1,110 @@
+package ss.spec.simulation;
+
+/**
+ * Counts how often every final score occurs, to give the spread of a player's scores.
+ * Not thread-safe: every worker keeps its own, and they are merged afterwards.
+ */
+public class ScoreDistribution {
+
+    /**
+     * Scores are counted exactly in this range, lower and higher scores are counted at the edges.
+     * Real scores stay far inside of it.
+     */
+    public static final int MIN_SCORE = -256;
+    public static final int MAX_SCORE = 1023;
+
+    private final long[] counts;
+    private long count;
+    private long sum;
+    private int min;
+    private int max;
+
+    public ScoreDistribution() {
+        counts = new long[MAX_SCORE - MIN_SCORE + 1];
+        count = 0;
+        sum = 0;
+        min = Integer.MAX_VALUE;
+        max = Integer.MIN_VALUE;
+    }
+
+    public void add(int score) {
+        int clamped = Math.max(MIN_SCORE, Math.min(MAX_SCORE, score));
+        counts[clamped - MIN_SCORE]++;
+
+        count++;
+        sum += score;
+        min = Math.min(min, score);
+        max = Math.max(max, score);
+    }
+
+    /**
+     * Adds all the scores of the other distribution to this one.
+     *
+     * @param other The distribution to add.
+     */
+    public void merge(ScoreDistribution other) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+
+        count += other.count;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    //@ pure
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return The average score, 0 when there are no scores.
+     */
+    //@ pure
+    public double getMean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /**
+     * @return The lowest score, 0 when there are no scores.
+     */
+    //@ pure
+    public int getMin() {
+        return count == 0 ? 0 : min;
+    }
+
+    /**
+     * @return The highest score, 0 when there are no scores.
+     */
+    //@ pure
+    public int getMax() {
+        return count == 0 ? 0 : max;
+    }
+
+    /**
+     * @param percentile The percentile, in the range [0 - 100].
+     * @return The lowest score that at least that percentage of the scores is at or below.
+     * 0 when there are no scores.
+     */
+    //@ requires 0 <= percentile && percentile <= 100;
+    //@ pure
+    public int getPercentile(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+
+            if (seen >= rank) {
+                return i + MIN_SCORE;
+            }
+        }
+
+        return MAX_SCORE;
+    }
+}
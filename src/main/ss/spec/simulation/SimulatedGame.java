@@ -0,0 +1,167 @@
+package ss.spec.simulation;
+
+import ss.spec.bot.BotStrategy;
+import ss.spec.gamepieces.Board;
+import ss.spec.gamepieces.Dealer;
+import ss.spec.gamepieces.EmptyTileBagException;
+import ss.spec.gamepieces.InvalidMoveException;
+import ss.spec.gamepieces.Move;
+import ss.spec.gamepieces.Tile;
+import ss.spec.gamepieces.TileBag;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A complete game of Spectrangle between bots, played in one go on the calling thread.
+ * <p>
+ * Follows the same rules as the server's `Game`: the turn order and the starting hands come from
+ * the `Dealer`, a player who can move has to move, a player who can't may exchange a tile, and
+ * the game is over when the bag is empty and no one can move. There are no peers, messages or
+ * waiting, so a game takes microseconds.
+ */
+public class SimulatedGame {
+
+    private final List<SimulatedPlayer> players;
+    private final Board board;
+    private final TileBag bag;
+
+    private int moves;
+    private int replaces;
+    private int skips;
+
+    /**
+     * @param strategies The strategy of every player, at least 2.
+     * @param bag        The tile bag, empty. The starting tiles are added when the game is played.
+     */
+    //@ requires strategies.size() >= 2 && bag.getNumTilesLeft() == 0;
+    public SimulatedGame(List<BotStrategy> strategies, TileBag bag) {
+        this.players = new ArrayList<>(strategies.size());
+
+        for (int seat = 0; seat < strategies.size(); seat++) {
+            players.add(new SimulatedPlayer(seat, strategies.get(seat)));
+        }
+
+        this.board = new Board();
+        this.bag = bag;
+    }
+
+    /**
+     * Plays the game from start to end. Can only be called once.
+     *
+     * @return The outcome.
+     * @throws IllegalStateException When a strategy makes a move that isn't allowed.
+     */
+    public GameResult play() {
+        bag.addAllStartingTiles();
+
+        List<SimulatedPlayer> turnOrder;
+        try {
+            turnOrder = Dealer.decideTurnOrder(players, bag);
+        } catch (EmptyTileBagException e) {
+            throw new IllegalStateException("Ran out of tiles while deciding the turn order.", e);
+        }
+        Dealer.dealStartingHands(players, bag);
+
+        int currentTurnPlayer = 0;
+        // Turns in a row in which no one placed or exchanged a tile.
+        int turnsWithoutProgress = 0;
+        boolean stalled = false;
+
+        while (!noOneCanMove()) {
+            if (turnsWithoutProgress >= turnOrder.size()) {
+                // Everyone skipped, and they would keep doing so.
+                stalled = true;
+                break;
+            }
+
+            if (playTurn(turnOrder.get(currentTurnPlayer))) {
+                turnsWithoutProgress = 0;
+            } else {
+                turnsWithoutProgress++;
+            }
+
+            currentTurnPlayer = (currentTurnPlayer + 1) % turnOrder.size();
+        }
+
+        int[] scores = new int[players.size()];
+        for (SimulatedPlayer player : players) {
+            player.endGameSubtractTilesFromScore();
+            scores[player.getSeat()] = player.getScore();
+        }
+
+        return new GameResult(scores, moves, replaces, skips, stalled);
+    }
+
+    /**
+     * @return The board, to look at after the game has been played.
+     */
+    //@ pure
+    public Board getBoard() {
+        return board;
+    }
+
+    /**
+     * Lets the player take their turn.
+     *
+     * @return true if a tile was placed or exchanged, false if the turn was skipped.
+     */
+    private boolean playTurn(SimulatedPlayer player) {
+        List<Tile> hand = player.getTiles();
+
+        if (board.hasValidMoves(hand)) {
+            Move move = player.getStrategy().decideMove(board, hand);
+
+            if (move == null || !player.hasTileInHand(move.getTile())) {
+                throw new IllegalStateException(player.getName() + " made an invalid move.");
+            }
+
+            try {
+                player.addPoints(board.makeMove(move));
+            } catch (InvalidMoveException e) {
+                throw new IllegalStateException(player.getName() + " made an invalid move.", e);
+            }
+
+            player.removeTile(move.getTile());
+            Dealer.drawTile(player, bag);
+            moves++;
+            return true;
+        }
+
+        Tile replaceTile = player.getStrategy().decideReplaceTile(board, hand,
+                bag.getNumTilesLeft());
+
+        if (replaceTile == null) {
+            skips++;
+            return false;
+        }
+
+        if (!player.hasTileInHand(replaceTile)) {
+            throw new IllegalStateException(player.getName() +
+                    " exchanged a tile it doesn't have.");
+        }
+
+        // Like in `Game`, the exchanged tile leaves the game.
+        player.removeTile(replaceTile);
+        Dealer.drawTile(player, bag);
+        replaces++;
+        return true;
+    }
+
+    /**
+     * The same end condition as `Game`: the bag is empty, and no one has a valid move.
+     */
+    private boolean noOneCanMove() {
+        if (bag.getNumTilesLeft() > 0) {
+            return false;
+        }
+
+        for (int i = 0; i < players.size(); i++) {
+            if (board.hasValidMoves(players.get(i).getTiles())) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
@@ -0,0 +1,33 @@
+package ss.spec.simulation;
+
+import ss.spec.bot.BotStrategy;
+import ss.spec.gamepieces.AbstractPlayer;
+
+/**
+ * A player in a simulated game, who lets a strategy decide its moves.
+ */
+class SimulatedPlayer extends AbstractPlayer {
+
+    private final int seat;
+    private final BotStrategy strategy;
+
+    SimulatedPlayer(int seat, BotStrategy strategy) {
+        super("bot-" + seat);
+
+        this.seat = seat;
+        this.strategy = strategy;
+    }
+
+    /**
+     * @return The position of the player in the list of strategies the game was created with.
+     */
+    //@ pure
+    int getSeat() {
+        return seat;
+    }
+
+    //@ pure
+    BotStrategy getStrategy() {
+        return strategy;
+    }
+}
@@ -0,0 +1,79 @@
+package ss.spec.simulation;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * How fast a batch of simulated games was played.
+ */
+public class SimulationReport {
+
+    private final long games;
+    private final long moves;
+    private final long elapsedNanos;
+    /**
+     * -1 when the Java runtime can't tell.
+     */
+    private final long allocatedBytes;
+
+    SimulationReport(long games, long moves, long elapsedNanos, long allocatedBytes) {
+        this.games = games;
+        this.moves = moves;
+        this.elapsedNanos = elapsedNanos;
+        this.allocatedBytes = allocatedBytes;
+    }
+
+    //@ pure
+    public long getGames() {
+        return games;
+    }
+
+    //@ pure
+    public long getMoves() {
+        return moves;
+    }
+
+    //@ pure
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    //@ pure
+    public double getGamesPerSecond() {
+        return perSecond(games);
+    }
+
+    //@ pure
+    public double getMovesPerSecond() {
+        return perSecond(moves);
+    }
+
+    /**
+     * @return The average amount of bytes allocated per game, or -1 if the Java runtime can't
+     * measure allocations.
+     */
+    //@ pure
+    public long getAllocatedBytesPerGame() {
+        if (allocatedBytes < 0 || games == 0) {
+            return -1;
+        }
+
+        return allocatedBytes / games;
+    }
+
+    private double perSecond(long amount) {
+        if (elapsedNanos <= 0) {
+            return 0;
+        }
+
+        return amount * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        long allocation = getAllocatedBytesPerGame();
+
+        return String.format("%d games, %d moves in %.2f s: %.0f games/s, %.0f moves/s, %s",
+                games, moves, elapsedNanos / 1e9, getGamesPerSecond(), getMovesPerSecond(),
+                allocation < 0 ? "allocation unknown" : allocation + " bytes allocated/game");
+    }
+}
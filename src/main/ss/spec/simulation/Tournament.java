@@ -0,0 +1,202 @@
+package ss.spec.simulation;
+
+import ss.spec.bot.BotStrategy;
+import ss.spec.bot.Bots;
+import ss.spec.gamepieces.SeededTileBag;
+import ss.spec.gamepieces.TileBag;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.LongFunction;
+
+/**
+ * Plays a large amount of games between bot strategies on all cores, to find out how well the
+ * strategies do against each other.
+ * <p>
+ * The games are split over a fork/join pool. Every game gets its own board, bag and strategy
+ * instances, all seeded from the tournament seed and the number of the game. So workers share
+ * nothing while playing, and a tournament gives the same result no matter how many threads run
+ * it.
+ */
+public class Tournament {
+
+    /**
+     * Games are split until a task has at most this many to play.
+     * Large enough that splitting costs nothing next to playing, small enough to keep all threads
+     * busy until the end.
+     */
+    private static final long GAMES_PER_TASK = 1024;
+
+    private final String[] strategyNames;
+    private final long seed;
+    private final LongFunction<TileBag> bags;
+
+    /**
+     * Creates a tournament in which the seats play with a `SeededTileBag`.
+     *
+     * @param strategyNames The strategy of every seat, as known by `Bots.create()`.
+     * @param seed          The seed for the tournament.
+     * @throws IllegalArgumentException When a strategy is unknown, or there are less than 2.
+     */
+    public Tournament(List<String> strategyNames, long seed) {
+        this(strategyNames, seed, SeededTileBag::new);
+    }
+
+    /**
+     * @param strategyNames The strategy of every seat, as known by `Bots.create()`.
+     * @param seed          The seed for the tournament.
+     * @param bags          Creates an empty bag from the seed of a game.
+     * @throws IllegalArgumentException When a strategy is unknown, or there are less than 2.
+     */
+    public Tournament(List<String> strategyNames, long seed, LongFunction<TileBag> bags) {
+        if (strategyNames.size() < 2) {
+            throw new IllegalArgumentException("A game needs at least 2 players.");
+        }
+
+        for (String name : strategyNames) {
+            // Fail now, instead of on a worker thread.
+            Bots.create(name, 0);
+        }
+
+        this.strategyNames = strategyNames.toArray(new String[0]);
+        this.seed = seed;
+        this.bags = bags;
+    }
+
+    /**
+     * Plays the games on the common fork/join pool.
+     *
+     * @param games The amount of games to play.
+     * @return The combined outcome.
+     */
+    public TournamentResult run(long games) {
+        return run(games, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Plays the games on the given pool.
+     *
+     * @param games The amount of games to play.
+     * @param pool  The pool to play on.
+     * @return The combined outcome.
+     */
+    //@ requires games >= 0;
+    public TournamentResult run(long games, ForkJoinPool pool) {
+        long start = System.nanoTime();
+
+        TournamentResult result = pool.invoke(new GamesTask(0, games));
+
+        result.setElapsedNanos(System.nanoTime() - start);
+        return result;
+    }
+
+    /**
+     * Plays a single game of the tournament.
+     *
+     * @param game The number of the game.
+     * @return The outcome, the same every time for the same game.
+     */
+    public GameResult playGame(long game) {
+        long gameSeed = mix(seed + game);
+
+        List<BotStrategy> strategies = new ArrayList<>(strategyNames.length);
+        for (int seat = 0; seat < strategyNames.length; seat++) {
+            strategies.add(Bots.create(strategyNames[seat], mix(gameSeed + seat + 1)));
+        }
+
+        return new SimulatedGame(strategies, bags.apply(gameSeed)).play();
+    }
+
+    /**
+     * Spreads the bits of a number over a whole long, so neighbouring games get unrelated seeds.
+     * The finalizer of the SplitMix64 generator.
+     */
+    private static long mix(long value) {
+        long z = value * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Plays the games in [from - to), splitting them in two while there are too many.
+     */
+    private class GamesTask extends RecursiveTask<TournamentResult> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final long from;
+        private final long to;
+
+        GamesTask(long from, long to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected TournamentResult compute() {
+            if (to - from <= GAMES_PER_TASK) {
+                TournamentResult result = new TournamentResult(strategyNames);
+
+                for (long game = from; game < to; game++) {
+                    result.add(playGame(game));
+                }
+
+                return result;
+            }
+
+            long middle = from + (to - from) / 2;
+            GamesTask second = new GamesTask(middle, to);
+            second.fork();
+
+            TournamentResult result = new GamesTask(from, middle).compute();
+            result.merge(second.join());
+            return result;
+        }
+    }
+
+    /**
+     * Usage: `Tournament games strategy strategy... [--threads n] [--seed n]`, for example
+     * `Tournament 1000000 greedy random random --threads 8`.
+     */
+    public static void main(String[] args) {
+        long games;
+        List<String> strategies = new ArrayList<>();
+        int threads = Runtime.getRuntime().availableProcessors();
+        long seed = 0;
+
+        try {
+            games = Long.parseLong(args[0]);
+
+            for (int i = 1; i < args.length; i++) {
+                if (args[i].equals("--threads")) {
+                    threads = Integer.parseInt(args[++i]);
+                } else if (args[i].equals("--seed")) {
+                    seed = Long.parseLong(args[++i]);
+                } else {
+                    strategies.add(args[i]);
+                }
+            }
+
+            Tournament tournament = new Tournament(strategies, seed);
+            ForkJoinPool pool = new ForkJoinPool(threads);
+
+            System.out.println("Playing " + games + " games on " + threads + " threads.");
+            System.out.print(tournament.run(games, pool));
+
+            pool.shutdown();
+        } catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage());
+            printUsage();
+        } catch (ArrayIndexOutOfBoundsException e) {
+            printUsage();
+        }
+    }
+
+    private static void printUsage() {
+        System.out.println("Usage: Tournament games [" + Bots.GREEDY + "|" + Bots.RANDOM +
+                "]... [--threads n] [--seed n]");
+    }
+}
@@ -0,0 +1,166 @@
+package ss.spec.simulation;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The combined outcome of the games of a tournament: how often every seat won, and how its
+ * scores were spread. Seats are the positions in the list of strategies.
+ * <p>
+ * Not thread-safe: every worker fills its own, and they are merged afterwards.
+ */
+public class TournamentResult {
+
+    private final String[] strategyNames;
+    private final long[] wins;
+    private final ScoreDistribution[] scores;
+
+    private long games;
+    private long draws;
+    private long stalled;
+    private long moves;
+    private long elapsedNanos;
+
+    /**
+     * @param strategyNames The name of the strategy on every seat.
+     */
+    TournamentResult(String[] strategyNames) {
+        this.strategyNames = strategyNames;
+        this.wins = new long[strategyNames.length];
+        this.scores = new ScoreDistribution[strategyNames.length];
+
+        for (int seat = 0; seat < scores.length; seat++) {
+            scores[seat] = new ScoreDistribution();
+        }
+    }
+
+    void add(GameResult result) {
+        games++;
+        moves += result.getMoves();
+
+        if (result.isStalled()) {
+            stalled++;
+        }
+
+        int winners = 0;
+        for (int seat = 0; seat < wins.length; seat++) {
+            scores[seat].add(result.getScore(seat));
+
+            if (result.isWinner(seat)) {
+                wins[seat]++;
+                winners++;
+            }
+        }
+
+        if (winners > 1) {
+            draws++;
+        }
+    }
+
+    void merge(TournamentResult other) {
+        games += other.games;
+        draws += other.draws;
+        stalled += other.stalled;
+        moves += other.moves;
+
+        for (int seat = 0; seat < wins.length; seat++) {
+            wins[seat] += other.wins[seat];
+            scores[seat].merge(other.scores[seat]);
+        }
+    }
+
+    void setElapsedNanos(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    //@ pure
+    public int getNumberOfSeats() {
+        return wins.length;
+    }
+
+    //@ pure
+    public long getGames() {
+        return games;
+    }
+
+    /**
+     * @return The amount of games in which more than one player had the highest score.
+     */
+    //@ pure
+    public long getDraws() {
+        return draws;
+    }
+
+    /**
+     * @return The amount of games stopped because no one would place or exchange a tile anymore.
+     */
+    //@ pure
+    public long getStalledGames() {
+        return stalled;
+    }
+
+    //@ pure
+    public long getMoves() {
+        return moves;
+    }
+
+    //@ pure
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * @param seat The seat.
+     * @return The amount of games the seat had the highest score in, including draws.
+     */
+    //@ pure
+    public long getWins(int seat) {
+        return wins[seat];
+    }
+
+    /**
+     * @param seat The seat.
+     * @return The share of the games the seat won, in the range [0 - 1].
+     */
+    //@ pure
+    public double getWinRate(int seat) {
+        return games == 0 ? 0 : (double) wins[seat] / games;
+    }
+
+    //@ pure
+    public ScoreDistribution getScores(int seat) {
+        return scores[seat];
+    }
+
+    //@ pure
+    public double getGamesPerSecond() {
+        if (elapsedNanos <= 0) {
+            return 0;
+        }
+
+        return games * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    /**
+     * @return A line for the tournament, and a line per seat.
+     */
+    @Override
+    public String toString() {
+        StringBuilder report = new StringBuilder();
+
+        report.append(String.format("%d games in %.2f s (%.0f games/s), %d draws, %d stalled%n",
+                games, elapsedNanos / 1e9, getGamesPerSecond(), draws, stalled));
+
+        for (int seat = 0; seat < wins.length; seat++) {
+            ScoreDistribution seatScores = scores[seat];
+
+            report.append(String.format("seat %d %-8s won %5.1f%%  " +
+                            "score mean %.1f min %d p10 %d p50 %d p90 %d max %d%n",
+                    seat, strategyNames[seat], getWinRate(seat) * 100, seatScores.getMean(),
+                    seatScores.getMin(), seatScores.getPercentile(10),
+                    seatScores.getPercentile(50), seatScores.getPercentile(90),
+                    seatScores.getMax()));
+        }
+
+        return report.toString();
+    }
+}
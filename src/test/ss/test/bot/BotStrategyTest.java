@@ -0,0 +1,105 @@
+package ss.test.bot;
+
+import org.junit.jupiter.api.Test;
+import ss.spec.bot.BotStrategy;
+import ss.spec.bot.Bots;
+import ss.spec.bot.GreedyBot;
+import ss.spec.bot.RandomBot;
+import ss.spec.gamepieces.Board;
+import ss.spec.gamepieces.Color;
+import ss.spec.gamepieces.InvalidMoveException;
+import ss.spec.gamepieces.Move;
+import ss.spec.gamepieces.Tile;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BotStrategyTest {
+
+    private List<Tile> hand() {
+        return new ArrayList<>(Arrays.asList(
+                new Tile(Color.BLUE, Color.PURPLE, Color.GREEN, 4),
+                new Tile(Color.YELLOW, Color.PURPLE, Color.RED, 2),
+                new Tile(Color.RED, Color.RED, Color.RED, 6)));
+    }
+
+    private Board startedBoard() throws InvalidMoveException {
+        Board board = new Board();
+        board.makeMove(new Move(new Tile(Color.BLUE, Color.PURPLE, Color.GREEN, 4), 12));
+        return board;
+    }
+
+    @Test
+    void randomBotMakesValidMoves() throws InvalidMoveException {
+        BotStrategy bot = new RandomBot(1);
+        Board board = startedBoard();
+
+        for (int i = 0; i < 100; i++) {
+            Move move = bot.decideMove(board, hand());
+
+            assertTrue(board.isMoveValid(move));
+        }
+    }
+
+    @Test
+    void greedyBotPicksTheHighestScore() throws InvalidMoveException {
+        BotStrategy bot = new GreedyBot();
+        Board board = startedBoard();
+        List<Tile> hand = hand();
+
+        Move move = bot.decideMove(board, hand);
+        assertTrue(board.isMoveValid(move));
+
+        int score = board.getPlacementScore(move.getTile(), move.getIndex());
+        for (Tile tile : hand) {
+            for (int rotation = 0; rotation < Tile.NUM_ROTATIONS; rotation++) {
+                for (int space = 0; space < Board.BOARD_SIZE; space++) {
+                    if (board.isPlacementValid(tile, rotation, space)) {
+                        assertTrue(board.getPlacementScore(tile, space) <= score);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void greedyBotStopsLookingWhenOutOfTime() throws InvalidMoveException {
+        // Every look at the clock, a millisecond passes.
+        long[] now = {0};
+        BotStrategy bot = new GreedyBot(1, () -> now[0]++ * 1_000_000);
+        Board board = startedBoard();
+
+        // Out of time right away, but it still finds a move.
+        Move move = bot.decideMove(board, hand());
+
+        assertNotNull(move);
+        assertTrue(board.isMoveValid(move));
+
+        // Without a budget it looks at everything.
+        BotStrategy patient = new GreedyBot(GreedyBot.NO_BUDGET, () -> now[0]++ * 1_000_000);
+        Move best = patient.decideMove(board, hand());
+        assertEquals(new GreedyBot().decideMove(board, hand()).getIndex(), best.getIndex());
+    }
+
+    @Test
+    void replaceOnlyWhileThereAreTiles() {
+        Board board = new Board();
+
+        assertNull(new GreedyBot().decideReplaceTile(board, hand(), 0));
+        assertNull(new RandomBot(1).decideReplaceTile(board, hand(), 0));
+
+        // Greedy gets rid of its cheapest tile.
+        assertEquals(hand().get(1), new GreedyBot().decideReplaceTile(board, hand(), 10));
+        assertNotNull(new RandomBot(1).decideReplaceTile(board, hand(), 10));
+    }
+
+    @Test
+    void createByName() {
+        assertTrue(Bots.create(Bots.GREEDY, 0) instanceof GreedyBot);
+        assertTrue(Bots.create(Bots.RANDOM, 0) instanceof RandomBot);
+        assertThrows(IllegalArgumentException.class, () -> Bots.create("clever", 0));
+    }
+}
@@ -4,6 +4,9 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import ss.spec.gamepieces.*;
 
+import java.util.ArrayList;
+import java.util.Random;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class BoardTest {
@@ -122,6 +125,127 @@ class BoardTest {
         assertFalse(board.isMoveValid(new Move(tile2, 6)));
     }
 
+    @Test
+    void isPlacementValid() {
+        Tile tile = new Tile(Color.BLUE, Color.PURPLE, Color.GREEN, 4);
+
+        // Invalid input is simply an invalid placement.
+        assertFalse(board.isPlacementValid(null, 0, 4));
+        assertFalse(board.isPlacementValid(tile, 0, -1));
+        assertFalse(board.isPlacementValid(tile, 0, Board.BOARD_SIZE));
+        assertFalse(board.isPlacementValid(tile, Tile.NUM_ROTATIONS, 4));
+
+        // First tile, every rotation is fine as long as it is not on a bonus space.
+        assertTrue(board.isPlacementValid(tile, 0, 4));
+        assertTrue(board.isPlacementValid(tile, 1, 4));
+        assertTrue(board.isPlacementValid(tile, 2, 4));
+        assertFalse(board.isPlacementValid(tile, 1, 2));
+
+        board.placeTileDontCheckValidity(new Move(new Tile(Color.RED, Color.RED, Color.YELLOW, 5), 12));
+
+        // The rotations should give the same result as placing the rotated tiles.
+        Tile redTile = new Tile(Color.RED, Color.GREEN, Color.BLUE, 2);
+        for (int id = 0; id < Board.BOARD_SIZE; id++) {
+            assertEquals(board.isMoveValid(new Move(redTile, id)),
+                    board.isPlacementValid(redTile, 0, id));
+            assertEquals(board.isMoveValid(new Move(redTile.rotate120(), id)),
+                    board.isPlacementValid(redTile, 1, id));
+            assertEquals(board.isMoveValid(new Move(redTile.rotate240(), id)),
+                    board.isPlacementValid(redTile, 2, id));
+        }
+
+        // Space 6 borders the flat side of 12, which is red.
+        assertTrue(board.isPlacementValid(redTile, 0, 6));
+        assertFalse(board.isPlacementValid(redTile, 1, 6));
+        assertFalse(board.isPlacementValid(redTile, 2, 6));
+    }
+
+    @Test
+    void hasValidMoves() {
+        ArrayList<Tile> hand = new ArrayList<>();
+
+        // No tiles, no moves.
+        assertFalse(board.hasValidMoves(hand));
+
+        hand.add(new Tile(Color.RED, Color.RED, Color.RED, 6));
+        assertTrue(board.hasValidMoves(hand));
+
+        // Surround the top of the board with tiles that only accept blue neighbours.
+        board.placeTileDontCheckValidity(new Move(new Tile(Color.BLUE, Color.BLUE, Color.BLUE, 6), 0));
+        board.placeTileDontCheckValidity(new Move(new Tile(Color.BLUE, Color.BLUE, Color.BLUE, 6), 1));
+        board.placeTileDontCheckValidity(new Move(new Tile(Color.BLUE, Color.BLUE, Color.BLUE, 6), 3));
+        assertFalse(board.hasValidMoves(hand));
+
+        // This tile fits below 1 or 3, but only when rotated so that its blue side is flat.
+        hand.add(new Tile(Color.RED, Color.GREEN, Color.BLUE, 2));
+        assertTrue(board.hasValidMoves(hand));
+    }
+
+    /**
+     * Fills boards with random tiles and compares the incrementally updated valid placements
+     * with a straightforward check of every space.
+     */
+    @Test
+    void validPlacementsMatchNaiveCheck() throws NoTileException {
+        Random random = new Random(42);
+        Color[] colors = Color.values();
+
+        for (int game = 0; game < 50; game++) {
+            board = new Board();
+
+            for (int turn = 0; turn < 100; turn++) {
+                Tile tile = new Tile(colors[random.nextInt(colors.length)],
+                        colors[random.nextInt(colors.length)],
+                        colors[random.nextInt(colors.length)],
+                        1 + random.nextInt(6));
+
+                for (int rotation = 0; rotation < Tile.NUM_ROTATIONS; rotation++) {
+                    long placements = board.getValidPlacements(tile, rotation);
+
+                    for (int id = 0; id < Board.BOARD_SIZE; id++) {
+                        assertEquals(naivePlacementValid(tile, rotation, id),
+                                (placements & 1L << id) != 0);
+                    }
+                }
+
+                int id = random.nextInt(Board.BOARD_SIZE);
+                if (board.isMoveValid(new Move(tile, id))) {
+                    board.placeTileDontCheckValidity(new Move(tile, id));
+                }
+            }
+        }
+    }
+
+    private boolean naivePlacementValid(Tile tile, int rotation, int id) throws NoTileException {
+        for (int i = 0; i < rotation; i++) {
+            tile = tile.rotate120();
+        }
+
+        if (board.getIsEmpty()) {
+            return !(id == 2 || id == 10 || id == 11 || id == 13 || id == 14 || id == 20 ||
+                    id == 26 || id == 30 || id == 34);
+        }
+        if (board.hasTile(id)) {
+            return false;
+        }
+
+        int flat = Board.getFlatNeighbour(id);
+        int clockwise = Board.getClockwiseNeighbour(id);
+        int counterclockwise = Board.getCounterclockwiseNeighbour(id);
+
+        if (!board.hasTile(flat) && !board.hasTile(clockwise) && !board.hasTile(counterclockwise)) {
+            return false;
+        }
+
+        return (!board.hasTile(flat) ||
+                tile.getFlatSide().isValidNextTo(board.getTile(flat).getFlatSide())) &&
+                (!board.hasTile(clockwise) ||
+                        tile.getClockwise1().isValidNextTo(board.getTile(clockwise).getClockwise1())) &&
+                (!board.hasTile(counterclockwise) ||
+                        tile.getClockwise2().isValidNextTo(
+                                board.getTile(counterclockwise).getClockwise2()));
+    }
+
     @Test
     void makeMove() throws InvalidMoveException, NoTileException {
         Tile tile = new Tile(Color.BLUE, Color.PURPLE, Color.GREEN, 4);
@@ -183,6 +307,20 @@ class BoardTest {
                 new Move(new Tile(Color.WHITE, Color.WHITE, Color.WHITE, 1), 15)));
     }
 
+    @Test
+    void placementScoreMatchesMakeMove() throws InvalidMoveException {
+        Tile tile = new Tile(Color.BLUE, Color.PURPLE, Color.GREEN, 4);
+        assertEquals(4, board.getPlacementScore(tile, 12));
+        board.makeMove(new Move(tile, 12));
+
+        // A bonus space next to the first tile.
+        Tile next = new Tile(Color.YELLOW, Color.PURPLE, Color.RED, 2);
+        assertEquals(8, board.getPlacementScore(next, 13));
+        // Looking at the score does not place the tile.
+        assertFalse(board.hasTile(13));
+        assertEquals(8, board.makeMove(new Move(next, 13)));
+    }
+
     @Test
     void isEmpty() throws InvalidMoveException {
         assertTrue(board.getIsEmpty());
@@ -208,6 +346,43 @@ class BoardTest {
         assertEquals(0, board.getNumAdjacentTiles(0));
     }
 
+    @Test
+    void neighbourTable() throws IndexException {
+        // The precomputed neighbours should match the ones calculated from the coordinates.
+        for (int id = 0; id < Board.BOARD_SIZE; id++) {
+            BoardCoordinates coords = BoardCoordinates.fromIndex(id);
+
+            int flat = Board.NO_NEIGHBOUR;
+            int clockwise = Board.NO_NEIGHBOUR;
+            int counterclockwise = Board.NO_NEIGHBOUR;
+            try {
+                flat = coords.getFlatNeighbourCoordinates().asIndex();
+            } catch (IndexException e) {
+                // Edge of the board.
+            }
+            try {
+                clockwise = coords.getClockwiseNeighbourCoordinates().asIndex();
+            } catch (IndexException e) {
+                // Edge of the board.
+            }
+            try {
+                counterclockwise = coords.getCounterclockwiseNeighbourCoordinates().asIndex();
+            } catch (IndexException e) {
+                // Edge of the board.
+            }
+
+            assertEquals(flat, Board.getFlatNeighbour(id));
+            assertEquals(clockwise, Board.getClockwiseNeighbour(id));
+            assertEquals(counterclockwise, Board.getCounterclockwiseNeighbour(id));
+        }
+
+        assertEquals(12, Board.getFlatNeighbour(6));
+        assertEquals(0, Board.getFlatNeighbour(2));
+        assertEquals(Board.NO_NEIGHBOUR, Board.getFlatNeighbour(35));
+        assertEquals(Board.NO_NEIGHBOUR, Board.getClockwiseNeighbour(-1));
+        assertEquals(Board.NO_NEIGHBOUR, Board.getCounterclockwiseNeighbour(Board.BOARD_SIZE));
+    }
+
     @Test
     void adjacencyValid() {
         // Placing without adjacent tiles is invalid.
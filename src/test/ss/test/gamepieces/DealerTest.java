@@ -0,0 +1,83 @@
+package ss.test.gamepieces;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ss.spec.gamepieces.AbstractPlayer;
+import ss.spec.gamepieces.Dealer;
+import ss.spec.gamepieces.EmptyTileBagException;
+import ss.spec.gamepieces.Tile;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DealerTest {
+
+    private static class TestPlayer extends AbstractPlayer {
+        TestPlayer(String name) {
+            super(name);
+        }
+    }
+
+    private MockTileBag bag;
+    private List<TestPlayer> players;
+
+    @BeforeEach
+    void setUp() {
+        bag = new MockTileBag();
+        bag.addAllStartingTiles();
+
+        players = new ArrayList<>();
+        players.add(new TestPlayer("Alice"));
+        players.add(new TestPlayer("Bob"));
+        players.add(new TestPlayer("Clarice"));
+        players.add(new TestPlayer("Diane"));
+    }
+
+    @Test
+    void turnOrder() throws EmptyTileBagException {
+        List<TestPlayer> order = Dealer.decideTurnOrder(players, bag);
+
+        // The mock bag deals 6, 1, 4 and 4 points. Clarice and Diane tie, and draw again:
+        // 2 for Clarice and 4 for Diane.
+        assertEquals(Arrays.asList(players.get(0), players.get(3), players.get(2),
+                players.get(1)), order);
+
+        // The tie left Clarice and Diane with an extra tile.
+        assertEquals(2, players.get(2).getTiles().size());
+        assertEquals(2, players.get(3).getTiles().size());
+    }
+
+    @Test
+    void startingHands() throws EmptyTileBagException {
+        Dealer.decideTurnOrder(players, bag);
+        int tilesInGame = bag.getNumTilesLeft() + 6;
+
+        Dealer.dealStartingHands(players, bag);
+
+        for (TestPlayer player : players) {
+            assertEquals(AbstractPlayer.MAX_HAND_SIZE, player.getTiles().size());
+        }
+        assertEquals(tilesInGame - 4 * AbstractPlayer.MAX_HAND_SIZE, bag.getNumTilesLeft());
+    }
+
+    @Test
+    void drawTile() {
+        TestPlayer player = players.get(0);
+
+        Tile tile = Dealer.drawTile(player, bag);
+        assertNotNull(tile);
+        assertTrue(player.hasTileInHand(tile));
+
+        // A full hand doesn't draw.
+        for (int i = 1; i < AbstractPlayer.MAX_HAND_SIZE; i++) {
+            Dealer.drawTile(player, bag);
+        }
+        assertNull(Dealer.drawTile(player, bag));
+
+        // An empty bag doesn't crash.
+        assertNull(Dealer.drawTile(players.get(1), new MockTileBag()));
+    }
+}
@@ -8,6 +8,7 @@ import ss.spec.gamepieces.RandomTileBag;
 import ss.spec.gamepieces.Tile;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 class RandomTileBagTest {
     private RandomTileBag bag;
@@ -52,4 +53,16 @@ class RandomTileBagTest {
         bag.takeTile();
         assertEquals(1, bag.getNumTilesLeft());
     }
+
+    @Test
+    void sameSeedSameOrder() throws EmptyTileBagException {
+        RandomTileBag first = new RandomTileBag(7);
+        RandomTileBag second = new RandomTileBag(7);
+        first.addAllStartingTiles();
+        second.addAllStartingTiles();
+
+        while (first.getNumTilesLeft() > 0) {
+            assertSame(first.takeTile(), second.takeTile());
+        }
+    }
 }
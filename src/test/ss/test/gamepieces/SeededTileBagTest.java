@@ -0,0 +1,74 @@
+package ss.test.gamepieces;
+
+import org.junit.jupiter.api.Test;
+import ss.spec.gamepieces.Color;
+import ss.spec.gamepieces.EmptyTileBagException;
+import ss.spec.gamepieces.SeededTileBag;
+import ss.spec.gamepieces.StartingTiles;
+import ss.spec.gamepieces.Tile;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SeededTileBagTest {
+
+    private List<Tile> drawAll(SeededTileBag bag) throws EmptyTileBagException {
+        List<Tile> drawn = new ArrayList<>();
+
+        while (bag.getNumTilesLeft() > 0) {
+            drawn.add(bag.takeTile());
+        }
+
+        return drawn;
+    }
+
+    @Test
+    void handsOutEveryTileOnce() throws EmptyTileBagException {
+        SeededTileBag bag = new SeededTileBag(1);
+        bag.addAllStartingTiles();
+        assertEquals(StartingTiles.COUNT, bag.getNumTilesLeft());
+
+        List<Tile> drawn = drawAll(bag);
+
+        assertEquals(StartingTiles.COUNT, drawn.size());
+        assertEquals(new HashSet<>(StartingTiles.asList()), new HashSet<>(drawn));
+        assertThrows(EmptyTileBagException.class, bag::takeTile);
+    }
+
+    @Test
+    void sameSeedSameOrder() throws EmptyTileBagException {
+        SeededTileBag first = new SeededTileBag(1234);
+        SeededTileBag second = new SeededTileBag(1234);
+        SeededTileBag other = new SeededTileBag(4321);
+        first.addAllStartingTiles();
+        second.addAllStartingTiles();
+        other.addAllStartingTiles();
+
+        assertEquals(1234, first.getSeed());
+
+        List<Tile> firstTiles = drawAll(first);
+        assertEquals(firstTiles, drawAll(second));
+        assertNotEquals(firstTiles, drawAll(other));
+    }
+
+    @Test
+    void tilesCanBePutBack() throws EmptyTileBagException {
+        SeededTileBag bag = new SeededTileBag(5);
+        Tile tile = new Tile(Color.PURPLE, Color.GREEN, Color.RED, 7);
+
+        bag.addTile(tile);
+        assertSame(tile, bag.takeTile());
+        assertEquals(0, bag.getNumTilesLeft());
+
+        // More tiles than a game has still fit.
+        bag.addAllStartingTiles();
+        bag.addTile(tile);
+        bag.addAllStartingTiles();
+        assertEquals(2 * StartingTiles.COUNT + 1, bag.getNumTilesLeft());
+
+        assertTrue(drawAll(bag).contains(tile));
+    }
+}
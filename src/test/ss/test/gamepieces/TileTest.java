@@ -112,6 +112,57 @@ class TileTest {
         assertTrue(tile1.isEquivalent(tile1.rotate240()));
     }
 
+    @Test
+    void interning() throws DecodeException {
+        Tile interned = Tile.valueOf(Color.BLUE, Color.RED, Color.PURPLE, 2);
+
+        assertEquals(tile1, interned);
+        assertEquals(tile1.hashCode(), interned.hashCode());
+        assertSame(interned, Tile.valueOf(Color.BLUE, Color.RED, Color.PURPLE, 2));
+        assertSame(interned, Tile.valueOf(tile1.getPacked()));
+
+        // Rotating and decoding give the interned instances.
+        assertSame(tile1.rotate120(), tile1.rotate120());
+        assertSame(interned, tile1.rotate120().rotate240());
+        assertSame(interned, Tile.decode("BRP2"));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> Tile.valueOf(Color.BLUE, Color.RED, Color.PURPLE, Tile.MAX_POINTS + 1));
+        assertThrows(IllegalArgumentException.class,
+                () -> new Tile(Color.BLUE, Color.RED, Color.PURPLE, -1));
+    }
+
+    @Test
+    void equivalencyIgnoresOnlyRotation() {
+        for (Color flat : Color.values()) {
+            for (Color cw1 : Color.values()) {
+                for (Color cw2 : Color.values()) {
+                    Tile tile = new Tile(flat, cw1, cw2, 3);
+
+                    assertTrue(tile.isEquivalent(tile.rotate120()));
+                    assertTrue(tile.isEquivalent(tile.rotate240()));
+                    assertEquals(tile, tile.rotate120().rotate120().rotate120());
+                    assertFalse(tile.isEquivalent(new Tile(flat, cw1, cw2, 4)));
+                    assertFalse(tile.isEquivalent(null));
+
+                    // Mirrored tiles are not equivalent, unless two sides are the same.
+                    Tile mirrored = new Tile(flat, cw2, cw1, 3);
+                    boolean twoSidesEqual = flat == cw1 || cw1 == cw2 || flat == cw2;
+                    assertEquals(twoSidesEqual, tile.isEquivalent(mirrored));
+                }
+            }
+        }
+    }
+
+    @Test
+    void encode() throws DecodeException {
+        assertEquals("BRP2", tile1.encode());
+        assertEquals("PGG6", tile2.encode());
+        assertEquals("RPB2", tile1.rotate240().encode());
+
+        assertEquals(tile2, Tile.decode(tile2.encode()));
+    }
+
     @Test
     void decode() throws DecodeException {
         assertEquals(new Tile(Color.RED, Color.PURPLE, Color.WHITE, 3),
@@ -131,5 +182,10 @@ class TileTest {
         assertThrows(DecodeException.class, () -> Tile.decode("SDJFKsdfs"));
         assertThrows(DecodeException.class, () -> Tile.decode("R G B 4"));
         assertThrows(DecodeException.class, () -> Tile.decode("QRS8"));
+        // Numerals from other scripts, worth 100000, 1000 and 0.
+        assertThrows(DecodeException.class, () -> Tile.decode("RRR\u2188"));
+        assertThrows(DecodeException.class, () -> Tile.decode("RRR\u216F"));
+        assertThrows(DecodeException.class, () -> Tile.decode("RRR\u0660"));
+        assertThrows(DecodeException.class, () -> Tile.decode("RRR0"));
     }
 }
\ No newline at end of file
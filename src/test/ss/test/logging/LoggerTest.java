@@ -0,0 +1,185 @@
+package ss.test.logging;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ss.spec.logging.AsyncLogWriter;
+import ss.spec.logging.LogLevel;
+import ss.spec.logging.Logger;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoggerTest {
+
+    private ByteArrayOutputStream output;
+    private AsyncLogWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        output = new ByteArrayOutputStream();
+        writer = new AsyncLogWriter(new PrintStream(output, true), 1024);
+    }
+
+    @AfterEach
+    void tearDown() {
+        writer.close();
+    }
+
+    private String[] writtenLines() {
+        writer.flush();
+        String text = output.toString();
+        return text.isEmpty() ? new String[0] : text.split(System.lineSeparator());
+    }
+
+    @Test
+    void writesStructuredLines() {
+        Logger logger = new Logger("lobby", LogLevel.INFO, writer);
+
+        logger.info("Client \"Bob\" joined.");
+
+        String[] lines = writtenLines();
+        assertEquals(1, lines.length);
+        assertTrue(lines[0].startsWith("time="));
+        assertTrue(lines[0].contains(" level=INFO component=lobby thread="));
+        assertTrue(lines[0].endsWith(" message=\"Client \\\"Bob\\\" joined.\""));
+    }
+
+    @Test
+    void levelsFilterMessages() {
+        Logger logger = new Logger("game", LogLevel.WARN, writer);
+
+        assertFalse(logger.isEnabled(LogLevel.DEBUG));
+        assertFalse(logger.isEnabled(LogLevel.INFO));
+        assertTrue(logger.isEnabled(LogLevel.WARN));
+        assertTrue(logger.isEnabled(LogLevel.ERROR));
+
+        logger.debug("debug");
+        logger.info("info");
+        logger.warn("warn");
+        logger.error("error");
+
+        String[] lines = writtenLines();
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].contains("level=WARN"));
+        assertTrue(lines[1].contains("level=ERROR"));
+    }
+
+    @Test
+    void componentsCanBeTurnedOff() {
+        Logger lobby = new Logger("lobby", LogLevel.INFO, writer);
+        Logger protocol = new Logger("protocol", LogLevel.INFO, writer);
+
+        protocol.setLevel(LogLevel.OFF);
+        assertFalse(protocol.isEnabled(LogLevel.ERROR));
+
+        protocol.info("Sending: 'hello'.");
+        lobby.info("Still here.");
+
+        String[] lines = writtenLines();
+        assertEquals(1, lines.length);
+        assertTrue(lines[0].contains("component=lobby"));
+    }
+
+    @Test
+    void sharedLoggersPerComponent() {
+        assertSame(Logger.get("test-component"), Logger.get("test-component"));
+        assertEquals("test-component", Logger.get("test-component").getComponent());
+        assertEquals(LogLevel.INFO, Logger.get("test-component").getLevel());
+    }
+
+    @Test
+    void errorsIncludeTheStackTrace() {
+        Logger logger = new Logger("server", LogLevel.INFO, writer);
+
+        logger.error("Could not open the socket.", new IllegalStateException("port in use"));
+
+        writer.flush();
+        String text = output.toString();
+        assertTrue(text.contains("error=\"java.lang.IllegalStateException: port in use\""));
+        assertTrue(text.contains("at ss.test.logging.LoggerTest"));
+    }
+
+    @Test
+    void manyThreadsLogWithoutLosingMessages() throws InterruptedException {
+        Logger logger = new Logger("peer", LogLevel.INFO, writer);
+        List<Thread> threads = new ArrayList<>();
+
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 200; i++) {
+                    logger.info("message " + i);
+                    if (i % 50 == 0) {
+                        // Give the writer a chance to catch up, so nothing is dropped.
+                        writer.flush();
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(800 - writer.getDroppedRecords(), writtenLines().length);
+    }
+
+    @Test
+    void dropsInsteadOfBlockingWhenFull() {
+        PrintStream blocked = new PrintStream(new ByteArrayOutputStream()) {
+            @Override
+            public void write(byte[] bytes, int offset, int length) {
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        AsyncLogWriter slowWriter = new AsyncLogWriter(blocked, 4);
+        Logger logger = new Logger("game", LogLevel.INFO, slowWriter);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 100; i++) {
+            logger.info("message " + i);
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(slowWriter.getDroppedRecords() > 0);
+        assertTrue(elapsedMillis < 1000);
+
+        slowWriter.close();
+    }
+
+    @Test
+    void closeWritesEverythingAndStopsTheThread() {
+        long threadsBefore = countWriterThreads();
+        AsyncLogWriter closingWriter = new AsyncLogWriter(new PrintStream(output, true), 1024);
+        Logger logger = new Logger("server", LogLevel.INFO, closingWriter);
+
+        for (int i = 0; i < 100; i++) {
+            logger.info("message " + i);
+        }
+        closingWriter.close();
+
+        assertEquals(100, output.toString().split(System.lineSeparator()).length);
+        assertEquals(threadsBefore, countWriterThreads());
+
+        // Closed for good.
+        logger.info("too late");
+        assertEquals(1, closingWriter.getDroppedRecords());
+        closingWriter.close();
+    }
+
+    private static long countWriterThreads() {
+        return Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.getName().equals("log-writer") && thread.isAlive())
+                .count();
+    }
+}
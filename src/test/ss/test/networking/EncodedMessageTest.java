@@ -0,0 +1,44 @@
+package ss.test.networking;
+
+import org.junit.jupiter.api.Test;
+import ss.spec.networking.EncodedMessage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EncodedMessageTest {
+
+    @Test
+    void encode() throws IOException {
+        EncodedMessage message = EncodedMessage.of("chat bob h\u00e9llo");
+
+        assertEquals("chat bob h\u00e9llo", message.getText());
+        // The e with accent takes two bytes, and the line end one.
+        assertEquals(16, message.getLength());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        message.writeTo(out);
+        assertEquals("chat bob h\u00e9llo\n",
+                new String(out.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void viewsAreIndependent() {
+        EncodedMessage message = EncodedMessage.of("skip bob");
+
+        ByteBuffer first = message.asByteBuffer();
+        ByteBuffer second = message.asByteBuffer();
+
+        assertTrue(first.isReadOnly());
+
+        first.get(new byte[4]);
+
+        assertEquals(5, first.remaining());
+        assertEquals(9, second.remaining());
+        assertEquals('s', second.get(0));
+    }
+}
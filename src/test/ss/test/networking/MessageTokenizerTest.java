@@ -0,0 +1,97 @@
+package ss.test.networking;
+
+import org.junit.jupiter.api.Test;
+import ss.spec.gamepieces.Color;
+import ss.spec.gamepieces.Tile;
+import ss.spec.networking.DecodeException;
+import ss.spec.networking.MessageTokenizer;
+
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MessageTokenizerTest {
+
+    private static final String[] KEYWORDS = {"place", "skip"};
+
+    @Test
+    void words() {
+        MessageTokenizer tokens = new MessageTokenizer().reset("  connect  bob\tchat ");
+
+        assertTrue(tokens.hasNext());
+        assertEquals("connect", tokens.next());
+        assertEquals("bob", tokens.next());
+        assertEquals("chat", tokens.next());
+        assertFalse(tokens.hasNext());
+        assertThrows(NoSuchElementException.class, tokens::next);
+
+        tokens.reset("");
+        assertFalse(tokens.hasNext());
+    }
+
+    @Test
+    void keywords() {
+        MessageTokenizer tokens = new MessageTokenizer().reset("place skipper");
+
+        // The keyword itself is returned.
+        assertSame(KEYWORDS[0], tokens.nextKeyword(KEYWORDS));
+        // Only whole words match.
+        assertEquals("skipper", tokens.nextKeyword(KEYWORDS));
+    }
+
+    @Test
+    void nextIs() {
+        MessageTokenizer tokens = new MessageTokenizer().reset("RPB2 on 12");
+
+        assertFalse(tokens.nextIs("on"));
+        assertFalse(tokens.nextIs("RPB"));
+        assertEquals("RPB2", tokens.next());
+        assertTrue(tokens.nextIs("on"));
+        assertEquals("12", tokens.next());
+        assertFalse(tokens.nextIs("on"));
+    }
+
+    @Test
+    void numbers() throws DecodeException {
+        MessageTokenizer tokens = new MessageTokenizer()
+                .reset("12 -3 +4 2147483647 -2147483648 2147483648 1a -");
+
+        assertEquals(12, tokens.nextInt());
+        assertEquals(-3, tokens.nextInt());
+        assertEquals(4, tokens.nextInt());
+        assertEquals(Integer.MAX_VALUE, tokens.nextInt());
+        assertEquals(Integer.MIN_VALUE, tokens.nextInt());
+
+        // Failed numbers are not skipped.
+        assertThrows(DecodeException.class, tokens::nextInt);
+        assertEquals("2147483648", tokens.next());
+        assertThrows(DecodeException.class, tokens::nextInt);
+        assertEquals("1a", tokens.next());
+        assertThrows(DecodeException.class, tokens::nextInt);
+        assertEquals("-", tokens.next());
+
+        assertThrows(DecodeException.class, tokens::nextInt);
+    }
+
+    @Test
+    void tiles() throws DecodeException {
+        MessageTokenizer tokens = new MessageTokenizer().reset("RPB2 RPB22 XXX1");
+
+        assertSame(Tile.valueOf(Color.RED, Color.PURPLE, Color.BLUE, 2), tokens.nextTile());
+        assertThrows(DecodeException.class, tokens::nextTile);
+        assertEquals("RPB22", tokens.next());
+        assertThrows(DecodeException.class, tokens::nextTile);
+        assertEquals("XXX1", tokens.next());
+        assertThrows(DecodeException.class, tokens::nextTile);
+    }
+
+    @Test
+    void rest() {
+        MessageTokenizer tokens = new MessageTokenizer().reset("chat  hello   world  ");
+
+        assertEquals("chat", tokens.next());
+        assertEquals("hello   world", tokens.rest());
+        assertFalse(tokens.hasNext());
+        assertEquals("", tokens.rest());
+    }
+}
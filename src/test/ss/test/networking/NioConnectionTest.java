@@ -0,0 +1,181 @@
+package ss.test.networking;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ss.spec.networking.AbstractPeer;
+import ss.spec.networking.DeadConnectionException;
+import ss.spec.networking.NioConnection;
+import ss.spec.networking.NioEventLoop;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NioConnectionTest {
+
+    private static final long TIMEOUT_SECONDS = 5;
+
+    private NioEventLoop eventLoop;
+    private Thread eventLoopThread;
+    private ServerSocketChannel serverChannel;
+
+    private Socket client;
+    private NioConnection connection;
+    private RecordingPeer peer;
+
+    /**
+     * Remembers every received message.
+     */
+    private static class RecordingPeer extends AbstractPeer {
+
+        private final BlockingQueue<String> messages = new LinkedBlockingQueue<>();
+        private volatile boolean disconnected = false;
+
+        RecordingPeer(NioConnection connection) {
+            super(connection, false);
+        }
+
+        @Override
+        protected void handleReceivedMessage(String message) {
+            messages.add(message);
+        }
+
+        @Override
+        protected void peerDisconnected() {
+            disconnected = true;
+        }
+
+        String nextMessage() throws InterruptedException {
+            return messages.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
+    @BeforeEach
+    void setUp() throws IOException {
+        eventLoop = new NioEventLoop();
+        eventLoopThread = new Thread(eventLoop);
+        eventLoopThread.start();
+
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress("localhost", 0));
+
+        client = new Socket("localhost", serverChannel.socket().getLocalPort());
+        SocketChannel channel = serverChannel.accept();
+
+        connection = new NioConnection(channel, eventLoop);
+        peer = new RecordingPeer(connection);
+        connection.start(peer);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException, InterruptedException {
+        client.close();
+        serverChannel.close();
+
+        eventLoop.stop();
+        eventLoopThread.join(1000);
+    }
+
+    @Test
+    void receiveLines() throws IOException, InterruptedException {
+        OutputStream out = client.getOutputStream();
+
+        // Lines split over several writes, several lines in one write, and Windows line endings.
+        out.write("hel".getBytes(StandardCharsets.UTF_8));
+        out.flush();
+        Thread.sleep(50);
+        out.write("lo world\nsecond\r\n\nthi".getBytes(StandardCharsets.UTF_8));
+        out.flush();
+        out.write("rd\n".getBytes(StandardCharsets.UTF_8));
+        out.flush();
+
+        assertEquals("hello world", peer.nextMessage());
+        assertEquals("second", peer.nextMessage());
+        assertEquals("", peer.nextMessage());
+        assertEquals("third", peer.nextMessage());
+    }
+
+    @Test
+    void sendLines() throws IOException {
+        BufferedReader in = new BufferedReader(
+                new InputStreamReader(client.getInputStream(), StandardCharsets.UTF_8));
+
+        peer.sendMessage("hello world");
+
+        // More than fits in the socket buffers at once.
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 100000; i++) {
+            builder.append('x');
+        }
+        String longMessage = builder.toString();
+
+        for (int i = 0; i < 20; i++) {
+            peer.sendMessage(longMessage);
+        }
+        peer.sendMessage("done");
+
+        assertEquals("hello world", in.readLine());
+        for (int i = 0; i < 20; i++) {
+            assertEquals(longMessage, in.readLine());
+        }
+        assertEquals("done", in.readLine());
+    }
+
+    @Test
+    void remoteDisconnect() throws IOException, InterruptedException {
+        assertTrue(peer.isPeerConnected());
+
+        client.close();
+
+        for (int i = 0; i < 100 && !peer.disconnected; i++) {
+            Thread.sleep(10);
+        }
+
+        assertTrue(peer.disconnected);
+        assertFalse(peer.isPeerConnected());
+        assertTrue(connection.isDead());
+        assertThrows(DeadConnectionException.class, () -> connection.sendMessage("bla"));
+    }
+
+    @Test
+    void slowReaderIsDisconnected() throws IOException, InterruptedException {
+        // A second client that never reads.
+        try (Socket slowClient = new Socket("localhost", serverChannel.socket().getLocalPort())) {
+            NioConnection slowConnection =
+                    new NioConnection(serverChannel.accept(), eventLoop, 64 * 1024);
+            RecordingPeer slowPeer = new RecordingPeer(slowConnection);
+            slowConnection.start(slowPeer);
+            assertTrue(slowClient.isConnected());
+
+            StringBuilder builder = new StringBuilder();
+            for (int i = 0; i < 1000; i++) {
+                builder.append('x');
+            }
+            String message = builder.toString();
+
+            // Far more than the socket buffers and the queue hold together.
+            for (int i = 0; i < 100000 && slowPeer.isPeerConnected(); i++) {
+                slowPeer.sendMessage(message);
+            }
+
+            assertTrue(slowPeer.disconnected);
+            assertTrue(slowConnection.isDead());
+            assertTrue(slowConnection.getQueuedBytes() <= 64 * 1024 + message.length() + 1);
+
+            // The other client is left alone.
+            assertTrue(peer.isPeerConnected());
+        }
+    }
+}
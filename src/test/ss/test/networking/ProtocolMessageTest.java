@@ -0,0 +1,181 @@
+package ss.test.networking;
+
+import org.junit.jupiter.api.Test;
+import ss.spec.gamepieces.Color;
+import ss.spec.gamepieces.Tile;
+import ss.spec.networking.ClientMessage;
+import ss.spec.networking.InvalidCommandException;
+import ss.spec.networking.MessageTokenizer;
+import ss.spec.networking.ProtocolMessage;
+import ss.spec.networking.ServerMessage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProtocolMessageTest {
+
+    private static final Tile RPB2 = Tile.valueOf(Color.RED, Color.PURPLE, Color.BLUE, 2);
+    private static final Tile WWW6 = Tile.valueOf(Color.WHITE, Color.WHITE, Color.WHITE, 6);
+
+    /**
+     * Words that show up in messages, and some that don't.
+     */
+    private static final String[] FUZZ_WORDS = {
+            "welcome", "chat", "waiting", "start", "with", "order", "tiles", "turn", "null",
+            "move", "replace", "skip", "player", "skipped", "left", "game", "finished",
+            "leaderboard", "invalidName", "invalidMove", "invalidCommand", "connect", "request",
+            "place", "on", "exchange", "RPB2", "WWW6", "XYZ1", "RPB0", "RPB", "0", "3", "-7",
+            "+2", "99999999999", "0x1F", "Alice", "Bob", "", "\t", "h\u00e9llo"
+    };
+
+    private final MessageTokenizer tokens = new MessageTokenizer();
+
+    private ServerMessage decodeServer(String line) throws InvalidCommandException {
+        return ServerMessage.decode(tokens.reset(line));
+    }
+
+    private ClientMessage decodeClient(String line) throws InvalidCommandException {
+        return ClientMessage.decode(tokens.reset(line));
+    }
+
+    @Test
+    void encodeServerMessages() {
+        List<ServerMessage.Hand> hands = Arrays.asList(
+                new ServerMessage.Hand("Alice", Arrays.asList(RPB2, WWW6)),
+                new ServerMessage.Hand("Bob", Collections.emptyList()));
+
+        assertEquals("tiles Alice RPB2 WWW6 null null Bob null null null null turn Bob",
+                new ServerMessage.Tiles(hands, "Bob").toString());
+        assertEquals("move Alice RPB2 12 6",
+                new ServerMessage.Move("Alice", RPB2, 12, 6).toString());
+        assertEquals("replace Bob RPB2 with null",
+                new ServerMessage.Replace("Bob", RPB2, null).toString());
+        assertEquals("game finished leaderboard Bob 10 Alice 3",
+                new ServerMessage.Leaderboard(Arrays.asList(
+                        new ServerMessage.Score("Bob", 10),
+                        new ServerMessage.Score("Alice", 3))).toString());
+        assertEquals("start with Alice Bob",
+                new ServerMessage.Start(Arrays.asList("Alice", "Bob")).toString());
+        assertEquals("player Bob left", new ServerMessage.PlayerLeft("Bob").toString());
+        assertEquals("invalidName", ServerMessage.INVALID_NAME.toString());
+
+        // The bytes are the same as the text.
+        ServerMessage.Move move = new ServerMessage.Move("Alice", RPB2, 12, 6);
+        assertEquals(move.toString(), move.encode().getText());
+    }
+
+    @Test
+    void roundTripServerMessages() throws InvalidCommandException {
+        List<ServerMessage> messages = Arrays.asList(
+                new ServerMessage.Welcome(Collections.singletonList("chat")),
+                new ServerMessage.Welcome(Collections.emptyList()),
+                new ServerMessage.Chat("Alice", "hello there, Bob!"),
+                new ServerMessage.Waiting(Arrays.asList("Alice", "Bob")),
+                new ServerMessage.Waiting(Collections.emptyList()),
+                new ServerMessage.Start(Arrays.asList("Alice", "Bob")),
+                new ServerMessage.Order(Arrays.asList("Bob", "Alice")),
+                new ServerMessage.Tiles(Arrays.asList(
+                        new ServerMessage.Hand("Alice", Arrays.asList(RPB2, WWW6, RPB2, RPB2)),
+                        new ServerMessage.Hand("Bob", Collections.singletonList(WWW6))),
+                        "Alice"),
+                new ServerMessage.Move("Alice", RPB2, 35, 12),
+                new ServerMessage.Replace("Bob", RPB2, WWW6),
+                new ServerMessage.Replace("Bob", RPB2, null),
+                new ServerMessage.Skip("Bob"),
+                new ServerMessage.PlayerSkipped("Bob"),
+                new ServerMessage.PlayerLeft("Alice"),
+                new ServerMessage.Leaderboard(Arrays.asList(
+                        new ServerMessage.Score("Bob", 10),
+                        new ServerMessage.Score("Alice", -3))),
+                ServerMessage.INVALID_NAME,
+                ServerMessage.INVALID_MOVE,
+                ServerMessage.INVALID_COMMAND);
+
+        for (ServerMessage message : messages) {
+            assertEquals(message, decodeServer(message.encode().getText()), message.toString());
+        }
+    }
+
+    @Test
+    void roundTripClientMessages() throws InvalidCommandException {
+        List<ClientMessage> messages = Arrays.asList(
+                new ClientMessage.Connect("Alice", Collections.singletonList("chat")),
+                new ClientMessage.Connect("Bob", Collections.emptyList()),
+                new ClientMessage.Request(3),
+                new ClientMessage.Place(RPB2, 17),
+                ClientMessage.SKIP,
+                new ClientMessage.Exchange(WWW6),
+                new ClientMessage.Chat("hi all"),
+                ClientMessage.INVALID_COMMAND);
+
+        for (ClientMessage message : messages) {
+            assertEquals(message, decodeClient(message.encode().getText()), message.toString());
+        }
+
+        assertEquals("place RPB2 on 17", new ClientMessage.Place(RPB2, 17).toString());
+    }
+
+    @Test
+    void invalidMessages() {
+        String[] serverLines = {
+                "", "   ", "bla", "tiles Alice RPB2", "tiles Alice RPB2 null null null",
+                "tiles Alice XXX2 null null null turn Alice", "move Alice RPB2 12",
+                "replace Bob RPB2 for WWW6", "start Alice", "player Bob", "game over",
+                "game finished leaderboard Bob", "game finished leaderboard Bob ten"
+        };
+        for (String line : serverLines) {
+            assertThrows(InvalidCommandException.class, () -> decodeServer(line), line);
+        }
+
+        String[] clientLines = {
+                "", "connect", "request", "request two", "place RPB2 12", "place RPB2 on",
+                "exchange", "exchange RPB9x", "skipped", "place RRR\u2188 on 3",
+                "exchange RRR\u216F"
+        };
+        for (String line : clientLines) {
+            assertThrows(InvalidCommandException.class, () -> decodeClient(line), line);
+        }
+    }
+
+    /**
+     * Random lines either decode into a message that survives a round trip, or are rejected with
+     * an `InvalidCommandException`. Nothing else is allowed to come out of the decoders.
+     */
+    @Test
+    void fuzz() throws InvalidCommandException {
+        Random random = new Random(1234);
+
+        for (int i = 0; i < 20000; i++) {
+            StringBuilder line = new StringBuilder();
+            int words = random.nextInt(14);
+
+            for (int w = 0; w < words; w++) {
+                line.append(FUZZ_WORDS[random.nextInt(FUZZ_WORDS.length)]);
+                line.append(random.nextInt(4) == 0 ? "  " : " ");
+            }
+
+            checkRoundTrip(line.toString(), true);
+            checkRoundTrip(line.toString(), false);
+        }
+    }
+
+    private void checkRoundTrip(String line, boolean server) throws InvalidCommandException {
+        ProtocolMessage decoded;
+        try {
+            decoded = server ? decodeServer(line) : decodeClient(line);
+        } catch (InvalidCommandException e) {
+            return;
+        }
+
+        String encoded = decoded.encode().getText();
+        ProtocolMessage again = server ? decodeServer(encoded) : decodeClient(encoded);
+
+        assertEquals(decoded, again, line);
+        assertEquals(encoded, again.toString(), line);
+    }
+}
@@ -0,0 +1,146 @@
+package ss.test.networking;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ss.spec.networking.DeadConnectionException;
+import ss.spec.networking.SocketConnection;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SocketConnectionTest {
+
+    private ServerSocket serverSocket;
+    private Socket clientSocket;
+    private Socket serverSideSocket;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        serverSocket = new ServerSocket(0);
+        clientSocket = new Socket("localhost", serverSocket.getLocalPort());
+        serverSideSocket = serverSocket.accept();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        clientSocket.close();
+        serverSideSocket.close();
+        serverSocket.close();
+    }
+
+    @Test
+    void flushEveryMessage() throws DeadConnectionException {
+        SocketConnection connection = new SocketConnection(serverSideSocket);
+        SocketConnection client = new SocketConnection(clientSocket);
+
+        connection.sendMessage("hello");
+        connection.sendMessage("world");
+
+        assertEquals("hello", client.readMessage());
+        assertEquals("world", client.readMessage());
+
+        assertEquals(12, connection.getBytesSent());
+        assertEquals(2, connection.getFlushes());
+    }
+
+    @Test
+    void batchUntilFlush() throws DeadConnectionException, IOException {
+        // Long enough that the timer won't flush during the test.
+        SocketConnection connection = new SocketConnection(serverSideSocket, 60000);
+        SocketConnection client = new SocketConnection(clientSocket);
+
+        connection.sendMessage("tiles");
+        connection.sendMessage("turn");
+        connection.sendMessage("move");
+
+        assertEquals(0, connection.getFlushes());
+        assertEquals(0, clientSocket.getInputStream().available());
+
+        connection.flush();
+        // Nothing left to flush.
+        connection.flush();
+
+        assertEquals("tiles", client.readMessage());
+        assertEquals("turn", client.readMessage());
+        assertEquals("move", client.readMessage());
+
+        assertEquals(16, connection.getBytesSent());
+        assertEquals(1, connection.getFlushes());
+    }
+
+    @Test
+    void flushAfterMaximumDelay() throws DeadConnectionException {
+        SocketConnection connection = new SocketConnection(serverSideSocket, 10);
+        connection.setTcpNoDelay(true);
+        SocketConnection client = new SocketConnection(clientSocket);
+
+        connection.sendMessage("nobody flushes this");
+
+        // Blocks until the timer flushes.
+        assertEquals("nobody flushes this", client.readMessage());
+        assertEquals(1, connection.getFlushes());
+    }
+
+    @Test
+    void stuckWriteTimesOut() {
+        // The client never reads, so the writes block once the socket buffers are full.
+        SocketConnection connection = new SocketConnection(serverSideSocket, 0, 200);
+
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 100000; i++) {
+            builder.append('x');
+        }
+        String message = builder.toString();
+
+        long start = System.nanoTime();
+        assertThrows(DeadConnectionException.class, () -> {
+            for (int i = 0; i < 10000; i++) {
+                connection.sendMessage(message);
+            }
+        });
+
+        assertTrue(connection.isDead());
+        assertTrue(System.nanoTime() - start < 5_000_000_000L);
+    }
+
+    @Test
+    void stuckWriteTimesOutWithFlushDelay() throws IOException, DeadConnectionException {
+        // Like the server: messages are batched, and flushed by the timer if nobody else does.
+        SocketConnection connection = new SocketConnection(serverSideSocket, 5, 200);
+
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            builder.append('x');
+        }
+        String message = builder.toString();
+
+        long start = System.nanoTime();
+        assertThrows(DeadConnectionException.class, () -> {
+            for (int i = 0; i < 1000000; i++) {
+                connection.sendMessage(message);
+                if (i % 100 == 0) {
+                    // Give the flush timer a chance to get stuck as well.
+                    Thread.sleep(1);
+                }
+            }
+        });
+
+        assertTrue(connection.isDead());
+        assertTrue(System.nanoTime() - start < 5_000_000_000L);
+
+        // The flush timer isn't stuck either, other connections still get flushed.
+        try (ServerSocket otherServer = new ServerSocket(0);
+             Socket otherClient = new Socket("localhost", otherServer.getLocalPort());
+             Socket otherServerSide = otherServer.accept()) {
+            SocketConnection sender = new SocketConnection(otherServerSide, 5, 200);
+            SocketConnection receiver = new SocketConnection(otherClient);
+
+            sender.sendMessage("hello");
+            assertEquals("hello", receiver.readMessage());
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package ss.test.server;
+
+import org.junit.jupiter.api.Test;
+import ss.spec.bot.GreedyBot;
+import ss.spec.gamepieces.Board;
+import ss.spec.gamepieces.SeededTileBag;
+import ss.spec.server.BotPeer;
+import ss.spec.server.ClientPeer;
+import ss.spec.server.Game;
+import ss.spec.server.NameRegistry;
+import ss.spec.server.Player;
+import ss.spec.server.ServerMetrics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BotPeerTest {
+
+    @Test
+    void botIsReadyToPlay() {
+        BotPeer bot = new BotPeer("Robot", new GreedyBot());
+
+        assertTrue(bot.isBot());
+        assertTrue(bot.isPeerConnected());
+        assertEquals("Robot", bot.getName());
+        assertEquals(ClientPeer.State.PEER_AWAITING_GAME_REQUEST, bot.getState());
+
+        // Nobody is listening, that's fine.
+        bot.sendChatMessage("Bob", "Hello?");
+        bot.flush();
+        assertTrue(bot.isPeerConnected());
+    }
+
+    @Test
+    void uniqueNames() {
+        NameRegistry names = new NameRegistry();
+        names.reserve("bot-1", new BotPeer("bot-1", new GreedyBot()));
+
+        BotPeer first = BotPeer.withUniqueName(names, new GreedyBot());
+        BotPeer second = BotPeer.withUniqueName(names, new GreedyBot());
+
+        assertNotEquals(first.getName(), second.getName());
+        assertNotEquals("bot-1", first.getName());
+        assertSame(first, names.getOwner(first.getName()));
+        assertSame(second, names.getOwner(second.getName()));
+    }
+
+    @Test
+    void botsPlayAWholeGame() {
+        for (long seed = 0; seed < 20; seed++) {
+            List<ClientPeer> bots = new ArrayList<>(Arrays.asList(
+                    new BotPeer("Ann", new GreedyBot(BotPeer.MOVE_BUDGET_NANOS)),
+                    new BotPeer("Ben", new GreedyBot(BotPeer.MOVE_BUDGET_NANOS)),
+                    new BotPeer("Cas", new GreedyBot(BotPeer.MOVE_BUDGET_NANOS))));
+
+            long turnsBefore = ServerMetrics.TURN_LATENCY.getCount();
+            long decisionsBefore = ServerMetrics.BOT_DECISION.getCount();
+
+            // Nobody to wait for, so this returns once the game is over.
+            Game game = new Game(bots, new Board(), new SeededTileBag(seed));
+            game.run();
+
+            assertTrue(game.isGameOver());
+
+            // Bot moves are only measured as bot decisions, not as client turns.
+            assertEquals(turnsBefore, ServerMetrics.TURN_LATENCY.getCount());
+            assertTrue(ServerMetrics.BOT_DECISION.getCount() > decisionsBefore);
+
+            // The game ended because nobody could move, not because a bot gave up.
+            for (Player player : game.getPlayers()) {
+                assertTrue(player.isPeerConnected());
+            }
+            assertFalse(game.getBoard().getIsEmpty());
+        }
+    }
+}
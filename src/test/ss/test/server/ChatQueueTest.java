@@ -0,0 +1,105 @@
+package ss.test.server;
+
+import org.junit.jupiter.api.Test;
+import ss.spec.server.ChatQueue;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChatQueueTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    private final AtomicLong now = new AtomicLong(0);
+
+    @Test
+    void firstInFirstOut() {
+        ChatQueue queue = new ChatQueue();
+
+        assertNull(queue.poll());
+
+        assertTrue(queue.offer("hello"));
+        assertTrue(queue.offer("world"));
+        assertEquals(2, queue.size());
+
+        assertEquals("hello", queue.poll());
+        assertEquals("world", queue.poll());
+        assertNull(queue.poll());
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    void dropWhenFull() {
+        // No rate limit to speak of.
+        ChatQueue queue = new ChatQueue(3, 100, 100, now::get);
+
+        assertTrue(queue.offer("1"));
+        assertTrue(queue.offer("2"));
+        assertTrue(queue.offer("3"));
+        assertFalse(queue.offer("4"));
+        assertEquals(1, queue.getDroppedCount());
+
+        // Taking one makes room again.
+        assertEquals("1", queue.poll());
+        assertTrue(queue.offer("5"));
+        assertEquals(3, queue.size());
+    }
+
+    @Test
+    void rateLimit() {
+        // Bursts of 2, then 1 message per second.
+        ChatQueue queue = new ChatQueue(100, 2, 1, now::get);
+
+        assertTrue(queue.offer("1"));
+        assertTrue(queue.offer("2"));
+        assertFalse(queue.offer("flood"));
+        assertFalse(queue.offer("flood"));
+
+        now.addAndGet(SECOND / 2);
+        assertFalse(queue.offer("flood"));
+
+        now.addAndGet(SECOND / 2);
+        assertTrue(queue.offer("3"));
+        assertFalse(queue.offer("flood"));
+
+        // Waiting longer doesn't allow more than a burst.
+        now.addAndGet(60 * SECOND);
+        assertTrue(queue.offer("4"));
+        assertTrue(queue.offer("5"));
+        assertFalse(queue.offer("flood"));
+
+        assertEquals(5, queue.size());
+        assertEquals(5, queue.getDroppedCount());
+    }
+
+    @Test
+    void producerAndConsumerThreads() throws InterruptedException {
+        int amount = 100000;
+        ChatQueue queue = new ChatQueue(16, amount, 1, now::get);
+
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < amount; i++) {
+                while (!queue.offer(Integer.toString(i))) {
+                    // Full, the consumer will make room.
+                    Thread.yield();
+                }
+            }
+        });
+        producer.start();
+
+        for (int i = 0; i < amount; i++) {
+            String message = queue.poll();
+            while (message == null) {
+                Thread.yield();
+                message = queue.poll();
+            }
+
+            assertEquals(Integer.toString(i), message);
+            assertTrue(queue.size() <= 16);
+        }
+
+        producer.join();
+        assertNull(queue.poll());
+    }
+}
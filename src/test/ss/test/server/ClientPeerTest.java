@@ -5,6 +5,7 @@ import org.junit.jupiter.api.Test;
 import ss.spec.gamepieces.Color;
 import ss.spec.gamepieces.Tile;
 import ss.spec.server.ClientPeer;
+import ss.spec.server.NameRegistry;
 import ss.test.networking.MockConnection;
 
 import java.util.ArrayList;
@@ -80,6 +81,65 @@ class ClientPeerTest {
         assertEquals(ClientPeer.INVALID_COMMAND_ERROR_MESSAGE, connection.readSentMessage());
     }
 
+    @Test
+    void reserveNameRightAway() {
+        NameRegistry names = new NameRegistry();
+        ClientPeer bob = new ClientPeer(connection, false, names);
+
+        bob.handleReceivedMessage("connect Bob chat");
+
+        // Welcomed without a lobby.
+        assertEquals(ClientPeer.State.PEER_AWAITING_GAME_REQUEST, bob.getState());
+        assertEquals("welcome chat", connection.readSentMessage());
+        assertSame(bob, names.getOwner("Bob"));
+
+        MockConnection otherConnection = new MockConnection();
+        ClientPeer other = new ClientPeer(otherConnection, false, names);
+
+        other.handleReceivedMessage("connect Bob");
+        assertEquals(ClientPeer.INVALID_NAME_ERROR_MESSAGE, otherConnection.readSentMessage());
+        assertEquals(ClientPeer.State.PEER_AWAITING_CONNECT_MESSAGE, other.getState());
+        assertNull(other.getName());
+
+        // The name is free again once Bob leaves.
+        bob.disconnect();
+        assertFalse(names.isRegistered("Bob"));
+
+        other.handleReceivedMessage("connect Bob");
+        assertEquals("welcome chat", otherConnection.readSentMessage());
+        assertSame(other, names.getOwner("Bob"));
+    }
+
+    @Test
+    void listenerIsNotified() {
+        ArrayList<ClientPeer> changes = new ArrayList<>();
+        peer.setListener(changes::add);
+
+        // State changes.
+        peer.handleReceivedMessage("connect Bob");
+        assertEquals(1, changes.size());
+        assertSame(peer, changes.get(0));
+
+        // Invalid commands don't change anything.
+        peer.handleReceivedMessage("request 12");
+        assertEquals(1, changes.size());
+
+        // Chat messages.
+        peer.handleReceivedMessage("chat Hello!");
+        assertEquals(2, changes.size());
+
+        // Disconnecting, only the first time we notice.
+        connection.killConnection();
+        peer.sendMessage("Bla");
+        peer.sendMessage("Bla");
+        assertEquals(3, changes.size());
+
+        // No more notifications after the listener is removed.
+        peer.setListener(null);
+        peer.clientDecideMove();
+        assertEquals(3, changes.size());
+    }
+
     @Test
     void handleValidRequestMessage() {
         // Send the message in an invalid ClientPeer.State.
@@ -221,6 +281,43 @@ class ClientPeerTest {
         assertEquals(ClientPeer.INVALID_COMMAND_ERROR_MESSAGE, connection.readSentMessage());
     }
 
+    @Test
+    void pendingActionIsNotReplacedWhileVerifying() {
+        peer.clientDecideMove();
+        peer.handleReceivedMessage("place RGB4 on 12");
+        ClientPeer.PendingAction action = peer.getPendingAction();
+        assertEquals(12, action.getMove().getIndex());
+        assertNull(action.getReplaceTile());
+        assertFalse(action.isSkip());
+
+        // The game is still verifying, so a second move is not accepted.
+        peer.handleReceivedMessage("place PPP2 on 3");
+        assertEquals(ClientPeer.INVALID_COMMAND_ERROR_MESSAGE, connection.readSentMessage());
+        assertEquals(ClientPeer.State.GAME_VERIFY_MOVE, peer.getState());
+        assertSame(action, peer.getPendingAction());
+
+        peer.clientDecideSkip();
+        peer.handleReceivedMessage("skip");
+        assertTrue(peer.getPendingAction().isSkip());
+        assertNull(peer.getProposedMove());
+    }
+
+    @Test
+    void actionIsVisibleToOtherThreads() throws InterruptedException {
+        peer.clientDecideMove();
+
+        Thread reader = new Thread(() -> peer.handleReceivedMessage("place RGB4 on 12"));
+        reader.start();
+
+        // Spin on the state only, like the game does, the move comes along with it.
+        while (peer.getState() != ClientPeer.State.GAME_VERIFY_MOVE) {
+            Thread.yield();
+        }
+        assertEquals(12, peer.getProposedMove().getIndex());
+
+        reader.join();
+    }
+
 
     // ---- Messages -------------------------------------------------------------------------------
 
@@ -0,0 +1,143 @@
+package ss.test.server;
+
+import org.junit.jupiter.api.Test;
+import ss.spec.gamepieces.Board;
+import ss.spec.server.ClientPeer;
+import ss.spec.server.Game;
+import ss.spec.server.GameExecutor;
+import ss.spec.server.VirtualThreads;
+import ss.test.gamepieces.MockTileBag;
+import ss.test.networking.MockConnection;
+
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameExecutorTest {
+
+    @Test
+    void invalidParallelism() {
+        assertThrows(IllegalArgumentException.class, () -> new GameExecutor(0));
+    }
+
+    @Test
+    void countsQueuedAndActiveTasks() throws InterruptedException {
+        GameExecutor executor = new GameExecutor(1);
+        assertEquals(1, executor.getParallelism());
+
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(2);
+
+        executor.execute(() -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                e.printStackTrace();
+            }
+            done.countDown();
+        });
+        executor.execute(done::countDown);
+
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+        // One task is running, the other has to wait for the only thread.
+        assertEquals(1, executor.getActiveTasks());
+        assertEquals(1, executor.getQueuedTasks());
+
+        release.countDown();
+        assertTrue(done.await(1, TimeUnit.SECONDS));
+
+        executor.shutdown();
+        // Tasks after a shutdown are dropped.
+        executor.execute(() -> fail("Should not run."));
+        assertEquals(0, executor.getQueuedTasks());
+    }
+
+    @Test
+    void unboundedExecutor() throws InterruptedException {
+        GameExecutor executor =
+                new GameExecutor(VirtualThreads.platformFactory("test-game-", true));
+        assertEquals(GameExecutor.UNBOUNDED, executor.getParallelism());
+
+        // Tasks never have to wait for each other.
+        CountDownLatch bothRunning = new CountDownLatch(2);
+        CountDownLatch done = new CountDownLatch(2);
+        for (int i = 0; i < 2; i++) {
+            executor.execute(() -> {
+                bothRunning.countDown();
+                try {
+                    bothRunning.await();
+                } catch (InterruptedException e) {
+                    e.printStackTrace();
+                }
+                done.countDown();
+            });
+        }
+
+        assertTrue(done.await(1, TimeUnit.SECONDS));
+        executor.shutdown();
+    }
+
+    @Test
+    void manyGamesOnFewThreads() throws InterruptedException {
+        GameExecutor executor = new GameExecutor(2);
+
+        ArrayList<Game> games = new ArrayList<>();
+        ArrayList<ClientPeer> firstPlayers = new ArrayList<>();
+        ArrayList<MockConnection> connections = new ArrayList<>();
+
+        for (int i = 0; i < 100; i++) {
+            MockConnection connection1 = new MockConnection();
+            MockConnection connection2 = new MockConnection();
+            ClientPeer peer1 = new ClientPeer(connection1);
+            ClientPeer peer2 = new ClientPeer(connection2);
+            peer1.handleReceivedMessage("connect Alice");
+            peer2.handleReceivedMessage("connect Bob");
+
+            ArrayList<ClientPeer> peers = new ArrayList<>();
+            peers.add(peer1);
+            peers.add(peer2);
+
+            Game game = new Game(peers, new Board(), new MockTileBag());
+            game.startOn(executor);
+
+            games.add(game);
+            firstPlayers.add(peer1);
+            connections.add(connection2);
+        }
+
+        // Every game should get going, even though there are only 2 threads.
+        for (ClientPeer peer : firstPlayers) {
+            waitForState(peer, ClientPeer.State.PEER_DECIDE_MOVE);
+            peer.handleReceivedMessage("place RRR6 on 12");
+        }
+        for (ClientPeer peer : firstPlayers) {
+            waitForState(peer, ClientPeer.State.GAME_AWAITING_TURN);
+        }
+
+        // Disconnecting a player should end every game.
+        for (int i = 0; i < games.size(); i++) {
+            connections.get(i).killConnection();
+            games.get(i).getPlayers().get(1).getPeer().sendMessage("Irrelevant");
+        }
+        for (Game game : games) {
+            for (int i = 0; i < 100 && !game.isGameOver(); i++) {
+                Thread.sleep(10);
+            }
+            assertTrue(game.isGameOver());
+        }
+
+        executor.shutdown();
+    }
+
+    private void waitForState(ClientPeer peer, ClientPeer.State state) throws InterruptedException {
+        for (int i = 0; i < 100 && peer.getState() != state; i++) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(state, peer.getState());
+    }
+}
@@ -9,8 +9,10 @@ import ss.test.gamepieces.MockTileBag;
 import ss.test.networking.MockConnection;
 
 import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class GameTest {
@@ -122,4 +124,82 @@ class GameTest {
         assertTrue(messageDiane.contains("Diane"));
         assertTrue(messageDiane.contains("turn"));
     }
+
+    @Test
+    void gameThreadReactsToPlayers() throws InterruptedException {
+        MockConnection connection1 = new MockConnection();
+        MockConnection connection2 = new MockConnection();
+        ClientPeer peer1 = new ClientPeer(connection1);
+        ClientPeer peer2 = new ClientPeer(connection2);
+        peer1.handleReceivedMessage("connect Alice");
+        peer2.handleReceivedMessage("connect Bob");
+
+        ArrayList<ClientPeer> peers = new ArrayList<>();
+        peers.add(peer1);
+        peers.add(peer2);
+
+        Game threadedGame = new Game(peers, new Board(), new MockTileBag());
+        Thread gameThread = new Thread(threadedGame);
+        gameThread.start();
+
+        // Alice draws the highest tile, so it is her turn first.
+        waitForState(peer1, ClientPeer.State.PEER_DECIDE_MOVE);
+
+        // Making a move should wake the game up, which then gives the turn to Bob.
+        peer1.handleReceivedMessage("place RRR6 on 12");
+        waitForState(peer2, ClientPeer.State.PEER_DECIDE_MOVE);
+        assertEquals(ClientPeer.State.GAME_AWAITING_TURN, peer1.getState());
+
+        // A disconnect should end the game.
+        connection2.killConnection();
+        peer2.sendMessage("Irrelevant");
+
+        gameThread.join(1000);
+        assertFalse(gameThread.isAlive());
+        assertTrue(threadedGame.isGameOver());
+    }
+
+    @Test
+    void failedIterationDoesNotStopTheGame() {
+        AtomicBoolean fail = new AtomicBoolean(false);
+        ClientPeer peer1 = new ClientPeer(new MockConnection()) {
+            @Override
+            public String getNextChatMessage() {
+                if (fail.getAndSet(false)) {
+                    throw new IllegalStateException("Broken on purpose.");
+                }
+                return super.getNextChatMessage();
+            }
+        };
+        ClientPeer peer2 = new ClientPeer(new MockConnection());
+        peer1.handleReceivedMessage("connect Alice");
+        peer2.handleReceivedMessage("connect Bob");
+
+        ArrayList<ClientPeer> peers = new ArrayList<>();
+        peers.add(peer1);
+        peers.add(peer2);
+
+        // Runs every iteration right away, on this thread.
+        Game scheduledGame = new Game(peers, new Board(), new MockTileBag());
+        scheduledGame.startOn(Runnable::run);
+        assertEquals(ClientPeer.State.PEER_DECIDE_MOVE, peer1.getState());
+
+        // This move is made, but the iteration fails before it is done.
+        fail.set(true);
+        peer1.handleReceivedMessage("place RRR6 on 12");
+        assertEquals(ClientPeer.State.GAME_AWAITING_TURN, peer1.getState());
+
+        // The game is scheduled again on the next change, and carries on.
+        peer2.handleReceivedMessage("chat hi");
+        assertEquals(ClientPeer.State.PEER_DECIDE_MOVE, peer2.getState());
+        assertFalse(scheduledGame.isGameOver());
+    }
+
+    private void waitForState(ClientPeer peer, ClientPeer.State state) throws InterruptedException {
+        for (int i = 0; i < 100 && peer.getState() != state; i++) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(state, peer.getState());
+    }
 }
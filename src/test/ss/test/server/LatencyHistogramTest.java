@@ -0,0 +1,63 @@
+package ss.test.server;
+
+import org.junit.jupiter.api.Test;
+import ss.spec.server.LatencyHistogram;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    @Test
+    void empty() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        assertEquals(0, histogram.getCount());
+        assertEquals(0.0, histogram.getMean());
+        assertEquals(0, histogram.getMax());
+        assertEquals(0, histogram.getPercentile(0.99));
+    }
+
+    @Test
+    void smallValuesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        for (int i = 0; i < 8; i++) {
+            histogram.record(i);
+        }
+
+        assertEquals(8, histogram.getCount());
+        assertEquals(3.5, histogram.getMean());
+        assertEquals(7, histogram.getMax());
+        assertEquals(3, histogram.getPercentile(0.5));
+        assertEquals(7, histogram.getPercentile(1));
+    }
+
+    @Test
+    void percentilesWithinBucketWidth() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        // 1 to 100 microseconds.
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i * 1000L);
+        }
+
+        long median = histogram.getPercentile(0.5);
+        assertTrue(median >= 50_000 && median <= 50_000 * 1.25, "median " + median);
+
+        long p99 = histogram.getPercentile(0.99);
+        assertTrue(p99 >= 99_000 && p99 <= 100_000, "p99 " + p99);
+
+        assertEquals(100_000, histogram.getMax());
+    }
+
+    @Test
+    void extremeValues() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+
+        assertEquals(0, histogram.getPercentile(0.5));
+        assertEquals(Long.MAX_VALUE, histogram.getPercentile(1));
+    }
+}
@@ -4,11 +4,15 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import ss.spec.server.ClientPeer;
 import ss.spec.server.Game;
+import ss.spec.server.GameExecutor;
 import ss.spec.server.Lobby;
+import ss.spec.server.NameRegistry;
 import ss.spec.server.Player;
 import ss.test.networking.MockConnection;
 
 import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -28,25 +32,37 @@ class LobbyTest {
 
     @Test
     void addClients() {
-        MockConnection connection = new MockConnection();
-        ClientPeer newClient = new ClientPeer(connection);
-
-        lobby.addNewClient(newClient);
+        lobby.addNewClient(new ClientPeer(new MockConnection()));
         lobby.doSingleLobbyIteration();
 
         assertEquals(1, lobby.getNumberOfWaitingClients());
 
-        lobby.addNewClient(newClient);
+        lobby.addNewClient(new ClientPeer(new MockConnection()));
         lobby.doSingleLobbyIteration();
 
         assertEquals(2, lobby.getNumberOfWaitingClients());
 
-        lobby.addNewClient(newClient);
+        lobby.addNewClient(new ClientPeer(new MockConnection()));
         lobby.doSingleLobbyIteration();
 
         assertEquals(3, lobby.getNumberOfWaitingClients());
     }
 
+    @Test
+    void addManyClientsAtOnce() {
+        // Adding doesn't wait for the lobby to take the previous client in.
+        for (int i = 0; i < 500; i++) {
+            lobby.addNewClient(new ClientPeer(new MockConnection()));
+        }
+
+        assertEquals(0, lobby.getNumberOfWaitingClients());
+        assertEquals(500, lobby.getTotalClientsAdded());
+
+        lobby.doSingleLobbyIteration();
+
+        assertEquals(500, lobby.getNumberOfWaitingClients());
+    }
+
     @Test
     void clientsDisconnect() {
         MockConnection connection = new MockConnection();
@@ -172,6 +188,46 @@ class LobbyTest {
         assertEquals("waiting C3-P0", connection3.readSentMessage());
     }
 
+    @Test
+    void lobbyThreadReactsToChanges() throws InterruptedException {
+        Thread lobbyThread = new Thread(lobby);
+        lobbyThread.start();
+
+        ClientPeer client1 = new ClientPeer(new MockConnection());
+        ClientPeer client2 = new ClientPeer(new MockConnection());
+        lobby.addNewClient(client1);
+        lobby.addNewClient(client2);
+
+        // No one calls an iteration, the lobby has to wake up by itself.
+        client1.handleReceivedMessage("connect Bob");
+        waitForState(client1, ClientPeer.State.PEER_AWAITING_GAME_REQUEST);
+        client2.handleReceivedMessage("connect Bob");
+        waitForState(client2, ClientPeer.State.PEER_AWAITING_CONNECT_MESSAGE);
+
+        client2.handleReceivedMessage("connect John");
+        waitForState(client2, ClientPeer.State.PEER_AWAITING_GAME_REQUEST);
+
+        // The game starts as soon as the second player asks for it.
+        client1.handleReceivedMessage("request 2");
+        client2.handleReceivedMessage("request 2");
+        for (int i = 0; i < 200 && lobby.getNumberOfWaitingClients() > 0; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, lobby.getNumberOfWaitingClients());
+
+        lobby.stopLobbyThread();
+        lobbyThread.join(2000);
+        assertFalse(lobbyThread.isAlive());
+    }
+
+    private void waitForState(ClientPeer client, ClientPeer.State state)
+            throws InterruptedException {
+        for (int i = 0; i < 200 && client.getState() != state; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(state, client.getState());
+    }
+
     @Test
     void waitingForPlayersDisconnect() {
         MockConnection connection1 = new MockConnection();
@@ -267,4 +323,79 @@ class LobbyTest {
 
         assertEquals("welcome chat", connection3.readSentMessage());
     }
+
+    @Test
+    void botsFillTablesAfterTimeout() {
+        AtomicLong now = new AtomicLong(0);
+        GameExecutor gameExecutor = new GameExecutor(1);
+        NameRegistry names = new NameRegistry();
+        Lobby botLobby = new Lobby(gameExecutor, names, now::get);
+        botLobby.setBotFillTimeout(10, TimeUnit.SECONDS);
+
+        MockConnection connection = new MockConnection();
+        ClientPeer client = new ClientPeer(connection);
+        client.handleReceivedMessage("connect Bob");
+
+        botLobby.addNewClient(client);
+        botLobby.doSingleLobbyIteration();
+
+        client.handleReceivedMessage("request 3");
+        botLobby.doSingleLobbyIteration();
+        assertEquals(1, botLobby.getNumberOfClientsWaitingFor(3));
+
+        // Not long enough yet.
+        now.addAndGet(TimeUnit.SECONDS.toNanos(9));
+        botLobby.doSingleLobbyIteration();
+        assertEquals(0, botLobby.getNumberOfRunningGames());
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        botLobby.doSingleLobbyIteration();
+
+        // Bob plays with two bots now.
+        assertEquals(0, botLobby.getNumberOfClientsWaitingFor(3));
+        assertEquals(1, botLobby.getNumberOfRunningGames());
+
+        Game game = botLobby.getRunningGames().get(0);
+        int bots = 0;
+        for (Player player : game.getPlayers()) {
+            if (player.getPeer().isBot()) {
+                bots++;
+                assertTrue(names.isRegistered(player.getName()));
+            }
+        }
+        assertEquals(2, bots);
+
+        game.gameIsNowOver();
+        botLobby.doSingleLobbyIteration();
+
+        // Bob is back, the bots are gone and so are their names.
+        assertEquals(1, botLobby.getNumberOfWaitingClients());
+        assertEquals(1, names.size());
+        assertTrue(names.isRegistered("Bob"));
+
+        gameExecutor.shutdown();
+    }
+
+    @Test
+    void noBotsByDefault() {
+        AtomicLong now = new AtomicLong(0);
+        GameExecutor gameExecutor = new GameExecutor(1);
+        Lobby patientLobby = new Lobby(gameExecutor, new NameRegistry(), now::get);
+
+        ClientPeer client = new ClientPeer(new MockConnection());
+        client.handleReceivedMessage("connect Bob");
+        patientLobby.addNewClient(client);
+        patientLobby.doSingleLobbyIteration();
+        client.handleReceivedMessage("request 2");
+        patientLobby.doSingleLobbyIteration();
+
+        now.addAndGet(TimeUnit.HOURS.toNanos(1));
+        patientLobby.doSingleLobbyIteration();
+
+        assertEquals(Lobby.NO_BOT_FILL, patientLobby.getBotFillTimeoutNanos());
+        assertEquals(1, patientLobby.getNumberOfClientsWaitingFor(2));
+        assertEquals(0, patientLobby.getNumberOfRunningGames());
+
+        gameExecutor.shutdown();
+    }
 }
@@ -0,0 +1,76 @@
+package ss.test.server;
+
+import org.junit.jupiter.api.Test;
+import ss.spec.server.ClientPeer;
+import ss.spec.server.NameRegistry;
+import ss.test.networking.MockConnection;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NameRegistryTest {
+
+    private final NameRegistry names = new NameRegistry();
+    private final ClientPeer bob = new ClientPeer(new MockConnection());
+    private final ClientPeer other = new ClientPeer(new MockConnection());
+
+    @Test
+    void validNames() {
+        assertTrue(NameRegistry.isValidName("Bob"));
+        assertFalse(NameRegistry.isValidName(null));
+        assertFalse(NameRegistry.isValidName(""));
+        assertFalse(NameRegistry.isValidName("Bob Bobson"));
+    }
+
+    @Test
+    void reserveAndRelease() {
+        assertTrue(names.reserve("Bob", bob));
+        // Reserving your own name again is fine.
+        assertTrue(names.reserve("Bob", bob));
+        assertFalse(names.reserve("Bob", other));
+        assertSame(bob, names.getOwner("Bob"));
+        assertEquals(1, names.size());
+
+        // Only Bob can give up the name.
+        assertFalse(names.release("Bob", other));
+        assertTrue(names.isRegistered("Bob"));
+
+        assertTrue(names.release("Bob", bob));
+        assertFalse(names.isRegistered("Bob"));
+        assertEquals(0, names.size());
+
+        assertTrue(names.reserve("Bob", other));
+    }
+
+    @Test
+    void onlyOneThreadGetsAName() throws InterruptedException {
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger winners = new AtomicInteger(0);
+        Thread[] racers = new Thread[threads];
+
+        for (int i = 0; i < threads; i++) {
+            ClientPeer peer = new ClientPeer(new MockConnection());
+            racers[i] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (names.reserve("Bob", peer)) {
+                    winners.incrementAndGet();
+                }
+            });
+            racers[i].start();
+        }
+
+        start.countDown();
+        for (Thread racer : racers) {
+            racer.join();
+        }
+
+        assertEquals(1, winners.get());
+    }
+}
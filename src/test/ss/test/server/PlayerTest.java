@@ -83,4 +83,17 @@ class PlayerTest {
         player.removeTile(new Tile(Color.GREEN, Color.BLUE, Color.YELLOW, 4));
         assertEquals(0, player.getTiles().size());
     }
+
+    @Test
+    void removeRotatedTile() {
+        Tile tile = new Tile(Color.GREEN, Color.BLUE, Color.YELLOW, 3);
+        player.addTileToHand(tile);
+        player.addTileToHand(new Tile(Color.BLUE, Color.BLUE, Color.WHITE, 6));
+
+        // Tiles are placed rotated, the tile in hand should still be removed.
+        player.removeTile(tile.rotate120());
+
+        assertFalse(player.hasTileInHand(tile));
+        assertEquals(1, player.getTiles().size());
+    }
 }
@@ -0,0 +1,66 @@
+package ss.test.server;
+
+import org.junit.jupiter.api.Test;
+import ss.spec.server.RateMeter;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateMeterTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    private final AtomicLong now = new AtomicLong(0);
+
+    @Test
+    void countsPerWindow() {
+        RateMeter meter = new RateMeter(SECOND, now::get);
+
+        assertEquals(0, meter.getTotal());
+        assertEquals(0.0, meter.getRatePerSecond());
+
+        for (int i = 0; i < 30; i++) {
+            meter.mark();
+        }
+
+        // The window isn't complete yet.
+        assertEquals(30, meter.getTotal());
+        assertEquals(0.0, meter.getRatePerSecond());
+
+        now.set(SECOND + SECOND / 2);
+        meter.mark();
+        assertEquals(30.0, meter.getRatePerSecond());
+
+        now.set(2 * SECOND);
+        assertEquals(1.0, meter.getRatePerSecond());
+        assertEquals(31, meter.getTotal());
+    }
+
+    @Test
+    void dropsToZeroWhenIdle() {
+        RateMeter meter = new RateMeter(SECOND, now::get);
+
+        meter.mark();
+        meter.mark();
+
+        now.set(SECOND);
+        assertEquals(2.0, meter.getRatePerSecond());
+
+        // A whole window without anything happening.
+        now.set(5 * SECOND + 10);
+        assertEquals(0.0, meter.getRatePerSecond());
+        assertEquals(2, meter.getTotal());
+    }
+
+    @Test
+    void shorterWindows() {
+        RateMeter meter = new RateMeter(SECOND / 10, now::get);
+
+        meter.mark();
+        meter.mark();
+
+        now.set(SECOND / 10);
+        assertEquals(20.0, meter.getRatePerSecond(), 0.001);
+    }
+}
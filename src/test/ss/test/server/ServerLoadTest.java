@@ -0,0 +1,138 @@
+package ss.test.server;
+
+import org.junit.jupiter.api.Test;
+import ss.spec.server.Server;
+import ss.spec.server.VirtualThreads;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.net.Socket;
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Connects a lot of idle clients to a real server.
+ * <p>
+ * By default only a modest amount of clients is used, to keep the test fast.
+ * Run with `-Dss.loadtest.clients=10000` to connect 10k clients. Make sure the process is allowed
+ * to open enough files (`ulimit -n`), every client uses two sockets.
+ * When the runtime supports virtual threads, the server runs its clients on those.
+ * The same load is also put on a server that uses non-blocking IO, and on one with several
+ * lobbies.
+ */
+class ServerLoadTest {
+
+    private static final int DEFAULT_CLIENTS = 200;
+
+    /**
+     * How much heap an idle client may use at most, measured after garbage collection.
+     * This includes the test's own end of the socket. An idle client takes about 40 KiB, the
+     * rest is room for what the previous test leaves behind, like peers that are still closing.
+     */
+    private static final long MAX_HEAP_PER_CLIENT = 256 * 1024;
+
+    /**
+     * The heap is settled once a collection frees less than this.
+     */
+    private static final long HEAP_SETTLED_BYTES = 256 * 1024;
+    private static final int MAX_COLLECTIONS = 10;
+
+    @Test
+    void manyIdleClients() throws IOException, InterruptedException {
+        if (VirtualThreads.isSupported()) {
+            connectIdleClients(Server.withVirtualThreads());
+        } else {
+            connectIdleClients(new Server());
+        }
+    }
+
+    @Test
+    void manyIdleClientsNonBlocking() throws IOException, InterruptedException {
+        connectIdleClients(Server.withNonBlockingIo(2));
+    }
+
+    @Test
+    void manyIdleClientsShardedLobby() throws IOException, InterruptedException {
+        connectIdleClients(Server.withLobbyShards(4));
+    }
+
+    private void connectIdleClients(Server server) throws IOException, InterruptedException {
+        int amount = Integer.getInteger("ss.loadtest.clients", DEFAULT_CLIENTS);
+
+        Thread serverThread = new Thread(() -> server.start(0));
+        serverThread.start();
+
+        while (server.getLocalPort() <= 0) {
+            Thread.sleep(10);
+        }
+
+        long heapBefore = settledHeapInUse();
+
+        ArrayList<Socket> sockets = new ArrayList<>();
+        try {
+            for (int i = 0; i < amount; i++) {
+                Socket socket = new Socket("localhost", server.getLocalPort());
+                sockets.add(socket);
+
+                Writer out = new OutputStreamWriter(socket.getOutputStream());
+                out.write("connect client" + i + "\n");
+                out.flush();
+            }
+
+            // Everyone should get welcomed, and then idle in the lobby.
+            for (Socket socket : sockets) {
+                BufferedReader in =
+                        new BufferedReader(new InputStreamReader(socket.getInputStream()));
+                assertEquals("welcome chat", in.readLine());
+            }
+
+            for (int i = 0; i < 100 && server.getLobby().getNumberOfWaitingClients() < amount;
+                 i++) {
+                Thread.sleep(10);
+            }
+            assertEquals(amount, server.getLobby().getNumberOfWaitingClients());
+
+            long heapPerClient = (settledHeapInUse() - heapBefore) / amount;
+            assertTrue(heapPerClient < MAX_HEAP_PER_CLIENT,
+                    "Idle clients use " + heapPerClient + " bytes of heap each.");
+        } finally {
+            for (Socket socket : sockets) {
+                socket.close();
+            }
+
+            server.stop();
+            serverThread.join(1000);
+        }
+    }
+
+    /**
+     * Collects garbage until a collection doesn't free much more, so what is left is live.
+     *
+     * @return The heap in use, in bytes.
+     */
+    private static long settledHeapInUse() throws InterruptedException {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long used = memory.getHeapMemoryUsage().getUsed();
+
+        for (int i = 0; i < MAX_COLLECTIONS; i++) {
+            memory.gc();
+            Thread.sleep(50);
+
+            long collected = used;
+            used = memory.getHeapMemoryUsage().getUsed();
+
+            if (collected - used < HEAP_SETTLED_BYTES) {
+                break;
+            }
+        }
+
+        return used;
+    }
+}
@@ -0,0 +1,86 @@
+package ss.test.server;
+
+import org.junit.jupiter.api.Test;
+import ss.spec.server.ClientPeer;
+import ss.spec.server.GameExecutor;
+import ss.spec.server.ServerMetrics;
+import ss.spec.server.ShardedLobby;
+import ss.test.networking.MockConnection;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ServerMetricsTest {
+
+    private final ShardedLobby lobby = new ShardedLobby(1, new GameExecutor(1));
+    private final ServerMetrics metrics = new ServerMetrics(lobby);
+
+    @Test
+    void clientsPerState() {
+        MockConnection connection = new MockConnection();
+        ClientPeer named = new ClientPeer(connection);
+        named.handleReceivedMessage("connect Bob");
+        ClientPeer unnamed = new ClientPeer(new MockConnection());
+
+        metrics.clientConnected(named);
+        metrics.clientConnected(unnamed);
+
+        Map<ClientPeer.State, Integer> perState = metrics.getClientsPerState();
+        assertEquals(1, (int) perState.get(ClientPeer.State.LOBBY_VERIFY_NAME));
+        assertEquals(1, (int) perState.get(ClientPeer.State.PEER_AWAITING_CONNECT_MESSAGE));
+        assertEquals(2, perState.size());
+
+        // Disconnected clients aren't counted anymore.
+        named.disconnect();
+        perState = metrics.getClientsPerState();
+        assertNull(perState.get(ClientPeer.State.LOBBY_VERIFY_NAME));
+        assertEquals(1, perState.size());
+    }
+
+    @Test
+    void disconnectedClientsAreForgotten() {
+        ClientPeer client = new ClientPeer(new MockConnection());
+        metrics.clientConnected(client);
+        assertEquals(1, metrics.getNumberOfClients());
+
+        // Without a report counting them.
+        client.disconnect();
+        assertEquals(0, metrics.getNumberOfClients());
+
+        // Already gone when we start counting.
+        ClientPeer gone = new ClientPeer(new MockConnection());
+        gone.disconnect();
+        metrics.clientConnected(gone);
+        assertEquals(0, metrics.getNumberOfClients());
+    }
+
+    @Test
+    void turnLatencyIsRecorded() {
+        long before = ServerMetrics.TURN_LATENCY.getCount();
+
+        ClientPeer peer = new ClientPeer(new MockConnection());
+        peer.clientDecideMove();
+        peer.handleReceivedMessage("place RGB4 on 12");
+
+        assertEquals(before + 1, ServerMetrics.TURN_LATENCY.getCount());
+    }
+
+    @Test
+    void report() {
+        ClientPeer client = new ClientPeer(new MockConnection());
+        metrics.clientConnected(client);
+        lobby.addNewClient(client);
+        lobby.getShard(0).doSingleLobbyIteration();
+
+        String report = metrics.report();
+
+        assertTrue(report.contains("clients: 1 connected, PEER_AWAITING_CONNECT_MESSAGE=1"),
+                report);
+        assertTrue(report.contains("lobby: 1 waiting, 0 for 2 players"), report);
+        assertTrue(report.contains("games: 0 running"), report);
+        assertTrue(report.contains("traffic: in "), report);
+        assertTrue(report.contains("move validation: "), report);
+        assertTrue(report.contains("turn latency: "), report);
+    }
+}
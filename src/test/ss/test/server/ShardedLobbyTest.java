@@ -0,0 +1,88 @@
+package ss.test.server;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ss.spec.server.ClientPeer;
+import ss.spec.server.GameExecutor;
+import ss.spec.server.ShardedLobby;
+import ss.test.networking.MockConnection;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardedLobbyTest {
+
+    private ShardedLobby lobby;
+
+    @BeforeEach
+    void setUp() {
+        lobby = new ShardedLobby(2, new GameExecutor(1));
+    }
+
+    private void doIterations() {
+        for (int i = 0; i < lobby.getNumberOfShards(); i++) {
+            lobby.getShard(i).doSingleLobbyIteration();
+        }
+    }
+
+    @Test
+    void clientsAreSpreadOverShards() {
+        for (int i = 0; i < 5; i++) {
+            lobby.addNewClient(new ClientPeer(new MockConnection()));
+        }
+        doIterations();
+
+        assertEquals(3, lobby.getShard(0).getNumberOfWaitingClients());
+        assertEquals(2, lobby.getShard(1).getNumberOfWaitingClients());
+        assertEquals(5, lobby.getNumberOfWaitingClients());
+    }
+
+    @Test
+    void namesAreUniqueOverShards() {
+        MockConnection connection1 = new MockConnection();
+        ClientPeer client1 = new ClientPeer(connection1);
+        ClientPeer client2 = new ClientPeer(new MockConnection());
+        lobby.addNewClient(client1);
+        lobby.addNewClient(client2);
+        doIterations();
+
+        client1.handleReceivedMessage("connect Bob");
+        client2.handleReceivedMessage("connect Bob");
+        doIterations();
+
+        // The first shard got to it first.
+        assertEquals(ClientPeer.State.PEER_AWAITING_GAME_REQUEST, client1.getState());
+        assertEquals(ClientPeer.State.PEER_AWAITING_CONNECT_MESSAGE, client2.getState());
+        assertTrue(lobby.getNameRegistry().isRegistered("Bob"));
+
+        // Bob leaving frees the name for the other shard.
+        connection1.killConnection();
+        client1.sendMessage("Irrelevant");
+        doIterations();
+        assertFalse(lobby.getNameRegistry().isRegistered("Bob"));
+
+        client2.handleReceivedMessage("connect Bob");
+        doIterations();
+        assertEquals(ClientPeer.State.PEER_AWAITING_GAME_REQUEST, client2.getState());
+    }
+
+    @Test
+    void shardsMatchTheirOwnClients() {
+        ClientPeer[] clients = new ClientPeer[4];
+        for (int i = 0; i < clients.length; i++) {
+            clients[i] = new ClientPeer(new MockConnection());
+            lobby.addNewClient(clients[i]);
+            clients[i].handleReceivedMessage("connect client" + i);
+        }
+        doIterations();
+
+        for (ClientPeer client : clients) {
+            client.handleReceivedMessage("request 2");
+        }
+        doIterations();
+
+        // Each shard has two clients, so each started a game.
+        assertEquals(1, lobby.getShard(0).getRunningGames().size());
+        assertEquals(1, lobby.getShard(1).getRunningGames().size());
+        assertEquals(0, lobby.getNumberOfWaitingClients());
+    }
+}
@@ -0,0 +1,74 @@
+package ss.test.simulation;
+
+import org.junit.jupiter.api.Test;
+import ss.spec.bot.BotStrategy;
+import ss.spec.bot.GreedyBot;
+import ss.spec.bot.RandomBot;
+import ss.spec.gamepieces.Board;
+import ss.spec.gamepieces.RandomTileBag;
+import ss.spec.simulation.GameResult;
+import ss.spec.simulation.GameSimulator;
+import ss.spec.simulation.SimulatedGame;
+import ss.spec.simulation.SimulationReport;
+import ss.test.gamepieces.MockTileBag;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameSimulatorTest {
+
+    private final List<BotStrategy> bots =
+            Arrays.asList(new GreedyBot(), new RandomBot(1), new RandomBot(2));
+
+    @Test
+    void playsACompleteGame() {
+        SimulatedGame game = new SimulatedGame(bots, new MockTileBag());
+        GameResult result = game.play();
+
+        assertEquals(3, result.getNumberOfPlayers());
+        assertTrue(result.getMoves() > 0);
+
+        // Every move put a tile on the board.
+        int tilesOnBoard = 0;
+        for (int i = 0; i < Board.BOARD_SIZE; i++) {
+            if (game.getBoard().hasTile(i)) {
+                tilesOnBoard++;
+            }
+        }
+        assertEquals(result.getMoves(), tilesOnBoard);
+
+        boolean someoneWon = false;
+        for (int seat = 0; seat < result.getNumberOfPlayers(); seat++) {
+            someoneWon |= result.isWinner(seat);
+            assertTrue(result.getScore(seat) <= result.getWinningScore());
+        }
+        assertTrue(someoneWon);
+    }
+
+    @Test
+    void sameBagSameGame() {
+        GameResult first = new SimulatedGame(
+                Arrays.asList(new GreedyBot(), new GreedyBot()), new MockTileBag()).play();
+        GameResult second = new SimulatedGame(
+                Arrays.asList(new GreedyBot(), new GreedyBot()), new MockTileBag()).play();
+
+        assertEquals(first.getMoves(), second.getMoves());
+        assertEquals(first.getScore(0), second.getScore(0));
+        assertEquals(first.getScore(1), second.getScore(1));
+    }
+
+    @Test
+    void runManyGames() {
+        GameSimulator simulator = new GameSimulator(bots, RandomTileBag::new);
+
+        SimulationReport report = simulator.run(200);
+
+        assertEquals(200, report.getGames());
+        assertTrue(report.getMoves() >= 200);
+        assertTrue(report.getGamesPerSecond() > 0);
+        assertTrue(report.getMovesPerSecond() > report.getGamesPerSecond());
+        assertTrue(report.toString().contains("200 games"));
+    }
+}
@@ -0,0 +1,93 @@
+package ss.test.simulation;
+
+import org.junit.jupiter.api.Test;
+import ss.spec.simulation.ScoreDistribution;
+import ss.spec.simulation.Tournament;
+import ss.spec.simulation.TournamentResult;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TournamentTest {
+
+    private final Tournament tournament =
+            new Tournament(Arrays.asList("greedy", "random", "random"), 42);
+
+    @Test
+    void sameResultOnAnyAmountOfThreads() {
+        ForkJoinPool onePool = new ForkJoinPool(1);
+        ForkJoinPool fourPool = new ForkJoinPool(4);
+
+        TournamentResult one = tournament.run(3000, onePool);
+        TournamentResult four = tournament.run(3000, fourPool);
+
+        onePool.shutdown();
+        fourPool.shutdown();
+
+        assertEquals(3000, one.getGames());
+        assertEquals(one.getMoves(), four.getMoves());
+        assertEquals(one.getDraws(), four.getDraws());
+
+        for (int seat = 0; seat < 3; seat++) {
+            assertEquals(one.getWins(seat), four.getWins(seat));
+            assertEquals(one.getScores(seat).getMean(), four.getScores(seat).getMean());
+            assertEquals(one.getScores(seat).getPercentile(50),
+                    four.getScores(seat).getPercentile(50));
+        }
+    }
+
+    @Test
+    void everyGameHasAWinner() {
+        TournamentResult result = tournament.run(500);
+
+        long wins = 0;
+        for (int seat = 0; seat < result.getNumberOfSeats(); seat++) {
+            wins += result.getWins(seat);
+            assertEquals(500, result.getScores(seat).getCount());
+        }
+
+        // Draws count as a win for everyone with the highest score.
+        assertTrue(wins >= result.getGames());
+        assertTrue(result.toString().contains("seat 0 greedy"));
+    }
+
+    @Test
+    void gamesCanBeReplayed() {
+        assertEquals(tournament.playGame(17).getScore(0), tournament.playGame(17).getScore(0));
+        assertEquals(tournament.playGame(17).getMoves(), tournament.playGame(17).getMoves());
+    }
+
+    @Test
+    void rejectsBadStrategies() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new Tournament(Collections.singletonList("greedy"), 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> new Tournament(Arrays.asList("greedy", "clever"), 0));
+    }
+
+    @Test
+    void scoreDistribution() {
+        ScoreDistribution scores = new ScoreDistribution();
+        assertEquals(0, scores.getPercentile(50));
+
+        for (int score = 1; score <= 100; score++) {
+            scores.add(score);
+        }
+
+        assertEquals(1, scores.getMin());
+        assertEquals(100, scores.getMax());
+        assertEquals(50.5, scores.getMean());
+        assertEquals(50, scores.getPercentile(50));
+        assertEquals(90, scores.getPercentile(90));
+
+        ScoreDistribution other = new ScoreDistribution();
+        other.add(-5);
+        scores.merge(other);
+
+        assertEquals(-5, scores.getMin());
+        assertEquals(101, scores.getCount());
+    }
+}